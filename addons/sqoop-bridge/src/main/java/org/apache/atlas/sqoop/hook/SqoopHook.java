@@ -187,7 +187,7 @@ public class SqoopHook extends SqoopJobDataPublisher {
             int maxRetries = atlasProperties.getInt(HOOK_NUM_RETRIES, 3);
             HookNotification.HookNotificationMessage message =
                     new HookNotification.EntityCreateRequest(AtlasHook.getUser(), dbStoreRef, dbRef, hiveTableRef, procRef);
-            AtlasHook.notifyEntities(Arrays.asList(message), maxRetries);
+            AtlasHook.notifyEntities(SqoopHook.class.getSimpleName(), Arrays.asList(message), maxRetries);
         }
         catch(Exception e) {
             throw new AtlasHookException("SqoopHook.publish() failed.", e);
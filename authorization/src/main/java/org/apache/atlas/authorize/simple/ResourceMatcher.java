@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOCase;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches resources against the policy values of an accessor for a resource type. The values are compiled once, when
+ * the policies are loaded:
+ *  - values made of asterisks only match any resource
+ *  - other values containing '*' are wildcard patterns, matched with FilenameUtils.wildcardMatch(); they are kept
+ *    in a trie by their literal prefix, so that a resource is only matched against the patterns whose prefix it
+ *    starts with
+ *  - other values are matched by equality, with a hash lookup
+ *
+ * With ignoreCase, characters are compared as String.equalsIgnoreCase() does.
+ */
+final class ResourceMatcher {
+    private static final String WILDCARD_ASTERISK = "*";
+    private static final String WILDCARDS         = "*?";
+
+    private final List<String> policyValues;
+    private final boolean      ignoreCase;
+    private final boolean      matchAny;
+    private final Set<String>  values   = new HashSet<>();
+    private final TrieNode     patterns = new TrieNode();
+
+    ResourceMatcher(List<String> policyValues, boolean ignoreCase) {
+        boolean matchAny = false;
+
+        this.policyValues = policyValues;
+        this.ignoreCase   = ignoreCase;
+
+        if (policyValues != null) {
+            for (String policyValue : policyValues) {
+                if (StringUtils.isEmpty(policyValue)) {
+                    continue;
+                }
+
+                if (StringUtils.containsOnly(policyValue, WILDCARD_ASTERISK)) {
+                    matchAny = true;
+                } else if (policyValue.contains(WILDCARD_ASTERISK)) {
+                    addPattern(policyValue);
+                } else {
+                    values.add(fold(policyValue));
+                }
+            }
+        }
+
+        this.matchAny = matchAny;
+    }
+
+    boolean isMatch(String resource) {
+        if (StringUtils.isEmpty(resource) || WILDCARD_ASTERISK.equals(resource)) {
+            // request for all values is allowed only by a policy for all values
+            return matchAny;
+        }
+
+        if (matchAny) {
+            return true;
+        }
+
+        String value = fold(resource);
+
+        if (values.contains(value)) {
+            return true;
+        }
+
+        TrieNode node = patterns;
+
+        for (int i = 0; node != null; i++) {
+            for (WildcardPattern pattern : node.patterns) {
+                if (pattern.isMatch(resource)) {
+                    return true;
+                }
+            }
+
+            node = i < value.length() ? node.children.get(value.charAt(i)) : null;
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(policyValues);
+    }
+
+    private void addPattern(String pattern) {
+        int      prefixLength = StringUtils.indexOfAny(pattern, WILDCARDS);
+        String   prefix       = fold(pattern.substring(0, prefixLength));
+        TrieNode node         = patterns;
+
+        for (int i = 0; i < prefixLength; i++) {
+            char     c     = prefix.charAt(i);
+            TrieNode child = node.children.get(c);
+
+            if (child == null) {
+                child = new TrieNode();
+
+                node.children.put(c, child);
+            }
+
+            node = child;
+        }
+
+        node.patterns.add(new WildcardPattern(pattern, prefixLength, ignoreCase));
+    }
+
+    private String fold(String str) {
+        if (!ignoreCase) {
+            return str;
+        }
+
+        char[] chars = str.toCharArray();
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+
+        return new String(chars);
+    }
+
+    private static class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        final List<WildcardPattern>    patterns = new ArrayList<>();
+    }
+
+    /**
+     * Wildcard pattern; it is matched as before compilation, with FilenameUtils.wildcardMatch(), once the trie has
+     * matched its literal prefix.
+     */
+    private static class WildcardPattern {
+        private final String  pattern;
+        private final IOCase  ioCase;
+        private final boolean matchAnySuffix;
+
+        WildcardPattern(String pattern, int prefixLength, boolean ignoreCase) {
+            this.pattern        = pattern;
+            this.ioCase         = ignoreCase ? IOCase.INSENSITIVE : IOCase.SENSITIVE;
+            this.matchAnySuffix = StringUtils.containsOnly(pattern.substring(prefixLength), WILDCARD_ASTERISK);
+        }
+
+        boolean isMatch(String resource) {
+            return matchAnySuffix || FilenameUtils.wildcardMatch(resource, pattern, ioCase);
+        }
+    }
+}
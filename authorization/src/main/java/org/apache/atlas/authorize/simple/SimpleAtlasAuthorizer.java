@@ -20,10 +20,12 @@ package org.apache.atlas.authorize.simple;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
@@ -32,16 +34,19 @@ import org.apache.atlas.authorize.AtlasActionTypes;
 import org.apache.atlas.authorize.AtlasAuthorizationException;
 import org.apache.atlas.authorize.AtlasAuthorizer;
 import org.apache.atlas.authorize.AtlasResourceTypes;
+import org.apache.atlas.utils.ConcurrentLruCache;
 import org.apache.atlas.utils.PropertiesUtil;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOCase;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 
+/**
+ * Authorizer which evaluates the policies of the policy file. The policy values of each accessor, action and resource
+ * type are compiled into a ResourceMatcher when the policies are loaded. Decisions are cached in a bounded LRU cache,
+ * keyed by the request; the cache is discarded whenever the policies are loaded again.
+ */
 public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
 
     public enum AtlasAccessorTypes {
@@ -50,20 +55,27 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
 
     private static final Logger LOG = LoggerFactory.getLogger(SimpleAtlasAuthorizer.class);
     private boolean isDebugEnabled = LOG.isDebugEnabled();
-    private final static String WILDCARD_ASTERISK = "*";
-    private final static String WILDCARDS = "*?";
     private boolean optIgnoreCase = false;
 
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userReadMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userWriteMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userUpdateMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userDeleteMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupReadMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupWriteMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupUpdateMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupDeleteMap = null;
+    public static final String PROPERTY_DECISION_CACHE_SIZE = "atlas.authorizer.simple.decision.cache.size";
+    public static final int    DEFAULT_DECISION_CACHE_SIZE  = 10000;
+
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> userReadMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> userWriteMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> userUpdateMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> userDeleteMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> groupReadMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> groupWriteMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> groupUpdateMap = null;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> groupDeleteMap = null;
+
+    // replaced, after the maps are updated, whenever policies are loaded; decisions computed with the earlier policies
+    // can only be added to the earlier cache
+    private final int decisionCacheSize = getConfiguredDecisionCacheSize();
+    private volatile ConcurrentLruCache<AccessDecisionKey, Boolean> decisionCache = null;
 
     public SimpleAtlasAuthorizer() {
+        resetDecisionCache();
     }
     
 
@@ -91,15 +103,15 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
             }
             List<PolicyDef> policyDef = parser.parsePolicies(policies);
 
-            userReadMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.READ, AtlasAccessorTypes.USER);
-            userWriteMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.CREATE, AtlasAccessorTypes.USER);
-            userUpdateMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.UPDATE, AtlasAccessorTypes.USER);
-            userDeleteMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.DELETE, AtlasAccessorTypes.USER);
+            userReadMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.READ, AtlasAccessorTypes.USER));
+            userWriteMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.CREATE, AtlasAccessorTypes.USER));
+            userUpdateMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.UPDATE, AtlasAccessorTypes.USER));
+            userDeleteMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.DELETE, AtlasAccessorTypes.USER));
 
-            groupReadMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.READ, AtlasAccessorTypes.GROUP);
-            groupWriteMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.CREATE, AtlasAccessorTypes.GROUP);
-            groupUpdateMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.UPDATE, AtlasAccessorTypes.GROUP);
-            groupDeleteMap = PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.DELETE, AtlasAccessorTypes.GROUP);
+            groupReadMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.READ, AtlasAccessorTypes.GROUP));
+            groupWriteMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.CREATE, AtlasAccessorTypes.GROUP));
+            groupUpdateMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.UPDATE, AtlasAccessorTypes.GROUP));
+            groupDeleteMap = compilePermissionMap(PolicyUtil.createPermissionMap(policyDef, AtlasActionTypes.DELETE, AtlasAccessorTypes.GROUP));
 
             if (isDebugEnabled) {
                 LOG.debug("\n\nUserReadMap :: {}\nGroupReadMap :: {}", userReadMap, groupReadMap);
@@ -108,6 +120,8 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
                 LOG.debug("\n\nUserDeleteMap :: {}\nGroupDeleteMap :: {}", userDeleteMap, groupDeleteMap);
             }
 
+            resetDecisionCache();
+
         } catch (IOException | AtlasException e) {
             if (LOG.isErrorEnabled()) {
                 LOG.error("SimpleAtlasAuthorizer could not be initialized properly due to : ", e);
@@ -140,6 +154,22 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
             }
             return isAccessAllowed;
         } else {
+            ConcurrentLruCache<AccessDecisionKey, Boolean> cache = decisionCache;
+            AccessDecisionKey cacheKey = null;
+
+            if (cache != null) {
+                cacheKey = new AccessDecisionKey(user, groups, action, resourceTypes, resource);
+
+                Boolean cachedDecision = cache.get(cacheKey);
+
+                if (cachedDecision != null) {
+                    if (isDebugEnabled) {
+                        LOG.debug("<== SimpleAtlasAuthorizer isAccessAllowed = {} (cached)", cachedDecision);
+                    }
+                    return cachedDecision;
+                }
+            }
+
             if (isDebugEnabled) {
                 LOG.debug("checkAccess for Operation :: {} on Resource {}:{}", action, resourceTypes, resource);
             }
@@ -170,6 +200,10 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
                     }
                     throw new AtlasAuthorizationException("Invalid Action :: " + action);
             }
+
+            if (cache != null) {
+                cache.put(cacheKey, isAccessAllowed);
+            }
         }
 
         if (isDebugEnabled) {
@@ -180,16 +214,16 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
     }
 
     private boolean checkAccess(String accessor, Set<AtlasResourceTypes> resourceTypes, String resource,
-        Map<String, Map<AtlasResourceTypes, List<String>>> map) {
+        Map<String, Map<AtlasResourceTypes, ResourceMatcher>> map) {
         if (isDebugEnabled) {
             LOG.debug("==> SimpleAtlasAuthorizer checkAccess");
             LOG.debug("Now checking access for accessor : {}\nResource Types : {}\nResource : {}\nMap : {}", accessor, resourceTypes, resource, map);
         }
         boolean result = true;
-        Map<AtlasResourceTypes, List<String>> rescMap = map.get(accessor);
+        Map<AtlasResourceTypes, ResourceMatcher> rescMap = map.get(accessor);
         if (rescMap != null) {
             for (AtlasResourceTypes resourceType : resourceTypes) {
-                List<String> accessList = rescMap.get(resourceType);
+                ResourceMatcher accessList = rescMap.get(resourceType);
                 if (isDebugEnabled) {
                     LOG.debug("\nChecking for resource : {} in list : {}\n", resource, accessList);
                 }
@@ -213,7 +247,7 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
     }
 
     private boolean checkAccessForGroups(Set<String> groups, Set<AtlasResourceTypes> resourceType, String resource,
-        Map<String, Map<AtlasResourceTypes, List<String>>> map) {
+        Map<String, Map<AtlasResourceTypes, ResourceMatcher>> map) {
         boolean isAccessAllowed = false;
         if (isDebugEnabled) {
             LOG.debug("==> SimpleAtlasAuthorizer checkAccessForGroups");
@@ -234,91 +268,59 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
         return isAccessAllowed;
     }
 
-    private boolean resourceMatchHelper(List<String> policyResource) {
-        boolean isMatchAny = false;
+    private boolean isMatch(String resource, ResourceMatcher policyValues) {
         if (isDebugEnabled) {
-            LOG.debug("==> SimpleAtlasAuthorizer resourceMatchHelper");
+            LOG.debug("==> SimpleAtlasAuthorizer isMatch");
         }
+        boolean isMatch = policyValues.isMatch(resource);
 
-        boolean optWildCard = true;
-
-        List<String> policyValues = new ArrayList<>();
-
-        if (policyResource != null) {
-            boolean isWildCardPresent = !optWildCard;
-            for (String policyValue : policyResource) {
-                if (StringUtils.isEmpty(policyValue)) {
-                    continue;
-                }
-                if (StringUtils.containsOnly(policyValue, WILDCARD_ASTERISK)) {
-                    isMatchAny = true;
-                } else if (!isWildCardPresent && StringUtils.containsAny(policyValue, WILDCARDS)) {
-                    isWildCardPresent = true;
-                }
-                policyValues.add(policyValue);
+        if (!isMatch) {
+            if (isDebugEnabled) {
+                LOG.debug("AtlasDefaultResourceMatcher.isMatch returns FALSE, (resource={}, policyValues={})", resource, policyValues);
             }
-            optWildCard = optWildCard && isWildCardPresent;
-        } else {
-            isMatchAny = false;
+
         }
 
         if (isDebugEnabled) {
-            LOG.debug("<== SimpleAtlasAuthorizer resourceMatchHelper");
+            LOG.debug("<== SimpleAtlasAuthorizer isMatch({}): {}", resource, isMatch);
         }
-        return isMatchAny;
+
+        return isMatch;
     }
 
-    private boolean isMatch(String resource, List<String> policyValues) {
-        if (isDebugEnabled) {
-            LOG.debug("==> SimpleAtlasAuthorizer isMatch");
-        }
-        boolean isMatchAny = resourceMatchHelper(policyValues);
-        boolean isMatch = false;
-        boolean allValuesRequested = isAllValuesRequested(resource);
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> compilePermissionMap(
+        Map<String, Map<AtlasResourceTypes, List<String>>> permissionMap) {
+        Map<String, Map<AtlasResourceTypes, ResourceMatcher>> ret = new HashMap<>();
 
-        if (allValuesRequested || isMatchAny) {
-            isMatch = isMatchAny;
-        } else {
-            for (String policyValue : policyValues) {
-                if (policyValue.contains("*")) {
-                    isMatch =
-                        optIgnoreCase ? FilenameUtils.wildcardMatch(resource, policyValue, IOCase.INSENSITIVE)
-                            : FilenameUtils.wildcardMatch(resource, policyValue, IOCase.SENSITIVE);
-                } else {
-                    isMatch =
-                        optIgnoreCase ? StringUtils.equalsIgnoreCase(resource, policyValue) : StringUtils.equals(
-                            resource, policyValue);
-                }
-                if (isMatch) {
-                    break;
-                }
-            }
-        }
+        if (permissionMap != null) {
+            for (Map.Entry<String, Map<AtlasResourceTypes, List<String>>> accessorEntry : permissionMap.entrySet()) {
+                Map<AtlasResourceTypes, ResourceMatcher> matchers = new HashMap<>();
 
-        if (!isMatch) {
-            if (isDebugEnabled) {
-                StringBuilder sb = new StringBuilder();
-                sb.append("[");
-                for (String policyValue : policyValues) {
-                    sb.append(policyValue);
-                    sb.append(" ");
+                for (Map.Entry<AtlasResourceTypes, List<String>> resourceEntry : accessorEntry.getValue().entrySet()) {
+                    matchers.put(resourceEntry.getKey(), new ResourceMatcher(resourceEntry.getValue(), optIgnoreCase));
                 }
-                sb.append("]");
 
-                LOG.debug("AtlasDefaultResourceMatcher.isMatch returns FALSE, (resource={}, policyValues={})", resource, sb.toString());
+                ret.put(accessorEntry.getKey(), matchers);
             }
-
         }
 
-        if (isDebugEnabled) {
-            LOG.debug("<== SimpleAtlasAuthorizer isMatch({}): {}", resource, isMatch);
-        }
+        return ret;
+    }
 
-        return isMatch;
+    private void resetDecisionCache() {
+        decisionCache = decisionCacheSize > 0 ? new ConcurrentLruCache<AccessDecisionKey, Boolean>(decisionCacheSize) : null;
     }
 
-    private boolean isAllValuesRequested(String resource) {
-        return StringUtils.isEmpty(resource) || WILDCARD_ASTERISK.equals(resource);
+    private static int getConfiguredDecisionCacheSize() {
+        int ret = DEFAULT_DECISION_CACHE_SIZE;
+
+        try {
+            ret = ApplicationProperties.get().getInt(PROPERTY_DECISION_CACHE_SIZE, DEFAULT_DECISION_CACHE_SIZE);
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read {}; using default {}", PROPERTY_DECISION_CACHE_SIZE, DEFAULT_DECISION_CACHE_SIZE, excp);
+        }
+
+        return ret;
     }
 
     @Override
@@ -334,6 +336,7 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
         groupWriteMap = null;
         groupUpdateMap = null;
         groupDeleteMap = null;
+        resetDecisionCache();
         if (isDebugEnabled) {
             LOG.debug("<== +SimpleAtlasAuthorizer cleanUp");
         }
@@ -348,24 +351,24 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
 
         switch (actionTypes) {
             case READ:
-                this.userReadMap = userMap;
-                this.groupReadMap = groupMap;
+                this.userReadMap = compilePermissionMap(userMap);
+                this.groupReadMap = compilePermissionMap(groupMap);
                 break;
 
             case CREATE:
 
-                this.userWriteMap = userMap;
-                this.groupWriteMap = groupMap;
+                this.userWriteMap = compilePermissionMap(userMap);
+                this.groupWriteMap = compilePermissionMap(groupMap);
                 break;
             case UPDATE:
 
-                this.userUpdateMap = userMap;
-                this.groupUpdateMap = groupMap;
+                this.userUpdateMap = compilePermissionMap(userMap);
+                this.groupUpdateMap = compilePermissionMap(groupMap);
                 break;
             case DELETE:
 
-                this.userDeleteMap = userMap;
-                this.groupDeleteMap = groupMap;
+                this.userDeleteMap = compilePermissionMap(userMap);
+                this.groupDeleteMap = compilePermissionMap(groupMap);
                 break;
 
             default:
@@ -374,8 +377,57 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
                 }
                 break;
         }
+
+        resetDecisionCache();
+    }
+
+    /**
+     * Key of a cached decision: the request, with copies of its sets, so that later changes to the sets of the
+     * request don't affect the cached entry.
+     */
+    private static final class AccessDecisionKey {
+        private final String                  user;
+        private final Set<String>             groups;
+        private final AtlasActionTypes        action;
+        private final Set<AtlasResourceTypes> resourceTypes;
+        private final String                  resource;
+        private final int                     hashCode;
+
+        AccessDecisionKey(String user, Set<String> groups, AtlasActionTypes action,
+                          Set<AtlasResourceTypes> resourceTypes, String resource) {
+            this.user          = user;
+            this.groups        = groups != null ? new HashSet<>(groups) : null;
+            this.action        = action;
+            this.resourceTypes = resourceTypes != null ? new HashSet<>(resourceTypes) : null;
+            this.resource      = resource;
+            this.hashCode      = Objects.hash(user, this.groups, action, this.resourceTypes, resource);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            AccessDecisionKey that = (AccessDecisionKey) o;
+
+            return hashCode == that.hashCode &&
+                   action == that.action &&
+                   Objects.equals(user, that.user) &&
+                   Objects.equals(resource, that.resource) &&
+                   Objects.equals(resourceTypes, that.resourceTypes) &&
+                   Objects.equals(groups, that.groups);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
-    
 }
 
 
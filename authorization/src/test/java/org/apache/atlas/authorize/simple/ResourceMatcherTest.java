@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOCase;
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.Test;
+
+public class ResourceMatcherTest {
+
+    @Test
+    public void testMatchAny() {
+        ResourceMatcher matcher = new ResourceMatcher(Arrays.asList("PII", "**"), false);
+
+        assertTrue(matcher.isMatch("anything"));
+        assertTrue(matcher.isMatch("*"));
+        assertTrue(matcher.isMatch(""));
+    }
+
+    @Test
+    public void testAllValuesRequested() {
+        ResourceMatcher matcher = new ResourceMatcher(Arrays.asList("PII", "hive_*"), false);
+
+        // only a policy for all values allows a request for all values
+        assertFalse(matcher.isMatch("*"));
+        assertFalse(matcher.isMatch(""));
+    }
+
+    @Test
+    public void testValuesAndPatterns() {
+        ResourceMatcher matcher = new ResourceMatcher(Arrays.asList("PII", "hive_*", "hive_db?", "*abc", "", null), false);
+
+        assertTrue(matcher.isMatch("PII"));
+        assertTrue(matcher.isMatch("hive_"));
+        assertTrue(matcher.isMatch("hive_table"));
+        assertTrue(matcher.isMatch("xsdfhjabc"));
+        assertFalse(matcher.isMatch("pii"));
+        assertFalse(matcher.isMatch("hive"));
+        assertFalse(matcher.isMatch("hbase_table"));
+        assertFalse(matcher.isMatch("abcx"));
+
+        // '?' is a wildcard only in values containing '*'
+        assertFalse(new ResourceMatcher(Arrays.asList("hive_db?"), false).isMatch("hive_db1"));
+        assertTrue(new ResourceMatcher(Arrays.asList("hive_db?*"), false).isMatch("hive_db1"));
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        ResourceMatcher matcher = new ResourceMatcher(Arrays.asList("PII", "Hive_*"), true);
+
+        assertTrue(matcher.isMatch("pii"));
+        assertTrue(matcher.isMatch("HIVE_TABLE"));
+        assertFalse(matcher.isMatch("hbase_table"));
+    }
+
+    @Test
+    public void testSameDecisionsAsUncompiledPolicies() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < 50000; i++) {
+            boolean      ignoreCase   = random.nextBoolean();
+            List<String> policyValues = new ArrayList<>();
+            int          valueCount   = random.nextInt(4);
+
+            for (int j = 0; j < valueCount; j++) {
+                policyValues.add(randomString(random, 6));
+            }
+
+            String resource = randomString(random, 7);
+
+            assertTrue(policyValues + " " + resource,
+                       new ResourceMatcher(policyValues, ignoreCase).isMatch(resource) == isMatch(resource, policyValues, ignoreCase));
+        }
+    }
+
+    // policy evaluation before the policy values were compiled
+    private static boolean isMatch(String resource, List<String> policyValues, boolean ignoreCase) {
+        boolean isMatchAny = false;
+
+        for (String policyValue : policyValues) {
+            if (!StringUtils.isEmpty(policyValue) && StringUtils.containsOnly(policyValue, "*")) {
+                isMatchAny = true;
+            }
+        }
+
+        if (StringUtils.isEmpty(resource) || "*".equals(resource) || isMatchAny) {
+            return isMatchAny;
+        }
+
+        for (String policyValue : policyValues) {
+            boolean isMatch;
+
+            if (policyValue.contains("*")) {
+                isMatch = FilenameUtils.wildcardMatch(resource, policyValue, ignoreCase ? IOCase.INSENSITIVE : IOCase.SENSITIVE);
+            } else {
+                isMatch = ignoreCase ? StringUtils.equalsIgnoreCase(resource, policyValue) : StringUtils.equals(resource, policyValue);
+            }
+
+            if (isMatch) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        String        chars  = "abAB_*?";
+        int           length = random.nextInt(maxLength + 1);
+        StringBuilder sb     = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+
+        return sb.toString();
+    }
+}
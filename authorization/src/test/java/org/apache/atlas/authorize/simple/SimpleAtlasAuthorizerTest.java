@@ -205,4 +205,39 @@ public class SimpleAtlasAuthorizerTest {
 
     }
 
+    @Test
+    public void testCachedDecisionDiscardedOnPolicyChange() throws AtlasAuthorizationException {
+        SimpleAtlasAuthorizer authorizer = (SimpleAtlasAuthorizer) AtlasAuthorizerFactory.getAtlasAuthorizer();
+        AtlasActionTypes action = AtlasActionTypes.READ;
+
+        Set<AtlasResourceTypes> resourceType = new HashSet<>();
+        resourceType.add(AtlasResourceTypes.TYPE);
+        Set<String> userGroups = new HashSet<>();
+        userGroups.add("grp3");
+        AtlasAccessRequest request = new AtlasAccessRequest(resourceType,
+                "hive_table", action, "usr1", userGroups, "127.0.0.1");
+
+        List<String> policies = new ArrayList<>();
+        policies.add("hivePolicy;;usr1:r;;grp1:r;;type:hive_*");
+        List<PolicyDef> policyDefs = new PolicyParser().parsePolicies(policies);
+        authorizer.setResourcesForTesting(
+                PolicyUtil.createPermissionMap(policyDefs, action, SimpleAtlasAuthorizer.AtlasAccessorTypes.USER),
+                PolicyUtil.createPermissionMap(policyDefs, action, SimpleAtlasAuthorizer.AtlasAccessorTypes.GROUP),
+                action);
+
+        AssertJUnit.assertEquals(true, authorizer.isAccessAllowed(request));
+        // served from the decision cache
+        AssertJUnit.assertEquals(true, authorizer.isAccessAllowed(request));
+
+        policies.clear();
+        policies.add("hivePolicy;;usr1:r;;grp1:r;;type:PII");
+        policyDefs = new PolicyParser().parsePolicies(policies);
+        authorizer.setResourcesForTesting(
+                PolicyUtil.createPermissionMap(policyDefs, action, SimpleAtlasAuthorizer.AtlasAccessorTypes.USER),
+                PolicyUtil.createPermissionMap(policyDefs, action, SimpleAtlasAuthorizer.AtlasAccessorTypes.GROUP),
+                action);
+
+        AssertJUnit.assertEquals(false, authorizer.isAccessAllowed(request));
+    }
+
 }
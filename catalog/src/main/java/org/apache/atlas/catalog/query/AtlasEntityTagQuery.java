@@ -29,9 +29,13 @@ import org.apache.atlas.catalog.TermVertexWrapper;
 import org.apache.atlas.catalog.VertexWrapper;
 import org.apache.atlas.catalog.definition.EntityTagResourceDefinition;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.catalog.query.QueryPlan.Condition;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -67,6 +71,17 @@ public class AtlasEntityTagQuery extends BaseQuery {
         return p.inV();
     }
 
+    @Override
+    protected QueryPlan createQueryPlan() {
+        // the query pipe traverses from entity vertices to tags; the entity vertex of a specific guid is selected by index
+        List<Condition> entityConditions = guid.equals("*") ?
+                Collections.<Condition>emptyList() :
+                Collections.singletonList(new Condition(Constants.GUID_PROPERTY_KEY, ComparisionOperator.EQUAL, guid));
+
+        return new QueryPlanner(resourceDefinition, QueryPlanner.INDEXED_INTERNAL_FIELDS).
+                planTraversalQuery(queryExpression, entityConditions);
+    }
+
     //todo: duplication of effort with resource definition
     @Override
     protected void addHref(VertexWrapper vWrapper, Map<String, Object> filteredPropertyMap) {
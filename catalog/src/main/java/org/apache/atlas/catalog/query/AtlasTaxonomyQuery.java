@@ -22,6 +22,13 @@ import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
 import org.apache.atlas.catalog.Request;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.catalog.query.QueryPlan.Condition;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Taxonomy resource query.
@@ -35,4 +42,15 @@ public class AtlasTaxonomyQuery extends BaseQuery {
     protected Pipe getQueryPipe() {
         return new GremlinPipeline().has("__typeName", "Taxonomy");
     }
+
+    @Override
+    protected QueryPlan createQueryPlan() {
+        Map<String, String> indexedFields = new HashMap<>(QueryPlanner.INDEXED_INTERNAL_FIELDS);
+        indexedFields.put("name", "Taxonomy.name");
+
+        // the type condition selects exactly the vertices of the query pipe
+        return new QueryPlanner(resourceDefinition, indexedFields).planFilterQuery(queryExpression,
+                Collections.singletonList(new Condition(Constants.ENTITY_TYPE_PROPERTY_KEY, ComparisionOperator.EQUAL, "Taxonomy")),
+                true);
+    }
 }
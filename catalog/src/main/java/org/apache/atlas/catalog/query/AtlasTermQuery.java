@@ -24,7 +24,11 @@ import com.tinkerpop.pipes.Pipe;
 import org.apache.atlas.catalog.Request;
 import org.apache.atlas.catalog.TermPath;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.catalog.query.QueryPlan.Condition;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+
+import java.util.Collections;
 
 /**
  * Term resource query.
@@ -48,4 +52,15 @@ public class AtlasTermQuery extends BaseQuery {
         }
         return p;
     }
+
+    @Override
+    protected QueryPlan createQueryPlan() {
+        // the query pipe traverses from taxonomy vertices to terms; only the taxonomy vertices are selected by index
+        Condition taxonomyCondition = termPath.getTaxonomyName().equals("*") ?
+                new Condition(Constants.ENTITY_TYPE_PROPERTY_KEY, ComparisionOperator.EQUAL, "Taxonomy") :
+                new Condition("Taxonomy.name", ComparisionOperator.EQUAL, termPath.getTaxonomyName());
+
+        return new QueryPlanner(resourceDefinition, QueryPlanner.INDEXED_INTERNAL_FIELDS).
+                planTraversalQuery(queryExpression, Collections.singletonList(taxonomyCondition));
+    }
 }
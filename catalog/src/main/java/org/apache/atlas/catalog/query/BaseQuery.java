@@ -20,6 +20,7 @@ package org.apache.atlas.catalog.query;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,7 @@ import org.apache.atlas.catalog.definition.ResourceDefinition;
 import org.apache.atlas.catalog.exception.ResourceNotFoundException;
 import org.apache.atlas.catalog.projection.Projection;
 import org.apache.atlas.catalog.projection.ProjectionResult;
+import org.apache.atlas.catalog.query.QueryPlan.Condition;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graphdb.AtlasElement;
@@ -51,6 +53,7 @@ public abstract class BaseQuery implements AtlasQuery {
     protected final QueryExpression queryExpression;
     protected final ResourceDefinition resourceDefinition;
     protected final Request request;
+    private QueryPlan queryPlan;
 
     public BaseQuery(QueryExpression queryExpression, ResourceDefinition resourceDefinition, Request request) {
         this.queryExpression = queryExpression;
@@ -97,7 +100,9 @@ public abstract class BaseQuery implements AtlasQuery {
 
     private List<Vertex> executeQuery() {
         GremlinPipeline pipeline = buildPipeline().as("root");
-        Pipe expressionPipe = queryExpression.asPipe();
+        QueryExpression residualExpression = getQueryPlan().getResidualExpression();
+        // no residual expression if the root vertices are selected by index conditions which answer the expression
+        Pipe expressionPipe = residualExpression == null ? null : residualExpression.asPipe();
 
         // AlwaysQuery returns null for pipe
         return expressionPipe == null ? pipeline.toList() :
@@ -105,24 +110,50 @@ public abstract class BaseQuery implements AtlasQuery {
     }
 
     protected GremlinPipeline buildPipeline() {
+        QueryPlan plan = getQueryPlan();
         GremlinPipeline pipeline = getRootVertexPipeline();
-        Pipe queryPipe = getQueryPipe();
+        Pipe queryPipe = plan.isApplyQueryPipe() ? getQueryPipe() : null;
         if (queryPipe != null) {
             pipeline.add(queryPipe);
         }
-        pipeline.add(getNotDeletedPipe());
+        if (plan.isApplyNotDeletedPipe()) {
+            pipeline.add(getNotDeletedPipe());
+        }
         return pipeline;
     }
 
     protected abstract Pipe getQueryPipe();
 
-    protected GremlinPipeline getRootVertexPipeline() {
-        return new GremlinPipeline(unWrapVertices());
+    protected synchronized QueryPlan getQueryPlan() {
+        if (queryPlan == null) {
+            queryPlan = createQueryPlan();
+        }
+        return queryPlan;
     }
 
-    protected Iterable<Object> unWrapVertices() {
-        final Iterable<AtlasVertex> vertices = getGraph().getVertices();
+    /**
+     * Create the execution plan of this query.  By default the query pipe is treated as a filter of the root
+     * vertices which no index condition describes, so that only the query expression selects the root vertices.
+     * Queries whose query pipe selects vertices by indexed properties, or traverses from the root vertices,
+     * should override this method.
+     *
+     * @return the query plan
+     */
+    protected QueryPlan createQueryPlan() {
+        return new QueryPlanner(resourceDefinition, QueryPlanner.INDEXED_INTERNAL_FIELDS).
+                planFilterQuery(queryExpression, Collections.<Condition>emptyList(), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected GremlinPipeline getRootVertexPipeline() {
+        QueryPlan plan = getQueryPlan();
+        Iterable<AtlasVertex> vertices = plan.isIndexed() ?
+                plan.createRootQuery(getGraph()).vertices() :
+                getGraph().getVertices();
+        return new GremlinPipeline(unWrapVertices(vertices));
+    }
 
+    protected Iterable<Object> unWrapVertices(final Iterable<AtlasVertex> vertices) {
         Iterable<Object> vertexIterable = new Iterable<Object>() {
             Iterator<Object> iterator = new Iterator<Object>() {
                 Iterator<AtlasVertex> wrapperIterator = vertices.iterator();
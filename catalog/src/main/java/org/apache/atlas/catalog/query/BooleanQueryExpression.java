@@ -62,6 +62,24 @@ public class BooleanQueryExpression extends BaseQueryExpression {
         }
     }
 
+    /**
+     * Get the expressions which must all be satisfied for this expression to be satisfied.
+     * Empty if this expression is negated or has optional clauses.
+     *
+     * @return the required expressions
+     */
+    public Collection<QueryExpression> getRequiredExpressions() {
+        Collection<QueryExpression> requiredExpressions = new ArrayList<>();
+        Map<BooleanClause.Occur, Collection<BooleanClause>> groupedClauses = groupClauses();
+        Collection<BooleanClause> andClauses = groupedClauses.get(BooleanClause.Occur.MUST);
+        if (! negate && andClauses != null && ! groupedClauses.containsKey(BooleanClause.Occur.SHOULD)) {
+            for (BooleanClause andClause : andClauses) {
+                requiredExpressions.add(queryFactory.create(andClause.getQuery(), resourceDefinition));
+            }
+        }
+        return requiredExpressions;
+    }
+
     private Map<BooleanClause.Occur, Collection<BooleanClause>> groupClauses() {
         Map<BooleanClause.Occur, Collection<BooleanClause>> groupedClauses = new HashMap<>();
         for (BooleanClause clause : clauses) {
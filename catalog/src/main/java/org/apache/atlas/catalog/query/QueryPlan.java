@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.catalog.query;
+
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.QueryOperator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Execution plan of a catalog query: the index conditions which select the root vertices, and what remains to be
+ * evaluated in memory by pipes. A plan without root conditions starts from all vertices of the graph.
+ */
+public class QueryPlan {
+    private final List<Condition> rootConditions = new ArrayList<>();
+    private final QueryExpression residualExpression;
+    private final boolean applyQueryPipe;
+    private final boolean applyNotDeletedPipe;
+
+    QueryPlan(List<Condition> rootConditions, QueryExpression residualExpression,
+              boolean applyQueryPipe, boolean applyNotDeletedPipe) {
+        this.rootConditions.addAll(rootConditions);
+        this.residualExpression = residualExpression;
+        this.applyQueryPipe = applyQueryPipe;
+        this.applyNotDeletedPipe = applyNotDeletedPipe;
+    }
+
+    /**
+     * @return true if the root vertices are selected by an index query, false if all vertices are scanned
+     */
+    public boolean isIndexed() {
+        return !rootConditions.isEmpty();
+    }
+
+    public List<Condition> getRootConditions() {
+        return Collections.unmodifiableList(rootConditions);
+    }
+
+    /**
+     * @return the expression to be evaluated in memory, or null if the root conditions fully answer the expression
+     */
+    public QueryExpression getResidualExpression() {
+        return residualExpression;
+    }
+
+    public boolean isApplyQueryPipe() {
+        return applyQueryPipe;
+    }
+
+    public boolean isApplyNotDeletedPipe() {
+        return applyNotDeletedPipe;
+    }
+
+    public AtlasGraphQuery createRootQuery(AtlasGraph graph) {
+        AtlasGraphQuery query = graph.query();
+
+        for (Condition condition : rootConditions) {
+            query.has(condition.getPropertyKey(), condition.getOperator(), condition.getValue());
+        }
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryPlan[rootConditions=%s, residualExpression=%s, applyQueryPipe=%s, applyNotDeletedPipe=%s]",
+                rootConditions, residualExpression, applyQueryPipe, applyNotDeletedPipe);
+    }
+
+    /**
+     * A condition on an indexed vertex property.
+     */
+    public static class Condition {
+        private final String propertyKey;
+        private final QueryOperator operator;
+        private final Object value;
+
+        public Condition(String propertyKey, QueryOperator operator, Object value) {
+            this.propertyKey = propertyKey;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getPropertyKey() {
+            return propertyKey;
+        }
+
+        public QueryOperator getOperator() {
+            return operator;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Condition that = (Condition) o;
+            return propertyKey.equals(that.propertyKey) && operator == that.operator && value.equals(that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return (propertyKey.hashCode() * 31 + operator.hashCode()) * 31 + value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %s", propertyKey, operator, value);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.catalog.query;
+
+import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.catalog.query.QueryPlan.Condition;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.MatchingOperator;
+import org.apache.atlas.typesystem.persistence.Id;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the execution of a catalog query. The root vertices are selected with an index query built from the
+ * conditions of the resource type and from the query expression predicates on indexed properties; pipes evaluate in
+ * memory only what the index conditions can't answer. When no index condition applies, all vertices are scanned, as
+ * before.
+ *
+ * Term predicates are answered by the index. Prefix predicates narrow the roots but are evaluated again in memory.
+ * Only the required clauses of a boolean expression narrow the roots; the boolean expression is evaluated in memory.
+ * Other predicates, range predicates included, are only evaluated in memory: the byte order comparison of the
+ * expression may not match the ordering of the index backend.
+ */
+public class QueryPlanner {
+    /**
+     * Query fields of internal vertex properties which are indexed and hold string values.
+     */
+    public static final Map<String, String> INDEXED_INTERNAL_FIELDS;
+
+    static {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("id", Constants.GUID_PROPERTY_KEY);
+        fields.put("type", Constants.ENTITY_TYPE_PROPERTY_KEY);
+        fields.put("trait_names", Constants.TRAIT_NAMES_PROPERTY_KEY);
+        fields.put("super_types", Constants.SUPER_TYPES_PROPERTY_KEY);
+        fields.put("state", Constants.STATE_PROPERTY_KEY);
+        fields.put("created_by", Constants.CREATED_BY_KEY);
+        fields.put("modified_by", Constants.MODIFIED_BY_KEY);
+        INDEXED_INTERNAL_FIELDS = Collections.unmodifiableMap(fields);
+    }
+
+    private final ResourceDefinition resourceDefinition;
+    private final Map<String, String> indexedFields;
+
+    /**
+     * @param resourceDefinition  definition of the queried resource
+     * @param indexedFields       query fields which may be pushed to the index, mapped to the vertex property keys
+     */
+    public QueryPlanner(ResourceDefinition resourceDefinition, Map<String, String> indexedFields) {
+        this.resourceDefinition = resourceDefinition;
+        this.indexedFields = indexedFields;
+    }
+
+    /**
+     * Plan a query whose query pipe only filters the root vertices; the expression is evaluated on the root vertices,
+     * so its predicates may be pushed to the index.
+     *
+     * @param expression          query expression
+     * @param typeConditions      index conditions satisfied by all vertices selected by the query pipe
+     * @param typeConditionsExact true if the type conditions select exactly the vertices the query pipe selects
+     */
+    public QueryPlan planFilterQuery(QueryExpression expression, List<Condition> typeConditions, boolean typeConditionsExact) {
+        List<Condition> conditions = new ArrayList<>(typeConditions);
+        boolean expressionAnswered = addConditions(expression, conditions);
+
+        if (conditions.isEmpty()) {
+            return new QueryPlan(conditions, expression, true, true);
+        }
+
+        conditions.add(new Condition(Constants.STATE_PROPERTY_KEY, ComparisionOperator.EQUAL, Id.EntityState.ACTIVE.name()));
+
+        return new QueryPlan(conditions, expressionAnswered ? null : expression, !typeConditionsExact, false);
+    }
+
+    /**
+     * Plan a query whose query pipe traverses from the root vertices; the expression is evaluated on the vertices the
+     * traversal leads to, so only the given conditions on the start vertices select the roots.
+     */
+    public QueryPlan planTraversalQuery(QueryExpression expression, List<Condition> startConditions) {
+        return new QueryPlan(startConditions, expression, true, true);
+    }
+
+    /**
+     * Add the index conditions implied by the expression.
+     *
+     * @return true if the added conditions fully answer the expression
+     */
+    boolean addConditions(QueryExpression expression, List<Condition> conditions) {
+        // only expressions created by QueryFactory are understood; anything else is evaluated in memory
+        if (!(expression instanceof BaseQueryExpression) || expression.isNegate()) {
+            return false;
+        }
+
+        if (expression instanceof AlwaysQueryExpression) {
+            return true;
+        }
+
+        if (expression instanceof BooleanQueryExpression) {
+            for (QueryExpression required : ((BooleanQueryExpression) expression).getRequiredExpressions()) {
+                addConditions(required, conditions);
+            }
+            return false;
+        }
+
+        String propertyKey = getIndexedPropertyKey(expression.getField());
+        if (propertyKey == null) {
+            return false;
+        }
+
+        if (expression instanceof TermQueryExpression) {
+            String value = expression.getExpectedValue();
+            // 'null' matches vertices without the property, which an index can't find
+            if (value.equals("null")) {
+                return false;
+            }
+            conditions.add(new Condition(propertyKey, ComparisionOperator.EQUAL, unescape(value)));
+            return true;
+        } else if (expression instanceof PrefixQueryExpression) {
+            conditions.add(new Condition(propertyKey, MatchingOperator.PREFIX, unescape(expression.getExpectedValue())));
+        }
+        return false;
+    }
+
+    private String getIndexedPropertyKey(String field) {
+        if (field == null || resourceDefinition.getPropertyValueFormatters().containsKey(field)) {
+            return null;
+        }
+        return indexedFields.get(field);
+    }
+
+    private static String unescape(String value) {
+        return value.replace(QueryFactory.PATH_SEP_TOKEN, "/");
+    }
+}
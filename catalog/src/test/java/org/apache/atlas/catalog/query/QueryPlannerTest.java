@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.catalog.query;
+
+import org.apache.atlas.catalog.CollectionRequest;
+import org.apache.atlas.catalog.InstanceRequest;
+import org.apache.atlas.catalog.Request;
+import org.apache.atlas.catalog.TermPath;
+import org.apache.atlas.catalog.query.QueryPlan.Condition;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.MatchingOperator;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for QueryPlanner.
+ */
+public class QueryPlannerTest {
+    private static final Condition ACTIVE_CONDITION =
+            new Condition(Constants.STATE_PROPERTY_KEY, ComparisionOperator.EQUAL, "ACTIVE");
+
+    @Test
+    public void testTaxonomyInstanceQuery() throws Exception {
+        Map<String, Object> requestProps = new HashMap<>();
+        requestProps.put("name", "test_taxonomy");
+        Request request = new InstanceRequest(requestProps);
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createTaxonomyQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        assertTrue(plan.isIndexed());
+        assertEquals(plan.getRootConditions(), Arrays.asList(
+                new Condition(Constants.ENTITY_TYPE_PROPERTY_KEY, ComparisionOperator.EQUAL, "Taxonomy"),
+                new Condition("Taxonomy.name", ComparisionOperator.EQUAL, "test_taxonomy"),
+                ACTIVE_CONDITION));
+        // fully answered by the index conditions
+        assertNull(plan.getResidualExpression());
+        assertFalse(plan.isApplyQueryPipe());
+        assertFalse(plan.isApplyNotDeletedPipe());
+    }
+
+    @Test
+    public void testTaxonomyCollectionQuery_noQueryString() throws Exception {
+        Request request = new CollectionRequest(Collections.<String, Object>emptyMap(), null);
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createTaxonomyQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        assertEquals(plan.getRootConditions(), Arrays.asList(
+                new Condition(Constants.ENTITY_TYPE_PROPERTY_KEY, ComparisionOperator.EQUAL, "Taxonomy"),
+                ACTIVE_CONDITION));
+        assertNull(plan.getResidualExpression());
+        assertFalse(plan.isApplyQueryPipe());
+        assertFalse(plan.isApplyNotDeletedPipe());
+    }
+
+    @Test
+    public void testEntityQuery_requiredClauses() throws Exception {
+        Request request = new CollectionRequest(Collections.<String, Object>emptyMap(),
+                "type:hive_table AND name:foo");
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createEntityQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        // 'name' isn't an indexed field of entities, it is evaluated in memory
+        assertEquals(plan.getRootConditions(), Arrays.asList(
+                new Condition(Constants.ENTITY_TYPE_PROPERTY_KEY, ComparisionOperator.EQUAL, "hive_table"),
+                ACTIVE_CONDITION));
+        assertEquals(plan.getResidualExpression(), query.getQueryExpression());
+        assertTrue(plan.isApplyQueryPipe());
+        assertFalse(plan.isApplyNotDeletedPipe());
+    }
+
+    @Test
+    public void testEntityQuery_prefix() throws Exception {
+        Request request = new CollectionRequest(Collections.<String, Object>emptyMap(), "type:hive*");
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createEntityQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        assertEquals(plan.getRootConditions(), Arrays.asList(
+                new Condition(Constants.ENTITY_TYPE_PROPERTY_KEY, MatchingOperator.PREFIX, "hive"),
+                ACTIVE_CONDITION));
+        assertEquals(plan.getResidualExpression(), query.getQueryExpression());
+    }
+
+    @Test
+    public void testEntityQuery_optionalClauses() throws Exception {
+        Request request = new CollectionRequest(Collections.<String, Object>emptyMap(),
+                "type:hive_table OR type:hive_db");
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createEntityQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        assertFalse(plan.isIndexed());
+        assertEquals(plan.getResidualExpression(), query.getQueryExpression());
+        assertTrue(plan.isApplyQueryPipe());
+        assertTrue(plan.isApplyNotDeletedPipe());
+    }
+
+    @Test
+    public void testEntityQuery_notIndexed() throws Exception {
+        Request request = new CollectionRequest(Collections.<String, Object>emptyMap(), "name:foo");
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createEntityQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        assertFalse(plan.isIndexed());
+        assertEquals(plan.getResidualExpression(), query.getQueryExpression());
+        assertTrue(plan.isApplyQueryPipe());
+        assertTrue(plan.isApplyNotDeletedPipe());
+    }
+
+    @Test
+    public void testEntityQuery_nullValue() throws Exception {
+        Request request = new CollectionRequest(Collections.<String, Object>emptyMap(), "trait_names:null");
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createEntityQuery(request);
+
+        assertFalse(query.getQueryPlan().isIndexed());
+    }
+
+    @Test
+    public void testTermQuery() throws Exception {
+        Map<String, Object> requestProps = new HashMap<>();
+        requestProps.put("name", "test_taxonomy.term1");
+        requestProps.put("termPath", new TermPath("test_taxonomy.term1"));
+        Request request = new InstanceRequest(requestProps);
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createTermQuery(request);
+        QueryPlan plan = query.getQueryPlan();
+
+        // only the taxonomy vertex is selected by index, the terms are reached by traversal
+        assertEquals(plan.getRootConditions(), Collections.singletonList(
+                new Condition("Taxonomy.name", ComparisionOperator.EQUAL, "test_taxonomy")));
+        assertEquals(plan.getResidualExpression(), query.getQueryExpression());
+        assertTrue(plan.isApplyQueryPipe());
+        assertTrue(plan.isApplyNotDeletedPipe());
+    }
+
+    @Test
+    public void testEntityTagQuery_allEntities() throws Exception {
+        Map<String, Object> requestProps = new HashMap<>();
+        requestProps.put("id", "*");
+        Request request = new CollectionRequest(requestProps, null);
+
+        BaseQuery query = (BaseQuery) new QueryFactory().createEntityTagQuery(request);
+
+        assertFalse(query.getQueryPlan().isIndexed());
+    }
+}
@@ -47,6 +47,13 @@ public final class Constants {
     //weird issue in TitanDB if __ added to this property key. Not adding it for now
     public static final String ENTITY_TEXT_PROPERTY_KEY = "entityText";
 
+    /**
+     * Sections of the full-text of the entity, kept so that a change to one section doesn't need the others to be
+     * recomputed: the text of the entity attributes, and a json map of classification name to classification text.
+     */
+    public static final String ENTITY_TEXT_ATTRIBUTES_PROPERTY_KEY      = INTERNAL_PROPERTY_KEY_PREFIX + "entityText.attributes";
+    public static final String ENTITY_TEXT_CLASSIFICATIONS_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "entityText.classifications";
+
     /**
      * Properties for type store graph.
      */
@@ -77,6 +84,29 @@ public final class Constants {
     public static final String MODIFICATION_TIMESTAMP_PROPERTY_KEY =
         INTERNAL_PROPERTY_KEY_PREFIX + "modificationTimestamp";
 
+    /**
+     * Id of the in-vertex of an edge, and the vertex-centric index on it, used to find the edge between
+     * two vertices without going through all edges of the out-vertex.
+     */
+    public static final String EDGE_IN_VERTEX_ID_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "inVertexId";
+    public static final String EDGE_IN_VERTEX_ID_INDEX = "in_vertex_id_index";
+
+    /**
+     * Property key created only in graphs created with the in-vertex id, hence in which every reference edge has it.
+     */
+    public static final String EDGE_IN_VERTEX_ID_GRAPH_MARKER = INTERNAL_PROPERTY_KEY_PREFIX + "inVertexIdOnAllEdges";
+
+    /**
+     * Properties of the vertices of the task store: a task is kept in one vertex, identified by its guid.
+     */
+    public static final String TASK_VERTEX_TYPE = "task";
+    public static final String TASK_GUID_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "task.guid";
+    public static final String TASK_TYPE_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "task.type";
+    public static final String TASK_STATUS_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "task.status";
+    public static final String TASK_PARAMETERS_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "task.parameters";
+    public static final String TASK_DETAILS_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "task.details";
+    public static final String TASK_CANCEL_REQUESTED_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "task.cancelRequested";
+
     /**
      * search backing index name.
      */
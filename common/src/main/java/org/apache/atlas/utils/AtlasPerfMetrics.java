@@ -0,0 +1,316 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process registry of latency timers, keyed by name.
+ *
+ * A timer records durations in a histogram of log-linear buckets - 16 buckets for each power of two nanoseconds - so
+ * that percentiles are available with a relative error of at most 1/16, in a fixed amount of memory. Recording is a few
+ * atomic increments, without locks or allocation; a timer that is not recorded to costs nothing.
+ *
+ * Timer names of the perf tracer are the tags, without their arguments: "EntityREST.getById(guid)" is recorded as
+ * "EntityREST.getById".
+ */
+public final class AtlasPerfMetrics {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasPerfMetrics.class);
+
+    public static final String MBEAN_NAME = "org.apache.atlas:type=PerfMetrics";
+
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private AtlasPerfMetrics() {
+    }
+
+    /**
+     * @return the timer with the given name, created if it doesn't exist
+     */
+    public static Timer getTimer(String name) {
+        Timer ret = TIMERS.get(name);
+
+        if (ret == null) {
+            Timer existing = TIMERS.putIfAbsent(name, ret = new Timer(name));
+
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Records the given duration to the timer with the given name.
+     */
+    public static void record(String name, long elapsedNanos) {
+        getTimer(name).record(elapsedNanos);
+    }
+
+    /**
+     * @return statistics of all timers that have recorded at least once, sorted by name
+     */
+    public static Map<String, TimerStats> getTimerStats() {
+        Map<String, TimerStats> ret = new TreeMap<>();
+
+        for (Timer timer : TIMERS.values()) {
+            TimerStats stats = timer.getStats();
+
+            if (stats.getCount() > 0) {
+                ret.put(timer.getName(), stats);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Clears the recorded durations of all timers.
+     */
+    public static void reset() {
+        for (Timer timer : TIMERS.values()) {
+            timer.reset();
+        }
+    }
+
+    /**
+     * @return name of the timer for the given perf tracer tag
+     */
+    public static String getTimerName(String tag) {
+        int idx = tag.indexOf('(');
+
+        return idx > 0 ? tag.substring(0, idx) : tag;
+    }
+
+    /**
+     * Registers the JMX view of the timers with the platform MBean server; does nothing if it is already registered.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(MBEAN_NAME);
+
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new PerfMetricsView(), name);
+
+                LOG.info("Registered MBean {}", MBEAN_NAME);
+            }
+        } catch (Exception excp) {
+            LOG.warn("failed to register MBean {}", MBEAN_NAME, excp);
+        }
+    }
+
+    /**
+     * JMX view of the timers.
+     */
+    public interface PerfMetricsMXBean {
+        Map<String, TimerStats> getTimers();
+
+        void reset();
+    }
+
+    private static class PerfMetricsView implements PerfMetricsMXBean {
+        @Override
+        public Map<String, TimerStats> getTimers() {
+            return getTimerStats();
+        }
+
+        @Override
+        public void reset() {
+            AtlasPerfMetrics.reset();
+        }
+    }
+
+    /**
+     * Records durations of an operation.
+     */
+    public static final class Timer {
+        private static final int SUB_BUCKET_BITS  = 4;
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKET_COUNT     = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+        private final String          name;
+        private final AtomicLongArray buckets    = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong      count      = new AtomicLong();
+        private final AtomicLong      totalNanos = new AtomicLong();
+        private final AtomicLong      maxNanos   = new AtomicLong();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void record(long elapsedNanos) {
+            if (elapsedNanos < 0) {
+                elapsedNanos = 0;
+            }
+
+            buckets.incrementAndGet(getBucketIndex(elapsedNanos));
+            count.incrementAndGet();
+            totalNanos.addAndGet(elapsedNanos);
+
+            for (long max = maxNanos.get(); elapsedNanos > max; max = maxNanos.get()) {
+                if (maxNanos.compareAndSet(max, elapsedNanos)) {
+                    break;
+                }
+            }
+        }
+
+        public void record(long duration, TimeUnit unit) {
+            record(unit.toNanos(duration));
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * @return statistics of the recorded durations; as recording is not blocked meanwhile, the statistics might
+         *         include some of the durations recorded concurrently and not the others
+         */
+        public TimerStats getStats() {
+            long[] counts = new long[BUCKET_COUNT];
+            long   total  = 0;
+
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+                total    += counts[i];
+            }
+
+            return new TimerStats(total, totalNanos.get(), maxNanos.get(),
+                                  getPercentile(counts, total, 0.5), getPercentile(counts, total, 0.9),
+                                  getPercentile(counts, total, 0.99), getPercentile(counts, total, 0.999));
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+        }
+
+        // values below SUB_BUCKET_COUNT have a bucket each; larger values are bucketed by their highest SUB_BUCKET_BITS + 1 bits
+        static int getBucketIndex(long value) {
+            if (value < SUB_BUCKET_COUNT) {
+                return (int) value;
+            }
+
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subIndex = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subIndex;
+        }
+
+        // highest value of the given bucket
+        static long getBucketValue(int index) {
+            if (index < SUB_BUCKET_COUNT) {
+                return index;
+            }
+
+            int  exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+            long subIndex = index % SUB_BUCKET_COUNT;
+            long lowest   = (1L << exponent) + (subIndex << (exponent - SUB_BUCKET_BITS));
+
+            return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        private static long getPercentile(long[] counts, long total, double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+
+                if (seen >= rank) {
+                    return getBucketValue(i);
+                }
+            }
+
+            return getBucketValue(counts.length - 1);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of a timer; durations are in milliseconds.
+     */
+    public static final class TimerStats {
+        private static final double NANOS_PER_MS = 1000000d;
+
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+
+        TimerStats(long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+            this.count      = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos   = maxNanos;
+            this.p50Nanos   = p50Nanos;
+            this.p90Nanos   = p90Nanos;
+            this.p99Nanos   = p99Nanos;
+            this.p999Nanos  = p999Nanos;
+        }
+
+        public long getCount() { return count; }
+
+        public double getTotalMs() { return totalNanos / NANOS_PER_MS; }
+
+        public double getMeanMs() { return count > 0 ? totalNanos / NANOS_PER_MS / count : 0d; }
+
+        public double getMaxMs() { return maxNanos / NANOS_PER_MS; }
+
+        // percentiles are bucket bounds, so they are capped at the max recorded
+        public double getP50Ms() { return Math.min(p50Nanos, maxNanos) / NANOS_PER_MS; }
+
+        public double getP90Ms() { return Math.min(p90Nanos, maxNanos) / NANOS_PER_MS; }
+
+        public double getP99Ms() { return Math.min(p99Nanos, maxNanos) / NANOS_PER_MS; }
+
+        public double getP999Ms() { return Math.min(p999Nanos, maxNanos) / NANOS_PER_MS; }
+
+        @Override
+        public String toString() {
+            return String.format("[count=%d, meanMs=%.3f, p50Ms=%.3f, p90Ms=%.3f, p99Ms=%.3f, p999Ms=%.3f, maxMs=%.3f]",
+                                 getCount(), getMeanMs(), getP50Ms(), getP90Ms(), getP99Ms(), getP999Ms(), getMaxMs());
+        }
+    }
+}
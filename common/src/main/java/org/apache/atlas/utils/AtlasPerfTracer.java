@@ -20,14 +20,18 @@ package org.apache.atlas.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 
 /**
- * Handles logging of performance measurements.
+ * Handles logging of performance measurements. Measurements are also recorded in AtlasPerfMetrics, under the tag
+ * without its arguments.
  */
 public final class AtlasPerfTracer {
     protected final Logger logger;
     protected final String tag;
     private   final long   startTimeMs;
+    private   final long   startTimeNanos;
 
     private static long reportingThresholdMs = 0L;
 
@@ -53,10 +57,25 @@ public final class AtlasPerfTracer {
         }
     }
 
+    /**
+     * Records the time elapsed since startTimeNanos in the given timer, whether or not perf tracing is enabled; also
+     * logs the tracer, if any.
+     */
+    public static void log(AtlasPerfTracer tracer, AtlasPerfMetrics.Timer timer, long startTimeNanos) {
+        long elapsedTimeNanos = System.nanoTime() - startTimeNanos;
+
+        timer.record(elapsedTimeNanos);
+
+        if (tracer != null) {
+            tracer.logElapsedTime(TimeUnit.NANOSECONDS.toMillis(elapsedTimeNanos));
+        }
+    }
+
     private AtlasPerfTracer(Logger logger, String tag) {
         this.logger = logger;
         this.tag    = tag;
-        startTimeMs = System.currentTimeMillis();
+        startTimeMs    = System.currentTimeMillis();
+        startTimeNanos = System.nanoTime();
     }
 
     public String getTag() {
@@ -68,11 +87,18 @@ public final class AtlasPerfTracer {
     }
 
     public long getElapsedTime() {
-        return System.currentTimeMillis() - startTimeMs;
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos);
     }
 
     public void log() {
-        long elapsedTime = getElapsedTime();
+        long elapsedTimeNanos = System.nanoTime() - startTimeNanos;
+
+        AtlasPerfMetrics.record(AtlasPerfMetrics.getTimerName(tag), elapsedTimeNanos);
+
+        logElapsedTime(TimeUnit.NANOSECONDS.toMillis(elapsedTimeNanos));
+    }
+
+    private void logElapsedTime(long elapsedTime) {
         if (elapsedTime > reportingThresholdMs) {
             logger.debug("PERF|{}|{}", tag, elapsedTime);
         }
@@ -0,0 +1,437 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache, safe for use by concurrent threads.
+ *
+ * Entries are spread over a number of segments by the hash of their keys; each segment keeps the recency order of its
+ * own entries and has its own lock, so that threads accessing different segments don't contend - unlike a single
+ * access-ordered map, in which every read updates the shared recency list under one lock. The maximum weight is
+ * divided among segments, and a segment evicts its least recently used entries when it exceeds its share: eviction
+ * order is LRU within a segment, and approximately LRU across the cache.
+ *
+ * The weight of an entry is 1, unless a Weigher is given. Entries can optionally expire after a given time since they
+ * were written. Null keys and values are not supported.
+ */
+public class ConcurrentLruCache<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentLruCache.class);
+
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    // segments are not made smaller than this, so that small caches keep close to exact LRU order
+    private static final long MIN_SEGMENT_WEIGHT = 64;
+
+    /**
+     * Computes the weight of a cache entry.
+     */
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    private final Segment<K, V>[]  segments;
+    private final int              segmentShift;
+    private final long             maxWeight;
+    private final long             expireAfterWriteNanos;
+    private final Weigher<K, V>    weigher;
+    private final int              evictionWarningThrottle;
+    private final AtomicLong       evictionsSinceWarning = new AtomicLong();
+
+    public ConcurrentLruCache(long maxSize) {
+        this(new Builder<K, V>().maximumWeight(maxSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentLruCache(Builder<K, V> builder) {
+        if (builder.maxWeight <= 0) {
+            throw new IllegalArgumentException("maximum weight must be positive: " + builder.maxWeight);
+        }
+
+        int segmentCount = 1;
+
+        while (segmentCount < builder.concurrencyLevel && builder.maxWeight / (segmentCount * 2) >= MIN_SEGMENT_WEIGHT) {
+            segmentCount *= 2;
+        }
+
+        this.maxWeight               = builder.maxWeight;
+        this.expireAfterWriteNanos   = builder.expireAfterWriteNanos;
+        this.weigher                 = builder.weigher;
+        this.evictionWarningThrottle = builder.evictionWarningThrottle;
+        this.segmentShift            = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segments                = new Segment[segmentCount];
+
+        long segmentWeight = (maxWeight + segmentCount - 1) / segmentCount;
+
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentWeight);
+        }
+    }
+
+    public static <K, V> Builder<K, V> newBuilder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return the value cached for the given key, or null if the key is not in the cache or its entry has expired
+     */
+    public V get(K key) {
+        return segmentFor(key).get(key, expireAfterWriteNanos);
+    }
+
+    /**
+     * Adds the given entry to the cache, replacing the existing value of the key if any.
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+
+        int weight = weigher != null ? weigher.weigh(key, value) : 1;
+
+        if (weight < 0) {
+            throw new IllegalArgumentException("negative weight " + weight + " for key " + key);
+        }
+
+        long evictions = segmentFor(key).put(key, new Entry<>(value, weight));
+
+        if (evictions > 0) {
+            evictionWarningIfNeeded(evictions);
+        }
+    }
+
+    public V remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return number of entries in the cache, including expired entries not yet removed
+     */
+    public long size() {
+        long ret = 0;
+
+        for (Segment<K, V> segment : segments) {
+            ret += segment.size();
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return total weight of the entries in the cache
+     */
+    public long weight() {
+        long ret = 0;
+
+        for (Segment<K, V> segment : segments) {
+            ret += segment.weight();
+        }
+
+        return ret;
+    }
+
+    public long getMaximumWeight() {
+        return maxWeight;
+    }
+
+    public Stats getStats() {
+        long hits = 0, misses = 0, evictions = 0, expirations = 0;
+
+        for (Segment<K, V> segment : segments) {
+            hits        += segment.hits;
+            misses      += segment.misses;
+            evictions   += segment.evictions;
+            expirations += segment.expirations;
+        }
+
+        return new Stats(hits, misses, evictions, expirations, size());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+
+        if (segments.length == 1) {
+            return segments[0];
+        }
+
+        // spread the bits, as in ConcurrentHashMap; segment is picked by the high bits
+        int h = key.hashCode();
+
+        h += (h << 15) ^ 0xffffcd7d;
+        h ^= (h >>> 10);
+        h += (h << 3);
+        h ^= (h >>> 6);
+        h += (h << 2) + (h << 14);
+        h ^= (h >>> 16);
+
+        return segments[h >>> segmentShift];
+    }
+
+    private void evictionWarningIfNeeded(long evictions) {
+        if (evictionWarningThrottle <= 0) {
+            return;
+        }
+
+        long count = evictionsSinceWarning.addAndGet(evictions);
+
+        if (count >= evictionWarningThrottle && evictionsSinceWarning.compareAndSet(count, 0)) {
+            LOG.info("There have been {} evictions from the cache since the last warning; maximum weight={}", count, maxWeight);
+        }
+    }
+
+    /**
+     * Options of a ConcurrentLruCache.
+     */
+    public static class Builder<K, V> {
+        private long          maxWeight;
+        private long          expireAfterWriteNanos   = 0;
+        private Weigher<K, V> weigher                 = null;
+        private int           concurrencyLevel        = DEFAULT_CONCURRENCY_LEVEL;
+        private int           evictionWarningThrottle = 0;
+
+        /**
+         * Maximum number of entries; or, if a weigher is set, the maximum total weight of entries.
+         */
+        public Builder<K, V> maximumWeight(long maxWeight) {
+            this.maxWeight = maxWeight;
+
+            return this;
+        }
+
+        public Builder<K, V> weigher(Weigher<K, V> weigher) {
+            this.weigher = weigher;
+
+            return this;
+        }
+
+        /**
+         * Entries expire after the given duration since they were written; 0 for no expiry.
+         */
+        public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWriteNanos = unit.toNanos(duration);
+
+            return this;
+        }
+
+        /**
+         * Expected number of threads accessing the cache concurrently; the number of segments is based on it.
+         */
+        public Builder<K, V> concurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = Math.max(1, concurrencyLevel);
+
+            return this;
+        }
+
+        /**
+         * Number of evictions after which a message is logged; 0 to disable the message.
+         */
+        public Builder<K, V> evictionWarningThrottle(int evictionWarningThrottle) {
+            this.evictionWarningThrottle = evictionWarningThrottle;
+
+            return this;
+        }
+
+        public ConcurrentLruCache<K, V> build() {
+            return new ConcurrentLruCache<>(this);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of a cache.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long size;
+
+        Stats(long hits, long misses, long evictions, long expirations, long size) {
+            this.hits        = hits;
+            this.misses      = misses;
+            this.evictions   = evictions;
+            this.expirations = expirations;
+            this.size        = size;
+        }
+
+        public long getHits() { return hits; }
+
+        public long getMisses() { return misses; }
+
+        public long getEvictions() { return evictions; }
+
+        public long getExpirations() { return expirations; }
+
+        public long getSize() { return size; }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+
+            return lookups > 0 ? ((double) hits) / lookups : 0d;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions +
+                   ", expirations=" + expirations + ", size=" + size + "}";
+        }
+    }
+
+    private static final class Entry<V> {
+        final V    value;
+        final int  weight;
+        final long writeTime;
+
+        Entry(V value, int weight) {
+            this.value     = value;
+            this.weight    = weight;
+            this.writeTime = System.nanoTime();
+        }
+    }
+
+    // statistics are updated under the segment lock, and read without it; a read might miss the latest updates
+    private static final class Segment<K, V> extends ReentrantLock {
+        private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long                       maxWeight;
+        private volatile long                    weight;
+        private volatile long                    hits;
+        private volatile long                    misses;
+        private volatile long                    evictions;
+        private volatile long                    expirations;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        V get(K key, long expireAfterWriteNanos) {
+            lock();
+
+            try {
+                Entry<V> entry = entries.get(key);
+
+                if (entry != null && expireAfterWriteNanos > 0 && System.nanoTime() - entry.writeTime >= expireAfterWriteNanos) {
+                    entries.remove(key);
+
+                    weight -= entry.weight;
+                    expirations++;
+                    entry = null;
+                }
+
+                if (entry == null) {
+                    misses++;
+
+                    return null;
+                }
+
+                hits++;
+
+                return entry.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        // returns the number of entries evicted
+        long put(K key, Entry<V> entry) {
+            lock();
+
+            try {
+                Entry<V> old = entries.put(key, entry);
+
+                weight += entry.weight - (old != null ? old.weight : 0);
+
+                long ret = 0;
+
+                for (Iterator<Entry<V>> iter = entries.values().iterator(); weight > maxWeight && iter.hasNext(); ) {
+                    Entry<V> eldest = iter.next();
+
+                    iter.remove();
+
+                    weight -= eldest.weight;
+                    ret++;
+                }
+
+                evictions += ret;
+
+                return ret;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(K key) {
+            lock();
+
+            try {
+                Entry<V> entry = entries.remove(key);
+
+                if (entry == null) {
+                    return null;
+                }
+
+                weight -= entry.weight;
+
+                return entry.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+
+            try {
+                entries.clear();
+
+                weight = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        int size() {
+            lock();
+
+            try {
+                return entries.size();
+            } finally {
+                unlock();
+            }
+        }
+
+        long weight() {
+            return weight;
+        }
+    }
+}
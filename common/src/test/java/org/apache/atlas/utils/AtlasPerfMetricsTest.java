@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasPerfMetricsTest {
+
+    @Test
+    public void testBucketBounds() {
+        for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789L, Long.MAX_VALUE }) {
+            int  idx   = AtlasPerfMetrics.Timer.getBucketIndex(value);
+            long upper = AtlasPerfMetrics.Timer.getBucketValue(idx);
+
+            assertTrue(upper >= value, "value=" + value + ", upper=" + upper);
+            assertTrue(upper - value <= value / 16, "value=" + value + ", upper=" + upper);
+
+            if (idx > 0) {
+                assertTrue(AtlasPerfMetrics.Timer.getBucketValue(idx - 1) < value, "value=" + value);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        AtlasPerfMetrics.Timer timer = AtlasPerfMetrics.getTimer("AtlasPerfMetricsTest.testPercentiles");
+
+        for (int i = 1; i <= 1000; i++) {
+            timer.record(i, TimeUnit.MILLISECONDS);
+        }
+
+        AtlasPerfMetrics.TimerStats stats = timer.getStats();
+
+        assertEquals(stats.getCount(), 1000);
+        assertEquals(stats.getMeanMs(), 500.5, 0.001);
+        assertEquals(stats.getMaxMs(), 1000, 0.001);
+        assertEquals(stats.getP50Ms(), 500, 500 / 16d);
+        assertEquals(stats.getP90Ms(), 900, 900 / 16d);
+        assertEquals(stats.getP99Ms(), 990, 990 / 16d);
+        assertTrue(AtlasPerfMetrics.getTimerStats().containsKey("AtlasPerfMetricsTest.testPercentiles"));
+
+        AtlasPerfMetrics.reset();
+
+        assertEquals(timer.getStats().getCount(), 0);
+        assertFalse(AtlasPerfMetrics.getTimerStats().containsKey("AtlasPerfMetricsTest.testPercentiles"));
+    }
+
+    @Test
+    public void testTimerName() {
+        assertEquals(AtlasPerfMetrics.getTimerName("EntityREST.getById(1234-5678)"), "EntityREST.getById");
+        assertEquals(AtlasPerfMetrics.getTimerName("EntityREST.createOrUpdate()"), "EntityREST.createOrUpdate");
+        assertEquals(AtlasPerfMetrics.getTimerName("ExportService.export"), "ExportService.export");
+    }
+}
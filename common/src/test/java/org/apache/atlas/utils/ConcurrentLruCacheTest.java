@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ConcurrentLruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(3);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+        cache.put("d", "4");
+
+        assertNull(cache.get("b"));
+        assertEquals(cache.get("a"), "1");
+        assertEquals(cache.get("c"), "3");
+        assertEquals(cache.get("d"), "4");
+        assertEquals(cache.size(), 3);
+        assertEquals(cache.getStats().getEvictions(), 1);
+        assertEquals(cache.getStats().getHits(), 4);
+        assertEquals(cache.getStats().getMisses(), 1);
+    }
+
+    @Test
+    public void testWeigher() {
+        ConcurrentLruCache<String, String> cache = ConcurrentLruCache.<String, String>newBuilder()
+                                                                     .maximumWeight(10)
+                                                                     .weigher(new ConcurrentLruCache.Weigher<String, String>() {
+                                                                         @Override
+                                                                         public int weigh(String key, String value) {
+                                                                             return value.length();
+                                                                         }
+                                                                     })
+                                                                     .build();
+
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        assertEquals(cache.weight(), 9);
+
+        cache.put("c", "12");
+        assertNull(cache.get("a"));
+        assertEquals(cache.weight(), 6);
+
+        cache.put("b", "1");
+        assertEquals(cache.weight(), 3);
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws InterruptedException {
+        ConcurrentLruCache<String, String> cache = ConcurrentLruCache.<String, String>newBuilder()
+                                                                     .maximumWeight(10)
+                                                                     .expireAfterWrite(50, TimeUnit.MILLISECONDS)
+                                                                     .build();
+
+        cache.put("a", "1");
+        assertEquals(cache.get("a"), "1");
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("a"));
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getStats().getExpirations(), 1);
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(1000);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+
+        assertEquals(cache.remove("k1"), "v1");
+        assertNull(cache.remove("k1"));
+        assertEquals(cache.size(), 99);
+
+        cache.clear();
+
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.weight(), 0);
+    }
+
+    @Test(timeOut = 60000)
+    public void testConcurrentAccess() throws Exception {
+        final int                                 threadCount = 16;
+        final int                                 maxSize     = 1000;
+        final ConcurrentLruCache<Integer, String> cache       = new ConcurrentLruCache<>(maxSize);
+        ExecutorService                           executor    = Executors.newFixedThreadPool(threadCount);
+        List<Future<Void>>                        results     = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threadCount; t++) {
+                final int seed = t;
+
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 100000; i++) {
+                            Integer key   = (i * 31 + seed) % (maxSize * 2);
+                            String  value = cache.get(key);
+
+                            if (value == null) {
+                                cache.put(key, key.toString());
+                            } else {
+                                assertEquals(value, key.toString());
+                            }
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ConcurrentLruCache.Stats stats = cache.getStats();
+
+        assertTrue(cache.size() <= maxSize, "size " + cache.size());
+        assertEquals(stats.getHits() + stats.getMisses(), threadCount * 100000L);
+        assertTrue(stats.getHits() > 0);
+    }
+}
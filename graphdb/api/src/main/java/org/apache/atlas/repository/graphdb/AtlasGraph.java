@@ -270,9 +270,11 @@ public interface AtlasGraph<V, E> {
     GroovyExpression addOutputTransformationPredicate(GroovyExpression expr, boolean isSelect, boolean isPath);
 
     /**
-     * Get an instance of the script engine to execute Gremlin queries
+     * Get an instance of the script engine to execute Gremlin queries. Engines come from a bounded pool; the engine
+     * must be returned with releaseGremlinScriptEngine().
      *
      * @return script engine to execute Gremlin queries
+     * @throws AtlasBaseException if no engine becomes available within the configured timeout
      */
     ScriptEngine getGremlinScriptEngine() throws AtlasBaseException;
 
@@ -299,7 +301,7 @@ public interface AtlasGraph<V, E> {
      * Executes a Gremlin script using a ScriptEngineManager provided by consumer, returns an object with the result.
      * This is useful for scenarios where an operation executes large number of queries.
      *
-     * @param scriptEngine: ScriptEngine initialized by consumer.
+     * @param scriptEngine: ScriptEngine obtained from getGremlinScriptEngine(); the script is compiled, and cached, on it
      * @param bindings: Update bindings with Graph instance for ScriptEngine that is initilized externally.
      * @param query
      * @param isPath whether this is a path query
@@ -310,6 +312,28 @@ public interface AtlasGraph<V, E> {
      */
     Object executeGremlinScript(ScriptEngine scriptEngine, Map<? extends  String, ? extends  Object> bindings, String query, boolean isPath) throws ScriptException;
 
+    /**
+     * Executes a parameterized Gremlin script, returns an object with the result. Compiled scripts are cached by
+     * query text, so values that vary between calls (guids, depths, etc) should be passed as bindings rather than
+     * formatted into the query.
+     *
+     * @param query
+     * @param bindings: values for the variables referenced in the query
+     * @param isPath whether this is a path query
+     *
+     * @return the result from executing the script
+     *
+     * @throws AtlasBaseException
+     */
+    Object executeGremlinScript(String query, Map<String, Object> bindings, boolean isPath) throws AtlasBaseException;
+
+    /**
+     * Returns statistics of the Gremlin script engine pool and compiled-script cache, like hits, misses and compile time.
+     *
+     * @return map of metric name to value
+     */
+    Map<String, Number> getGremlinScriptEngineMetrics();
+
 
     /**
      * Convenience method to check whether the given property is
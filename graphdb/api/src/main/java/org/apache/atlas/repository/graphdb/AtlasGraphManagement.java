@@ -116,4 +116,18 @@ public interface AtlasGraphManagement {
      */
     void createEdgeIndex(String index, String backingIndex);
 
+    /**
+     * Creates a vertex-centric index for the edges with the given label, so that the edges of a vertex
+     * can be looked up by the value of a property without going through all the edges of the vertex.
+     * The edge label is created if it doesn't exist. Does nothing if the edge label already has an index
+     * with the given name.
+     *
+     * @param edgeLabel the label of the edges to index
+     * @param indexName the name of the index, unique for the edge label
+     * @param direction the direction of the indexed edges, relative to the vertex
+     * @param propertyKey the edge property to index
+     */
+    void createVertexCentricIndex(String edgeLabel, String indexName, AtlasEdgeDirection direction,
+                                  AtlasPropertyKey propertyKey);
+
 }
@@ -34,6 +34,24 @@ public interface AtlasVertexQuery<V, E> {
      */
     AtlasVertexQuery<V, E> direction(AtlasEdgeDirection queryDirection);
 
+    /**
+     * Restricts the query to edges with the given label.
+     *
+     * @param edgeLabel
+     * @return
+     */
+    AtlasVertexQuery<V, E> label(String edgeLabel);
+
+    /**
+     * Restricts the query to edges with the given property value. When the edge label has a
+     * vertex-centric index on the property, the index is used.
+     *
+     * @param propertyKey
+     * @param value
+     * @return
+     */
+    AtlasVertexQuery<V, E> has(String propertyKey, Object value);
+
     /**
      * Returns the vertices that satisfy the query condition.
      *
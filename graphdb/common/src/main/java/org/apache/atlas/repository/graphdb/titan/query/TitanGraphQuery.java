@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.graphdb.titan.query;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
@@ -33,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -164,7 +166,7 @@ public abstract class TitanGraphQuery<V, E> implements AtlasGraphQuery<V, E> {
     }
 
     @Override
-    public Iterable<AtlasVertex<V, E>> vertices(int offset, int limit) {
+    public Iterable<AtlasVertex<V, E>> vertices(final int offset, final int limit) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Executing: " + queryCondition);
         }
@@ -172,29 +174,25 @@ public abstract class TitanGraphQuery<V, E> implements AtlasGraphQuery<V, E> {
         Preconditions.checkArgument(offset >= 0, "Offset must be non-negative");
         Preconditions.checkArgument(limit >= 0, "Limit must be non-negative");
 
-        // Compute the overall result by combining the results of all the AndConditions (nested within OR) together.
-        Set<AtlasVertex<V, E>> result = new HashSet<>();
-        long resultIdx = 0;
-        for(AndCondition andExpr : queryCondition.getAndTerms()) {
-            if (result.size() == limit) {
-                break;
-            }
+        final List<AndCondition> andTerms = queryCondition.getAndTerms();
 
-            NativeTitanGraphQuery<V, E> andQuery = andExpr.create(getQueryFactory());
-            for(AtlasVertex<V, E> vertex : andQuery.vertices(offset + limit)) {
-                if (resultIdx >= offset) {
-                    result.add(vertex);
-
-                    if (result.size() == limit) {
-                        break;
-                    }
-                }
+        // a single AndCondition has no duplicates to remove - offset is applied by the native query
+        if (andTerms.size() == 1) {
+            NativeTitanGraphQuery<V, E> andQuery = andTerms.get(0).create(getQueryFactory());
 
-                resultIdx++;
-            }
+            return andQuery.vertices(offset, limit);
         }
 
-        return result;
+        // Compute the overall result by concatenating the results of the AndConditions, in order, lazily: results of an
+        // AndCondition are read only when the earlier ones don't have 'offset + limit' distinct vertices
+        final NativeTitanQueryFactory<V, E> queryFactory = getQueryFactory();
+
+        return new Iterable<AtlasVertex<V, E>>() {
+            @Override
+            public Iterator<AtlasVertex<V, E>> iterator() {
+                return new OrConditionVertexIterator<>(andTerms, queryFactory, offset, limit);
+            }
+        };
     }
 
     @Override
@@ -248,4 +246,61 @@ public abstract class TitanGraphQuery<V, E> implements AtlasGraphQuery<V, E> {
     public boolean isChildQuery() {
         return isChildQuery;
     }
+
+    /**
+     * Iterates over the distinct vertices of a list of AndConditions, in the order of the conditions and of the results
+     * of each condition, from the given offset. Results are the same, in the same order, for every execution against
+     * the same data, so that consecutive offsets can be used to page through the results.
+     */
+    private static class OrConditionVertexIterator<V, E> extends AbstractIterator<AtlasVertex<V, E>> {
+        private final Iterator<AndCondition>        andTerms;
+        private final NativeTitanQueryFactory<V, E> queryFactory;
+        private final int                           offset;
+        private final int                           limit;
+        private final Set<Object>                   vertexIds  = new HashSet<>();
+        private       Iterator<AtlasVertex<V, E>>   andResults = Collections.emptyIterator();
+        private       int                           skipCount  = 0;
+        private       int                           count      = 0;
+
+        OrConditionVertexIterator(List<AndCondition> andTerms, NativeTitanQueryFactory<V, E> queryFactory, int offset, int limit) {
+            this.andTerms     = andTerms.iterator();
+            this.queryFactory = queryFactory;
+            this.offset       = offset;
+            this.limit        = limit;
+        }
+
+        @Override
+        protected AtlasVertex<V, E> computeNext() {
+            while (count < limit) {
+                if (!andResults.hasNext()) {
+                    if (!andTerms.hasNext()) {
+                        break;
+                    }
+
+                    // any single AndCondition could supply all the vertices needed
+                    andResults = andTerms.next().create(queryFactory).vertices(offset + limit).iterator();
+
+                    continue;
+                }
+
+                AtlasVertex<V, E> vertex = andResults.next();
+
+                if (!vertexIds.add(vertex.getId())) {
+                    continue;
+                }
+
+                if (skipCount < offset) {
+                    skipCount++;
+
+                    continue;
+                }
+
+                count++;
+
+                return vertex;
+            }
+
+            return endOfData();
+        }
+    }
 }
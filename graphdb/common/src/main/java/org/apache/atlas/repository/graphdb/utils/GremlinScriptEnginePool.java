@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graphdb.utils;
+
+import org.apache.atlas.utils.AtlasPerfMetrics;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of Gremlin script engines, each with an LRU cache of the scripts it compiled.
+ *
+ * Scripts are compiled once per engine, keyed by the script text, and evaluated with per-call bindings; callers should
+ * pass values like guids and depths as bindings rather than formatting them into the script, so that all executions of
+ * a query template share one compiled script. Compiled classes are held by the class loader of the engine that
+ * compiled them - to bound memory, the number of scripts cached by an engine is limited, and an engine is discarded
+ * after a configured number of compilations.
+ *
+ * At most pool.size engines are in use at any time; callers wait up to borrow.timeout.ms for an engine, and fail if
+ * none becomes available.
+ */
+public abstract class GremlinScriptEnginePool {
+    private static final Logger LOG = LoggerFactory.getLogger(GremlinScriptEnginePool.class);
+
+    private static final AtlasPerfMetrics.Timer EVAL_TIMER = AtlasPerfMetrics.getTimer("GremlinScriptEnginePool.eval");
+
+    public static final String PROPERTY_POOL_SIZE         = "atlas.gremlin.script.engine.pool.size";
+    public static final String PROPERTY_BORROW_TIMEOUT_MS = "atlas.gremlin.script.engine.borrow.timeout.ms";
+    public static final String PROPERTY_CACHE_SIZE        = "atlas.gremlin.script.cache.size";
+    public static final String PROPERTY_MAX_COMPILATIONS  = "atlas.gremlin.script.engine.max.compilations";
+
+    public static final int  DEFAULT_POOL_SIZE         = 8;
+    public static final long DEFAULT_BORROW_TIMEOUT_MS = 10000;
+    public static final int  DEFAULT_CACHE_SIZE        = 500;
+    public static final int  DEFAULT_MAX_COMPILATIONS  = 5000;
+
+    public static final String METRIC_CACHE_HITS        = "scriptCacheHits";
+    public static final String METRIC_CACHE_MISSES      = "scriptCacheMisses";
+    public static final String METRIC_CACHE_EVICTIONS   = "scriptCacheEvictions";
+    public static final String METRIC_CACHE_SIZE        = "scriptCacheSize";
+    public static final String METRIC_COMPILE_TIME_MS   = "scriptCompileTimeMs";
+    public static final String METRIC_ENGINES_CREATED   = "enginesCreated";
+    public static final String METRIC_ENGINES_AVAILABLE = "enginesAvailable";
+
+    private final int                                maxEngines;
+    private final long                               borrowTimeoutMs;
+    private final int                                maxCachedScripts;
+    private final int                                maxCompilationsPerEngine;
+    private final Semaphore                          permits;
+    private final LinkedBlockingDeque<PooledEngine>  idleEngines;
+    private final Map<ScriptEngine, PooledEngine>    borrowedEngines;
+    private final AtomicLong                         cacheHits       = new AtomicLong();
+    private final AtomicLong                         cacheMisses     = new AtomicLong();
+    private final AtomicLong                         cacheEvictions  = new AtomicLong();
+    private final AtomicLong                         cacheSize       = new AtomicLong();
+    private final AtomicLong                         compileTimeMs   = new AtomicLong();
+    private final AtomicLong                         enginesCreated  = new AtomicLong();
+
+    public GremlinScriptEnginePool(Configuration configuration) {
+        this(configuration != null ? configuration.getInt(PROPERTY_POOL_SIZE, DEFAULT_POOL_SIZE) : DEFAULT_POOL_SIZE,
+             configuration != null ? configuration.getLong(PROPERTY_BORROW_TIMEOUT_MS, DEFAULT_BORROW_TIMEOUT_MS) : DEFAULT_BORROW_TIMEOUT_MS,
+             configuration != null ? configuration.getInt(PROPERTY_CACHE_SIZE, DEFAULT_CACHE_SIZE) : DEFAULT_CACHE_SIZE,
+             configuration != null ? configuration.getInt(PROPERTY_MAX_COMPILATIONS, DEFAULT_MAX_COMPILATIONS) : DEFAULT_MAX_COMPILATIONS);
+    }
+
+    public GremlinScriptEnginePool(int maxEngines, long borrowTimeoutMs, int maxCachedScripts, int maxCompilationsPerEngine) {
+        this.maxEngines               = Math.max(1, maxEngines);
+        this.borrowTimeoutMs          = borrowTimeoutMs;
+        this.maxCachedScripts         = maxCachedScripts;
+        this.maxCompilationsPerEngine = maxCompilationsPerEngine;
+        this.permits                  = new Semaphore(this.maxEngines);
+        this.idleEngines              = new LinkedBlockingDeque<>(this.maxEngines);
+        this.borrowedEngines          = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a new script engine; called when the pool has no idle engine to hand out.
+     */
+    protected abstract ScriptEngine createScriptEngine() throws ScriptException;
+
+    /**
+     * Releases resources held by an engine that is not returned to the pool.
+     */
+    protected void destroyScriptEngine(ScriptEngine scriptEngine) {
+        // no action needed by default
+    }
+
+    /**
+     * Borrows an engine from the pool, waiting up to the configured timeout for one to be released.
+     * Engines must be returned with release().
+     *
+     * @throws ScriptException if no engine becomes available within the timeout
+     */
+    public ScriptEngine borrow() throws ScriptException {
+        boolean acquired = false;
+
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!acquired) {
+            LOG.warn("No script engine available in the pool (size={}) after {} ms", maxEngines, borrowTimeoutMs);
+
+            throw new ScriptException("no script engine available after " + borrowTimeoutMs + " ms");
+        }
+
+        try {
+            // most recently released first, as its cache is the most likely to hold the scripts in use
+            PooledEngine ret = idleEngines.pollFirst();
+
+            if (ret == null) {
+                ret = new PooledEngine(createScriptEngine());
+
+                enginesCreated.incrementAndGet();
+            }
+
+            borrowedEngines.put(ret.engine, ret);
+
+            return ret.engine;
+        } catch (ScriptException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    public void release(ScriptEngine scriptEngine) {
+        PooledEngine pooledEngine = scriptEngine != null ? borrowedEngines.remove(scriptEngine) : null;
+
+        if (pooledEngine == null) {
+            return;
+        }
+
+        try {
+            if (pooledEngine.compilations >= maxCompilationsPerEngine || !idleEngines.offerFirst(pooledEngine)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Discarding script engine after {} compilations", pooledEngine.compilations);
+                }
+
+                discard(pooledEngine);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Evaluates the given script on the given engine, borrowed from this pool, compiling the script first if the engine
+     * has not compiled it already.
+     */
+    public Object eval(ScriptEngine scriptEngine, String script, Map<String, ?> bindings) throws ScriptException {
+        PooledEngine pooledEngine = borrowedEngines.get(scriptEngine);
+
+        if (pooledEngine == null) {
+            throw new ScriptException("script engine is not borrowed from this pool");
+        }
+
+        long startTime = System.nanoTime();
+
+        try {
+            CompiledScript compiledScript = pooledEngine.getCompiledScript(script);
+            Bindings       scriptBindings = scriptEngine.createBindings();
+
+            if (bindings != null) {
+                scriptBindings.putAll(bindings);
+            }
+
+            return compiledScript.eval(scriptBindings);
+        } finally {
+            EVAL_TIMER.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Evaluates the given script on an engine borrowed for the duration of the call.
+     */
+    public Object eval(String script, Map<String, ?> bindings) throws ScriptException {
+        ScriptEngine scriptEngine = borrow();
+
+        try {
+            return eval(scriptEngine, script, bindings);
+        } finally {
+            release(scriptEngine);
+        }
+    }
+
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_CACHE_HITS, cacheHits.get());
+        ret.put(METRIC_CACHE_MISSES, cacheMisses.get());
+        ret.put(METRIC_CACHE_EVICTIONS, cacheEvictions.get());
+        ret.put(METRIC_CACHE_SIZE, cacheSize.get());
+        ret.put(METRIC_COMPILE_TIME_MS, compileTimeMs.get());
+        ret.put(METRIC_ENGINES_CREATED, enginesCreated.get());
+        ret.put(METRIC_ENGINES_AVAILABLE, permits.availablePermits());
+
+        return ret;
+    }
+
+    private void discard(PooledEngine pooledEngine) {
+        // drop the scripts compiled by the engine, so that the engine and its classes can be collected
+        cacheEvictions.addAndGet(pooledEngine.compiledScripts.size());
+        cacheSize.addAndGet(-pooledEngine.compiledScripts.size());
+        pooledEngine.compiledScripts.clear();
+
+        destroyScriptEngine(pooledEngine.engine);
+    }
+
+    /**
+     * An engine of the pool, with the scripts it compiled; used by one thread at a time.
+     */
+    private class PooledEngine {
+        private final ScriptEngine                engine;
+        private final Map<String, CompiledScript> compiledScripts;
+        private int                               compilations;
+
+        PooledEngine(ScriptEngine engine) {
+            this.engine          = engine;
+            this.compiledScripts = new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                    boolean ret = size() > maxCachedScripts;
+
+                    if (ret) {
+                        cacheEvictions.incrementAndGet();
+                        cacheSize.decrementAndGet();
+                    }
+
+                    return ret;
+                }
+            };
+        }
+
+        CompiledScript getCompiledScript(String script) throws ScriptException {
+            CompiledScript ret = compiledScripts.get(script);
+
+            if (ret != null) {
+                cacheHits.incrementAndGet();
+
+                return ret;
+            }
+
+            cacheMisses.incrementAndGet();
+
+            if (!(engine instanceof Compilable)) {
+                throw new ScriptException("script engine " + engine.getClass().getName() + " does not support compilation");
+            }
+
+            long startTime = System.currentTimeMillis();
+
+            ret = ((Compilable) engine).compile(script);
+
+            compileTimeMs.addAndGet(System.currentTimeMillis() - startTime);
+            compilations++;
+            cacheSize.incrementAndGet();
+
+            compiledScripts.put(script, ret);
+
+            return ret;
+        }
+    }
+}
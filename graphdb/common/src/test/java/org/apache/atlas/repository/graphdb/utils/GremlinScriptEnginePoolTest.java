@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.utils;
+
+import org.testng.annotations.Test;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+public class GremlinScriptEnginePoolTest {
+
+    @Test
+    public void testScriptIsCompiledOnBorrowedEngine() throws Exception {
+        TestPool     pool   = new TestPool(2, 100, 10, 100);
+        ScriptEngine engine = pool.borrow();
+
+        assertEquals(pool.eval(engine, "x", Collections.singletonMap("x", 1)), "result");
+        assertEquals(pool.eval(engine, "x", Collections.singletonMap("x", 2)), "result");
+
+        verify((Compilable) engine, times(1)).compile("x");
+
+        pool.release(engine);
+
+        // the released engine, with its compiled script, is handed out again
+        assertSame(pool.borrow(), engine);
+        assertEquals(pool.created.size(), 1);
+        assertEquals(pool.getMetrics().get(GremlinScriptEnginePool.METRIC_CACHE_HITS).longValue(), 1);
+        assertEquals(pool.getMetrics().get(GremlinScriptEnginePool.METRIC_CACHE_MISSES).longValue(), 1);
+    }
+
+    @Test
+    public void testBorrowFailsWhenPoolIsExhausted() throws Exception {
+        TestPool     pool   = new TestPool(1, 10, 10, 100);
+        ScriptEngine engine = pool.borrow();
+
+        try {
+            pool.borrow();
+            fail("borrow beyond the pool size should fail");
+        } catch (ScriptException e) {
+            // expected
+        }
+
+        assertEquals(pool.created.size(), 1);
+
+        pool.release(engine);
+
+        assertSame(pool.borrow(), engine);
+    }
+
+    @Test(expectedExceptions = ScriptException.class)
+    public void testEvalRequiresBorrowedEngine() throws Exception {
+        TestPool     pool   = new TestPool(1, 10, 10, 100);
+        ScriptEngine engine = pool.borrow();
+
+        pool.release(engine);
+
+        pool.eval(engine, "x", null);
+    }
+
+    @Test
+    public void testEngineIsDiscardedAfterMaxCompilations() throws Exception {
+        TestPool     pool   = new TestPool(1, 10, 10, 1);
+        ScriptEngine engine = pool.borrow();
+
+        pool.eval(engine, "x", null);
+        pool.release(engine);
+
+        ScriptEngine next = pool.borrow();
+
+        assertNotSame(next, engine);
+        assertEquals(pool.destroyed, Collections.singletonList(engine));
+        assertEquals(pool.getMetrics().get(GremlinScriptEnginePool.METRIC_CACHE_SIZE).longValue(), 0);
+    }
+
+    private static class TestPool extends GremlinScriptEnginePool {
+        final List<ScriptEngine> created   = new ArrayList<>();
+        final List<ScriptEngine> destroyed = new ArrayList<>();
+
+        TestPool(int maxEngines, long borrowTimeoutMs, int maxCachedScripts, int maxCompilationsPerEngine) {
+            super(maxEngines, borrowTimeoutMs, maxCachedScripts, maxCompilationsPerEngine);
+        }
+
+        @Override
+        protected ScriptEngine createScriptEngine() throws ScriptException {
+            ScriptEngine   engine   = mock(ScriptEngine.class, withSettings().extraInterfaces(Compilable.class));
+            CompiledScript compiled = mock(CompiledScript.class);
+
+            when(engine.createBindings()).thenReturn(new SimpleBindings());
+            when(((Compilable) engine).compile(anyString())).thenReturn(compiled);
+            when(compiled.eval(any(Bindings.class))).thenReturn("result");
+
+            created.add(engine);
+
+            return engine;
+        }
+
+        @Override
+        protected void destroyScriptEngine(ScriptEngine scriptEngine) {
+            destroyed.add(scriptEngine);
+        }
+    }
+}
@@ -32,7 +32,9 @@ import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.io.graphson.GraphSONWriter;
 import com.tinkerpop.pipes.util.structures.Row;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.groovy.GroovyExpression;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
@@ -44,12 +46,13 @@ import org.apache.atlas.repository.graphdb.AtlasSchemaViolationException;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.graphdb.GremlinVersion;
 import org.apache.atlas.repository.graphdb.titan0.query.Titan0GraphQuery;
+import org.apache.atlas.repository.graphdb.utils.GremlinScriptEnginePool;
 import org.apache.atlas.repository.graphdb.utils.IteratorToIterableAdapter;
 import org.apache.atlas.typesystem.types.IDataType;
+import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.Bindings;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -75,7 +78,26 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
 
     private final Set<String> multiProperties;
 
+    private final GremlinScriptEnginePool scriptEnginePool;
+
     public Titan0Graph() {
+        scriptEnginePool = new GremlinScriptEnginePool(getApplicationProperties()) {
+            @Override
+            protected ScriptEngine createScriptEngine() throws ScriptException {
+                ScriptEngineManager manager = new ScriptEngineManager();
+                ScriptEngine        engine  = manager.getEngineByName("gremlin-groovy");
+
+                if (engine == null) {
+                    throw new ScriptException("failed to obtain gremlin-groovy script engine");
+                }
+
+                //Do not keep global closures of evaluated scripts; compiled scripts are cached by the pool
+                engine.getContext().setAttribute("#jsr223.groovy.engine.keep.globals", "phantom", ScriptContext.ENGINE_SCOPE);
+
+                return engine;
+            }
+        };
+
         //determine multi-properties once at startup
         TitanManagement mgmt = null;
         try {
@@ -291,22 +313,16 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
 
     @Override
     public ScriptEngine getGremlinScriptEngine() throws AtlasBaseException {
-        ScriptEngineManager manager = new ScriptEngineManager();
-        ScriptEngine        engine  = manager.getEngineByName("gremlin-groovy");
-
-        if (engine == null) {
+        try {
+            return scriptEnginePool.borrow();
+        } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_GREMLIN_SCRIPT_ENGINE, "gremlin-groovy");
         }
-
-        //Do not cache script compilations due to memory implications
-        engine.getContext().setAttribute("#jsr223.groovy.engine.keep.globals", "phantom", ScriptContext.ENGINE_SCOPE);
-
-        return engine;
     }
 
     @Override
     public void releaseGremlinScriptEngine(ScriptEngine scriptEngine) {
-        // no action needed
+        scriptEnginePool.release(scriptEngine);
     }
 
     @Override
@@ -315,7 +331,7 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
             LOG.debug("executeGremlinScript(query={}, userBindings={})", query, userBindings);
         }
 
-        Bindings bindings = scriptEngine.createBindings();
+        Map<String, Object> bindings = new HashMap<>();
 
         if (userBindings != null) {
             bindings.putAll(userBindings);
@@ -323,28 +339,51 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
 
         bindings.put("g", getGraph());
 
-        Object result = scriptEngine.eval(query, bindings);
+        Object result = scriptEnginePool.eval(scriptEngine, query, bindings);
+
+        return convertGremlinScriptResult(isPath, result);
+    }
+
+    @Override
+    public Object executeGremlinScript(String query, Map<String, Object> bindings, boolean isPath) throws AtlasBaseException {
+        Object result = executeGremlinScript(query, bindings);
 
         return convertGremlinScriptResult(isPath, result);
     }
 
+    @Override
+    public Map<String, Number> getGremlinScriptEngineMetrics() {
+        return scriptEnginePool.getMetrics();
+    }
+
     private Object executeGremlinScript(String gremlinQuery) throws AtlasBaseException {
-        Object       result = null;
-        ScriptEngine engine = getGremlinScriptEngine();
+        return executeGremlinScript(gremlinQuery, null);
+    }
 
-        try {
-            Bindings bindings = engine.createBindings();
+    private Object executeGremlinScript(String gremlinQuery, Map<String, Object> userBindings) throws AtlasBaseException {
+        Map<String, Object> bindings = new HashMap<>();
 
-            bindings.put("g", getGraph());
+        if (userBindings != null) {
+            bindings.putAll(userBindings);
+        }
 
-            result = engine.eval(gremlinQuery, bindings);
+        bindings.put("g", getGraph());
+
+        try {
+            return scriptEnginePool.eval(gremlinQuery, bindings);
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, gremlinQuery);
-        } finally {
-            releaseGremlinScriptEngine(engine);
         }
+    }
+
+    private static Configuration getApplicationProperties() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read application properties; using default Gremlin script engine pool settings", e);
 
-        return result;
+            return null;
+        }
     }
 
     @Override
@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.graphdb.titan0;
 
 import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.EdgeLabel;
 import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.schema.Mapping;
 import com.thinkaurelius.titan.core.schema.PropertyKeyMaker;
@@ -27,6 +28,7 @@ import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Vertex;
 import org.apache.atlas.repository.graphdb.AtlasCardinality;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraphIndex;
 import org.apache.atlas.repository.graphdb.AtlasGraphManagement;
 import org.apache.atlas.repository.graphdb.AtlasPropertyKey;
@@ -65,6 +67,19 @@ public class Titan0GraphManagement implements AtlasGraphManagement {
         management.buildIndex(index, titanClass).buildMixedIndex(backingIndex);
     }
 
+    @Override
+    public void createVertexCentricIndex(String edgeLabel, String indexName, AtlasEdgeDirection direction,
+                                         AtlasPropertyKey propertyKey) {
+
+        EdgeLabel label = management.containsEdgeLabel(edgeLabel) ? management.getEdgeLabel(edgeLabel)
+                : management.makeEdgeLabel(edgeLabel).make();
+
+        if (!management.containsRelationIndex(label, indexName)) {
+            PropertyKey titanKey = TitanObjectFactory.createPropertyKey(propertyKey);
+            management.buildEdgeIndex(label, indexName, TitanObjectFactory.createDirection(direction), titanKey);
+        }
+    }
+
     @Override
     public void createFullTextIndex(String indexName, AtlasPropertyKey propertyKey, String backingIndex) {
 
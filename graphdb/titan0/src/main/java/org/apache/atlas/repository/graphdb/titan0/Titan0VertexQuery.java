@@ -47,6 +47,18 @@ public class Titan0VertexQuery implements AtlasVertexQuery<Titan0Vertex, Titan0E
 
     }
 
+    @Override
+    public AtlasVertexQuery<Titan0Vertex, Titan0Edge> label(String edgeLabel) {
+        vertexQuery.labels(edgeLabel);
+        return this;
+    }
+
+    @Override
+    public AtlasVertexQuery<Titan0Vertex, Titan0Edge> has(String propertyKey, Object value) {
+        vertexQuery.has(propertyKey, value);
+        return this;
+    }
+
     @Override
     public Iterable<AtlasVertex<Titan0Vertex, Titan0Edge>> vertices() {
         Iterable<Vertex> vertices = vertexQuery.vertices();
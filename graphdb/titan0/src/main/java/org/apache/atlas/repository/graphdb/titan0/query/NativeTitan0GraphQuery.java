@@ -76,11 +76,13 @@ public class NativeTitan0GraphQuery implements NativeTitanGraphQuery<Titan0Verte
         Iterator<Vertex> iter   = query.limit(offset + limit).vertices().iterator();
 
         for (long resultIdx = 0; iter.hasNext() && result.size() < limit; resultIdx++) {
+            Vertex vertex = iter.next();
+
             if (resultIdx < offset) {
                 continue;
             }
 
-            result.add(iter.next());
+            result.add(vertex);
         }
 
         return graph.wrapVertices(result);
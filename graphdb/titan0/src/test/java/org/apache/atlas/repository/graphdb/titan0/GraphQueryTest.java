@@ -26,6 +26,7 @@ import static org.testng.AssertJUnit.assertTrue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 import org.apache.atlas.AtlasException;
@@ -401,6 +402,54 @@ public class GraphQueryTest extends AbstractGraphDatabaseTest {
 
     }
 
+    @Test
+    public void testOrQueryPagination() throws AtlasException {
+        Titan0Graph graph    = getTitan0Graph();
+        String      typeName = "Paged" + System.currentTimeMillis();
+
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 4; j++) {
+                AtlasVertex<Titan0Vertex, Titan0Edge> v = createVertex(graph);
+                v.setProperty("name", typeName + i);
+                v.setProperty("typeName", typeName);
+            }
+        }
+
+        graph.commit();
+        pause(); //let the index update
+
+        AtlasGraphQuery       q        = getGraphQuery();
+        List<AtlasGraphQuery> children = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            AtlasGraphQuery child = q.createChildQuery();
+            child.has("name", typeName + i);
+            children.add(child);
+        }
+
+        //matches the vertices of all the other children
+        AtlasGraphQuery all = q.createChildQuery();
+        all.has("typeName", typeName);
+        children.add(all);
+
+        q.or(children);
+
+        List<AtlasVertex> result = toList(q.vertices(0, 100));
+
+        assertEquals(20, result.size());
+        assertEquals(20, new HashSet<>(result).size());
+        //same order on every execution
+        assertEquals(result, toList(q.vertices(0, 100)));
+
+        List<AtlasVertex> pages = new ArrayList<>();
+
+        for (int offset = 0; offset < 20; offset += 6) {
+            pages.addAll(toList(q.vertices(offset, 6)));
+        }
+
+        assertEquals(result, pages);
+    }
+
     private static <T> List<T> toList(Iterable<T> itr) {
         List<T> result = new ArrayList<>();
         for(T object : itr) {
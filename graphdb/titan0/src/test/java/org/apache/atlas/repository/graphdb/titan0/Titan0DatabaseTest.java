@@ -30,6 +30,7 @@ import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
 import org.apache.atlas.repository.graphdb.AtlasPropertyKey;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.graphdb.utils.GremlinScriptEnginePool;
 import org.apache.atlas.typesystem.types.DataTypes.TypeCategory;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
@@ -40,7 +41,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.testng.Assert.*;
 
@@ -394,6 +397,27 @@ public class Titan0DatabaseTest {
         validateDuplicatePropertyVertex(graph.getVertex(vertexId));
     }
 
+    @Test
+    public <V, E> void testParameterizedGremlinScriptIsCompiledOnce() throws Exception {
+        AtlasGraph<V, E> graph  = getGraph();
+        String           query  = "offset + 1";
+        long             misses = graph.getGremlinScriptEngineMetrics().get(GremlinScriptEnginePool.METRIC_CACHE_MISSES).longValue();
+        long             hits   = graph.getGremlinScriptEngineMetrics().get(GremlinScriptEnginePool.METRIC_CACHE_HITS).longValue();
+
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> bindings = new HashMap<>();
+
+            bindings.put("offset", i);
+
+            assertEquals(graph.executeGremlinScript(query, bindings, false), i + 1);
+        }
+
+        Map<String, Number> metrics = graph.getGremlinScriptEngineMetrics();
+
+        assertEquals(metrics.get(GremlinScriptEnginePool.METRIC_CACHE_MISSES).longValue(), misses + 1);
+        assertEquals(metrics.get(GremlinScriptEnginePool.METRIC_CACHE_HITS).longValue(), hits + 2);
+    }
+
     private <V, E> void validateDuplicatePropertyVertex(AtlasVertex<V, E> vertex) {
         assertEquals(2, vertex.getPropertyValues(Constants.TRAIT_NAMES_PROPERTY_KEY, String.class).size());
         assertTrue(vertex.getPropertyKeys().contains(Constants.TRAIT_NAMES_PROPERTY_KEY));
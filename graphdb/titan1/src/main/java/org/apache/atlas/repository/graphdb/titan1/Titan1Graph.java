@@ -29,7 +29,9 @@ import com.thinkaurelius.titan.core.TitanIndexQuery;
 import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
 import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.thinkaurelius.titan.core.util.TitanCleanup;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.groovy.GroovyExpression;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
@@ -41,8 +43,10 @@ import org.apache.atlas.repository.graphdb.AtlasSchemaViolationException;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.graphdb.GremlinVersion;
 import org.apache.atlas.repository.graphdb.titan1.query.Titan1GraphQuery;
+import org.apache.atlas.repository.graphdb.utils.GremlinScriptEnginePool;
 import org.apache.atlas.repository.graphdb.utils.IteratorToIterableAdapter;
 import org.apache.atlas.typesystem.types.IDataType;
+import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.groovy.CompilerCustomizerProvider;
 import org.apache.tinkerpop.gremlin.groovy.DefaultImportCustomizerProvider;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
@@ -55,13 +59,15 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.io.IoCore;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import javax.script.Bindings;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -72,6 +78,7 @@ import java.util.Set;
  * Titan 1.0.0 implementation of AtlasGraph.
  */
 public class Titan1Graph implements AtlasGraph<Titan1Vertex, Titan1Edge> {
+    private static final Logger LOG = LoggerFactory.getLogger(Titan1Graph.class);
 
     private final ConvertGremlinValueFunction GREMLIN_VALUE_CONVERSION_FUNCTION = new ConvertGremlinValueFunction();
 
@@ -84,7 +91,21 @@ public class Titan1Graph implements AtlasGraph<Titan1Vertex, Titan1Edge> {
 
     private final Set<String> multiProperties;
 
+    private final GremlinScriptEnginePool scriptEnginePool;
+
     public Titan1Graph() {
+        scriptEnginePool = new GremlinScriptEnginePool(getApplicationProperties()) {
+            @Override
+            protected ScriptEngine createScriptEngine() {
+                return createGremlinScriptEngine();
+            }
+
+            @Override
+            protected void destroyScriptEngine(ScriptEngine scriptEngine) {
+                closeGremlinScriptEngine(scriptEngine);
+            }
+        };
+
         //determine multi-properties once at startup
         TitanManagement mgmt = null;
         try {
@@ -295,53 +316,45 @@ public class Titan1Graph implements AtlasGraph<Titan1Vertex, Titan1Edge> {
     }
 
     @Override
-    public GremlinGroovyScriptEngine getGremlinScriptEngine() {
-        Set<String> extraImports = new HashSet<String>();
-        extraImports.add(java.util.function.Function.class.getName());
-
-        Set<String> extraStaticImports = new HashSet<String>();
-        extraStaticImports.add(P.class.getName() + ".*");
-        extraStaticImports.add(__.class.getName() + ".*");
-        CompilerCustomizerProvider provider = new DefaultImportCustomizerProvider(extraImports, extraStaticImports);
-
-        GremlinGroovyScriptEngine scriptEngine = new GremlinGroovyScriptEngine(provider);
-
-        return scriptEngine;
+    public ScriptEngine getGremlinScriptEngine() throws AtlasBaseException {
+        try {
+            return scriptEnginePool.borrow();
+        } catch (ScriptException e) {
+            throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_GREMLIN_SCRIPT_ENGINE, "gremlin-groovy");
+        }
     }
 
     @Override
     public void releaseGremlinScriptEngine(ScriptEngine scriptEngine) {
-        if (scriptEngine instanceof GremlinGroovyScriptEngine) {
-            try {
-                ((GremlinGroovyScriptEngine)scriptEngine).close();
-            } catch (Exception e) {
-                // ignore
-            }
-        }
+        scriptEnginePool.release(scriptEngine);
     }
 
     @Override
     public Object executeGremlinScript(String query, boolean isPath) throws AtlasBaseException {
-        Object result = executeGremlinScript(query);
+        Object result = executeGremlinScript(query, null);
         return convertGremlinValue(result);
     }
 
-    private Object executeGremlinScript(String gremlinQuery) throws AtlasBaseException {
-        GremlinGroovyScriptEngine scriptEngine = getGremlinScriptEngine();
+    @Override
+    public Object executeGremlinScript(String query, Map<String, Object> bindings, boolean isPath) throws AtlasBaseException {
+        Object result = executeGremlinScript(query, bindings);
+        return convertGremlinValue(result);
+    }
 
-        try {
-            Bindings bindings = scriptEngine.createBindings();
+    private Object executeGremlinScript(String gremlinQuery, Map<String, Object> userBindings) throws AtlasBaseException {
+        Map<String, Object> bindings = new HashMap<>();
 
-            bindings.put("graph", getGraph());
-            bindings.put("g", getGraph().traversal());
+        if (userBindings != null) {
+            bindings.putAll(userBindings);
+        }
 
-            Object result = scriptEngine.eval(gremlinQuery, bindings);
+        bindings.put("graph", getGraph());
+        bindings.put("g", getGraph().traversal());
 
-            return result;
+        try {
+            return scriptEnginePool.eval(gremlinQuery, bindings);
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, gremlinQuery);
-        } finally {
-            releaseGremlinScriptEngine(scriptEngine);
         }
     }
 
@@ -349,15 +362,57 @@ public class Titan1Graph implements AtlasGraph<Titan1Vertex, Titan1Edge> {
     public Object executeGremlinScript(ScriptEngine scriptEngine,
             Map<? extends  String, ? extends  Object> userBindings, String query, boolean isPath)
             throws ScriptException {
-        Bindings bindings = scriptEngine.createBindings();
+        Map<String, Object> bindings = new HashMap<>();
+
+        if (userBindings != null) {
+            bindings.putAll(userBindings);
+        }
 
-        bindings.putAll(userBindings);
         bindings.put("g", getGraph());
 
-        Object result = scriptEngine.eval(query, bindings);
+        Object result = scriptEnginePool.eval(scriptEngine, query, bindings);
         return convertGremlinValue(result);
     }
 
+    @Override
+    public Map<String, Number> getGremlinScriptEngineMetrics() {
+        return scriptEnginePool.getMetrics();
+    }
+
+    private GremlinGroovyScriptEngine createGremlinScriptEngine() {
+        Set<String> extraImports = new HashSet<String>();
+        extraImports.add(java.util.function.Function.class.getName());
+
+        Set<String> extraStaticImports = new HashSet<String>();
+        extraStaticImports.add(P.class.getName() + ".*");
+        extraStaticImports.add(__.class.getName() + ".*");
+        CompilerCustomizerProvider provider = new DefaultImportCustomizerProvider(extraImports, extraStaticImports);
+
+        GremlinGroovyScriptEngine scriptEngine = new GremlinGroovyScriptEngine(provider);
+
+        return scriptEngine;
+    }
+
+    private void closeGremlinScriptEngine(ScriptEngine scriptEngine) {
+        if (scriptEngine instanceof GremlinGroovyScriptEngine) {
+            try {
+                ((GremlinGroovyScriptEngine)scriptEngine).close();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    private static Configuration getApplicationProperties() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read application properties; using default Gremlin script engine pool settings", e);
+
+            return null;
+        }
+    }
+
     @Override
     public GroovyExpression generatePersisentToLogicalConversionExpression(GroovyExpression expr, IDataType<?> type) {
         //nothing special needed, value is stored in required type
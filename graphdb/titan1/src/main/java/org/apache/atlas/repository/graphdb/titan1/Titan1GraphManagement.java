@@ -19,6 +19,7 @@ package org.apache.atlas.repository.graphdb.titan1;
 
 import com.google.common.base.Preconditions;
 import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.EdgeLabel;
 import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.schema.Mapping;
 import com.thinkaurelius.titan.core.schema.PropertyKeyMaker;
@@ -26,6 +27,7 @@ import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
 import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.thinkaurelius.titan.graphdb.internal.Token;
 import org.apache.atlas.repository.graphdb.AtlasCardinality;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraphIndex;
 import org.apache.atlas.repository.graphdb.AtlasGraphManagement;
 import org.apache.atlas.repository.graphdb.AtlasPropertyKey;
@@ -80,6 +82,19 @@ public class Titan1GraphManagement implements AtlasGraphManagement {
         management.buildIndex(index, titanClass).buildMixedIndex(backingIndex);
     }
 
+    @Override
+    public void createVertexCentricIndex(String edgeLabel, String indexName, AtlasEdgeDirection direction,
+                                         AtlasPropertyKey propertyKey) {
+
+        EdgeLabel label = management.containsEdgeLabel(edgeLabel) ? management.getEdgeLabel(edgeLabel)
+                : management.makeEdgeLabel(edgeLabel).make();
+
+        if (!management.containsRelationIndex(label, indexName)) {
+            PropertyKey titanKey = TitanObjectFactory.createPropertyKey(propertyKey);
+            management.buildEdgeIndex(label, indexName, TitanObjectFactory.createDirection(direction), titanKey);
+        }
+    }
+
     @Override
     public void createFullTextIndex(String indexName, AtlasPropertyKey propertyKey, String backingIndex) {
 
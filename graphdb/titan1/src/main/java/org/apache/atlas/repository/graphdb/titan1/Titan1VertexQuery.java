@@ -45,6 +45,18 @@ public class Titan1VertexQuery implements AtlasVertexQuery<Titan1Vertex, Titan1E
 
     }
 
+    @Override
+    public AtlasVertexQuery<Titan1Vertex, Titan1Edge> label(String edgeLabel) {
+        query.labels(edgeLabel);
+        return this;
+    }
+
+    @Override
+    public AtlasVertexQuery<Titan1Vertex, Titan1Edge> has(String propertyKey, Object value) {
+        query.has(propertyKey, value);
+        return this;
+    }
+
     @Override
     public Iterable<AtlasVertex<Titan1Vertex, Titan1Edge>> vertices() {
         Iterable vertices = query.vertices();
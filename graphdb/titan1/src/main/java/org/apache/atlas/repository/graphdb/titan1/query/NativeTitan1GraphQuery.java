@@ -75,11 +75,13 @@ public class NativeTitan1GraphQuery implements NativeTitanGraphQuery<Titan1Verte
         Iterator<? extends Vertex> iter   = query.limit(offset + limit).vertices().iterator();
 
         for (long resultIdx = 0; iter.hasNext() && result.size() < limit; resultIdx++) {
+            Vertex vertex = iter.next();
+
             if (resultIdx < offset) {
                 continue;
             }
 
-            result.add(iter.next());
+            result.add(vertex);
         }
 
         return graph.wrapVertices(result);
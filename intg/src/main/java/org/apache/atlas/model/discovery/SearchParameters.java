@@ -43,6 +43,7 @@ public class SearchParameters {
     private boolean excludeDeletedEntities;
     private int     limit;
     private int     offset;
+    private String  continuationToken;
 
     private FilterCriteria entityFilters;
     private FilterCriteria tagFilters;
@@ -138,6 +139,21 @@ public class SearchParameters {
         this.offset = offset;
     }
 
+    /**
+     * @return Token, from the result of the previous page, to continue the search from; offset is ignored when set
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Continue the search from where the previous page ended
+     * @param continuationToken continuationToken returned with the previous page of results
+     */
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     /**
      * Entity attribute filters for the type (if type name is specified)
      * @return
@@ -194,6 +210,7 @@ public class SearchParameters {
         return excludeDeletedEntities == that.excludeDeletedEntities &&
                 limit == that.limit &&
                 offset == that.offset &&
+                Objects.equals(continuationToken, that.continuationToken) &&
                 Objects.equals(query, that.query) &&
                 Objects.equals(typeName, that.typeName) &&
                 Objects.equals(classification, that.classification) &&
@@ -204,7 +221,7 @@ public class SearchParameters {
 
     @Override
     public int hashCode() {
-        return Objects.hash(query, typeName, classification, excludeDeletedEntities, limit, offset, entityFilters, tagFilters, attributes);
+        return Objects.hash(query, typeName, classification, excludeDeletedEntities, limit, offset, continuationToken, entityFilters, tagFilters, attributes);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -219,6 +236,7 @@ public class SearchParameters {
         sb.append(", excludeDeletedEntities=").append(excludeDeletedEntities);
         sb.append(", limit=").append(limit);
         sb.append(", offset=").append(offset);
+        sb.append(", continuationToken='").append(continuationToken).append('\'');
         sb.append(", entityFilters=").append(entityFilters);
         sb.append(", tagFilters=").append(tagFilters);
         sb.append(", attributes=").append(attributes);
@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.model.tasks;
+
+import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.codehaus.jackson.annotate.JsonAutoDetect.Visibility.NONE;
+import static org.codehaus.jackson.annotate.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * A long-running operation (export, import, bulk delete, bulk classification) executed in the background.
+ *
+ * processedCount is also the checkpoint of the task: a task interrupted by a restart, or a failover, of the server
+ * resumes from the first item not yet processed.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonSerialize(include=JsonSerialize.Inclusion.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class AtlasTask implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Status { PENDING, IN_PROGRESS, COMPLETE, FAILED, CANCELLED }
+
+    private String              guid;
+    private String              type;
+    private Status              status;
+    private String              createdBy;
+    private long                createdTime;
+    private long                startTime;
+    private long                endTime;
+    private int                 totalCount;
+    private int                 processedCount;
+    private int                 failedCount;
+    private boolean             cancelRequested;
+    private List<String>        errors;
+    private Map<String, String> parameters;
+    private Object              result;
+
+    public AtlasTask() {
+    }
+
+    public AtlasTask(String guid, String type, String createdBy, Map<String, String> parameters, int totalCount) {
+        setGuid(guid);
+        setType(type);
+        setStatus(Status.PENDING);
+        setCreatedBy(createdBy);
+        setCreatedTime(System.currentTimeMillis());
+        setParameters(parameters);
+        setTotalCount(totalCount);
+    }
+
+    public AtlasTask(AtlasTask other) {
+        if (other != null) {
+            setGuid(other.getGuid());
+            setType(other.getType());
+            setStatus(other.getStatus());
+            setCreatedBy(other.getCreatedBy());
+            setCreatedTime(other.getCreatedTime());
+            setStartTime(other.getStartTime());
+            setEndTime(other.getEndTime());
+            setTotalCount(other.getTotalCount());
+            setProcessedCount(other.getProcessedCount());
+            setFailedCount(other.getFailedCount());
+            setCancelRequested(other.isCancelRequested());
+            setErrors(other.getErrors() != null ? new ArrayList<>(other.getErrors()) : null);
+            setParameters(other.getParameters() != null ? new HashMap<>(other.getParameters()) : null);
+            setResult(other.getResult());
+        }
+    }
+
+    public String getGuid() { return guid; }
+
+    public void setGuid(String guid) { this.guid = guid; }
+
+    public String getType() { return type; }
+
+    public void setType(String type) { this.type = type; }
+
+    public Status getStatus() { return status; }
+
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getCreatedBy() { return createdBy; }
+
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+
+    public long getCreatedTime() { return createdTime; }
+
+    public void setCreatedTime(long createdTime) { this.createdTime = createdTime; }
+
+    public long getStartTime() { return startTime; }
+
+    public void setStartTime(long startTime) { this.startTime = startTime; }
+
+    public long getEndTime() { return endTime; }
+
+    public void setEndTime(long endTime) { this.endTime = endTime; }
+
+    /**
+     * @return number of items (entities, for most tasks) to process; 0 if not known in advance
+     */
+    public int getTotalCount() { return totalCount; }
+
+    public void setTotalCount(int totalCount) { this.totalCount = totalCount; }
+
+    /**
+     * @return number of items processed, and committed, so far; including the failed ones
+     */
+    public int getProcessedCount() { return processedCount; }
+
+    public void setProcessedCount(int processedCount) { this.processedCount = processedCount; }
+
+    public int getFailedCount() { return failedCount; }
+
+    public void setFailedCount(int failedCount) { this.failedCount = failedCount; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    /**
+     * @return messages of the failures; only the first few failures are reported
+     */
+    public List<String> getErrors() { return errors; }
+
+    public void setErrors(List<String> errors) { this.errors = errors; }
+
+    /**
+     * @return parameters of the task, as given when it was submitted; specific to the type of the task
+     */
+    public Map<String, String> getParameters() { return parameters; }
+
+    public void setParameters(Map<String, String> parameters) { this.parameters = parameters; }
+
+    /**
+     * @return result of a completed task, like the AtlasExportResult of an export; specific to the type of the task
+     */
+    public Object getResult() { return result; }
+
+    public void setResult(Object result) { this.result = result; }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETE || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if (sb == null) {
+            sb = new StringBuilder();
+        }
+
+        sb.append("AtlasTask{");
+        sb.append("guid='").append(guid).append('\'');
+        sb.append(", type='").append(type).append('\'');
+        sb.append(", status=").append(status);
+        sb.append(", createdBy='").append(createdBy).append('\'');
+        sb.append(", createdTime=").append(createdTime);
+        sb.append(", startTime=").append(startTime);
+        sb.append(", endTime=").append(endTime);
+        sb.append(", totalCount=").append(totalCount);
+        sb.append(", processedCount=").append(processedCount);
+        sb.append(", failedCount=").append(failedCount);
+        sb.append(", cancelRequested=").append(cancelRequested);
+        sb.append(", errors=[");
+        AtlasBaseTypeDef.dumpObjects(errors, sb);
+        sb.append("]");
+        sb.append('}');
+
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(new StringBuilder()).toString();
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.type.AtlasBuiltInTypes.AtlasObjectIdType;
 import org.apache.commons.collections.CollectionUtils;
@@ -55,6 +57,7 @@ public class AtlasEntityType extends AtlasStructType {
     private Set<String>                              typeAndAllSuperTypes       = Collections.emptySet();
     private Map<String, AtlasAttribute>              relationshipAttributes     = Collections.emptyMap();
     private Map<String, List<AtlasRelationshipType>> relationshipAttributesType = Collections.emptyMap();
+    private Map<String, AtlasRelationshipEndDef>     relationshipAttributesEnd  = Collections.emptyMap();
     private String                                   typeAndAllSubTypesQryStr   = "";
 
     public AtlasEntityType(AtlasEntityDef entityDef) {
@@ -154,6 +157,7 @@ public class AtlasEntityType extends AtlasStructType {
         typeAndAllSubTypesQryStr   = ""; // will be computed on next access
         relationshipAttributes     = Collections.unmodifiableMap(relationshipAttributes);
         relationshipAttributesType = Collections.unmodifiableMap(relationshipAttributesType);
+        relationshipAttributesEnd  = Collections.unmodifiableMap(getRelationshipAttributesEnd(typeRegistry));
     }
 
     public Set<String> getSuperTypes() {
@@ -219,6 +223,15 @@ public class AtlasEntityType extends AtlasStructType {
         return relationshipAttributesType;
     }
 
+    /**
+     * Returns the end of the relationship this type takes part in through the given relationship attribute. Null is
+     * returned when the attribute is defined by more than one relationship type, in which case the relationship is
+     * determined by the edges of the instance.
+     */
+    public AtlasRelationshipEndDef getRelationshipAttributeEnd(String attributeName) {
+        return relationshipAttributesEnd.get(attributeName);
+    }
+
     public String getTypeAndAllSubTypesQryStr() {
         if (StringUtils.isEmpty(typeAndAllSubTypesQryStr)) {
             typeAndAllSubTypesQryStr = AtlasAttribute.escapeIndexQueryValue(typeAndAllSubTypes);
@@ -438,6 +451,33 @@ public class AtlasEntityType extends AtlasStructType {
         typeAndAllSubTypes.add(subType.getTypeName());
     }
 
+    private Map<String, AtlasRelationshipEndDef> getRelationshipAttributesEnd(AtlasTypeRegistry typeRegistry) {
+        Map<String, AtlasRelationshipEndDef> ret = new HashMap<>();
+
+        for (Map.Entry<String, List<AtlasRelationshipType>> entry : relationshipAttributesType.entrySet()) {
+            String                      attributeName     = entry.getKey();
+            List<AtlasRelationshipType> relationshipTypes = entry.getValue();
+
+            if (relationshipTypes == null || relationshipTypes.size() != 1) {
+                continue;
+            }
+
+            AtlasRelationshipDef    relationshipDef = relationshipTypes.get(0).getRelationshipDef();
+            AtlasRelationshipEndDef endDef1         = relationshipDef.getEndDef1();
+            AtlasRelationshipEndDef endDef2         = relationshipDef.getEndDef2();
+            AtlasEntityType         endDef1Type     = typeRegistry.getEntityTypeByName(endDef1.getType());
+            AtlasEntityType         endDef2Type     = typeRegistry.getEntityTypeByName(endDef2.getType());
+
+            if (endDef1Type != null && endDef1Type.isTypeOrSuperTypeOf(getTypeName()) && StringUtils.equals(endDef1.getName(), attributeName)) {
+                ret.put(attributeName, endDef1);
+            } else if (endDef2Type != null && endDef2Type.isTypeOrSuperTypeOf(getTypeName()) && StringUtils.equals(endDef2.getName(), attributeName)) {
+                ret.put(attributeName, endDef2);
+            }
+        }
+
+        return ret;
+    }
+
     private void getTypeHierarchyInfo(AtlasTypeRegistry              typeRegistry,
                                       Set<String>                    allSuperTypeNames,
                                       Map<String, AtlasAttribute> allAttributes) throws AtlasBaseException {
@@ -23,6 +23,7 @@ import static org.apache.atlas.model.typedef.AtlasStructDef.AtlasConstraintDef.C
 
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.instance.AtlasStruct;
 import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasConstraintDef;
@@ -607,6 +608,8 @@ public class AtlasStructType extends AtlasType {
         private final AtlasAttributeDef        attributeDef;
         private final String                   qualifiedName;
         private final String                   vertexPropertyName;
+        private final String                   qualifiedEdgeLabel;
+        private final Object                   defaultValue;
         private final boolean                  isOwnedRef;
         private final String                   inverseRefAttributeName;
         private AtlasAttribute                 inverseRefAttribute;
@@ -619,6 +622,8 @@ public class AtlasStructType extends AtlasType {
             this.attributeType            = attributeType.getTypeForAttribute();
             this.qualifiedName            = getQualifiedAttributeName(definedInType.getStructDef(), attributeDef.getName());
             this.vertexPropertyName       = encodePropertyKey(this.qualifiedName);
+            this.qualifiedEdgeLabel       = getEdgeLabel(this.qualifiedName);
+            this.defaultValue             = getDefaultValue(this.attributeType, attrDef);
             this.relationshipEdgeLabel    = getRelationshipEdgeLabel(relationshipLabel);
             boolean isOwnedRef            = false;
             String  inverseRefAttribute   = null;
@@ -668,6 +673,14 @@ public class AtlasStructType extends AtlasType {
 
         public String getVertexPropertyName() { return vertexPropertyName; }
 
+        public String getQualifiedEdgeLabel() { return qualifiedEdgeLabel; }
+
+        /**
+         * Value to store for the attribute when an instance has no value for it; computed once, from the default
+         * value in the attribute definition, for primitive attributes. Null for other attributes.
+         */
+        public Object getDefaultValue() { return defaultValue; }
+
         public boolean isOwnedRef() { return isOwnedRef; }
 
         public String getInverseRefAttributeName() { return inverseRefAttributeName; }
@@ -747,6 +760,22 @@ public class AtlasStructType extends AtlasType {
             return ret;
         }
 
+        private static Object getDefaultValue(AtlasType attributeType, AtlasAttributeDef attributeDef) {
+            final Object ret;
+
+            if (attributeType.getTypeCategory() != TypeCategory.PRIMITIVE) {
+                ret = null;
+            } else if (attributeDef.getDefaultValue() != null) {
+                ret = attributeType.createDefaultValue(attributeDef.getDefaultValue());
+            } else if (attributeDef.getIsOptional()) {
+                ret = attributeType.createOptionalDefaultValue();
+            } else {
+                ret = attributeType.createDefaultValue();
+            }
+
+            return ret;
+        }
+
         private String getRelationshipEdgeLabel(String relationshipLabel) {
             return (relationshipLabel == null) ? getEdgeLabel(vertexPropertyName) : relationshipLabel;
         }
@@ -21,10 +21,13 @@ package org.apache.atlas.type;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.map.DeserializationConfig;
 import org.codehaus.jackson.map.ObjectMapper;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 
@@ -114,6 +117,19 @@ public abstract class AtlasType {
         return ret;
     }
 
+    /**
+     * Writes the JSON of the given object to the stream, without building the JSON string; the stream is not closed.
+     */
+    public static void toJson(Object obj, OutputStream out) throws IOException {
+        JsonGenerator generator = mapper.getJsonFactory().createJsonGenerator(out, JsonEncoding.UTF8);
+
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        mapper.writeValue(generator, obj);
+
+        generator.flush();
+    }
+
     public static <T> T fromJson(String jsonStr, Class<T> type) {
         T ret;
         try {
@@ -177,6 +177,26 @@ public class TestAtlasRelationshipType {
         Assert.assertEquals(employeesAttr1.getTypeName(),AtlasBaseTypeDef.getArrayTypeName(EMPLOYEE_TYPE));
     }
 
+    @Test(dependsOnMethods = "createTypesAndRelationships")
+    public void testRelationshipAttributeEnd() throws Exception {
+        AtlasEntityType employeeType = typeRegistry.getEntityTypeByName(EMPLOYEE_TYPE);
+        AtlasEntityType deptType     = typeRegistry.getEntityTypeByName(DEPARTMENT_TYPE);
+
+        AtlasRelationshipEndDef deptEnd = employeeType.getRelationshipAttributeEnd("department");
+
+        Assert.assertNotNull(deptEnd);
+        Assert.assertEquals(deptEnd.getType(), EMPLOYEE_TYPE);
+        Assert.assertEquals(deptEnd.getCardinality(), Cardinality.SINGLE);
+
+        AtlasRelationshipEndDef employeesEnd = deptType.getRelationshipAttributeEnd("employees");
+
+        Assert.assertNotNull(employeesEnd);
+        Assert.assertEquals(employeesEnd.getType(), DEPARTMENT_TYPE);
+        Assert.assertEquals(employeesEnd.getCardinality(), Cardinality.SET);
+
+        Assert.assertNull(employeeType.getRelationshipAttributeEnd("name"));
+    }
+
     @Test(dependsOnMethods = "testRelationshipAttributes")
     public void testRelationshipAttributesOnExistingAttributes() throws Exception {
         AtlasRelationshipDef employeePhoneRelationDef = new AtlasRelationshipDef(EMPLOYEE_PHONE_RELATION_TYPE, getDescription(EMPLOYEE_PHONE_RELATION_TYPE), "1.0",
@@ -0,0 +1,678 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hook;
+
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.hook.HookNotification.EntityCreateRequest;
+import org.apache.atlas.notification.hook.HookNotification.EntityUpdateRequest;
+import org.apache.atlas.notification.hook.HookNotification.HookNotificationMessage;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.Struct;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends hook notification messages from a background thread, so that hooks don't wait for the messaging system.
+ *
+ * Messages are queued in a bounded queue and sent in batches - when a batch has the configured number of messages or
+ * the flush interval has passed since its first message. Consecutive create/full-update messages of a batch from the
+ * same hook and user are combined into a single message, up to a number of entities and a message size. Messages
+ * that refer to the same entity - like the hive_db of consecutive queries - each carry their own copy of it, under a
+ * different temporary id; the combined message carries a single copy, referred to by id everywhere else.
+ *
+ * When the queue is full, the backpressure policy decides what happens to a new message: the hook waits for space
+ * (BLOCK), the oldest queued message is dropped (DROP_OLDEST), or the new message is written to the failed messages
+ * log (SPILL). Messages still queued when the JVM exits are sent, within the shutdown timeout.
+ */
+public class AsyncHookNotifier {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncHookNotifier.class);
+
+    public static final String CONF_PREFIX                    = "atlas.notification.hook.async.";
+    public static final String ENABLED_PROPERTY               = CONF_PREFIX + "enabled";
+    public static final String QUEUE_SIZE_PROPERTY            = CONF_PREFIX + "queue.size";
+    public static final String BATCH_SIZE_PROPERTY            = CONF_PREFIX + "batch.size";
+    public static final String FLUSH_INTERVAL_MS_PROPERTY     = CONF_PREFIX + "flush.interval.ms";
+    public static final String BACKPRESSURE_POLICY_PROPERTY   = CONF_PREFIX + "backpressure.policy";
+    public static final String SHUTDOWN_TIMEOUT_MS_PROPERTY   = CONF_PREFIX + "shutdown.timeout.ms";
+    public static final String MAX_COMBINED_ENTITIES_PROPERTY = CONF_PREFIX + "max.combined.entities";
+    public static final String MAX_COMBINED_SIZE_PROPERTY     = CONF_PREFIX + "max.combined.size";
+
+    public static final int    DEFAULT_QUEUE_SIZE            = 10000;
+    public static final int    DEFAULT_BATCH_SIZE            = 100;
+    public static final long   DEFAULT_FLUSH_INTERVAL_MS     = 500;
+    public static final long   DEFAULT_SHUTDOWN_TIMEOUT_MS   = 10000;
+    public static final int    DEFAULT_MAX_COMBINED_ENTITIES = 1000;
+    public static final int    DEFAULT_MAX_COMBINED_SIZE     = 512 * 1024; // well below the default max.request.size of kafka producers
+
+    public static final String METRIC_QUEUED   = "messagesQueued";
+    public static final String METRIC_SENT     = "messagesSent";
+    public static final String METRIC_FAILED   = "messagesFailed";
+    public static final String METRIC_DROPPED  = "messagesDropped";
+    public static final String METRIC_SPILLED  = "messagesSpilled";
+    public static final String METRIC_COMBINED = "messagesCombined";
+
+    private static final String QUALIFIED_NAME        = "qualifiedName";
+    private static final int    ENTITY_SIZE_ESTIMATE  = 400; // json class, id, traits and system attributes of an entity
+    private static final int    STRUCT_SIZE_ESTIMATE  = 100;
+    private static final int    ID_SIZE_ESTIMATE      = 150;
+    private static final int    SCALAR_SIZE_ESTIMATE  = 20;
+
+    public enum BackpressurePolicy { BLOCK, DROP_OLDEST, SPILL }
+
+    private final NotificationInterface                notificationInterface;
+    private final boolean                              logFailedMessages;
+    private final FailedMessagesLogger                 failedMessagesLogger;
+    private final LinkedBlockingQueue<QueuedMessage>   queue;
+    private final int                                  batchSize;
+    private final long                                 flushIntervalMs;
+    private final long                                 shutdownTimeoutMs;
+    private final int                                  maxCombinedEntities;
+    private final int                                  maxCombinedSize;
+    private final BackpressurePolicy                   backpressurePolicy;
+    private final ConcurrentMap<String, HookMetrics>   metrics = new ConcurrentHashMap<>();
+    private final Thread                               senderThread;
+    private volatile boolean                           isRunning = true;
+
+    public AsyncHookNotifier(Configuration configuration, NotificationInterface notificationInterface,
+                             boolean logFailedMessages, FailedMessagesLogger failedMessagesLogger) {
+        this.notificationInterface = notificationInterface;
+        this.logFailedMessages     = logFailedMessages;
+        this.failedMessagesLogger  = failedMessagesLogger;
+        this.queue                 = new LinkedBlockingQueue<>(configuration.getInt(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE));
+        this.batchSize             = Math.max(1, configuration.getInt(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE));
+        this.flushIntervalMs       = configuration.getLong(FLUSH_INTERVAL_MS_PROPERTY, DEFAULT_FLUSH_INTERVAL_MS);
+        this.shutdownTimeoutMs     = configuration.getLong(SHUTDOWN_TIMEOUT_MS_PROPERTY, DEFAULT_SHUTDOWN_TIMEOUT_MS);
+        this.maxCombinedEntities   = configuration.getInt(MAX_COMBINED_ENTITIES_PROPERTY, DEFAULT_MAX_COMBINED_ENTITIES);
+        this.maxCombinedSize       = configuration.getInt(MAX_COMBINED_SIZE_PROPERTY, DEFAULT_MAX_COMBINED_SIZE);
+        this.backpressurePolicy    = getBackpressurePolicy(configuration);
+        this.senderThread          = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sendQueuedMessages();
+            }
+        }, "atlas-hook-notifier");
+
+        senderThread.setDaemon(true);
+        senderThread.start();
+
+        LOG.info("Created async hook notifier: queueSize={}, batchSize={}, flushIntervalMs={}, backpressurePolicy={}",
+                 queue.remainingCapacity(), batchSize, flushIntervalMs, backpressurePolicy);
+    }
+
+    public static boolean isEnabled(Configuration configuration) {
+        return configuration != null && configuration.getBoolean(ENABLED_PROPERTY, false);
+    }
+
+    /**
+     * Queues the given messages to be sent.
+     *
+     * @param source      name of the hook sending the messages, for metrics
+     * @param messages    hook notification messages
+     * @param maxRetries  maximum number of retries while sending the messages
+     */
+    public void send(String source, List<HookNotificationMessage> messages, int maxRetries) {
+        HookMetrics hookMetrics = getHookMetrics(source);
+
+        for (HookNotificationMessage message : messages) {
+            QueuedMessage queuedMessage = new QueuedMessage(source, message, maxRetries);
+
+            if (queue.offer(queuedMessage)) {
+                hookMetrics.queued.incrementAndGet();
+
+                continue;
+            }
+
+            switch (backpressurePolicy) {
+                case BLOCK:
+                    try {
+                        queue.put(queuedMessage);
+
+                        hookMetrics.queued.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+
+                        spill(queuedMessage);
+                    }
+                    break;
+
+                case DROP_OLDEST:
+                    while (!queue.offer(queuedMessage)) {
+                        QueuedMessage dropped = queue.poll();
+
+                        if (dropped != null) {
+                            getHookMetrics(dropped.source).dropped.incrementAndGet();
+
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("queue full: dropped message from {}: {}", dropped.source, dropped.message);
+                            }
+                        }
+                    }
+
+                    hookMetrics.queued.incrementAndGet();
+                    break;
+
+                case SPILL:
+                default:
+                    spill(queuedMessage);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return metrics of each hook, with keys of form "hookName.metricName"
+     */
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> ret = new LinkedHashMap<>();
+
+        for (Map.Entry<String, HookMetrics> entry : metrics.entrySet()) {
+            String      prefix      = entry.getKey() + ".";
+            HookMetrics hookMetrics = entry.getValue();
+
+            ret.put(prefix + METRIC_QUEUED, hookMetrics.queued.get());
+            ret.put(prefix + METRIC_SENT, hookMetrics.sent.get());
+            ret.put(prefix + METRIC_FAILED, hookMetrics.failed.get());
+            ret.put(prefix + METRIC_DROPPED, hookMetrics.dropped.get());
+            ret.put(prefix + METRIC_SPILLED, hookMetrics.spilled.get());
+            ret.put(prefix + METRIC_COMBINED, hookMetrics.combined.get());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Stops the sender thread, after it sends the queued messages or the shutdown timeout passes.
+     */
+    public void stop() {
+        isRunning = false;
+
+        senderThread.interrupt();
+
+        try {
+            senderThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            LOG.warn("{} hook notification messages were not sent before shutdown", queue.size());
+        }
+
+        LOG.info("Async hook notifier stopped: metrics={}", getMetrics());
+    }
+
+    /**
+     * Combines consecutive create/full-update messages of the same hook and user into messages of at most maxEntities
+     * entities and about maxSize characters. Entities carried by more than one of the combined messages are sent once:
+     * see EntityDeduplicator.
+     */
+    static List<QueuedMessage> coalesce(List<QueuedMessage> batch, int maxEntities, int maxSize) {
+        List<QueuedMessage> ret = new ArrayList<>(batch.size());
+
+        for (int i = 0; i < batch.size(); ) {
+            QueuedMessage first = batch.get(i);
+            int           count = 1;
+
+            if (isCombinable(first)) {
+                int  entityCount = getEntities(first).size();
+                long size        = first.getSize();
+
+                while (i + count < batch.size()) {
+                    QueuedMessage next = batch.get(i + count);
+
+                    if (!canCombine(first, next) || entityCount + getEntities(next).size() > maxEntities || size + next.getSize() > maxSize) {
+                        break;
+                    }
+
+                    entityCount += getEntities(next).size();
+                    size        += next.getSize();
+
+                    count++;
+                }
+            }
+
+            if (count == 1) {
+                ret.add(first);
+            } else {
+                List<Referenceable> entities   = new ArrayList<>();
+                int                 maxRetries = 0;
+
+                for (QueuedMessage queuedMessage : batch.subList(i, i + count)) {
+                    entities.addAll(getEntities(queuedMessage));
+
+                    maxRetries = Math.max(maxRetries, queuedMessage.maxRetries);
+                }
+
+                entities = new EntityDeduplicator(entities).deduplicate();
+
+                String                  user    = first.message.getUser();
+                HookNotificationMessage message = first.message instanceof EntityUpdateRequest ? new EntityUpdateRequest(user, entities)
+                                                                                              : new EntityCreateRequest(user, entities);
+
+                ret.add(new QueuedMessage(first.source, message, maxRetries, count));
+            }
+
+            i += count;
+        }
+
+        return ret;
+    }
+
+    private void sendQueuedMessages() {
+        List<QueuedMessage> batch = new ArrayList<>(batchSize);
+
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                QueuedMessage first = isRunning ? queue.take() : queue.poll();
+
+                if (first == null) {
+                    break;
+                }
+
+                batch.add(first);
+
+                long flushTime = System.currentTimeMillis() + flushIntervalMs;
+
+                while (batch.size() < batchSize) {
+                    long          waitTime = isRunning ? flushTime - System.currentTimeMillis() : 0;
+                    QueuedMessage next     = waitTime > 0 ? queue.poll(waitTime, TimeUnit.MILLISECONDS) : queue.poll();
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (isRunning) {
+                    LOG.warn("hook notifier thread interrupted");
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    sendBatch(batch);
+                } catch (Throwable t) {
+                    LOG.error("failed to send {} hook notification messages", batch.size(), t);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void sendBatch(List<QueuedMessage> batch) {
+        List<QueuedMessage>           coalesced  = coalesce(batch, maxCombinedEntities, maxCombinedSize);
+        List<HookNotificationMessage> messages   = new ArrayList<>(coalesced.size());
+        int                           maxRetries = 0;
+
+        for (QueuedMessage queuedMessage : coalesced) {
+            messages.add(queuedMessage.message);
+
+            maxRetries = Math.max(maxRetries, queuedMessage.maxRetries);
+        }
+
+        boolean isSent = AtlasHook.notifyEntitiesInternal(messages, maxRetries, notificationInterface, logFailedMessages, failedMessagesLogger);
+
+        for (QueuedMessage queuedMessage : coalesced) {
+            HookMetrics hookMetrics = getHookMetrics(queuedMessage.source);
+
+            if (isSent) {
+                hookMetrics.sent.addAndGet(queuedMessage.messageCount);
+            } else {
+                hookMetrics.failed.addAndGet(queuedMessage.messageCount);
+            }
+
+            if (queuedMessage.messageCount > 1) {
+                hookMetrics.combined.addAndGet(queuedMessage.messageCount);
+            }
+        }
+    }
+
+    private void spill(QueuedMessage queuedMessage) {
+        HookMetrics hookMetrics = getHookMetrics(queuedMessage.source);
+
+        if (logFailedMessages && failedMessagesLogger != null) {
+            failedMessagesLogger.log(AbstractNotification.getMessageJson(queuedMessage.message));
+
+            hookMetrics.spilled.incrementAndGet();
+        } else {
+            hookMetrics.dropped.incrementAndGet();
+
+            LOG.warn("queue full: dropped message from {}", queuedMessage.source);
+        }
+    }
+
+    private HookMetrics getHookMetrics(String source) {
+        HookMetrics ret = metrics.get(source);
+
+        if (ret == null) {
+            HookMetrics existing = metrics.putIfAbsent(source, ret = new HookMetrics());
+
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean isCombinable(QueuedMessage queuedMessage) {
+        Class<?> messageClass = queuedMessage.message.getClass();
+
+        return messageClass == EntityCreateRequest.class || messageClass == EntityUpdateRequest.class;
+    }
+
+    private static boolean canCombine(QueuedMessage first, QueuedMessage other) {
+        return other.message.getClass() == first.message.getClass() &&
+               StringUtils.equals(other.source, first.source) &&
+               StringUtils.equals(other.message.getUser(), first.message.getUser());
+    }
+
+    private static List<Referenceable> getEntities(QueuedMessage queuedMessage) {
+        return ((EntityCreateRequest) queuedMessage.message).getEntities();
+    }
+
+    /**
+     * @return type and qualifiedName of the entity; null for entities without qualifiedName, which can't be told apart
+     */
+    private static String getEntityKey(Referenceable entity) {
+        Object qualifiedName = entity.getValuesMap().get(QUALIFIED_NAME);
+
+        return qualifiedName instanceof String ? entity.getTypeName() + "|" + qualifiedName : null;
+    }
+
+    /**
+     * @return estimated length of the json of the value, without serializing it
+     */
+    private static long estimateSize(Object value, Set<Object> visited) {
+        long ret = SCALAR_SIZE_ESTIMATE;
+
+        if (value instanceof String) {
+            ret = ((String) value).length() + 2;
+        } else if (value instanceof Id) {
+            ret = ID_SIZE_ESTIMATE;
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+
+            ret = (struct instanceof Referenceable ? ENTITY_SIZE_ESTIMATE : STRUCT_SIZE_ESTIMATE) + struct.getTypeName().length();
+
+            if (visited.add(struct)) {
+                for (Map.Entry<String, Object> attr : struct.getValuesMap().entrySet()) {
+                    ret += attr.getKey().length() + 4 + estimateSize(attr.getValue(), visited);
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                ret += estimateSize(element, visited) + 1;
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                ret += String.valueOf(entry.getKey()).length() + 4 + estimateSize(entry.getValue(), visited);
+            }
+        }
+
+        return ret;
+    }
+
+    private static BackpressurePolicy getBackpressurePolicy(Configuration configuration) {
+        String policy = configuration.getString(BACKPRESSURE_POLICY_PROPERTY, BackpressurePolicy.SPILL.name());
+
+        try {
+            return BackpressurePolicy.valueOf(policy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("invalid value {} for {}; using {}", policy, BACKPRESSURE_POLICY_PROPERTY, BackpressurePolicy.SPILL);
+
+            return BackpressurePolicy.SPILL;
+        }
+    }
+
+    static class QueuedMessage {
+        final String                  source;
+        final HookNotificationMessage message;
+        final int                     maxRetries;
+        final int                     messageCount;
+        private int                   size = -1;
+
+        QueuedMessage(String source, HookNotificationMessage message, int maxRetries) {
+            this(source, message, maxRetries, 1);
+        }
+
+        QueuedMessage(String source, HookNotificationMessage message, int maxRetries, int messageCount) {
+            this.source       = source;
+            this.message      = message;
+            this.maxRetries   = maxRetries;
+            this.messageCount = messageCount;
+        }
+
+        /**
+         * @return estimated length of the message json, from its entities; computed once, by the sender thread, only for
+         * messages that could be combined
+         */
+        int getSize() {
+            if (size < 0) {
+                size = (int) Math.min(Integer.MAX_VALUE, estimateSize(getEntities(this), Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>())));
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * Keeps one copy of each entity - identified by type and qualifiedName, at any depth - that the combined messages
+     * carry more than once: the first copy, with the attribute values of later copies merged into it, the last one
+     * winning; null values are ignored, and classifications are those of the first copy. Other references to the
+     * entity - embedded copies and ids of the dropped copies - are replaced by the id of the kept copy, which is sent as
+     * a top-level entity where it was first seen; before the entity that embeds it, if embedded. Entities are updated
+     * in place: hooks don't use entities after they are sent.
+     */
+    private static class EntityDeduplicator {
+        private final List<Referenceable>              entities;
+        private final Map<String, List<Referenceable>> copies     = new LinkedHashMap<>();
+        private final Map<String, Integer>             firstIndex = new HashMap<>();
+        private final Map<String, Id>                  keptIds    = new HashMap<>(); // temporary id of a copy -> id of the kept copy
+        private final Set<Object>                      rewritten  = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+        EntityDeduplicator(List<Referenceable> entities) {
+            this.entities = entities;
+        }
+
+        List<Referenceable> deduplicate() {
+            Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+            for (int i = 0; i < entities.size(); i++) {
+                collectCopies(entities.get(i), i, visited);
+            }
+
+            for (Iterator<List<Referenceable>> iter = copies.values().iterator(); iter.hasNext(); ) {
+                List<Referenceable> keyCopies = iter.next();
+
+                if (keyCopies.size() == 1) {
+                    iter.remove();
+                } else {
+                    for (Referenceable copy : keyCopies) {
+                        keptIds.put(copy.getId()._getId(), keyCopies.get(0).getId());
+                    }
+                }
+            }
+
+            if (copies.isEmpty()) {
+                return entities;
+            }
+
+            for (List<Referenceable> keyCopies : copies.values()) {
+                Referenceable kept = keyCopies.get(0);
+
+                rewriteAttributes(kept);
+
+                for (Referenceable copy : keyCopies.subList(1, keyCopies.size())) {
+                    rewriteAttributes(copy);
+
+                    for (Map.Entry<String, Object> attr : copy.getValuesMap().entrySet()) {
+                        if (attr.getValue() != null) {
+                            kept.set(attr.getKey(), attr.getValue());
+                        }
+                    }
+                }
+            }
+
+            List<Referenceable> ret   = new ArrayList<>(entities.size());
+            Set<String>         added = new HashSet<>();
+
+            for (int i = 0; i < entities.size(); i++) {
+                Referenceable entity    = entities.get(i);
+                String        entityKey = getEntityKey(entity);
+
+                for (Map.Entry<String, List<Referenceable>> entry : copies.entrySet()) {
+                    String key = entry.getKey();
+
+                    if (firstIndex.get(key) == i && !key.equals(entityKey) && added.add(key)) {
+                        ret.add(entry.getValue().get(0));
+                    }
+                }
+
+                if (entityKey != null && copies.containsKey(entityKey)) {
+                    if (added.add(entityKey)) {
+                        ret.add(copies.get(entityKey).get(0));
+                    }
+                } else {
+                    rewriteAttributes(entity);
+
+                    ret.add(entity);
+                }
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("deduplicated {} entities of combined messages: {} entities sent", copies.size(), ret.size());
+            }
+
+            return ret;
+        }
+
+        private void collectCopies(Object value, int index, Set<Object> visited) {
+            if (value instanceof Struct) {
+                if (!visited.add(value)) {
+                    return;
+                }
+
+                if (value instanceof Referenceable) {
+                    String key = getEntityKey((Referenceable) value);
+
+                    if (key != null) {
+                        List<Referenceable> keyCopies = copies.get(key);
+
+                        if (keyCopies == null) {
+                            keyCopies = new ArrayList<>();
+
+                            copies.put(key, keyCopies);
+                            firstIndex.put(key, index);
+                        }
+
+                        keyCopies.add((Referenceable) value);
+                    }
+                }
+
+                for (Object attrValue : ((Struct) value).getValuesMap().values()) {
+                    collectCopies(attrValue, index, visited);
+                }
+            } else if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    collectCopies(element, index, visited);
+                }
+            } else if (value instanceof Map) {
+                for (Object element : ((Map<?, ?>) value).values()) {
+                    collectCopies(element, index, visited);
+                }
+            }
+        }
+
+        private void rewriteAttributes(Struct struct) {
+            if (rewritten.add(struct)) {
+                for (Map.Entry<String, Object> attr : struct.getValuesMap().entrySet()) {
+                    attr.setValue(rewrite(attr.getValue()));
+                }
+            }
+        }
+
+        private Object rewrite(Object value) {
+            Object ret = value;
+
+            if (value instanceof Referenceable && copies.containsKey(getEntityKey((Referenceable) value))) {
+                ret = copies.get(getEntityKey((Referenceable) value)).get(0).getId();
+            } else if (value instanceof Struct) {
+                rewriteAttributes((Struct) value);
+            } else if (value instanceof Id) {
+                Id keptId = keptIds.get(((Id) value)._getId());
+
+                if (keptId != null) {
+                    ret = keptId;
+                }
+            } else if (value instanceof Collection) {
+                Collection<Object> elements = value instanceof Set ? new LinkedHashSet<Object>() : new ArrayList<Object>();
+
+                for (Object element : (Collection<?>) value) {
+                    elements.add(rewrite(element));
+                }
+
+                ret = elements;
+            } else if (value instanceof Map) {
+                Map<Object, Object> entries = new LinkedHashMap<>();
+
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    entries.put(entry.getKey(), rewrite(entry.getValue()));
+                }
+
+                ret = entries;
+            }
+
+            return ret;
+        }
+    }
+
+    private static class HookMetrics {
+        final AtomicLong queued       = new AtomicLong();
+        final AtomicLong sent         = new AtomicLong();
+        final AtomicLong failed       = new AtomicLong();
+        final AtomicLong dropped      = new AtomicLong();
+        final AtomicLong spilled      = new AtomicLong();
+        final AtomicLong combined     = new AtomicLong();
+    }
+}
@@ -26,18 +26,18 @@ import org.apache.atlas.notification.NotificationInterface;
 import org.apache.atlas.notification.hook.HookNotification;
 import org.apache.atlas.security.InMemoryJAASConfiguration;
 import org.apache.atlas.typesystem.Referenceable;
-import org.apache.atlas.typesystem.json.InstanceSerialization;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
-import org.codehaus.jettison.json.JSONArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -54,6 +54,7 @@ public abstract class AtlasHook {
     private static boolean logFailedMessages;
     private static FailedMessagesLogger failedMessagesLogger;
     private static int notificationRetryInterval;
+    private static AsyncHookNotifier asyncNotifier;
     public static final String ATLAS_NOTIFICATION_RETRY_INTERVAL = "atlas.notification.hook.retry.interval";
 
     public static final String ATLAS_NOTIFICATION_FAILED_MESSAGES_FILENAME_KEY =
@@ -86,22 +87,29 @@ public abstract class AtlasHook {
         notificationRetryInterval = atlasProperties.getInt(ATLAS_NOTIFICATION_RETRY_INTERVAL, 1000);
         notificationInterface = NotificationProvider.get();
 
+        if (AsyncHookNotifier.isEnabled(atlasProperties)) {
+            asyncNotifier = new AsyncHookNotifier(atlasProperties, notificationInterface, logFailedMessages, failedMessagesLogger);
+
+            Runtime.getRuntime().addShutdownHook(new Thread("atlas-hook-notifier-shutdown") {
+                @Override
+                public void run() {
+                    asyncNotifier.stop();
+                }
+            });
+        }
+
         LOG.info("Created Atlas Hook");
     }
 
     protected abstract String getNumberOfRetriesPropertyKey();
 
     protected void notifyEntities(String user, Collection<Referenceable> entities) {
-        JSONArray entitiesArray = new JSONArray();
-
         for (Referenceable entity : entities) {
             LOG.info("Adding entity for type: {}", entity.getTypeName());
-            final String entityJson = InstanceSerialization.toJson(entity, true);
-            entitiesArray.put(entityJson);
         }
 
         List<HookNotification.HookNotificationMessage> hookNotificationMessages = new ArrayList<>();
-        hookNotificationMessages.add(new HookNotification.EntityCreateRequest(user, entitiesArray));
+        hookNotificationMessages.add(new HookNotification.EntityCreateRequest(user, new ArrayList<Referenceable>(entities)));
         notifyEntities(hookNotificationMessages);
     }
 
@@ -115,15 +123,42 @@ public abstract class AtlasHook {
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification.HookNotificationMessage> messages, int maxRetries) {
-        notifyEntitiesInternal(messages, maxRetries, notificationInterface, logFailedMessages, failedMessagesLogger);
+        notifyEntities(null, messages, maxRetries);
+    }
+
+    /**
+     * Notify atlas of the entity through message. When async notification is enabled, the messages are queued and sent
+     * from a background thread.
+     *
+     * @param source     name of the hook sending the messages
+     * @param messages   hook notification messages
+     * @param maxRetries maximum number of retries while sending message to messaging system
+     */
+    public static void notifyEntities(String source, List<HookNotification.HookNotificationMessage> messages, int maxRetries) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+
+        if (asyncNotifier != null) {
+            asyncNotifier.send(StringUtils.isNotEmpty(source) ? source : "hook", messages, maxRetries);
+        } else {
+            notifyEntitiesInternal(messages, maxRetries, notificationInterface, logFailedMessages, failedMessagesLogger);
+        }
+    }
+
+    /**
+     * @return metrics of the async notifier, with keys of form "hookName.metricName"; empty if async notification is disabled
+     */
+    public static Map<String, Number> getNotificationMetrics() {
+        return asyncNotifier != null ? asyncNotifier.getMetrics() : Collections.<String, Number>emptyMap();
     }
 
     @VisibleForTesting
-    static void notifyEntitiesInternal(List<HookNotification.HookNotificationMessage> messages, int maxRetries,
+    static boolean notifyEntitiesInternal(List<HookNotification.HookNotificationMessage> messages, int maxRetries,
                                        NotificationInterface notificationInterface,
                                        boolean shouldLogFailedMessages, FailedMessagesLogger logger) {
         if (messages == null || messages.isEmpty()) {
-            return;
+            return true;
         }
 
         final String message = messages.toString();
@@ -131,7 +166,7 @@ public abstract class AtlasHook {
         while (true) {
             try {
                 notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages);
-                return;
+                return true;
             } catch (Exception e) {
                 numRetries++;
                 if (numRetries < maxRetries) {
@@ -152,7 +187,7 @@ public abstract class AtlasHook {
                     }
                     LOG.error("Failed to notify atlas for entity {} after {} retries. Quitting",
                             message, maxRetries, e);
-                    return;
+                    return false;
                 }
             }
         }
@@ -168,7 +203,7 @@ public abstract class AtlasHook {
      */
     protected void notifyEntities(List<HookNotification.HookNotificationMessage> messages) {
         final int maxRetries = atlasProperties.getInt(getNumberOfRetriesPropertyKey(), 3);
-        notifyEntities(messages, maxRetries);
+        notifyEntities(getClass().getSimpleName(), messages, maxRetries);
     }
 
     /**
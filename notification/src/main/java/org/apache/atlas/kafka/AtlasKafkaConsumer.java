@@ -71,7 +71,7 @@ public class AtlasKafkaConsumer<T> extends AbstractNotificationConsumer<T> {
 
                 T message = deserializer.deserialize(record.value().toString());
 
-                messages.add(new AtlasKafkaMessage(message, record.offset(), record.partition()));
+                messages.add(new AtlasKafkaMessage(message, record.offset(), record.partition(), record.timestamp()));
             }
         }
 
@@ -22,11 +22,17 @@ public class AtlasKafkaMessage<T> {
     private final T    message;
     private final long offset;
     private final int  partition;
+    private final long timestamp;
 
     public AtlasKafkaMessage(T message, long offset, int partition) {
+        this(message, offset, partition, -1);
+    }
+
+    public AtlasKafkaMessage(T message, long offset, int partition, long timestamp) {
         this.message   = message;
         this.offset    = offset;
         this.partition = partition;
+        this.timestamp = timestamp;
     }
 
     public T getMessage() {
@@ -41,4 +47,11 @@ public class AtlasKafkaMessage<T> {
         return partition;
     }
 
+    /**
+     * @return time, in milliseconds since epoch, the message was produced; -1 if not known
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
 }
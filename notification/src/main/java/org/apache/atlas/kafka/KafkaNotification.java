@@ -78,6 +78,10 @@ public class KafkaNotification extends AbstractNotification implements Service {
 
     protected static final String CONSUMER_GROUP_ID_PROPERTY = "group.id";
 
+    // messages are compressed by the producer, in batches, and decompressed by the consumer client transparently; gzip
+    // needs no native library in the hooks. Set atlas.kafka.compression.type to none, snappy or lz4 to override
+    public static final String DEFAULT_COMPRESSION_TYPE = "gzip";
+
     private KafkaServer kafkaServer;
     private ServerCnxnFactory factory;
     private Properties properties;
@@ -126,6 +130,10 @@ public class KafkaNotification extends AbstractNotification implements Service {
                 "org.apache.kafka.common.serialization.StringDeserializer");
         properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
+        if (!properties.containsKey(ProducerConfig.COMPRESSION_TYPE_CONFIG)) {
+            properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, DEFAULT_COMPRESSION_TYPE);
+        }
+
         pollTimeOutMs = subsetConfiguration.getLong("poll.timeout.ms", 1000);
         boolean oldApiCommitEnbleFlag = subsetConfiguration.getBoolean("auto.commit.enable",false);
         //set old autocommit value if new autoCommit property is not set.
@@ -20,10 +20,11 @@ package org.apache.atlas.notification;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.typesystem.IReferenceableInstance;
@@ -33,7 +34,7 @@ import org.apache.commons.configuration.Configuration;
 import org.codehaus.jettison.json.JSONArray;
 
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
@@ -55,9 +56,8 @@ public abstract class AbstractNotification implements NotificationInterface {
      * Used for message serialization.
      */
     public static final Gson GSON = new GsonBuilder().
-        registerTypeAdapter(IReferenceableInstance.class, new ReferenceableSerializer()).
-        registerTypeAdapter(Referenceable.class, new ReferenceableSerializer()).
-        registerTypeAdapter(JSONArray.class, new JSONArraySerializer()).
+        registerTypeAdapterFactory(new ReferenceableSerializer()).
+        registerTypeAdapterFactory(new JSONArraySerializer()).
         create();
 
     // ----- Constructors ----------------------------------------------------
@@ -138,24 +138,70 @@ public abstract class AbstractNotification implements NotificationInterface {
 
     // ----- serializers -----------------------------------------------------
 
+    /**
+     * Serializes values of the given types by writing the JSON of getJson() as is, without parsing it into a JSON tree
+     * first. Deserialization is left to the adapter Gson would use without this factory.
+     */
+    private abstract static class RawJsonSerializer<T> implements TypeAdapterFactory {
+        private final List<Class<?>> types;
+
+        RawJsonSerializer(Class<?>... types) {
+            this.types = Arrays.asList(types);
+        }
+
+        protected abstract String getJson(T src);
+
+        @Override
+        public <X> TypeAdapter<X> create(final Gson gson, final TypeToken<X> typeToken) {
+            if (!types.contains(typeToken.getRawType())) {
+                return null;
+            }
+
+            return new TypeAdapter<X>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void write(JsonWriter out, X src) throws IOException {
+                    if (src == null) {
+                        out.nullValue();
+                    } else {
+                        out.jsonValue(getJson((T) src));
+                    }
+                }
+
+                @Override
+                public X read(JsonReader in) throws IOException {
+                    // looked up on use, as messages are not read with this Gson instance
+                    return gson.getDelegateAdapter(RawJsonSerializer.this, typeToken).read(in);
+                }
+            };
+        }
+    }
+
     /**
      * Serializer for Referenceable.
      */
-    public static final class ReferenceableSerializer implements JsonSerializer<IReferenceableInstance> {
+    public static final class ReferenceableSerializer extends RawJsonSerializer<IReferenceableInstance> {
+        public ReferenceableSerializer() {
+            super(IReferenceableInstance.class, Referenceable.class);
+        }
+
         @Override
-        public JsonElement serialize(IReferenceableInstance src, Type typeOfSrc, JsonSerializationContext context) {
-            String instanceJson = InstanceSerialization.toJson(src, true);
-            return new JsonParser().parse(instanceJson).getAsJsonObject();
+        protected String getJson(IReferenceableInstance src) {
+            return InstanceSerialization.toJson(src, true);
         }
     }
 
     /**
      * Serializer for JSONArray.
      */
-    public static final class JSONArraySerializer implements JsonSerializer<JSONArray> {
+    public static final class JSONArraySerializer extends RawJsonSerializer<JSONArray> {
+        public JSONArraySerializer() {
+            super(JSONArray.class);
+        }
+
         @Override
-        public JsonElement serialize(JSONArray src, Type typeOfSrc, JsonSerializationContext context) {
-            return new JsonParser().parse(src.toString()).getAsJsonArray();
+        protected String getJson(JSONArray src) {
+            return src.toString();
         }
     }
 }
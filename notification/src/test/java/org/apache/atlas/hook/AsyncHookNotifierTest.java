@@ -0,0 +1,249 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hook;
+
+import org.apache.atlas.notification.NotificationInterface;
+import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.notification.hook.HookNotification.HookNotificationMessage;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncHookNotifierTest {
+
+    @Mock
+    private NotificationInterface notificationInterface;
+
+    @Mock
+    private FailedMessagesLogger failedMessagesLogger;
+
+    @BeforeMethod
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testCoalesceCombinesMessagesWithDistinctEntities() {
+        Referenceable db1    = entity("hive_db", "db1@cl1", "v1");
+        Referenceable table1 = table("db1.t1@cl1", db1);
+        Referenceable db2    = entity("hive_db", "db2@cl1", "v1");
+        Referenceable table2 = table("db2.t2@cl1", db2);
+
+        List<AsyncHookNotifier.QueuedMessage> ret = coalesce(
+                queued("HiveHook", new HookNotification.EntityCreateRequest("user1", db1, table1)),
+                queued("HiveHook", new HookNotification.EntityCreateRequest("user1", db2, table2)));
+
+        assertEquals(ret.size(), 1);
+        assertEquals(ret.get(0).messageCount, 2);
+        assertEquals(((HookNotification.EntityCreateRequest) ret.get(0).message).getEntities(), Arrays.asList(db1, table1, db2, table2));
+    }
+
+    @Test
+    public void testCoalesceSendsSharedTableOnce() {
+        Referenceable db1     = entity("hive_db", "db1@cl1", "v1");
+        Referenceable table1  = table("db1.t1@cl1", db1);
+        Referenceable db2     = entity("hive_db", "db1@cl1", "v2");
+        Referenceable table2  = entity("hive_table", "db1.t1@cl1", null);
+        Referenceable table3  = table("db1.t1@cl1", entity("hive_db", "db1@cl1", "v3"));
+        Referenceable process = entity("hive_process", "insert into db1.t1@cl1", "v1");
+
+        table2.set("db", db2.getId());
+        table2.set("owner", "user2");
+        table3.set("description", "v3");
+        process.set("outputs", Collections.singletonList(table3));
+
+        List<AsyncHookNotifier.QueuedMessage> ret = coalesce(queued("HiveHook", new HookNotification.EntityCreateRequest("user1", db1, table1)),
+                                                             queued("HiveHook", new HookNotification.EntityCreateRequest("user1", db2, table2)),
+                                                             queued("HiveHook", new HookNotification.EntityCreateRequest("user1", process)));
+
+        assertEquals(ret.size(), 1);
+        assertEquals(ret.get(0).messageCount, 3);
+
+        // one copy of the db and of the table, with the attributes of all copies; other references are ids of these copies
+        assertEquals(((HookNotification.EntityCreateRequest) ret.get(0).message).getEntities(), Arrays.asList(db1, table1, process));
+        assertEquals(db1.get("description"), "v3");
+        assertEquals(table1.get("description"), "v3");
+        assertEquals(table1.get("owner"), "user2");
+        assertEquals(table1.get("db"), db1.getId());
+        assertEquals(process.get("outputs"), Collections.singletonList(table1.getId()));
+    }
+
+    @Test
+    public void testCoalesceSendsEmbeddedSharedEntityBeforeFirstReference() {
+        Referenceable table1 = table("db1.t1@cl1", entity("hive_db", "db1@cl1", "v1"));
+        Referenceable table2 = table("db1.t2@cl1", entity("hive_db", "db1@cl1", "v2"));
+        Referenceable db     = (Referenceable) table1.get("db");
+
+        List<AsyncHookNotifier.QueuedMessage> ret = coalesce(queued("HiveHook", new HookNotification.EntityCreateRequest("user1", table1)),
+                                                             queued("HiveHook", new HookNotification.EntityCreateRequest("user1", table2)));
+
+        assertEquals(ret.size(), 1);
+        assertEquals(((HookNotification.EntityCreateRequest) ret.get(0).message).getEntities(), Arrays.asList(db, table1, table2));
+        assertEquals(db.get("description"), "v2");
+        assertEquals(table1.get("db"), db.getId());
+        assertEquals(table2.get("db"), db.getId());
+    }
+
+    @Test
+    public void testCoalesceLimitsCombinedMessages() {
+        List<AsyncHookNotifier.QueuedMessage> messages = new ArrayList<>();
+
+        for (HookNotificationMessage message : messages(5)) {
+            messages.add(queued("SqoopHook", message));
+        }
+
+        List<AsyncHookNotifier.QueuedMessage> ret = AsyncHookNotifier.coalesce(messages, 2, Integer.MAX_VALUE);
+
+        assertEquals(ret.size(), 3);
+        assertEquals(ret.get(0).messageCount, 2);
+        assertEquals(ret.get(1).messageCount, 2);
+        assertEquals(ret.get(2).messageCount, 1);
+
+        ret = AsyncHookNotifier.coalesce(messages, Integer.MAX_VALUE, messages.get(0).getSize() * 3);
+
+        assertEquals(ret.size(), 2);
+        assertEquals(ret.get(0).messageCount, 3);
+        assertEquals(ret.get(1).messageCount, 2);
+    }
+
+    @Test
+    public void testCoalesceKeepsOrderOfOtherMessages() {
+        HookNotificationMessage create1 = new HookNotification.EntityCreateRequest("user1", entity("hive_db", "db1@cl1", "v1"));
+        HookNotificationMessage create2 = new HookNotification.EntityCreateRequest("user2", entity("hive_db", "db2@cl1", "v1"));
+        HookNotificationMessage delete  = new HookNotification.EntityDeleteRequest("user1", "hive_db", "qualifiedName", "db1@cl1");
+        HookNotificationMessage update  = new HookNotification.EntityUpdateRequest("user1", entity("hive_db", "db1@cl1", "v1"));
+        HookNotificationMessage create3 = new HookNotification.EntityCreateRequest("user1", entity("hive_db", "db1@cl1", "v1"));
+
+        List<AsyncHookNotifier.QueuedMessage> ret = coalesce(queued("HiveHook", create1), queued("HiveHook", create2), queued("HiveHook", delete),
+                                                             queued("HiveHook", update), queued("StormHook", create3));
+
+        assertEquals(ret.size(), 5);
+        assertSame(ret.get(0).message, create1);
+        assertSame(ret.get(1).message, create2);
+        assertSame(ret.get(2).message, delete);
+        assertSame(ret.get(3).message, update);
+        assertSame(ret.get(4).message, create3);
+    }
+
+    @Test(timeOut = 10000)
+    public void testSpillWhenQueueIsFull() throws Exception {
+        final CountDownLatch sendStarted = new CountDownLatch(1);
+        final CountDownLatch canSend     = new CountDownLatch(1);
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                sendStarted.countDown();
+                canSend.await();
+
+                return null;
+            }
+        }).when(notificationInterface).send(eq(NotificationInterface.NotificationType.HOOK), any(List.class));
+
+        AsyncHookNotifier notifier = new AsyncHookNotifier(configuration(AsyncHookNotifier.BackpressurePolicy.SPILL),
+                                                           notificationInterface, true, failedMessagesLogger);
+
+        notifier.send("SqoopHook", messages(1), 3);
+
+        assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+
+        notifier.send("SqoopHook", messages(3), 3); // one is queued, two are spilled
+
+        canSend.countDown();
+        notifier.stop();
+
+        verify(failedMessagesLogger, times(2)).log(anyString());
+
+        Map<String, Number> metrics = notifier.getMetrics();
+
+        assertEquals(metrics.get("SqoopHook." + AsyncHookNotifier.METRIC_QUEUED).longValue(), 2);
+        assertEquals(metrics.get("SqoopHook." + AsyncHookNotifier.METRIC_SENT).longValue(), 2);
+        assertEquals(metrics.get("SqoopHook." + AsyncHookNotifier.METRIC_SPILLED).longValue(), 2);
+    }
+
+    private static Configuration configuration(AsyncHookNotifier.BackpressurePolicy policy) {
+        Configuration ret = new PropertiesConfiguration();
+
+        ret.setProperty(AsyncHookNotifier.QUEUE_SIZE_PROPERTY, 1);
+        ret.setProperty(AsyncHookNotifier.BATCH_SIZE_PROPERTY, 1);
+        ret.setProperty(AsyncHookNotifier.FLUSH_INTERVAL_MS_PROPERTY, 10);
+        ret.setProperty(AsyncHookNotifier.BACKPRESSURE_POLICY_PROPERTY, policy.name());
+
+        return ret;
+    }
+
+    private static List<HookNotificationMessage> messages(int count) {
+        List<HookNotificationMessage> ret = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            ret.add(new HookNotification.EntityCreateRequest("user1", Collections.singletonList(entity("sqoop_process", "p" + i, "v1"))));
+        }
+
+        return ret;
+    }
+
+    private static List<AsyncHookNotifier.QueuedMessage> coalesce(AsyncHookNotifier.QueuedMessage... messages) {
+        return AsyncHookNotifier.coalesce(Arrays.asList(messages), AsyncHookNotifier.DEFAULT_MAX_COMBINED_ENTITIES, AsyncHookNotifier.DEFAULT_MAX_COMBINED_SIZE);
+    }
+
+    private static AsyncHookNotifier.QueuedMessage queued(String source, HookNotificationMessage message) {
+        return new AsyncHookNotifier.QueuedMessage(source, message, 3);
+    }
+
+    private static Referenceable entity(String typeName, String qualifiedName, String description) {
+        Referenceable ret = new Referenceable(typeName);
+
+        ret.set("qualifiedName", qualifiedName);
+        ret.set("description", description);
+
+        return ret;
+    }
+
+    private static Referenceable table(String qualifiedName, Referenceable db) {
+        Referenceable ret = entity("hive_table", qualifiedName, "v1");
+
+        ret.set("db", db);
+
+        return ret;
+    }
+}
@@ -21,6 +21,7 @@ import com.google.common.annotations.VisibleForTesting;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.repository.graph.GuidVertexCache;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.typesystem.exception.NotFoundException;
 import org.slf4j.Logger;
@@ -43,6 +44,12 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
     @VisibleForTesting
     private static final ObjectUpdateSynchronizer OBJECT_UPDATE_SYNCHRONIZER = new ObjectUpdateSynchronizer();
     private static final ThreadLocal<List<PostTransactionHook>> postTransactionHooks = new ThreadLocal<>();
+    private static final ThreadLocal<int[]>                     transactionDepth     = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
 
     private final AtlasGraph graph;
 
@@ -54,6 +61,11 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
         boolean isSuccess = false;
+        int[]   depth     = transactionDepth.get();
+
+        GuidVertexCache.getInstance().onTransactionBegin();
+
+        depth[0]++;
 
         try {
             try {
@@ -76,6 +88,15 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
                 throw t;
             }
         } finally {
+            depth[0]--;
+
+            // vertices cached in the transaction can't be used once it completes
+            GuidVertexCache.getInstance().onTransactionComplete(isSuccess);
+
+            // release the guid locks first: hooks can do slow work, like delivering entity change notifications,
+            // that must not hold up other writers of these entities
+            OBJECT_UPDATE_SYNCHRONIZER.releaseLockedObjects();
+
             List<PostTransactionHook> trxHooks = postTransactionHooks.get();
 
             if (trxHooks != null) {
@@ -89,11 +110,16 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
                     }
                 }
             }
-
-            OBJECT_UPDATE_SYNCHRONIZER.releaseLockedObjects();
         }
     }
 
+    /**
+     * @return true if the calling thread is in a graph-transaction, whose post-transaction hooks are yet to run
+     */
+    public static boolean isTransactionActive() {
+        return transactionDepth.get()[0] > 0;
+    }
+
     public static void lockObjectAndReleasePostCommit(final String guid) {
         OBJECT_UPDATE_SYNCHRONIZER.lockObject(guid);
     }
@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.atlas.aspect.Monitored;
+import org.apache.atlas.utils.AtlasPerfMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the execution time of methods annotated with @Monitored in AtlasPerfMetrics, in a timer named
+ * "ClassName.methodName".
+ */
+@Component
+public class MonitoredAdvisor extends AbstractPointcutAdvisor {
+    private static final Logger LOG = LoggerFactory.getLogger(MonitoredAdvisor.class);
+
+    private final StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            boolean annotationPresent = method.isAnnotationPresent(Monitored.class);
+
+            if (annotationPresent) {
+                LOG.info("Monitored intercept for {}.{}", targetClass.getName(), method.getName());
+            }
+
+            return annotationPresent;
+        }
+    };
+
+    private final MethodInterceptor interceptor = new MethodInterceptor() {
+        private final ConcurrentMap<Method, AtlasPerfMetrics.Timer> timers = new ConcurrentHashMap<>();
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long startTime = System.nanoTime();
+
+            try {
+                return invocation.proceed();
+            } finally {
+                getTimer(invocation).record(System.nanoTime() - startTime);
+            }
+        }
+
+        private AtlasPerfMetrics.Timer getTimer(MethodInvocation invocation) {
+            Method                 method = invocation.getMethod();
+            AtlasPerfMetrics.Timer ret    = timers.get(method);
+
+            if (ret == null) {
+                Class<?> targetClass = invocation.getThis() != null ? invocation.getThis().getClass() : method.getDeclaringClass();
+
+                ret = AtlasPerfMetrics.getTimer(targetClass.getSimpleName() + "." + method.getName());
+
+                timers.put(method, ret);
+            }
+
+            return ret;
+        }
+    };
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return interceptor;
+    }
+}
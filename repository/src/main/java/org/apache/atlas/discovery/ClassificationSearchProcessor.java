@@ -20,9 +20,11 @@ package org.apache.atlas.discovery;
 import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.*;
 import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
 import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -35,6 +37,9 @@ public class ClassificationSearchProcessor extends SearchProcessor {
     private static final Logger LOG      = LoggerFactory.getLogger(ClassificationSearchProcessor.class);
     private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("ClassificationSearchProcessor");
 
+    private static final AtlasPerfMetrics.Timer EXECUTE_TIMER = AtlasPerfMetrics.getTimer("ClassificationSearchProcessor.execute");
+
+    private final Set<String>     typeAndSubTypes;
     private final AtlasIndexQuery indexQuery;
     private final AtlasGraphQuery allGraphQuery;
     private final AtlasGraphQuery filterGraphQuery;
@@ -44,12 +49,12 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
         final AtlasClassificationType classificationType    = context.getClassificationType();
         final FilterCriteria          filterCriteria        = context.getSearchParameters().getTagFilters();
-        final Set<String>             typeAndSubTypes       = classificationType.getTypeAndAllSubTypes();
         final String                  typeAndSubTypesQryStr = classificationType.getTypeAndAllSubTypesQryStr();
         final Set<String>             solrAttributes        = new HashSet<>();
         final Set<String>             gremlinAttributes     = new HashSet<>();
         final Set<String>             allAttributes         = new HashSet<>();
 
+        typeAndSubTypes = classificationType.getTypeAndAllSubTypes();
 
         processSearchAttributes(classificationType, filterCriteria, solrAttributes, gremlinAttributes, allAttributes);
 
@@ -89,32 +94,48 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
         List<AtlasVertex> ret = new ArrayList<>();
 
-        AtlasPerfTracer perf = null;
+        AtlasPerfTracer perf      = null;
+        long            startTime = System.nanoTime();
 
         if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
             perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "ClassificationSearchProcessor.execute(" + context +  ")");
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final SearchContinuationToken token      = context.getContinuationToken();
+            final int                     startIdx   = token != null ? 0 : context.getSearchParameters().getOffset();
+            final int                     limit      = context.getSearchParameters().getLimit();
+            final int                     chunkSize  = token != null ? token.getChunkSize() : limit;
+            final boolean                 activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like non-active-entities or duplicate-entities (same entity pointed to by multiple
             // classifications in the result)
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
+            //
+            // when continuing a search, query starts at the chunk of the token, ignoring the results of the chunk already
+            // returned. Entities of earlier pages having more than one matching classification - hence more than one
+            // result - are carried in the token, and not returned again
+            int qryOffset = token != null ? token.getQueryOffset() : 0;
             int resultIdx = qryOffset;
+            int chunkSkip = token != null ? token.getSkip() : 0;
 
             final Set<String>       processedGuids         = new HashSet<>();
+            final Set<String>       excludedGuids          = new LinkedHashSet<>();
+            final Set<String>       chunkGuids             = new HashSet<>();
             final List<AtlasVertex> entityVertices         = new ArrayList<>();
             final List<AtlasVertex> classificationVertices = new ArrayList<>();
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            if (token != null) {
+                processedGuids.addAll(token.getExcludedGuids());
+                excludedGuids.addAll(token.getExcludedGuids());
+            }
+
+            for (; ret.size() < limit; qryOffset += chunkSize, chunkSkip = 0) {
                 entityVertices.clear();
                 classificationVertices.clear();
+                chunkGuids.clear();
 
                 if (context.terminateSearch()) {
                     LOG.warn("query terminated: {}", context.getSearchParameters());
@@ -123,7 +144,7 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                 }
 
                 if (indexQuery != null) {
-                    Iterator<AtlasIndexQuery.Result> queryResult = indexQuery.vertices(qryOffset, limit);
+                    Iterator<AtlasIndexQuery.Result> queryResult = indexQuery.vertices(qryOffset, chunkSize);
 
                     if (!queryResult.hasNext()) { // no more results from solr - end of search
                         break;
@@ -131,7 +152,7 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                     getVerticesFromIndexQueryResult(queryResult, classificationVertices);
                 } else {
-                    Iterator<AtlasVertex> queryResult = allGraphQuery.vertices(qryOffset, limit).iterator();
+                    Iterator<AtlasVertex> queryResult = allGraphQuery.vertices(qryOffset, chunkSize).iterator();
 
                     if (!queryResult.hasNext()) { // no more results - end of search
                         break;
@@ -152,19 +173,39 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                         String guid = AtlasGraphUtilsV1.getIdFromVertex(entityVertex);
 
-                        if (processedGuids.contains(guid)) {
+                        // entities of earlier chunks are dropped while iterating below, so that the entities of a
+                        // chunk - and the position of a continuation token in it - don't depend on the earlier chunks
+                        if (chunkGuids.contains(guid)) {
                             continue;
                         }
 
                         entityVertices.add(entityVertex);
 
-                        processedGuids.add(guid);
+                        chunkGuids.add(guid);
                     }
                 }
 
                 super.filter(entityVertices);
 
+                int chunkIdx = 0;
+
                 for (AtlasVertex entityVertex : entityVertices) {
+                    String guid = AtlasGraphUtilsV1.getIdFromVertex(entityVertex);
+
+                    chunkIdx++;
+
+                    if (!processedGuids.add(guid)) {
+                        continue;
+                    }
+
+                    if (hasMoreThanOneMatchingClassification(entityVertex)) {
+                        excludedGuids.add(guid);
+                    }
+
+                    if (chunkIdx <= chunkSkip) {
+                        continue;
+                    }
+
                     resultIdx++;
 
                     if (resultIdx <= startIdx) {
@@ -174,12 +215,14 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                     ret.add(entityVertex);
 
                     if (ret.size() == limit) {
+                        setNextPosition(qryOffset, chunkSize, chunkIdx, entityVertices.size(), excludedGuids);
+
                         break;
                     }
                 }
             }
         } finally {
-            AtlasPerfTracer.log(perf);
+            AtlasPerfTracer.log(perf, EXECUTE_TIMER, startTime);
         }
 
         if (LOG.isDebugEnabled()) {
@@ -189,6 +232,18 @@ public class ClassificationSearchProcessor extends SearchProcessor {
         return ret;
     }
 
+    private boolean hasMoreThanOneMatchingClassification(AtlasVertex entityVertex) {
+        int count = 0;
+
+        for (String traitName : GraphHelper.getTraitNames(entityVertex)) {
+            if (typeAndSubTypes.contains(traitName) && ++count > 1) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public void filter(List<AtlasVertex> entityVertices) {
         if (LOG.isDebugEnabled()) {
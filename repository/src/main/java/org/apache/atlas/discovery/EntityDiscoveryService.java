@@ -410,6 +410,10 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         try {
             List<AtlasVertex> resultList = context.getSearchProcessor().execute();
 
+            if (context.getNextContinuationToken() != null) {
+                ret.setContinuationToken(context.getNextContinuationToken().toString());
+            }
+
             // By default any attribute that shows up in the search parameter should be sent back in the response
             // If additional values are requested then the entityAttributes will be a superset of the all search attributes
             // and the explicitly requested attribute(s)
@@ -19,168 +19,213 @@
 package org.apache.atlas.discovery;
 
 
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.aspect.Monitored;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.lineage.AtlasLineageInfo;
 import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
 import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
-import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graph.GuidVertexCache;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v1.EntityGraphRetriever;
 import org.apache.atlas.type.AtlasTypeRegistry;
-import org.apache.atlas.util.AtlasGremlinQueryProvider;
-import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
 import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 @Service
 public class EntityLineageService implements AtlasLineageService {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityLineageService.class);
+
     private static final String INPUT_PROCESS_EDGE      =  "__Process.inputs";
     private static final String OUTPUT_PROCESS_EDGE     =  "__Process.outputs";
 
-    private final AtlasGraph                graph;
-    private final AtlasGremlinQueryProvider gremlinQueryProvider;
-    private final EntityGraphRetriever      entityRetriever;
+    public static final String LINEAGE_MAX_NODES_PROPERTY = "atlas.lineage.max.nodes";
+    public static final int    DEFAULT_LINEAGE_MAX_NODES  = -1; // no limit
+
+    private final AtlasGraph           graph;
+    private final EntityGraphRetriever entityRetriever;
+    private final int                  maxNodes;
 
     @Inject
     EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) throws DiscoveryException {
-        this.graph                = atlasGraph;
-        this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
-        this.entityRetriever      = new EntityGraphRetriever(typeRegistry);
+        this.graph           = atlasGraph;
+        this.entityRetriever = new EntityGraphRetriever(typeRegistry);
+        this.maxNodes        = getMaxNodes();
     }
 
     @Override
     @GraphTransaction
+    @Monitored
     public AtlasLineageInfo getAtlasLineageInfo(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
-        AtlasLineageInfo lineageInfo;
+        AtlasVertex entityVertex = getDataSetVertex(guid);
 
-        if (!entityExists(guid)) {
+        if (entityVertex == null) {
             throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
         }
 
-        if (direction != null) {
-            if (direction.equals(LineageDirection.INPUT)) {
-                lineageInfo = getLineageInfo(guid, LineageDirection.INPUT, depth);
-            } else if (direction.equals(LineageDirection.OUTPUT)) {
-                lineageInfo = getLineageInfo(guid, LineageDirection.OUTPUT, depth);
-            } else if (direction.equals(LineageDirection.BOTH)) {
-                lineageInfo = getBothLineageInfo(guid, depth);
-            } else {
+        if (direction == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_LINEAGE_INVALID_PARAMS, "direction", null);
+        }
+
+        switch (direction) {
+            case INPUT:
+            case OUTPUT:
+            case BOTH:
+                return getLineageInfo(guid, entityVertex, direction, depth);
+
+            default:
                 throw new AtlasBaseException(AtlasErrorCode.INSTANCE_LINEAGE_INVALID_PARAMS, "direction", direction.toString());
+        }
+    }
+
+    /**
+     * Breadth-first traversal from the given dataset, through processes, to the datasets they consume (INPUT) or
+     * produce (OUTPUT); direction BOTH traverses both ways in a single pass. Each vertex is expanded at most once per
+     * direction, and converted to an entity header at most once. A depth less than 1 traverses the entire lineage.
+     */
+    private AtlasLineageInfo getLineageInfo(String guid, AtlasVertex entityVertex, LineageDirection direction, int depth) throws AtlasBaseException {
+        LineageContext          context  = new LineageContext();
+        LinkedList<LineageStep> frontier = new LinkedList<>();
+
+        if (direction == LineageDirection.INPUT || direction == LineageDirection.BOTH) {
+            frontier.add(new LineageStep(entityVertex, LineageDirection.INPUT, 0));
+            context.markVisited(entityVertex, LineageDirection.INPUT);
+        }
+
+        if (direction == LineageDirection.OUTPUT || direction == LineageDirection.BOTH) {
+            frontier.add(new LineageStep(entityVertex, LineageDirection.OUTPUT, 0));
+            context.markVisited(entityVertex, LineageDirection.OUTPUT);
+        }
+
+        while (!frontier.isEmpty()) {
+            LineageStep step = frontier.removeFirst();
+
+            if (depth >= 1 && step.depth >= depth) {
+                continue;
             }
-        } else {
-            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_LINEAGE_INVALID_PARAMS, "direction", null);
+
+            if (context.isNodeBudgetExhausted()) {
+                LOG.warn("Lineage of entity {} exceeded {} nodes; returning partial lineage", guid, maxNodes);
+
+                break;
+            }
+
+            expand(step, context, frontier);
         }
 
-        return lineageInfo;
+        return new AtlasLineageInfo(guid, context.entities, context.relations, direction, depth);
     }
 
-    private AtlasLineageInfo getLineageInfo(String guid, LineageDirection direction, int depth) throws AtlasBaseException {
-        Map<String, AtlasEntityHeader> entities     = new HashMap<>();
-        Set<LineageRelation>           relations    = new HashSet<>();
-        String                         lineageQuery = getLineageQuery(guid, direction, depth);
-
-        List paths = (List) graph.executeGremlinScript(lineageQuery, true);
-
-        if (CollectionUtils.isNotEmpty(paths)) {
-            for (Object path : paths) {
-                if (path instanceof List) {
-                    List vertices = (List) path;
-
-                    if (CollectionUtils.isNotEmpty(vertices)) {
-                        AtlasEntityHeader prev = null;
-
-                        for (Object vertex : vertices) {
-                            if (!(vertex instanceof AtlasVertex)) {
-                                continue;
-                            }
-
-                            AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader((AtlasVertex)vertex);
-
-                            if (!entities.containsKey(entity.getGuid())) {
-                                entities.put(entity.getGuid(), entity);
-                            }
-
-                            if (prev != null) {
-                                if (direction.equals(LineageDirection.INPUT)) {
-                                    relations.add(new LineageRelation(entity.getGuid(), prev.getGuid()));
-                                } else if (direction.equals(LineageDirection.OUTPUT)) {
-                                    relations.add(new LineageRelation(prev.getGuid(), entity.getGuid()));
-                                }
-                            }
-                            prev = entity;
-                        }
-                    }
+    private void expand(LineageStep step, LineageContext context, LinkedList<LineageStep> frontier) throws AtlasBaseException {
+        boolean isInput          = step.direction == LineageDirection.INPUT;
+        String  processEdgeLabel = isInput ? OUTPUT_PROCESS_EDGE : INPUT_PROCESS_EDGE;
+        String  datasetEdgeLabel = isInput ? INPUT_PROCESS_EDGE : OUTPUT_PROCESS_EDGE;
+
+        // edges of __Process.inputs/__Process.outputs are from the process to the dataset
+        for (AtlasEdge processEdge : (Iterable<AtlasEdge>) step.vertex.getEdges(AtlasEdgeDirection.IN, processEdgeLabel)) {
+            AtlasVertex processVertex = processEdge.getOutVertex();
+
+            for (AtlasEdge datasetEdge : (Iterable<AtlasEdge>) processVertex.getEdges(AtlasEdgeDirection.OUT, datasetEdgeLabel)) {
+                AtlasVertex       datasetVertex = datasetEdge.getInVertex();
+                AtlasEntityHeader entity        = context.getHeader(step.vertex);
+                AtlasEntityHeader process       = context.getHeader(processVertex);
+                AtlasEntityHeader dataset       = context.getHeader(datasetVertex);
+
+                if (isInput) {
+                    context.relations.add(new LineageRelation(process.getGuid(), entity.getGuid()));
+                    context.relations.add(new LineageRelation(dataset.getGuid(), process.getGuid()));
+                } else {
+                    context.relations.add(new LineageRelation(entity.getGuid(), process.getGuid()));
+                    context.relations.add(new LineageRelation(process.getGuid(), dataset.getGuid()));
+                }
+
+                if (context.markVisited(datasetVertex, step.direction)) {
+                    frontier.add(new LineageStep(datasetVertex, step.direction, step.depth + 1));
                 }
             }
         }
-
-        return new AtlasLineageInfo(guid, entities, relations, direction, depth);
     }
 
-    private AtlasLineageInfo getBothLineageInfo(String guid, int depth) throws AtlasBaseException {
-        AtlasLineageInfo inputLineage  = getLineageInfo(guid, LineageDirection.INPUT, depth);
-        AtlasLineageInfo outputLineage = getLineageInfo(guid, LineageDirection.OUTPUT, depth);
-        AtlasLineageInfo ret           = inputLineage;
+    private AtlasVertex getDataSetVertex(String guid) {
+        AtlasVertex ret          = null;
+        AtlasVertex entityVertex = GuidVertexCache.getInstance().getVertex(graph, guid);
 
-        ret.getRelations().addAll(outputLineage.getRelations());
-        ret.getGuidEntityMap().putAll(outputLineage.getGuidEntityMap());
-        ret.setLineageDirection(LineageDirection.BOTH);
+        if (entityVertex != null) {
+            List<String> superTypes = GraphHelper.getSuperTypeNames(entityVertex);
+
+            ret = (CollectionUtils.isNotEmpty(superTypes) && superTypes.contains(AtlasClient.DATA_SET_SUPER_TYPE)) ? entityVertex : null;
+        }
 
         return ret;
     }
 
-    private String getLineageQuery(String entityGuid, LineageDirection direction, int depth) throws AtlasBaseException {
-        String lineageQuery = null;
+    private static int getMaxNodes() {
+        try {
+            return ApplicationProperties.get().getInt(LINEAGE_MAX_NODES_PROPERTY, DEFAULT_LINEAGE_MAX_NODES);
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read {}; lineage size will not be limited", LINEAGE_MAX_NODES_PROPERTY, e);
 
-        if (direction.equals(LineageDirection.INPUT)) {
-            lineageQuery = generateLineageQuery(entityGuid, depth, OUTPUT_PROCESS_EDGE, INPUT_PROCESS_EDGE);
-
-        } else if (direction.equals(LineageDirection.OUTPUT)) {
-            lineageQuery = generateLineageQuery(entityGuid, depth, INPUT_PROCESS_EDGE, OUTPUT_PROCESS_EDGE);
+            return DEFAULT_LINEAGE_MAX_NODES;
         }
-
-        return lineageQuery;
     }
 
-    private String generateLineageQuery(String entityGuid, int depth, String incomingFrom, String outgoingTo) {
-        String lineageQuery;
-        if (depth < 1) {
-            String query = gremlinQueryProvider.getQuery(AtlasGremlinQuery.FULL_LINEAGE);
-            lineageQuery = String.format(query, entityGuid, incomingFrom, outgoingTo);
-        } else {
-            String query = gremlinQueryProvider.getQuery(AtlasGremlinQuery.PARTIAL_LINEAGE);
-            lineageQuery = String.format(query, entityGuid, incomingFrom, outgoingTo, depth);
+    private static class LineageStep {
+        final AtlasVertex      vertex;
+        final LineageDirection direction;
+        final int              depth;
+
+        LineageStep(AtlasVertex vertex, LineageDirection direction, int depth) {
+            this.vertex    = vertex;
+            this.direction = direction;
+            this.depth     = depth;
         }
-        return lineageQuery;
     }
 
-    private boolean entityExists(String guid) {
-        boolean               ret     = false;
-        Iterator<AtlasVertex> results = graph.query()
-                                        .has(Constants.GUID_PROPERTY_KEY, guid)
-                                        .vertices().iterator();
+    private class LineageContext {
+        final Map<String, AtlasEntityHeader> entities      = new HashMap<>();
+        final Set<LineageRelation>           relations     = new HashSet<>();
+        final Map<Object, AtlasEntityHeader> vertexHeaders = new HashMap<>();
+        final Set<Object>                    inputVisited  = new HashSet<>();
+        final Set<Object>                    outputVisited = new HashSet<>();
+
+        AtlasEntityHeader getHeader(AtlasVertex vertex) throws AtlasBaseException {
+            AtlasEntityHeader ret = vertexHeaders.get(vertex.getId());
+
+            if (ret == null) {
+                ret = entityRetriever.toAtlasEntityHeader(vertex);
+
+                vertexHeaders.put(vertex.getId(), ret);
+                entities.put(ret.getGuid(), ret);
+            }
 
-        while (results.hasNext()) {
-            AtlasVertex  entityVertex = results.next();
-            List<String> superTypes   = GraphHelper.getSuperTypeNames(entityVertex);
+            return ret;
+        }
 
-            ret = (CollectionUtils.isNotEmpty(superTypes)) ? superTypes.contains(AtlasClient.DATA_SET_SUPER_TYPE) : false;
+        boolean markVisited(AtlasVertex vertex, LineageDirection direction) {
+            return direction == LineageDirection.INPUT ? inputVisited.add(vertex.getId()) : outputVisited.add(vertex.getId());
         }
 
-        return ret;
+        boolean isNodeBudgetExhausted() {
+            return maxNodes > 0 && entities.size() >= maxNodes;
+        }
     }
-}
\ No newline at end of file
+}
@@ -22,6 +22,7 @@ import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graphdb.*;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -33,6 +34,8 @@ public class EntitySearchProcessor extends SearchProcessor {
     private static final Logger LOG      = LoggerFactory.getLogger(EntitySearchProcessor.class);
     private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("EntitySearchProcessor");
 
+    private static final AtlasPerfMetrics.Timer EXECUTE_TIMER = AtlasPerfMetrics.getTimer("EntitySearchProcessor.execute");
+
     private final AtlasIndexQuery indexQuery;
     private final AtlasGraphQuery graphQuery;
     private final AtlasGraphQuery filterGraphQuery;
@@ -125,25 +128,31 @@ public class EntitySearchProcessor extends SearchProcessor {
 
         List<AtlasVertex> ret = new ArrayList<>();
 
-        AtlasPerfTracer perf = null;
+        AtlasPerfTracer perf      = null;
+        long            startTime = System.nanoTime();
 
         if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
             perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntitySearchProcessor.execute(" + context +  ")");
         }
 
         try {
-            final int startIdx = context.getSearchParameters().getOffset();
-            final int limit    = context.getSearchParameters().getLimit();
+            final SearchContinuationToken token     = context.getContinuationToken();
+            final int                     startIdx  = token != null ? 0 : context.getSearchParameters().getOffset();
+            final int                     limit     = context.getSearchParameters().getLimit();
+            final int                     chunkSize = token != null ? token.getChunkSize() : limit;
 
             // when subsequent filtering stages are involved, query should start at 0 even though startIdx can be higher
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
+            //
+            // when continuing a search, query starts at the chunk of the token, ignoring the results of the chunk already returned
+            int qryOffset = token != null ? token.getQueryOffset() : (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
             int resultIdx = qryOffset;
+            int chunkSkip = token != null ? token.getSkip() : 0;
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            for (; ret.size() < limit; qryOffset += chunkSize, chunkSkip = 0) {
                 entityVertices.clear();
 
                 if (context.terminateSearch()) {
@@ -153,7 +162,7 @@ public class EntitySearchProcessor extends SearchProcessor {
                 }
 
                 if (indexQuery != null) {
-                    Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, limit);
+                    Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, chunkSize);
 
                     if (!idxQueryResult.hasNext()) { // no more results from solr - end of search
                         break;
@@ -166,15 +175,18 @@ public class EntitySearchProcessor extends SearchProcessor {
                     }
 
                     if (graphQuery != null) {
-                        AtlasGraphQuery guidQuery = context.getGraph().query().in(Constants.GUID_PROPERTY_KEY, getGuids(entityVertices));
+                        Map<String, Integer> guidPositions = getGuidPositions(entityVertices);
+                        AtlasGraphQuery      guidQuery     = context.getGraph().query().in(Constants.GUID_PROPERTY_KEY, getGuids(entityVertices));
 
                         guidQuery.addConditionsFrom(graphQuery);
 
                         entityVertices.clear();
                         getVertices(guidQuery.vertices().iterator(), entityVertices);
+
+                        sortByGuidPositions(entityVertices, guidPositions);
                     }
                 } else {
-                    Iterator<AtlasVertex> queryResult = graphQuery.vertices(qryOffset, limit).iterator();
+                    Iterator<AtlasVertex> queryResult = graphQuery.vertices(qryOffset, chunkSize).iterator();
 
                     if (!queryResult.hasNext()) { // no more results from query - end of search
                         break;
@@ -185,7 +197,15 @@ public class EntitySearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                int chunkIdx = 0;
+
                 for (AtlasVertex entityVertex : entityVertices) {
+                    chunkIdx++;
+
+                    if (chunkIdx <= chunkSkip) {
+                        continue;
+                    }
+
                     resultIdx++;
 
                     if (resultIdx <= startIdx) {
@@ -195,12 +215,14 @@ public class EntitySearchProcessor extends SearchProcessor {
                     ret.add(entityVertex);
 
                     if (ret.size() == limit) {
+                        setNextPosition(qryOffset, chunkSize, chunkIdx, entityVertices.size());
+
                         break;
                     }
                 }
             }
         } finally {
-            AtlasPerfTracer.log(perf);
+            AtlasPerfTracer.log(perf, EXECUTE_TIMER, startTime);
         }
 
         if (LOG.isDebugEnabled()) {
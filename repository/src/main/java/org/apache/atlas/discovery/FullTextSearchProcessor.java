@@ -23,6 +23,7 @@ import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
+import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +37,8 @@ public class FullTextSearchProcessor extends SearchProcessor {
     private static final Logger LOG      = LoggerFactory.getLogger(FullTextSearchProcessor.class);
     private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("FullTextSearchProcessor");
 
+    private static final AtlasPerfMetrics.Timer EXECUTE_TIMER = AtlasPerfMetrics.getTimer("FullTextSearchProcessor.execute");
+
     private final AtlasIndexQuery indexQuery;
 
     public FullTextSearchProcessor(SearchContext context) {
@@ -85,27 +88,33 @@ public class FullTextSearchProcessor extends SearchProcessor {
 
         List<AtlasVertex> ret = new ArrayList<>();
 
-        AtlasPerfTracer perf = null;
+        AtlasPerfTracer perf      = null;
+        long            startTime = System.nanoTime();
 
         if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
             perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "FullTextSearchProcessor.execute(" + context +  ")");
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final SearchContinuationToken token      = context.getContinuationToken();
+            final int                     startIdx   = token != null ? 0 : context.getSearchParameters().getOffset();
+            final int                     limit      = context.getSearchParameters().getLimit();
+            final int                     chunkSize  = token != null ? token.getChunkSize() : limit;
+            final boolean                 activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like vertices of non-entity or non-active-entity
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
+            //
+            // when continuing a search, query starts at the chunk of the token, ignoring the results of the chunk already returned
+            int qryOffset = token != null ? token.getQueryOffset() : 0;
             int resultIdx = qryOffset;
+            int chunkSkip = token != null ? token.getSkip() : 0;
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
-            for (; ret.size() < limit; qryOffset += limit) {
+            for (; ret.size() < limit; qryOffset += chunkSize, chunkSkip = 0) {
                 entityVertices.clear();
 
                 if (context.terminateSearch()) {
@@ -114,7 +123,7 @@ public class FullTextSearchProcessor extends SearchProcessor {
                     break;
                 }
 
-                Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, limit);
+                Iterator<AtlasIndexQuery.Result> idxQueryResult = indexQuery.vertices(qryOffset, chunkSize);
 
                 if (!idxQueryResult.hasNext()) { // no more results from solr - end of search
                     break;
@@ -141,7 +150,15 @@ public class FullTextSearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                int chunkIdx = 0;
+
                 for (AtlasVertex entityVertex : entityVertices) {
+                    chunkIdx++;
+
+                    if (chunkIdx <= chunkSkip) {
+                        continue;
+                    }
+
                     resultIdx++;
 
                     if (resultIdx <= startIdx) {
@@ -151,12 +168,14 @@ public class FullTextSearchProcessor extends SearchProcessor {
                     ret.add(entityVertex);
 
                     if (ret.size() == limit) {
+                        setNextPosition(qryOffset, chunkSize, chunkIdx, entityVertices.size());
+
                         break;
                     }
                 }
             }
         } finally {
-            AtlasPerfTracer.log(perf);
+            AtlasPerfTracer.log(perf, EXECUTE_TIMER, startTime);
         }
 
         if (LOG.isDebugEnabled()) {
@@ -18,6 +18,7 @@
 package org.apache.atlas.discovery;
 
 
+import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.discovery.SearchParameters;
 import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
@@ -39,10 +40,12 @@ public class SearchContext {
     private final Set<String>             entityAttributes;
     private final AtlasEntityType         entityType;
     private final AtlasClassificationType classificationType;
+    private final SearchContinuationToken continuationToken;
+    private       SearchContinuationToken nextContinuationToken;
     private       SearchProcessor         searchProcessor;
     private       boolean                 terminateSearch = false;
 
-    public SearchContext(SearchParameters searchParameters, AtlasTypeRegistry typeRegistry, AtlasGraph graph, Set<String> indexedKeys) {
+    public SearchContext(SearchParameters searchParameters, AtlasTypeRegistry typeRegistry, AtlasGraph graph, Set<String> indexedKeys) throws AtlasBaseException {
         this.searchParameters   = searchParameters;
         this.typeRegistry       = typeRegistry;
         this.graph              = graph;
@@ -50,6 +53,8 @@ public class SearchContext {
         this.entityAttributes   = new HashSet<>();
         this.entityType         = typeRegistry.getEntityTypeByName(searchParameters.getTypeName());
         this.classificationType = typeRegistry.getClassificationTypeByName(searchParameters.getClassification());
+        this.continuationToken  = StringUtils.isNotEmpty(searchParameters.getContinuationToken()) ?
+                                  SearchContinuationToken.fromString(searchParameters.getContinuationToken(), searchParameters) : null;
 
         if (needFullTextrocessor()) {
             addProcessor(new FullTextSearchProcessor(this));
@@ -80,6 +85,18 @@ public class SearchContext {
 
     public SearchProcessor getSearchProcessor() { return searchProcessor; }
 
+    /**
+     * @return position to start the search from, or null to start from the offset in search parameters
+     */
+    public SearchContinuationToken getContinuationToken() { return continuationToken; }
+
+    /**
+     * @return position following the last result returned, or null if the search reached the end of results
+     */
+    public SearchContinuationToken getNextContinuationToken() { return nextContinuationToken; }
+
+    public void setNextContinuationToken(SearchContinuationToken nextContinuationToken) { this.nextContinuationToken = nextContinuationToken; }
+
     public boolean terminateSearch() { return this.terminateSearch; }
 
     public void terminateSearch(boolean terminateSearch) { this.terminateSearch = terminateSearch; }
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Position in the results of a basic search, from which the next page of results starts.
+ *
+ * Results of the first query of the processor chain are read in chunks; a position is the offset of a chunk in the
+ * query results, the chunk size and the number of filtered results of that chunk already returned. Resuming from a
+ * position reads only the chunks following it, instead of reading and filtering all the earlier results again as an
+ * offset does. The chunk size is fixed for all pages of a search, so that a chunk read again yields the same results.
+ *
+ * A query result can lead to an entity returned already, from an earlier chunk: like an entity having more than one
+ * of the searched classifications. A position then also carries the guids of such entities returned till then, so
+ * that a continued search doesn't return them again; only entities that can be reached again are carried.
+ *
+ * The string form is opaque to clients; it also carries a hash of the search parameters, so that a token is not
+ * used with a different search.
+ */
+public class SearchContinuationToken {
+    private static final String VERSION        = "1";
+    private static final char   SEPARATOR      = '.';
+    private static final char   GUID_SEPARATOR = ',';
+    private static final int    RADIX          = Character.MAX_RADIX;
+
+    private final int         queryOffset;
+    private final int         chunkSize;
+    private final int         skip;
+    private final int         parametersHash;
+    private final Set<String> excludedGuids;
+
+    public SearchContinuationToken(SearchParameters searchParameters, int queryOffset, int chunkSize, int skip) {
+        this(searchParameters, queryOffset, chunkSize, skip, null);
+    }
+
+    public SearchContinuationToken(SearchParameters searchParameters, int queryOffset, int chunkSize, int skip, Collection<String> excludedGuids) {
+        this(queryOffset, chunkSize, skip, getParametersHash(searchParameters), excludedGuids);
+    }
+
+    private SearchContinuationToken(int queryOffset, int chunkSize, int skip, int parametersHash, Collection<String> excludedGuids) {
+        this.queryOffset    = queryOffset;
+        this.chunkSize      = chunkSize;
+        this.skip           = skip;
+        this.parametersHash = parametersHash;
+        this.excludedGuids  = CollectionUtils.isNotEmpty(excludedGuids) ? new LinkedHashSet<>(excludedGuids) : Collections.<String>emptySet();
+    }
+
+    public static SearchContinuationToken fromString(String token, SearchParameters searchParameters) throws AtlasBaseException {
+        String[] parts = StringUtils.split(token, SEPARATOR);
+
+        if (parts == null || (parts.length != 5 && parts.length != 6) || !VERSION.equals(parts[0])) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken " + token);
+        }
+
+        final SearchContinuationToken ret;
+
+        try {
+            ret = new SearchContinuationToken(Integer.parseInt(parts[1], RADIX), Integer.parseInt(parts[2], RADIX),
+                                              Integer.parseInt(parts[3], RADIX), Integer.parseInt(parts[4], RADIX),
+                                              parts.length == 6 ? Arrays.asList(StringUtils.split(parts[5], GUID_SEPARATOR)) : null);
+        } catch (NumberFormatException excp) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken " + token);
+        }
+
+        if (ret.queryOffset < 0 || ret.chunkSize <= 0 || ret.skip < 0) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken " + token);
+        }
+
+        if (ret.parametersHash != getParametersHash(searchParameters)) {
+            throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "continuationToken doesn't belong to the given search parameters");
+        }
+
+        return ret;
+    }
+
+    public int getQueryOffset() { return queryOffset; }
+
+    public int getChunkSize() { return chunkSize; }
+
+    public int getSkip() { return skip; }
+
+    /**
+     * @return guids of entities returned before this position, that are not to be returned again
+     */
+    public Set<String> getExcludedGuids() { return excludedGuids; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(VERSION);
+
+        sb.append(SEPARATOR).append(Integer.toString(queryOffset, RADIX));
+        sb.append(SEPARATOR).append(Integer.toString(chunkSize, RADIX));
+        sb.append(SEPARATOR).append(Integer.toString(skip, RADIX));
+        sb.append(SEPARATOR).append(Integer.toString(parametersHash, RADIX));
+
+        if (!excludedGuids.isEmpty()) {
+            sb.append(SEPARATOR).append(StringUtils.join(excludedGuids, GUID_SEPARATOR));
+        }
+
+        return sb.toString();
+    }
+
+    // limit, offset, attributes and the token itself don't change the results a position refers to. Filters are hashed
+    // by their string form, as enum hash codes differ between JVMs
+    private static int getParametersHash(SearchParameters searchParameters) {
+        return Objects.hash(searchParameters.getQuery(), searchParameters.getTypeName(), searchParameters.getClassification(),
+                            searchParameters.getExcludeDeletedEntities(), String.valueOf(searchParameters.getEntityFilters()),
+                            String.valueOf(searchParameters.getTagFilters()));
+    }
+}
@@ -88,8 +88,69 @@ public abstract class SearchProcessor {
 
     public void filter(List<AtlasVertex> entityVertices) {
         if (nextProcessor != null && CollectionUtils.isNotEmpty(entityVertices)) {
+            Map<String, Integer> guidPositions = getGuidPositions(entityVertices);
+
             nextProcessor.filter(entityVertices);
+
+            sortByGuidPositions(entityVertices, guidPositions);
+        }
+    }
+
+    /**
+     * Sets the position after the given number of filtered results of a chunk as the position to continue the search from
+     * @param queryOffset offset of the chunk in the query results
+     * @param chunkSize number of query results read in a chunk
+     * @param consumed number of filtered results of the chunk that have been returned or skipped
+     * @param chunkResultCount number of filtered results of the chunk
+     */
+    protected void setNextPosition(int queryOffset, int chunkSize, int consumed, int chunkResultCount) {
+        setNextPosition(queryOffset, chunkSize, consumed, chunkResultCount, null);
+    }
+
+    /**
+     * @param excludedGuids guids of the entities returned till now that later query results can lead to again
+     */
+    protected void setNextPosition(int queryOffset, int chunkSize, int consumed, int chunkResultCount, Collection<String> excludedGuids) {
+        final SearchContinuationToken next;
+
+        if (consumed < chunkResultCount) {
+            next = new SearchContinuationToken(context.getSearchParameters(), queryOffset, chunkSize, consumed, excludedGuids);
+        } else {
+            next = new SearchContinuationToken(context.getSearchParameters(), queryOffset + chunkSize, chunkSize, 0, excludedGuids);
+        }
+
+        context.setNextContinuationToken(next);
+    }
+
+    // graph queries used to filter don't return vertices in the given order; filtered results are kept in the order of
+    // the first query, so that a chunk read again - when a search continues - yields its results in the same order
+    protected Map<String, Integer> getGuidPositions(List<AtlasVertex> vertices) {
+        Map<String, Integer> ret = new HashMap<>();
+
+        for (AtlasVertex vertex : vertices) {
+            String guid = AtlasGraphUtilsV1.getIdFromVertex(vertex);
+
+            if (guid != null && !ret.containsKey(guid)) {
+                ret.put(guid, ret.size());
+            }
         }
+
+        return ret;
+    }
+
+    protected void sortByGuidPositions(List<AtlasVertex> vertices, final Map<String, Integer> guidPositions) {
+        Collections.sort(vertices, new Comparator<AtlasVertex>() {
+            @Override
+            public int compare(AtlasVertex v1, AtlasVertex v2) {
+                return Integer.compare(getPosition(v1), getPosition(v2));
+            }
+
+            private int getPosition(AtlasVertex vertex) {
+                Integer ret = guidPositions.get(AtlasGraphUtilsV1.getIdFromVertex(vertex));
+
+                return ret != null ? ret : Integer.MAX_VALUE;
+            }
+        });
     }
 
 
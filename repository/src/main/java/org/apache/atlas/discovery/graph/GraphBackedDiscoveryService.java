@@ -162,7 +162,7 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
     private GremlinQuery parseAndTranslateDsl(String dslQuery, QueryParams queryParams) throws DiscoveryException {
 
         CompiledQueryCacheKey entry = new CompiledQueryCacheKey(dslQuery, queryParams);
-        GremlinQuery gremlinQuery = QueryProcessor.compiledQueryCache().get(entry);
+        GremlinQuery gremlinQuery = QueryProcessor.getCompiledQuery(entry);
         if(gremlinQuery == null) {
             Expressions.Expression validatedExpression = parseQuery(dslQuery, queryParams);
 
@@ -179,7 +179,7 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
                     LOG.debug("Gremlin Query = {}", gremlinQuery.queryStr());
                 }
             }
-            QueryProcessor.compiledQueryCache().put(entry, gremlinQuery);
+            QueryProcessor.cacheCompiledQuery(entry, gremlinQuery);
         }
         return gremlinQuery;
     }
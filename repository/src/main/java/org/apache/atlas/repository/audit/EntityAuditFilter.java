@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.EntityAuditEvent;
+import org.apache.atlas.EntityAuditEvent.EntityAuditAction;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Criteria for audit events: a time range - from fromTime, inclusive, to toTime, exclusive - and optionally the user
+ * and the actions of the events. Criteria that are not set match all events.
+ */
+public class EntityAuditFilter {
+    private long                   fromTime = 0;
+    private long                   toTime   = Long.MAX_VALUE;
+    private String                 user     = null;
+    private Set<EntityAuditAction> actions  = null;
+
+    public EntityAuditFilter() {
+    }
+
+    public EntityAuditFilter(long fromTime, long toTime) {
+        setFromTime(fromTime);
+        setToTime(toTime);
+    }
+
+    public long getFromTime() {
+        return fromTime;
+    }
+
+    public EntityAuditFilter setFromTime(long fromTime) {
+        this.fromTime = Math.max(0, fromTime);
+
+        return this;
+    }
+
+    public long getToTime() {
+        return toTime;
+    }
+
+    public EntityAuditFilter setToTime(long toTime) {
+        this.toTime = toTime > 0 ? toTime : Long.MAX_VALUE;
+
+        return this;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public EntityAuditFilter setUser(String user) {
+        this.user = StringUtils.isNotEmpty(user) ? user : null;
+
+        return this;
+    }
+
+    public Set<EntityAuditAction> getActions() {
+        return actions;
+    }
+
+    public EntityAuditFilter setActions(Collection<EntityAuditAction> actions) {
+        this.actions = CollectionUtils.isNotEmpty(actions) ? EnumSet.copyOf(actions) : null;
+
+        return this;
+    }
+
+    public boolean isInTimeRange(long timestamp) {
+        return timestamp >= fromTime && timestamp < toTime;
+    }
+
+    /**
+     * @return true if the given user and action match the filter; the time is not checked
+     */
+    public boolean matches(String user, EntityAuditAction action) {
+        return (this.user == null || this.user.equals(user)) && (actions == null || actions.contains(action));
+    }
+
+    public boolean matches(EntityAuditEvent event) {
+        return isInTimeRange(event.getTimestamp()) && matches(event.getUser(), event.getAction());
+    }
+
+    @Override
+    public String toString() {
+        return "EntityAuditFilter{fromTime=" + fromTime + ", toTime=" + toTime + ", user=" + user + ", actions=" + actions + "}";
+    }
+}
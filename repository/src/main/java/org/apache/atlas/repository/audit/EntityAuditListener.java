@@ -23,6 +23,7 @@ import org.apache.atlas.EntityAuditEvent;
 import org.apache.atlas.EntityAuditEvent.EntityAuditAction;
 import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.listener.EntityTraitsBatchListener;
 import org.apache.atlas.typesystem.IReferenceableInstance;
 import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
@@ -46,7 +47,7 @@ import java.util.Map;
  * Listener on entity create/update/delete, tag add/delete. Adds the corresponding audit event to the audit repository.
  */
 @Component
-public class EntityAuditListener implements EntityChangeListener {
+public class EntityAuditListener implements EntityChangeListener, EntityTraitsBatchListener {
     private static final Logger LOG = LoggerFactory.getLogger(EntityAuditListener.class);
 
     private EntityAuditRepository auditRepository;
@@ -90,6 +91,27 @@ public class EntityAuditListener implements EntityChangeListener {
         }
     }
 
+    @Override
+    public void onTraitsAdded(Collection<ITypedReferenceableInstance> entities, Collection<? extends IStruct> traits) throws AtlasException {
+        if (traits != null) {
+            List<String> details = new ArrayList<>(traits.size());
+
+            for (IStruct trait : traits) {
+                details.add("Added trait: " + InstanceSerialization.toJson(trait, true));
+            }
+
+            List<EntityAuditEvent> events = new ArrayList<>(entities.size() * details.size());
+
+            for (ITypedReferenceableInstance entity : entities) {
+                for (String detail : details) {
+                    events.add(createEvent(entity, EntityAuditAction.TAG_ADD, detail));
+                }
+            }
+
+            auditRepository.putEvents(events);
+        }
+    }
+
     @Override
     public void onTraitsDeleted(ITypedReferenceableInstance entity, Collection<String> traitNames) throws AtlasException {
         if (traitNames != null) {
@@ -21,7 +21,9 @@ package org.apache.atlas.repository.audit;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for repository for storing entity audit events
@@ -51,6 +53,26 @@ public interface EntityAuditRepository {
      */
     List<EntityAuditEvent> listEvents(String entityId, String startKey, short n) throws AtlasException;
 
+    /**
+     * List events of all entities that match the given filter, in decreasing order of timestamp. Returns up to n results
+     * @param filter time range, user and actions of the events
+     * @param n maximum number of events to be returned
+     * @return list of events
+     * @throws AtlasException
+     */
+    List<EntityAuditEvent> listEvents(EntityAuditFilter filter, int n) throws AtlasException;
+
+    /**
+     * List events of each of the given entities that match the given filter, in decreasing order of timestamp.
+     * Returns up to n results per entity
+     * @param entityIds entity ids
+     * @param filter time range, user and actions of the events
+     * @param n maximum number of events to be returned per entity
+     * @return events of each entity, by entity id; entities without matching events are not included
+     * @throws AtlasException
+     */
+    Map<String, List<EntityAuditEvent>> listEvents(Collection<String> entityIds, EntityAuditFilter filter, short n) throws AtlasException;
+
     /**
      * Returns maximum allowed repository size per EntityAuditEvent
      * @throws AtlasException
@@ -0,0 +1,460 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.EntityAuditEvent;
+import org.apache.atlas.utils.AtlasPerfMetrics;
+import org.apache.commons.configuration.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.atlas.repository.audit.HBaseBasedAuditRepository.CONFIG_PREFIX;
+
+/**
+ * Writes audit events to HBase asynchronously, so that a slow audit store doesn't add latency to entity writes.
+ *
+ * Events are added to a bounded queue, from which a background thread writes them in batches - which can include
+ * events of many transactions - through a BufferedMutator. When the queue is full, or a batch can't be written, the
+ * events are appended to a spill file in the local file system, which is synced to disk; spill files are replayed to
+ * HBase once the queue is drained, and on the next start if the server stops before that. Audit rows are keyed by
+ * entity id and timestamp, so replaying an event that was already written just overwrites it.
+ */
+class HBaseAuditWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseAuditWriter.class);
+
+    public static final String CONFIG_ASYNC_ENABLED       = CONFIG_PREFIX + ".hbase.async.enabled";
+    public static final String CONFIG_QUEUE_SIZE          = CONFIG_PREFIX + ".hbase.async.queue.size";
+    public static final String CONFIG_BATCH_SIZE          = CONFIG_PREFIX + ".hbase.async.batch.size";
+    public static final String CONFIG_FLUSH_INTERVAL_MS   = CONFIG_PREFIX + ".hbase.async.flush.interval.ms";
+    public static final String CONFIG_SHUTDOWN_TIMEOUT_MS = CONFIG_PREFIX + ".hbase.async.shutdown.timeout.ms";
+    public static final String CONFIG_SPILL_DIR           = CONFIG_PREFIX + ".hbase.async.spill.dir";
+
+    public static final int  DEFAULT_QUEUE_SIZE          = 10000;
+    public static final int  DEFAULT_BATCH_SIZE          = 500;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS   = 1000;
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MS = 10000;
+
+    public static final String METRIC_QUEUED         = "eventsQueued";
+    public static final String METRIC_WRITTEN        = "eventsWritten";
+    public static final String METRIC_SPILLED        = "eventsSpilled";
+    public static final String METRIC_REPLAYED       = "eventsReplayed";
+    public static final String METRIC_WRITE_FAILURES = "writeFailures";
+    public static final String METRIC_QUEUE_BACKLOG  = "queueBacklog";
+    public static final String METRIC_SPILL_FILES    = "spillFiles";
+
+    private static final String SPILL_FILE_PREFIX = "audit-";
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+    private static final String FLUSH_TIMER_NAME  = "HBaseBasedAuditRepository.flush";
+
+    private final HBaseBasedAuditRepository       repository;
+    private final BufferedMutator                 mutator;
+    private final BufferedMutator                 indexMutator;
+    private final BlockingQueue<EntityAuditEvent> queue;
+    private final int                             batchSize;
+    private final long                            flushIntervalMs;
+    private final long                            shutdownTimeoutMs;
+    private final File                            spillDir;
+    private final Thread                          writerThread;
+    private final Object                          spillLock      = new Object();
+    private final AtlasPerfMetrics.Timer          flushTimer     = AtlasPerfMetrics.getTimer(FLUSH_TIMER_NAME);
+    private final AtomicLong                      eventsQueued   = new AtomicLong();
+    private final AtomicLong                      eventsWritten  = new AtomicLong();
+    private final AtomicLong                      eventsSpilled  = new AtomicLong();
+    private final AtomicLong                      eventsReplayed = new AtomicLong();
+    private final AtomicLong                      writeFailures  = new AtomicLong();
+    private final AtomicLong                      spillFileSeq   = new AtomicLong();
+
+    private volatile boolean isRunning   = true;
+    private volatile boolean hasSpilled;
+    private DataOutputStream spillStream = null;
+    private FileOutputStream spillFile   = null;
+
+    HBaseAuditWriter(HBaseBasedAuditRepository repository, Connection connection, TableName tableName, TableName indexTableName,
+                     Configuration atlasConf) throws IOException {
+        this.repository        = repository;
+        this.mutator           = connection.getBufferedMutator(new BufferedMutatorParams(tableName));
+        this.indexMutator      = indexTableName != null ? connection.getBufferedMutator(new BufferedMutatorParams(indexTableName)) : null;
+        this.queue             = new LinkedBlockingQueue<>(atlasConf.getInt(CONFIG_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+        this.batchSize         = Math.max(1, atlasConf.getInt(CONFIG_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+        this.flushIntervalMs   = atlasConf.getLong(CONFIG_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_INTERVAL_MS);
+        this.shutdownTimeoutMs = atlasConf.getLong(CONFIG_SHUTDOWN_TIMEOUT_MS, DEFAULT_SHUTDOWN_TIMEOUT_MS);
+        this.spillDir          = new File(atlasConf.getString(CONFIG_SPILL_DIR, getDefaultSpillDir()));
+
+        if (!spillDir.isDirectory() && !spillDir.mkdirs()) {
+            throw new IOException("failed to create audit spill directory " + spillDir);
+        }
+
+        // events spilled before the last stop are replayed when the writer is idle
+        hasSpilled = getSpillFiles().length > 0;
+
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeEvents();
+            }
+        }, "atlas-audit-writer");
+
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        LOG.info("Audit events will be written asynchronously: queueSize={}, batchSize={}, flushIntervalMs={}, spillDir={}",
+                 queue.remainingCapacity(), batchSize, flushIntervalMs, spillDir);
+    }
+
+    /**
+     * Queues the given events to be written; events that don't fit in the queue are spilled to disk.
+     */
+    void putEvents(List<EntityAuditEvent> events) throws IOException {
+        List<EntityAuditEvent> overflow = null;
+
+        for (EntityAuditEvent event : events) {
+            if (isRunning && queue.offer(event)) {
+                eventsQueued.incrementAndGet();
+            } else {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+
+                overflow.add(event);
+            }
+        }
+
+        if (overflow != null) {
+            spill(toPuts(overflow));
+        }
+    }
+
+    /**
+     * Stops the writer, waiting up to the shutdown timeout for queued events to be written; events still in the queue
+     * after that are spilled to disk.
+     */
+    void stop() {
+        isRunning = false;
+
+        try {
+            writerThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<EntityAuditEvent> remaining = new ArrayList<>();
+
+        queue.drainTo(remaining);
+
+        if (!remaining.isEmpty()) {
+            LOG.warn("{} audit events were not written within {}ms; spilling them to disk", remaining.size(), shutdownTimeoutMs);
+
+            try {
+                spill(toPuts(remaining));
+            } catch (IOException e) {
+                LOG.error("failed to spill {} audit events; they are lost", remaining.size(), e);
+            }
+        }
+
+        synchronized (spillLock) {
+            closeSpillFile();
+        }
+
+        for (BufferedMutator bufferedMutator : new BufferedMutator[] { mutator, indexMutator }) {
+            if (bufferedMutator != null) {
+                try {
+                    bufferedMutator.close();
+                } catch (IOException e) {
+                    LOG.warn("failed to close audit buffered mutator", e);
+                }
+            }
+        }
+    }
+
+    Map<String, Number> getMetrics() {
+        Map<String, Number> ret = new HashMap<>();
+
+        ret.put(METRIC_QUEUED, eventsQueued.get());
+        ret.put(METRIC_WRITTEN, eventsWritten.get());
+        ret.put(METRIC_SPILLED, eventsSpilled.get());
+        ret.put(METRIC_REPLAYED, eventsReplayed.get());
+        ret.put(METRIC_WRITE_FAILURES, writeFailures.get());
+        ret.put(METRIC_QUEUE_BACKLOG, queue.size());
+        ret.put(METRIC_SPILL_FILES, getSpillFiles().length);
+
+        return ret;
+    }
+
+    private void writeEvents() {
+        List<EntityAuditEvent> batch = new ArrayList<>(batchSize);
+
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                EntityAuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    if (isRunning) {
+                        replaySpillFiles();
+                    }
+
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                List<Put> puts = toPuts(batch);
+
+                if (write(puts)) {
+                    eventsWritten.addAndGet(batch.size());
+                } else {
+                    spill(puts);
+
+                    // back off, so that a struggling HBase isn't hammered with retries
+                    Thread.sleep(flushIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                LOG.info("audit writer interrupted");
+
+                break;
+            } catch (Throwable t) {
+                LOG.error("failed to write or spill {} audit events", batch.size(), t);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        LOG.info("audit writer stopped");
+    }
+
+    private boolean write(List<Put> puts) {
+        long startTime = System.nanoTime();
+
+        try {
+            mutator.mutate(puts);
+            mutator.flush();
+
+            // the index is derived from the audit rows, so that replayed spill files update it as well
+            if (indexMutator != null) {
+                indexMutator.mutate(repository.toIndexPuts(puts));
+                indexMutator.flush();
+            }
+
+            return true;
+        } catch (IOException e) {
+            writeFailures.incrementAndGet();
+
+            LOG.warn("failed to write {} audit events to HBase", puts.size(), e);
+
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - startTime);
+        }
+    }
+
+    private List<Put> toPuts(List<EntityAuditEvent> events) throws IOException {
+        List<Put> ret = new ArrayList<>(events.size());
+
+        for (EntityAuditEvent event : events) {
+            ret.add(repository.toPut(event));
+        }
+
+        return ret;
+    }
+
+    private void spill(List<Put> puts) throws IOException {
+        synchronized (spillLock) {
+            if (spillStream == null) {
+                String fileName = SPILL_FILE_PREFIX + System.currentTimeMillis() + "-" + spillFileSeq.incrementAndGet() + SPILL_FILE_SUFFIX;
+
+                spillFile   = new FileOutputStream(new File(spillDir, fileName), true);
+                spillStream = new DataOutputStream(new BufferedOutputStream(spillFile));
+            }
+
+            writeSpillRecords(spillStream, puts);
+
+            spillStream.flush();
+            spillFile.getFD().sync();
+
+            eventsSpilled.addAndGet(puts.size());
+
+            hasSpilled = true;
+        }
+    }
+
+    // replays all spill files to HBase, oldest first; stops at the first failure, to retry later
+    private void replaySpillFiles() {
+        if (!hasSpilled) {
+            return;
+        }
+
+        File[] files;
+
+        synchronized (spillLock) {
+            // subsequent spills go to a new file, to be replayed next time
+            closeSpillFile();
+
+            files      = getSpillFiles();
+            hasSpilled = false;
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+            int replayed = 0;
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                for (List<Put> puts = readSpillRecords(in, batchSize); !puts.isEmpty(); puts = readSpillRecords(in, batchSize)) {
+                    if (!write(puts)) {
+                        hasSpilled = true;
+
+                        return;
+                    }
+
+                    replayed += puts.size();
+                }
+            } catch (IOException e) {
+                LOG.warn("failed to replay audit spill file {}", file, e);
+
+                hasSpilled = true;
+
+                return;
+            }
+
+            eventsReplayed.addAndGet(replayed);
+
+            if (!file.delete()) {
+                LOG.warn("failed to delete replayed audit spill file {}", file);
+            }
+
+            LOG.info("Replayed {} audit events from spill file {}", replayed, file);
+        }
+    }
+
+    private void closeSpillFile() {
+        if (spillStream != null) {
+            try {
+                spillStream.close();
+            } catch (IOException e) {
+                LOG.warn("failed to close audit spill file", e);
+            }
+
+            spillStream = null;
+            spillFile   = null;
+        }
+    }
+
+    private File[] getSpillFiles() {
+        File[] ret = spillDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SPILL_FILE_PREFIX) && name.endsWith(SPILL_FILE_SUFFIX);
+            }
+        });
+
+        return ret != null ? ret : new File[0];
+    }
+
+    private static String getDefaultSpillDir() {
+        return System.getProperty("atlas.data", System.getProperty("java.io.tmpdir")) + File.separator + "audit-spill";
+    }
+
+    /*
+     * A spill record is a row: row key, number of cells, and family, qualifier and value of each cell - each as length
+     * followed by the bytes.
+     */
+    @VisibleForTesting
+    static void writeSpillRecords(DataOutputStream out, List<Put> puts) throws IOException {
+        for (Put put : puts) {
+            List<Cell> cells = new ArrayList<>();
+
+            for (List<Cell> familyCells : put.getFamilyCellMap().values()) {
+                cells.addAll(familyCells);
+            }
+
+            writeBytes(out, put.getRow());
+            out.writeInt(cells.size());
+
+            for (Cell cell : cells) {
+                writeBytes(out, CellUtil.cloneFamily(cell));
+                writeBytes(out, CellUtil.cloneQualifier(cell));
+                writeBytes(out, CellUtil.cloneValue(cell));
+            }
+        }
+    }
+
+    // a record truncated by a crash while spilling is ignored
+    @VisibleForTesting
+    static List<Put> readSpillRecords(DataInputStream in, int maxRecords) throws IOException {
+        List<Put> ret = new ArrayList<>();
+
+        try {
+            while (ret.size() < maxRecords) {
+                Put put       = new Put(readBytes(in));
+                int cellCount = in.readInt();
+
+                for (int i = 0; i < cellCount; i++) {
+                    put.addColumn(readBytes(in), readBytes(in), readBytes(in));
+                }
+
+                ret.add(put);
+            }
+        } catch (EOFException e) {
+            // end of file
+        }
+
+        return ret.isEmpty() ? Collections.<Put>emptyList() : ret;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] ret = new byte[in.readInt()];
+
+        in.readFully(ret);
+
+        return ret;
+    }
+}
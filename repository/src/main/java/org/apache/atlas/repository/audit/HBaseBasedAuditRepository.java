@@ -23,11 +23,14 @@ import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
 import org.apache.atlas.annotation.ConditionalOnAtlasProperty;
+import org.apache.atlas.aspect.Monitored;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.service.Service;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
@@ -35,11 +38,13 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
 import org.apache.hadoop.hbase.filter.PageFilter;
 import org.apache.hadoop.hbase.io.compress.Compression;
 import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
@@ -50,14 +55,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * HBase based repository for entity audit events
@@ -81,6 +97,12 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     public static final String CONFIG_TABLE_NAME = CONFIG_PREFIX + ".hbase.tablename";
     public static final String DEFAULT_TABLE_NAME = "ATLAS_ENTITY_AUDIT_EVENTS";
     public static final String CONFIG_PERSIST_ENTITY_DEFINITION = CONFIG_PREFIX + ".persistEntityDefinition";
+    public static final String CONFIG_COMPRESSION_THRESHOLD = CONFIG_PREFIX + ".hbase.compression.threshold";
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 0;
+    public static final String CONFIG_INDEX_ENABLED = CONFIG_PREFIX + ".hbase.index.enabled";
+    public static final String CONFIG_INDEX_TABLE_NAME = CONFIG_PREFIX + ".hbase.index.tablename";
+    public static final String CONFIG_INDEX_BUCKET_MS = CONFIG_PREFIX + ".hbase.index.bucket.ms";
+    public static final long DEFAULT_INDEX_BUCKET_MS = 60 * 60 * 1000;
 
     public static final byte[] COLUMN_FAMILY = Bytes.toBytes("dt");
     public static final byte[] COLUMN_ACTION = Bytes.toBytes("a");
@@ -91,22 +113,28 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     private static final String  AUDIT_REPOSITORY_MAX_SIZE_PROPERTY = "atlas.hbase.client.keyvalue.maxsize";
     private static final String  AUDIT_EXCLUDE_ATTRIBUTE_PROPERTY   = "atlas.audit.hbase.entity";
     private static final String  FIELD_SEPARATOR = ":";
+    private static final String  KEY_RANGE_END = ";";
     private static final long    ATLAS_HBASE_KEYVALUE_DEFAULT_SIZE = 1024 * 1024;
     private static Configuration APPLICATION_PROPERTIES = null;
 
     private static boolean       persistEntityDefinition;
+    private static int           compressionThreshold;
 
     private Map<String, List<String>> auditExcludedAttributesCache = new HashMap<>();
 
     static {
         try {
             persistEntityDefinition = ApplicationProperties.get().getBoolean(CONFIG_PERSIST_ENTITY_DEFINITION, false);
+            compressionThreshold    = ApplicationProperties.get().getInt(CONFIG_COMPRESSION_THRESHOLD, DEFAULT_COMPRESSION_THRESHOLD);
         } catch (AtlasException e) {
             throw new RuntimeException(e);
         }
     }
     private TableName tableName;
+    private TableName indexTableName;
+    private long indexBucketMs;
     private Connection connection;
+    private HBaseAuditWriter asyncWriter;
 
     /**
      * Add events to the event repository
@@ -114,6 +142,7 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
      * @throws AtlasException
      */
     @Override
+    @Monitored
     public void putEvents(EntityAuditEvent... events) throws AtlasException {
         putEvents(Arrays.asList(events));
     }
@@ -124,27 +153,36 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
      * @param events events to be added
      * @throws AtlasException
      */
+    @Monitored
     public void putEvents(List<EntityAuditEvent> events) throws AtlasException {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Putting {} events", events.size());
         }
 
+        if (asyncWriter != null) {
+            try {
+                asyncWriter.putEvents(events);
+            } catch (IOException e) {
+                throw new AtlasException(e);
+            }
+
+            return;
+        }
+
         Table table = null;
         try {
             table = connection.getTable(tableName);
             List<Put> puts = new ArrayList<>(events.size());
             for (EntityAuditEvent event : events) {
-                LOG.debug("Adding entity audit event {}", event);
-                Put put = new Put(getKey(event.getEntityId(), event.getTimestamp()));
-                addColumn(put, COLUMN_ACTION, event.getAction());
-                addColumn(put, COLUMN_USER, event.getUser());
-                addColumn(put, COLUMN_DETAIL, event.getDetails());
-                if (persistEntityDefinition) {
-                    addColumn(put, COLUMN_DEFINITION, event.getEntityDefinitionString());
-                }
-                puts.add(put);
+                puts.add(toPut(event));
             }
             table.put(puts);
+
+            if (indexTableName != null) {
+                close(table);
+                table = connection.getTable(indexTableName);
+                table.put(toIndexPuts(puts));
+            }
         } catch (IOException e) {
             throw new AtlasException(e);
         } finally {
@@ -152,12 +190,117 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
         }
     }
 
+    /**
+     * @return statistics of the asynchronous writer; empty if audit events are written synchronously
+     */
+    public Map<String, Number> getWriterMetrics() {
+        return asyncWriter != null ? asyncWriter.getMetrics() : Collections.<String, Number>emptyMap();
+    }
+
+    Put toPut(EntityAuditEvent event) throws IOException {
+        LOG.debug("Adding entity audit event {}", event);
+        Put put = new Put(getKey(event.getEntityId(), event.getTimestamp()));
+        addColumn(put, COLUMN_ACTION, event.getAction());
+        addColumn(put, COLUMN_USER, event.getUser());
+        addColumn(put, COLUMN_DETAIL, event.getDetails());
+        if (persistEntityDefinition) {
+            String definition = event.getEntityDefinitionString();
+            if (definition != null && !definition.isEmpty()) {
+                put.addColumn(COLUMN_FAMILY, COLUMN_DEFINITION, compress(Bytes.toBytes(definition), compressionThreshold));
+            }
+        }
+        return put;
+    }
+
+    /**
+     * Index rows are keyed by time bucket and timestamp, both reversed so that the latest events come first, followed
+     * by entity id; they have the action and user of the event. Events of a time bucket share the row key prefix,
+     * so that a bucket can be scanned, or dropped, as a whole.
+     * @return puts to the index table for the given puts to the audit table; null if the index is disabled
+     */
+    List<Put> toIndexPuts(List<Put> auditPuts) {
+        if (indexTableName == null) {
+            return null;
+        }
+
+        List<Put> ret = new ArrayList<>(auditPuts.size());
+
+        for (Put auditPut : auditPuts) {
+            EntityAuditEvent key = fromKey(auditPut.getRow());
+            Put put = new Put(getIndexKey(key.getTimestamp(), key.getEntityId()));
+
+            for (byte[] column : new byte[][] { COLUMN_ACTION, COLUMN_USER }) {
+                for (Cell cell : auditPut.get(COLUMN_FAMILY, column)) {
+                    put.addColumn(COLUMN_FAMILY, column, CellUtil.cloneValue(cell));
+                }
+            }
+
+            ret.add(put);
+        }
+
+        return ret;
+    }
+
+    TableName getIndexTableName() {
+        return indexTableName;
+    }
+
+    private byte[] getIndexKey(long ts, String entityId) {
+        return Bytes.add(getIndexKeyPrefix(ts), Bytes.toBytes(entityId));
+    }
+
+    private byte[] getIndexKeyPrefix(long ts) {
+        long bucket = ts - ts % indexBucketMs;
+
+        return Bytes.add(Bytes.toBytes(Long.MAX_VALUE - bucket), Bytes.toBytes(Long.MAX_VALUE - ts));
+    }
+
     private <T> void addColumn(Put put, byte[] columnName, T columnValue) {
         if (columnValue != null && !columnValue.toString().isEmpty()) {
             put.addColumn(COLUMN_FAMILY, columnName, Bytes.toBytes(columnValue.toString()));
         }
     }
 
+    /**
+     * Gzips the given value if it is larger than the threshold; a threshold of 0, the default, disables compression.
+     * Gzipped values start with the gzip magic bytes, which can't start a JSON string, so that they can be told from the
+     * values written uncompressed. Earlier versions read the stored value as is, hence can't read compressed values:
+     * compression changes the on-disk format, and should be enabled only once nothing older reads the audit table.
+     */
+    @VisibleForTesting
+    static byte[] compress(byte[] value, int threshold) throws IOException {
+        if (threshold <= 0 || value.length <= threshold) {
+            return value;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length / 4);
+
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(value);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @VisibleForTesting
+    static byte[] decompress(byte[] value) throws IOException {
+        if (value.length < 2 || value[0] != (byte) GZIPInputStream.GZIP_MAGIC || value[1] != (byte) (GZIPInputStream.GZIP_MAGIC >> 8)) {
+            return value;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length * 4);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(value))) {
+            byte[] buffer = new byte[8192];
+
+            for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
+                bytes.write(buffer, 0, len);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
     private byte[] getKey(String id, Long ts) {
         assert id != null : "entity id can't be null";
         assert ts != null : "timestamp can't be null";
@@ -215,16 +358,7 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
                 if (!event.getEntityId().equals(entityId)) {
                     continue;
                 }
-                event.setUser(getResultString(result, COLUMN_USER));
-                event.setAction(EntityAuditEvent.EntityAuditAction.valueOf(getResultString(result, COLUMN_ACTION)));
-                event.setDetails(getResultString(result, COLUMN_DETAIL));
-                if (persistEntityDefinition) {
-                    String colDef = getResultString(result, COLUMN_DEFINITION);
-                    if (colDef != null) {
-                        event.setEntityDefinition(colDef);
-                    }
-                }
-                events.add(event);
+                events.add(toEvent(result));
             }
 
             if (LOG.isDebugEnabled()) {
@@ -240,6 +374,242 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
         }
     }
 
+    /**
+     * List events of all entities that match the given filter, in decreasing order of timestamp. With the time index
+     * enabled, only the index rows in the time range are scanned, and the events are read with a batched get;
+     * otherwise, the audit table is scanned in full.
+     */
+    @Override
+    public List<EntityAuditEvent> listEvents(EntityAuditFilter filter, int n) throws AtlasException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Listing events for {}, #records {}", filter, n);
+        }
+
+        List<EntityAuditEvent> events;
+
+        if (n <= 0 || filter.getFromTime() >= filter.getToTime()) {
+            events = Collections.emptyList();
+        } else {
+            events = indexTableName != null ? listEventsFromIndex(filter, n) : scanEvents(filter, n);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Got events for {}, #records {}", filter, events.size());
+        }
+
+        return events;
+    }
+
+    /**
+     * List events of each of the given entities that match the given filter, in decreasing order of timestamp. The
+     * events of all the entities are read by a single scan, over the key range of each entity. Timestamps in the keys
+     * are not zero-padded, hence don't sort numerically; the time range is checked on each event instead.
+     */
+    @Override
+    public Map<String, List<EntityAuditEvent>> listEvents(Collection<String> entityIds, EntityAuditFilter filter, short n)
+            throws AtlasException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Listing events for {} entities, {}, #records {}", entityIds.size(), filter, n);
+        }
+
+        Map<String, List<EntityAuditEvent>> ret = new HashMap<>();
+
+        if (entityIds.isEmpty() || filter.getFromTime() >= filter.getToTime()) {
+            return ret;
+        }
+
+        Set<String> ids = new HashSet<>(entityIds);
+
+        Table table = null;
+        ResultScanner scanner = null;
+        try {
+            table = connection.getTable(tableName);
+
+            //the keys of an entity's events are "<entity id>:<timestamp>"; ';' follows ':', hence ends the range
+            List<MultiRowRangeFilter.RowRange> ranges = new ArrayList<>(entityIds.size());
+            for (String entityId : ids) {
+                ranges.add(new MultiRowRangeFilter.RowRange(Bytes.toBytes(entityId + FIELD_SEPARATOR), true,
+                                                            Bytes.toBytes(entityId + KEY_RANGE_END), false));
+            }
+
+            Scan scan = new Scan().setFilter(new MultiRowRangeFilter(ranges)).setCaching(Math.min(n * ids.size(), 1000));
+            scanner = table.getScanner(scan);
+
+            //only the latest n events of each entity are kept
+            Map<String, PriorityQueue<EntityAuditEvent>> entityEvents = new HashMap<>();
+            for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                EntityAuditEvent key = fromKey(result.getRow());
+                if (!ids.contains(key.getEntityId()) || !filter.isInTimeRange(key.getTimestamp())) {
+                    continue;
+                }
+                PriorityQueue<EntityAuditEvent> latest = entityEvents.get(key.getEntityId());
+                if (latest == null) {
+                    latest = newLatestEventsQueue(n);
+                    entityEvents.put(key.getEntityId(), latest);
+                }
+                if (latest.size() == n && latest.peek().getTimestamp() >= key.getTimestamp()) {
+                    continue;
+                }
+                EntityAuditEvent event = toEvent(result);
+                if (filter.matches(event)) {
+                    latest.add(event);
+                    if (latest.size() > n) {
+                        latest.poll();
+                    }
+                }
+            }
+            for (Map.Entry<String, PriorityQueue<EntityAuditEvent>> entry : entityEvents.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    ret.put(entry.getKey(), toLatestFirst(entry.getValue()));
+                }
+            }
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        } finally {
+            close(scanner);
+            close(table);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Got events for {} of {} entities", ret.size(), entityIds.size());
+        }
+
+        return ret;
+    }
+
+    private List<EntityAuditEvent> listEventsFromIndex(EntityAuditFilter filter, int n) throws AtlasException {
+        Table table = null;
+        ResultScanner scanner = null;
+        try {
+            table = connection.getTable(indexTableName);
+
+            //index keys are in decreasing order of timestamp: start at toTime (exclusive) and stop at fromTime (inclusive)
+            Scan scan = new Scan().setCaching(Math.min(n, 1000));
+            if (filter.getToTime() != Long.MAX_VALUE) {
+                scan.setStartRow(getIndexKeyPrefix(filter.getToTime() - 1));
+            }
+            if (filter.getFromTime() > 0) {
+                scan.setStopRow(getIndexKeyPrefix(filter.getFromTime() - 1));
+            }
+            scanner = table.getScanner(scan);
+
+            List<Get> gets = new ArrayList<>();
+            for (Result result = scanner.next(); result != null && gets.size() < n; result = scanner.next()) {
+                byte[] row = result.getRow();
+                long ts = Long.MAX_VALUE - Bytes.toLong(row, Bytes.SIZEOF_LONG);
+                String entityId = Bytes.toString(row, 2 * Bytes.SIZEOF_LONG, row.length - 2 * Bytes.SIZEOF_LONG);
+                String action = getResultString(result, COLUMN_ACTION);
+
+                if (filter.isInTimeRange(ts) && action != null &&
+                        filter.matches(getResultString(result, COLUMN_USER), EntityAuditEvent.EntityAuditAction.valueOf(action))) {
+                    gets.add(new Get(getKey(entityId, ts)));
+                }
+            }
+            close(scanner);
+            scanner = null;
+            close(table);
+
+            table = connection.getTable(tableName);
+
+            List<EntityAuditEvent> events = new ArrayList<>(gets.size());
+            for (Result result : table.get(gets)) {
+                //an event can be in the index before it is in the audit table, while the writes are in flight
+                if (result != null && !result.isEmpty()) {
+                    events.add(toEvent(result));
+                }
+            }
+            return events;
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        } finally {
+            close(scanner);
+            close(table);
+        }
+    }
+
+    /**
+     * Scans the action and user columns of the whole audit table for the latest n matching events, then reads the
+     * full rows of only those events with a batched get.
+     */
+    private List<EntityAuditEvent> scanEvents(EntityAuditFilter filter, int n) throws AtlasException {
+        Table table = null;
+        ResultScanner scanner = null;
+        try {
+            table = connection.getTable(tableName);
+
+            Scan scan = new Scan().addColumn(COLUMN_FAMILY, COLUMN_ACTION).addColumn(COLUMN_FAMILY, COLUMN_USER).setCaching(1000);
+            scanner = table.getScanner(scan);
+
+            PriorityQueue<EntityAuditEvent> latest = newLatestEventsQueue(n);
+            for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                EntityAuditEvent key = fromKey(result.getRow());
+                if (!filter.isInTimeRange(key.getTimestamp())) {
+                    continue;
+                }
+                if (latest.size() == n && latest.peek().getTimestamp() >= key.getTimestamp()) {
+                    continue;
+                }
+                String action = getResultString(result, COLUMN_ACTION);
+                if (action != null && filter.matches(getResultString(result, COLUMN_USER), EntityAuditEvent.EntityAuditAction.valueOf(action))) {
+                    latest.add(key);
+                    if (latest.size() > n) {
+                        latest.poll();
+                    }
+                }
+            }
+
+            List<Get> gets = new ArrayList<>(latest.size());
+            for (EntityAuditEvent key : toLatestFirst(latest)) {
+                gets.add(new Get(Bytes.toBytes(key.getEventKey())));
+            }
+
+            List<EntityAuditEvent> events = new ArrayList<>(gets.size());
+            for (Result result : table.get(gets)) {
+                if (result != null && !result.isEmpty()) {
+                    events.add(toEvent(result));
+                }
+            }
+            return events;
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        } finally {
+            close(scanner);
+            close(table);
+        }
+    }
+
+    //keeps the latest n events, with the earliest of them at the head
+    private static PriorityQueue<EntityAuditEvent> newLatestEventsQueue(int n) {
+        return new PriorityQueue<>(Math.max(1, n), new Comparator<EntityAuditEvent>() {
+            @Override
+            public int compare(EntityAuditEvent e1, EntityAuditEvent e2) {
+                return Long.compare(e1.getTimestamp(), e2.getTimestamp());
+            }
+        });
+    }
+
+    private static List<EntityAuditEvent> toLatestFirst(PriorityQueue<EntityAuditEvent> latest) {
+        LinkedList<EntityAuditEvent> ret = new LinkedList<>();
+        while (!latest.isEmpty()) {
+            ret.addFirst(latest.poll());
+        }
+        return ret;
+    }
+
+    private EntityAuditEvent toEvent(Result result) throws IOException {
+        EntityAuditEvent event = fromKey(result.getRow());
+        event.setUser(getResultString(result, COLUMN_USER));
+        event.setAction(EntityAuditEvent.EntityAuditAction.valueOf(getResultString(result, COLUMN_ACTION)));
+        event.setDetails(getResultString(result, COLUMN_DETAIL));
+        if (persistEntityDefinition) {
+            String colDef = getResultString(result, COLUMN_DEFINITION);
+            if (colDef != null) {
+                event.setEntityDefinition(colDef);
+            }
+        }
+        return event;
+    }
+
     @Override
     public long repositoryMaxSize() throws AtlasException {
         long ret;
@@ -286,10 +656,10 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
         }
     }
 
-    private String getResultString(Result result, byte[] columnName) {
+    private String getResultString(Result result, byte[] columnName) throws IOException {
         byte[] rawValue = result.getValue(COLUMN_FAMILY, columnName);
         if ( rawValue != null) {
-            return Bytes.toString(rawValue);
+            return Bytes.toString(decompress(rawValue));
         }
         return null;
     }
@@ -335,6 +705,14 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     }
 
     private void createTableIfNotExists() throws AtlasException {
+        createTableIfNotExists(tableName);
+
+        if (indexTableName != null) {
+            createTableIfNotExists(indexTableName);
+        }
+    }
+
+    private void createTableIfNotExists(TableName tableName) throws AtlasException {
         Admin admin = null;
         try {
             admin = connection.getAdmin();
@@ -372,6 +750,11 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
         String tableNameStr = atlasConf.getString(CONFIG_TABLE_NAME, DEFAULT_TABLE_NAME);
         tableName = TableName.valueOf(tableNameStr);
 
+        if (atlasConf.getBoolean(CONFIG_INDEX_ENABLED, false)) {
+            indexTableName = TableName.valueOf(atlasConf.getString(CONFIG_INDEX_TABLE_NAME, tableNameStr + "_TIME_INDEX"));
+            indexBucketMs  = Math.max(1, atlasConf.getLong(CONFIG_INDEX_BUCKET_MS, DEFAULT_INDEX_BUCKET_MS));
+        }
+
         try {
             connection = createConnection(hbaseConf);
         } catch (IOException e) {
@@ -382,6 +765,14 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
             LOG.info("HA is disabled. Hence creating table on startup.");
             createTableIfNotExists();
         }
+
+        if (atlasConf.getBoolean(HBaseAuditWriter.CONFIG_ASYNC_ENABLED, false)) {
+            try {
+                asyncWriter = new HBaseAuditWriter(this, connection, tableName, indexTableName, atlasConf);
+            } catch (IOException e) {
+                throw new AtlasException(e);
+            }
+        }
     }
 
     @VisibleForTesting
@@ -391,6 +782,11 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
 
     @Override
     public void stop() throws AtlasException {
+        if (asyncWriter != null) {
+            asyncWriter.stop();
+            asyncWriter = null;
+        }
+
         close(connection);
     }
 
@@ -26,7 +26,12 @@ import org.springframework.stereotype.Component;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -37,6 +42,13 @@ import java.util.TreeMap;
 @Component
 @ConditionalOnAtlasProperty(property = "atlas.EntityAuditRepository.impl")
 public class InMemoryEntityAuditRepository implements EntityAuditRepository {
+    private static final Comparator<EntityAuditEvent> LATEST_FIRST = new Comparator<EntityAuditEvent>() {
+        @Override
+        public int compare(EntityAuditEvent e1, EntityAuditEvent e2) {
+            return Long.compare(e2.getTimestamp(), e1.getTimestamp());
+        }
+    };
+
     private TreeMap<String, EntityAuditEvent> auditEvents = new TreeMap<>();
 
     @Override
@@ -72,6 +84,40 @@ public class InMemoryEntityAuditRepository implements EntityAuditRepository {
         return events;
     }
 
+    @Override
+    public synchronized List<EntityAuditEvent> listEvents(EntityAuditFilter filter, int maxResults) throws AtlasException {
+        List<EntityAuditEvent> events = new ArrayList<>();
+        for (EntityAuditEvent event : auditEvents.values()) {
+            if (filter.matches(event)) {
+                events.add(event);
+            }
+        }
+        Collections.sort(events, LATEST_FIRST);
+        return events.size() > maxResults ? new ArrayList<>(events.subList(0, maxResults)) : events;
+    }
+
+    @Override
+    public synchronized Map<String, List<EntityAuditEvent>> listEvents(Collection<String> entityIds, EntityAuditFilter filter,
+                                                                     short maxResults) throws AtlasException {
+        Map<String, List<EntityAuditEvent>> ret = new HashMap<>();
+        for (String entityId : entityIds) {
+            List<EntityAuditEvent> events = new ArrayList<>();
+            //events of an entity are in decreasing order of timestamp, as the key has the reversed timestamp
+            for (EntityAuditEvent event : auditEvents.tailMap(entityId).values()) {
+                if (events.size() >= maxResults || !event.getEntityId().startsWith(entityId)) {
+                    break;
+                }
+                if (event.getEntityId().equals(entityId) && filter.matches(event)) {
+                    events.add(event);
+                }
+            }
+            if (!events.isEmpty()) {
+                ret.put(entityId, events);
+            }
+        }
+        return ret;
+    }
+
     @Override
     public long repositoryMaxSize() throws AtlasException {
         return -1;
@@ -24,8 +24,10 @@ import org.apache.atlas.annotation.ConditionalOnAtlasProperty;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Singleton;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation that completely disables the audit repository.
@@ -51,6 +53,17 @@ public class NoopEntityAuditRepository implements EntityAuditRepository {
         return Collections.emptyList();
     }
 
+    @Override
+    public List<EntityAuditEvent> listEvents(EntityAuditFilter filter, int maxResults) throws AtlasException {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Map<String, List<EntityAuditEvent>> listEvents(Collection<String> entityIds, EntityAuditFilter filter, short maxResults)
+            throws AtlasException {
+        return Collections.emptyMap();
+    }
+
     @Override
     public long repositoryMaxSize() throws AtlasException {
         return -1;
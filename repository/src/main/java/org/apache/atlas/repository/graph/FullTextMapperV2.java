@@ -17,6 +17,8 @@
  */
 package org.apache.atlas.repository.graph;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.GraphTransactionInterceptor;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.instance.AtlasClassification;
@@ -25,36 +27,176 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityExtInfo;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.AtlasStruct;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
 import org.apache.atlas.repository.store.graph.v1.EntityGraphRetriever;
+import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
+/**
+ * Maps entities to the full-text stored in the entity vertex, for full-text search.
+ *
+ * The text of the entity attributes and the text of each classification are stored in the vertex as well, so that
+ * adding, updating or removing a classification only needs the text of that classification to be computed, instead
+ * of the full entity (and, with followReferences, the entities it refers to) being read and mapped again.
+ *
+ * With deferred mapping enabled, entities changed by a transaction are mapped after the transaction commits, in
+ * batches, by a background thread; changes to an entity within the configured interval are mapped once.
+ */
 @Component
 public class FullTextMapperV2 {
     private static final Logger LOG = LoggerFactory.getLogger(FullTextMapperV2.class);
 
     private static final String FULL_TEXT_DELIMITER         = " ";
     private static final String FULL_TEXT_FOLLOW_REFERENCES = "atlas.search.fulltext.followReferences";
+    private static final String FULL_TEXT_DEFERRED          = "atlas.search.fulltext.deferred.enabled";
+    private static final String FULL_TEXT_DEFERRED_INTERVAL = "atlas.search.fulltext.deferred.interval.ms";
+    private static final String FULL_TEXT_DEFERRED_BATCH    = "atlas.search.fulltext.deferred.batch.size";
+
+    private static final long DEFAULT_DEFERRED_INTERVAL_MS = 1000;
+    private static final int  DEFAULT_DEFERRED_BATCH_SIZE  = 100;
 
-    private final EntityGraphRetriever entityGraphRetriever;
-    private final boolean              followReferences;
+    private final EntityGraphRetriever         entityGraphRetriever;
+    private final boolean                      followReferences;
+    private final int                          deferredBatchSize;
+    private final ScheduledExecutorService     deferredExecutor;
+    private final Set<String>                  deferredGuids    = new LinkedHashSet<>();
+    private final ThreadLocal<DeferredMapping> pendingDeferrals = new ThreadLocal<>();
 
     @Inject
     public FullTextMapperV2(AtlasTypeRegistry typeRegistry, Configuration configuration) {
         entityGraphRetriever = new EntityGraphRetriever(typeRegistry);
         followReferences = configuration != null && configuration.getBoolean(FULL_TEXT_FOLLOW_REFERENCES, false);
+
+        boolean isDeferred = configuration != null && configuration.getBoolean(FULL_TEXT_DEFERRED, false);
+
+        if (isDeferred) {
+            long intervalMs = configuration.getLong(FULL_TEXT_DEFERRED_INTERVAL, DEFAULT_DEFERRED_INTERVAL_MS);
+
+            deferredBatchSize = Math.max(1, configuration.getInt(FULL_TEXT_DEFERRED_BATCH, DEFAULT_DEFERRED_BATCH_SIZE));
+            deferredExecutor  = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-fulltext-mapper-%d").setDaemon(true).build());
+
+            deferredExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    mapDeferredEntities();
+                }
+            }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+            LOG.info("Full-text mapping is deferred: interval={}ms, batchSize={}", intervalMs, deferredBatchSize);
+        } else {
+            deferredBatchSize = DEFAULT_DEFERRED_BATCH_SIZE;
+            deferredExecutor  = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (deferredExecutor != null) {
+            deferredExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Maps the entity with the given guid, and stores the full-text in its vertex.
+     */
+    public void mapEntity(String guid) throws AtlasBaseException {
+        if (deferMapping(guid)) {
+            return;
+        }
+
+        AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(guid);
+
+        if (vertex != null) {
+            mapEntity(guid, vertex);
+        }
+    }
+
+    /**
+     * Updates the full-text of the entity with the given guid, for classifications added to it or updated in it.
+     */
+    public void mapClassifications(String guid, List<AtlasClassification> classifications) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(classifications) || deferMapping(guid)) {
+            return;
+        }
+
+        AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(guid);
+
+        if (vertex == null) {
+            return;
+        }
+
+        String              attributesText      = getAttributesText(vertex);
+        Map<String, String> classificationTexts = getClassificationTexts(vertex);
+
+        if (attributesText == null || classificationTexts == null) { // mapped before full-text sections were stored
+            mapEntity(guid, vertex);
+
+            return;
+        }
+
+        for (AtlasClassification classification : classifications) {
+            StringBuilder sb = new StringBuilder();
+
+            map(classification, null, sb, new HashSet<String>());
+
+            classificationTexts.put(classification.getTypeName(), sb.toString());
+        }
+
+        setFullText(guid, vertex, attributesText, classificationTexts);
+    }
+
+    /**
+     * Updates the full-text of the entity with the given guid, for classifications removed from it.
+     */
+    public void removeClassifications(String guid, List<String> classificationNames) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(classificationNames) || deferMapping(guid)) {
+            return;
+        }
+
+        AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(guid);
+
+        if (vertex == null) {
+            return;
+        }
+
+        String              attributesText      = getAttributesText(vertex);
+        Map<String, String> classificationTexts = getClassificationTexts(vertex);
+
+        if (attributesText == null || classificationTexts == null) { // mapped before full-text sections were stored
+            mapEntity(guid, vertex);
+
+            return;
+        }
+
+        for (String classificationName : classificationNames) {
+            classificationTexts.remove(classificationName);
+        }
+
+        setFullText(guid, vertex, attributesText, classificationTexts);
     }
 
     /**
@@ -73,9 +215,7 @@ public class FullTextMapperV2 {
 
             if (CollectionUtils.isNotEmpty(classifications)) {
                 for (AtlasClassification classification : classifications) {
-                    sb.append(classification.getTypeName()).append(FULL_TEXT_DELIMITER);
-
-                    mapAttributes(classification.getAttributes(), entityWithExtInfo, sb, new HashSet<String>());
+                    map(classification, entityWithExtInfo, sb, new HashSet<String>());
                 }
             }
 
@@ -108,6 +248,67 @@ public class FullTextMapperV2 {
         return ret;
     }
 
+    private void mapEntity(String guid, AtlasVertex vertex) throws AtlasBaseException {
+        AtlasEntityWithExtInfo entityWithExtInfo = getAndCacheEntity(guid);
+
+        if (entityWithExtInfo == null) {
+            return;
+        }
+
+        AtlasEntity         entity              = entityWithExtInfo.getEntity();
+        Set<String>         processedGuids      = new HashSet<>();
+        StringBuilder       sb                  = new StringBuilder();
+        Map<String, String> classificationTexts = new LinkedHashMap<>();
+
+        processedGuids.add(entity.getGuid());
+
+        sb.append(entity.getTypeName()).append(FULL_TEXT_DELIMITER);
+
+        mapAttributes(entity.getAttributes(), entityWithExtInfo, sb, processedGuids);
+
+        String attributesText = sb.toString();
+
+        if (CollectionUtils.isNotEmpty(entity.getClassifications())) {
+            for (AtlasClassification classification : entity.getClassifications()) {
+                sb.setLength(0);
+
+                map(classification, entityWithExtInfo, sb, processedGuids);
+
+                classificationTexts.put(classification.getTypeName(), sb.toString());
+            }
+        }
+
+        setFullText(guid, vertex, attributesText, classificationTexts);
+    }
+
+    private void setFullText(String guid, AtlasVertex vertex, String attributesText, Map<String, String> classificationTexts) {
+        StringBuilder sb = new StringBuilder(attributesText);
+
+        for (String classificationText : classificationTexts.values()) {
+            sb.append(classificationText);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("FullTextMapperV2.map({}): {}", guid, sb);
+        }
+
+        GraphHelper.setProperty(vertex, Constants.ENTITY_TEXT_ATTRIBUTES_PROPERTY_KEY, attributesText);
+        GraphHelper.setProperty(vertex, Constants.ENTITY_TEXT_CLASSIFICATIONS_PROPERTY_KEY, AtlasType.toJson(classificationTexts));
+        GraphHelper.setProperty(vertex, Constants.ENTITY_TEXT_PROPERTY_KEY, sb.toString());
+    }
+
+    private String getAttributesText(AtlasVertex vertex) {
+        return GraphHelper.getSingleValuedProperty(vertex, Constants.ENTITY_TEXT_ATTRIBUTES_PROPERTY_KEY, String.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> getClassificationTexts(AtlasVertex vertex) {
+        String              json = GraphHelper.getSingleValuedProperty(vertex, Constants.ENTITY_TEXT_CLASSIFICATIONS_PROPERTY_KEY, String.class);
+        Map<String, String> ret  = StringUtils.isNotEmpty(json) ? AtlasType.fromJson(json, LinkedHashMap.class) : null;
+
+        return ret;
+    }
+
     private void map(AtlasEntity entity, AtlasEntityExtInfo entityExtInfo, StringBuilder sb, Set<String> processedGuids) throws AtlasBaseException {
         if (entity == null || processedGuids.contains(entity.getGuid())) {
             return;
@@ -122,13 +323,17 @@ public class FullTextMapperV2 {
         List<AtlasClassification> classifications = entity.getClassifications();
         if (CollectionUtils.isNotEmpty(classifications)) {
             for (AtlasClassification classification : classifications) {
-                sb.append(classification.getTypeName()).append(FULL_TEXT_DELIMITER);
-
-                mapAttributes(classification.getAttributes(), entityExtInfo, sb, processedGuids);
+                map(classification, entityExtInfo, sb, processedGuids);
             }
         }
     }
 
+    private void map(AtlasClassification classification, AtlasEntityExtInfo entityExtInfo, StringBuilder sb, Set<String> processedGuids) throws AtlasBaseException {
+        sb.append(classification.getTypeName()).append(FULL_TEXT_DELIMITER);
+
+        mapAttributes(classification.getAttributes(), entityExtInfo, sb, processedGuids);
+    }
+
     private void mapAttributes(Map<String, Object> attributes, AtlasEntityExtInfo entityExtInfo, StringBuilder sb, Set<String> processedGuids) throws AtlasBaseException {
         if (MapUtils.isEmpty(attributes)) {
             return;
@@ -150,7 +355,7 @@ public class FullTextMapperV2 {
 
     private void mapAttribute(Object value, AtlasEntityExtInfo entityExtInfo, StringBuilder sb, Set<String> processedGuids) throws AtlasBaseException {
         if (value instanceof AtlasObjectId) {
-            if (followReferences) {
+            if (followReferences && entityExtInfo != null) {
                 AtlasObjectId objectId = (AtlasObjectId) value;
                 AtlasEntity   entity   = entityExtInfo.getEntity(objectId.getGuid());
 
@@ -187,6 +392,70 @@ public class FullTextMapperV2 {
         }
     }
 
+    /**
+     * With deferred mapping, records the given guid to be mapped once the current transaction commits.
+     * @return true if mapping of the entity is deferred
+     */
+    private boolean deferMapping(String guid) {
+        if (deferredExecutor == null) {
+            return false;
+        }
+
+        DeferredMapping deferredMapping = pendingDeferrals.get();
+
+        if (deferredMapping == null) {
+            deferredMapping = new DeferredMapping();
+
+            pendingDeferrals.set(deferredMapping);
+        }
+
+        deferredMapping.guids.add(guid);
+
+        return true;
+    }
+
+    private void mapDeferredEntities() {
+        List<String> guids;
+
+        synchronized (deferredGuids) {
+            guids = new ArrayList<>(deferredGuids);
+
+            deferredGuids.clear();
+        }
+
+        if (guids.isEmpty()) {
+            return;
+        }
+
+        AtlasGraph graph = AtlasGraphProvider.getGraphInstance();
+
+        for (int i = 0; i < guids.size(); i += deferredBatchSize) {
+            List<String> batch = guids.subList(i, Math.min(guids.size(), i + deferredBatchSize));
+
+            try {
+                for (String guid : batch) {
+                    AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(guid);
+
+                    if (vertex != null) {
+                        mapEntity(guid, vertex);
+                    }
+                }
+
+                graph.commit();
+            } catch (Throwable t) {
+                LOG.error("Deferred full-text mapping failed for {} entities", batch.size(), t);
+
+                graph.rollback();
+            } finally {
+                RequestContext.clear();
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Deferred full-text mapping of {} entities completed", guids.size());
+        }
+    }
+
     private AtlasEntityWithExtInfo getAndCacheEntity(String guid) throws AtlasBaseException {
         RequestContext         context = RequestContext.get();
         AtlasEntityWithExtInfo entityWithExtInfo = context.getInstanceV2(guid);
@@ -204,4 +473,22 @@ public class FullTextMapperV2 {
         }
         return entityWithExtInfo;
     }
+
+    /**
+     * Guids changed in the current transaction; queued for deferred mapping once the transaction commits.
+     */
+    private class DeferredMapping extends GraphTransactionInterceptor.PostTransactionHook {
+        private final Set<String> guids = new LinkedHashSet<>();
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            pendingDeferrals.remove();
+
+            if (isSuccess) {
+                synchronized (deferredGuids) {
+                    deferredGuids.addAll(guids);
+                }
+            }
+        }
+    }
 }
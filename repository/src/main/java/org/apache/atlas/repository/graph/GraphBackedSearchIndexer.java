@@ -38,14 +38,17 @@ import org.apache.atlas.repository.IndexCreationException;
 import org.apache.atlas.repository.IndexException;
 import org.apache.atlas.repository.RepositoryException;
 import org.apache.atlas.repository.graphdb.AtlasCardinality;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasGraphIndex;
 import org.apache.atlas.repository.graphdb.AtlasGraphManagement;
 import org.apache.atlas.repository.graphdb.AtlasPropertyKey;
+import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasEnumType;
 import org.apache.atlas.type.AtlasStructType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.type.AtlasTypeUtil;
@@ -134,6 +137,9 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         try {
             if (management.containsPropertyKey(Constants.VERTEX_TYPE_PROPERTY_KEY)) {
                 LOG.info("Global indexes already exist for graph");
+
+                // graphs created by earlier versions don't have this key
+                createEdgeInVertexIdKey(management);
                 management.commit();
 
                 return;
@@ -187,6 +193,10 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             // Index for full text search
             createFullTextIndex(management);
 
+            // Key of the vertex-centric index of reference edges; the marker tells GraphHelper that no edge lacks it
+            createEdgeInVertexIdKey(management);
+            management.makePropertyKey(Constants.EDGE_IN_VERTEX_ID_GRAPH_MARKER, Boolean.class, AtlasCardinality.SINGLE);
+
             //Indexes for graph backed type system store
             createTypeStoreIndexes(management);
       
@@ -207,6 +217,29 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
 
     }
 
+    private AtlasPropertyKey createEdgeInVertexIdKey(AtlasGraphManagement management) {
+        AtlasPropertyKey ret = management.getPropertyKey(Constants.EDGE_IN_VERTEX_ID_PROPERTY_KEY);
+
+        if (ret == null) {
+            ret = management.makePropertyKey(Constants.EDGE_IN_VERTEX_ID_PROPERTY_KEY, String.class, AtlasCardinality.SINGLE);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Creates the vertex-centric index on the in-vertex id of the edges with the given label, used by
+     * GraphHelper.getEdge() to find an edge without going through all edges of the out-vertex.
+     */
+    private void createEdgeInVertexIdIndex(AtlasGraphManagement management, String edgeLabel) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Creating in-vertex id index for edge label {}", edgeLabel);
+        }
+
+        management.createVertexCentricIndex(edgeLabel, Constants.EDGE_IN_VERTEX_ID_INDEX, AtlasEdgeDirection.OUT,
+                                            createEdgeInVertexIdKey(management));
+    }
+
     private void createTypeStoreIndexes(AtlasGraphManagement management) {
         //Create unique index on typeName
         createIndexes(management, Constants.TYPENAME_PROPERTY_KEY, String.class, true, AtlasCardinality.SINGLE,
@@ -292,6 +325,8 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
                 for (AtlasAttributeDef attributeDef : attributeDefs) {
                     createIndexForAttribute(management, typeDef.getName(), attributeDef);
                 }
+
+                createEdgeIndexForAttributes(management, structDef);
             }
         } else if (!AtlasTypeUtil.isBuiltInType(typeDef.getName())){
             throw new IllegalArgumentException("bad data type" + typeDef.getName());
@@ -328,6 +363,35 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         }
     }
 
+    private void createEdgeIndexForAttributes(AtlasGraphManagement management, AtlasStructDef structDef) {
+        AtlasStructType structType;
+
+        try {
+            structType = (AtlasStructType) typeRegistry.getType(structDef.getName());
+        } catch (AtlasBaseException e) {
+            LOG.error("No type exists for {}", structDef.getName(), e);
+
+            return;
+        }
+
+        for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
+            AtlasAttribute attribute = structType.getAttribute(attributeDef.getName());
+
+            if (attribute != null && isReferenceType(attribute.getAttributeType())) {
+                createEdgeInVertexIdIndex(management, attribute.getRelationshipEdgeLabel());
+            }
+        }
+    }
+
+    // types of attributes stored as edges with the attribute label; map values have one label per key, so aren't indexed
+    private boolean isReferenceType(AtlasType type) {
+        if (type instanceof AtlasArrayType) {
+            type = ((AtlasArrayType) type).getElementType();
+        }
+
+        return isEntityType(type) || (isStructType(type) && !isClassificationType(type));
+    }
+
     private boolean isEntityType(AtlasType type) {
         return type instanceof AtlasEntityType;
     }
@@ -385,7 +449,7 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         throw new IllegalArgumentException(String.format("Bad cardinality %s", cardinality));
     }
 
-    private void addIndexForType(AtlasGraphManagement management, IDataType dataType) {
+    private void addIndexForType(AtlasGraphManagement management, IDataType dataType) throws AtlasException {
         switch (dataType.getTypeCategory()) {
         case PRIMITIVE:
         case ENUM:
@@ -415,13 +479,28 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         }
     }
 
-    private void createIndexForFields(AtlasGraphManagement management, IDataType dataType, Map<String, AttributeInfo> fields) {
+    private void createIndexForFields(AtlasGraphManagement management, IDataType dataType, Map<String, AttributeInfo> fields)
+            throws AtlasException {
         for (AttributeInfo field : fields.values()) {
             createIndexForAttribute(management, dataType.getName(), field);
+
+            if (isReferenceType(field.dataType())) {
+                createEdgeInVertexIdIndex(management, GraphHelper.getEdgeLabel(dataType, field));
+            }
         }
     }
 
-    private void createIndexForAttribute(AtlasGraphManagement management, String typeName, AttributeInfo field) {
+    private boolean isReferenceType(IDataType dataType) {
+        if (dataType.getTypeCategory() == DataTypes.TypeCategory.ARRAY) {
+            dataType = ((DataTypes.ArrayType) dataType).getElemType();
+        }
+
+        return dataType.getTypeCategory() == DataTypes.TypeCategory.CLASS ||
+               dataType.getTypeCategory() == DataTypes.TypeCategory.STRUCT;
+    }
+
+    private void createIndexForAttribute(AtlasGraphManagement management, String typeName, AttributeInfo field)
+            throws AtlasException {
         final String propertyName = GraphHelper.encodePropertyKey(typeName + "." + field.name);
         switch (field.dataType().getTypeCategory()) {
         case PRIMITIVE:
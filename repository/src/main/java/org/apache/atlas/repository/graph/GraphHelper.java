@@ -36,6 +36,7 @@ import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasElement;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphManagement;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
@@ -97,12 +98,14 @@ public final class GraphHelper {
 
     public static final String RETRY_COUNT = "atlas.graph.storage.num.retries";
     public static final String RETRY_DELAY = "atlas.graph.storage.retry.sleeptime.ms";
+    public static final String EDGE_LOOKUP_LEGACY_SCAN = "atlas.graph.edge.lookup.legacy.scan";
 
     private static volatile GraphHelper INSTANCE;
 
     private AtlasGraph graph;
     private static int maxRetries;
     public static long retrySleepTimeMillis;
+    private static Boolean edgeLookupLegacyScan = null;
 
     @VisibleForTesting
     GraphHelper(AtlasGraph graph) {
@@ -110,6 +113,7 @@ public final class GraphHelper {
         try {
             maxRetries = ApplicationProperties.get().getInt(RETRY_COUNT, 3);
             retrySleepTimeMillis = ApplicationProperties.get().getLong(RETRY_DELAY, 1000);
+            edgeLookupLegacyScan = ApplicationProperties.get().getBoolean(EDGE_LOOKUP_LEGACY_SCAN, null);
         } catch (AtlasException e) {
             LOG.error("Could not load configuration. Setting to default value for " + RETRY_COUNT, e);
         }
@@ -191,6 +195,7 @@ public final class GraphHelper {
 
         AtlasEdge edge = graph.addEdge(fromVertex, toVertex, edgeLabel);
 
+        setProperty(edge, Constants.EDGE_IN_VERTEX_ID_PROPERTY_KEY, toVertex.getId().toString());
         setProperty(edge, Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
         setProperty(edge, Constants.TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
         setProperty(edge, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
@@ -211,16 +216,10 @@ public final class GraphHelper {
                     LOG.debug("Running edge creation attempt {}", numRetries);
                 }
 
-                Iterator<AtlasEdge> edges = getAdjacentEdgesByLabel(inVertex, AtlasEdgeDirection.IN, edgeLabel);
+                AtlasEdge edge = getEdge(outVertex, inVertex, edgeLabel);
 
-                while (edges.hasNext()) {
-                    AtlasEdge edge = edges.next();
-                    if (edge.getOutVertex().equals(outVertex)) {
-                        Id.EntityState edgeState = getState(edge);
-                        if (edgeState == null || edgeState == Id.EntityState.ACTIVE) {
-                            return edge;
-                        }
-                    }
+                if (edge != null) {
+                    return edge;
                 }
 
                 return addEdge(outVertex, inVertex, edgeLabel);
@@ -244,6 +243,98 @@ public final class GraphHelper {
         return null;
     }
 
+    /**
+     * Returns the active edge with the given label from outVertex to inVertex; like getEdgeForLabel(), returns the
+     * latest deleted edge when there is no active one, and null when there is no edge at all.
+     * The edge is looked up by the id of inVertex, through the vertex-centric index of the edge label,
+     * so that the lookup doesn't go through all edges of a vertex with many edges (like a database with
+     * thousands of tables). Edges created before the in-vertex id was recorded are found by going through
+     * the outgoing edges of outVertex, in graphs created by earlier versions only, unless
+     * atlas.graph.edge.lookup.legacy.scan says otherwise.
+     */
+    public AtlasEdge getEdge(AtlasVertex outVertex, AtlasVertex inVertex, String edgeLabel) {
+        Iterable<AtlasEdge> edges = outVertex.query().direction(AtlasEdgeDirection.OUT).label(edgeLabel)
+                                             .has(Constants.EDGE_IN_VERTEX_ID_PROPERTY_KEY, inVertex.getId().toString())
+                                             .edges();
+        AtlasEdge latestDeletedEdge = null;
+
+        for (AtlasEdge edge : edges) {
+            if (isActive(edge)) {
+                return edge;
+            }
+
+            latestDeletedEdge = getLatestModified(latestDeletedEdge, edge);
+        }
+
+        if (isEdgeLookupLegacyScan()) {
+            Iterator<AtlasEdge> iterator = getAdjacentEdgesByLabel(outVertex, AtlasEdgeDirection.OUT, edgeLabel);
+
+            while (iterator.hasNext()) {
+                AtlasEdge edge = iterator.next();
+
+                if (edge.getProperty(Constants.EDGE_IN_VERTEX_ID_PROPERTY_KEY, String.class) == null &&
+                        edge.getInVertex().equals(inVertex)) {
+                    if (isActive(edge)) {
+                        return edge;
+                    }
+
+                    latestDeletedEdge = getLatestModified(latestDeletedEdge, edge);
+                }
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Found {}", latestDeletedEdge == null ? "null" : string(latestDeletedEdge));
+        }
+
+        return latestDeletedEdge;
+    }
+
+    @VisibleForTesting
+    static void setEdgeLookupLegacyScan(Boolean value) {
+        edgeLookupLegacyScan = value;
+    }
+
+    // unless configured, edges are scanned only in graphs created by earlier versions: the indexer marks the new ones
+    private boolean isEdgeLookupLegacyScan() {
+        Boolean ret = edgeLookupLegacyScan;
+
+        if (ret == null) {
+            AtlasGraphManagement management = graph.getManagementSystem();
+
+            try {
+                ret = !management.containsPropertyKey(Constants.EDGE_IN_VERTEX_ID_GRAPH_MARKER);
+            } finally {
+                management.rollback();
+            }
+
+            LOG.info("Edges without in-vertex id will {}be looked up by scan", ret ? "" : "not ");
+
+            edgeLookupLegacyScan = ret;
+        }
+
+        return ret;
+    }
+
+    // as in getEdgeForLabel(), edges without modification time are ignored
+    private static AtlasEdge getLatestModified(AtlasEdge latestEdge, AtlasEdge edge) {
+        Long modificationTime = edge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class);
+
+        if (modificationTime == null) {
+            return latestEdge;
+        }
+
+        Long latestModificationTime = latestEdge != null ? latestEdge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class) : null;
+
+        return (latestModificationTime == null || modificationTime >= latestModificationTime) ? edge : latestEdge;
+    }
+
+    private static boolean isActive(AtlasEdge edge) {
+        Id.EntityState edgeState = getState(edge);
+
+        return edgeState == null || edgeState == Id.EntityState.ACTIVE;
+    }
+
     public AtlasEdge getEdgeByEdgeId(AtlasVertex outVertex, String edgeLabel, String edgeId) {
         if (edgeId == null) {
             return null;
@@ -584,6 +675,8 @@ public final class GraphHelper {
             LOG.debug("Removing {}", vertexString);
         }
 
+        GuidVertexCache.getInstance().invalidate(getGuid(vertex));
+
         graph.removeVertex(vertex);
 
         if (LOG.isDebugEnabled()) {
@@ -592,7 +685,13 @@ public final class GraphHelper {
     }
 
     public AtlasVertex getVertexForGUID(String guid) throws EntityNotFoundException {
-        return findVertex(Constants.GUID_PROPERTY_KEY, guid);
+        AtlasVertex ret = GuidVertexCache.getInstance().getVertex(graph, guid);
+
+        if (ret == null) {
+            throw new EntityNotFoundException("Could not find vertex with condition: " + getConditionString(new Object[] { Constants.GUID_PROPERTY_KEY, guid }));
+        }
+
+        return ret;
     }
 
     public AtlasEdge getEdgeForGUID(String guid) throws EntityNotFoundException {
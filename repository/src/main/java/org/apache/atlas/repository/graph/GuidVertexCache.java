@@ -0,0 +1,273 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graph;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.utils.ConcurrentLruCache;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two level cache of entity guid to vertex mappings, used to avoid an index lookup for every guid resolution.
+ *
+ * The first level holds the vertices resolved in the current graph transaction (see GraphTransactionInterceptor), and
+ * is discarded when the transaction completes. The second level is a bounded LRU of guid to vertex-id, shared across
+ * requests; a vertex-id hit is resolved with a direct vertex read, and is validated against the guid of the vertex
+ * read, so that a stale entry falls back to the index lookup rather than returning a wrong vertex.
+ */
+public class GuidVertexCache {
+    private static final Logger LOG = LoggerFactory.getLogger(GuidVertexCache.class);
+
+    public static final String PROPERTY_CACHE_SIZE = "atlas.guid.vertex.cache.size";
+    public static final int    DEFAULT_CACHE_SIZE  = 10000;
+
+    public static final String METRIC_TRANSACTION_HITS = "transactionHits";
+    public static final String METRIC_SHARED_HITS      = "sharedHits";
+    public static final String METRIC_MISSES           = "misses";
+    public static final String METRIC_HIT_RATIO        = "hitRatio";
+    public static final String METRIC_SIZE             = "size";
+
+    private static final GuidVertexCache INSTANCE = new GuidVertexCache(getConfiguredCacheSize());
+
+    private final ThreadLocal<TransactionCache>      transactionCache = new ThreadLocal<>();
+    private final ConcurrentLruCache<String, String> vertexIds;
+    private final AtomicLong                         transactionHits  = new AtomicLong();
+    private final AtomicLong                         sharedHits       = new AtomicLong();
+    private final AtomicLong                         misses           = new AtomicLong();
+
+    GuidVertexCache(int cacheSize) {
+        this.vertexIds = cacheSize > 0 ? new ConcurrentLruCache<String, String>(cacheSize) : null;
+    }
+
+    public static GuidVertexCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Called by GraphTransactionInterceptor when a graph transaction starts on the current thread.
+     */
+    public void onTransactionBegin() {
+        TransactionCache trxCache = transactionCache.get();
+
+        if (trxCache == null) {
+            trxCache = new TransactionCache();
+
+            transactionCache.set(trxCache);
+        }
+
+        trxCache.depth++;
+    }
+
+    /**
+     * Called by GraphTransactionInterceptor when a graph transaction completes on the current thread. Vertices held in
+     * the transaction level are discarded, as they are bound to the graph transaction. On rollback, guids resolved in
+     * the transaction are removed from the shared level as well, since they might refer to vertices that were never
+     * committed.
+     */
+    public void onTransactionComplete(boolean isSuccess) {
+        TransactionCache trxCache = transactionCache.get();
+
+        if (trxCache == null) {
+            return;
+        }
+
+        if (!isSuccess) {
+            evictShared(trxCache.vertices.keySet());
+        }
+
+        trxCache.vertices.clear();
+
+        if (--trxCache.depth <= 0) {
+            transactionCache.remove();
+        }
+    }
+
+    /**
+     * Returns the vertex with the given guid, or null if no such vertex exists.
+     */
+    public AtlasVertex getVertex(AtlasGraph graph, String guid) {
+        TransactionCache trxCache = transactionCache.get();
+        AtlasVertex      ret      = trxCache != null ? trxCache.vertices.get(guid) : null;
+
+        if (ret != null) {
+            transactionHits.incrementAndGet();
+
+            return ret;
+        }
+
+        String vertexId = getSharedVertexId(guid);
+
+        if (vertexId != null) {
+            ret = getVertexById(graph, guid, vertexId);
+
+            if (ret != null) {
+                sharedHits.incrementAndGet();
+            } else {
+                evictShared(guid);
+            }
+        }
+
+        if (ret == null) {
+            misses.incrementAndGet();
+
+            Iterator<AtlasVertex> results = graph.query().has(Constants.GUID_PROPERTY_KEY, guid).vertices().iterator();
+
+            ret = results.hasNext() ? results.next() : null;
+
+            if (ret != null) {
+                putShared(guid, ret.getIdForDisplay());
+            }
+        }
+
+        if (ret != null && trxCache != null) {
+            trxCache.vertices.put(guid, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes the given guid from both levels; called when the vertex of the entity is removed from the graph.
+     */
+    public void invalidate(String guid) {
+        if (guid == null) {
+            return;
+        }
+
+        TransactionCache trxCache = transactionCache.get();
+
+        if (trxCache != null) {
+            trxCache.vertices.remove(guid);
+        }
+
+        evictShared(guid);
+    }
+
+    public void clear() {
+        TransactionCache trxCache = transactionCache.get();
+
+        if (trxCache != null) {
+            trxCache.vertices.clear();
+        }
+
+        if (vertexIds != null) {
+            vertexIds.clear();
+        }
+    }
+
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> ret     = new LinkedHashMap<>();
+        long                trxHits = transactionHits.get();
+        long                shrHits = sharedHits.get();
+        long                missed  = misses.get();
+        long                lookups = trxHits + shrHits + missed;
+
+        ret.put(METRIC_TRANSACTION_HITS, trxHits);
+        ret.put(METRIC_SHARED_HITS, shrHits);
+        ret.put(METRIC_MISSES, missed);
+        ret.put(METRIC_HIT_RATIO, lookups > 0 ? ((double) (trxHits + shrHits)) / lookups : 0d);
+        ret.put(METRIC_SIZE, getSharedSize());
+
+        return ret;
+    }
+
+    private AtlasVertex getVertexById(AtlasGraph graph, String guid, String vertexId) {
+        AtlasVertex ret = null;
+
+        try {
+            AtlasVertex vertex = graph.getVertex(vertexId);
+
+            if (vertex != null && StringUtils.equals(guid, vertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class))) {
+                ret = vertex;
+            }
+        } catch (RuntimeException excp) {
+            // the vertex might have been removed after it was cached; resolve through the index instead
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("failed to read cached vertex {} for guid {}", vertexId, guid, excp);
+            }
+        }
+
+        return ret;
+    }
+
+    private String getSharedVertexId(String guid) {
+        if (vertexIds == null) {
+            return null;
+        }
+
+        return vertexIds.get(guid);
+    }
+
+    private void putShared(String guid, String vertexId) {
+        if (vertexIds == null) {
+            return;
+        }
+
+        vertexIds.put(guid, vertexId);
+    }
+
+    private void evictShared(String guid) {
+        if (vertexIds == null) {
+            return;
+        }
+
+        vertexIds.remove(guid);
+    }
+
+    private void evictShared(Iterable<String> guids) {
+        if (vertexIds == null) {
+            return;
+        }
+
+        for (String guid : guids) {
+            vertexIds.remove(guid);
+        }
+    }
+
+    private int getSharedSize() {
+        return vertexIds != null ? (int) vertexIds.size() : 0;
+    }
+
+    private static int getConfiguredCacheSize() {
+        int ret = DEFAULT_CACHE_SIZE;
+
+        try {
+            ret = ApplicationProperties.get().getInt(PROPERTY_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read {}; using default {}", PROPERTY_CACHE_SIZE, DEFAULT_CACHE_SIZE, excp);
+        }
+
+        return ret;
+    }
+
+    private static class TransactionCache {
+        private final Map<String, AtlasVertex> vertices = new HashMap<>();
+        private int                            depth    = 0;
+    }
+}
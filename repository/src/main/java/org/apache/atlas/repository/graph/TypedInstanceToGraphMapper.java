@@ -381,6 +381,10 @@ public final class TypedInstanceToGraphMapper {
             AtlasVertex instanceVertex = getClassVertex(typedInstance);
             String fullText = fulltextMapper.mapRecursive(instanceVertex, true);
             GraphHelper.setProperty(instanceVertex, Constants.ENTITY_TEXT_PROPERTY_KEY, fullText);
+
+            // sections stored by FullTextMapperV2 are stale now; they are recomputed on the next v2 update
+            GraphHelper.setProperty(instanceVertex, Constants.ENTITY_TEXT_ATTRIBUTES_PROPERTY_KEY, null);
+            GraphHelper.setProperty(instanceVertex, Constants.ENTITY_TEXT_CLASSIFICATIONS_PROPERTY_KEY, null);
         }
     }
 
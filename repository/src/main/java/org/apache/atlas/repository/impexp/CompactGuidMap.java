@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map of guid to a small value (0..126), used as a set of guids when the value is not needed. Export tracks millions
+ * of guids; guids in the canonical UUID form (as generated by Atlas) are held as two longs in open-addressing arrays,
+ * about 17 bytes per guid instead of ~150 bytes for a String in a HashMap. Other guids are held in a HashMap.
+ *
+ * Not thread-safe.
+ */
+class CompactGuidMap {
+    private static final int   UUID_LENGTH      = 36;
+    private static final int   INITIAL_CAPACITY = 1024;
+    private static final float MAX_LOAD_FACTOR  = 0.6f;
+    private static final byte  EMPTY            = 0;
+
+    private long[] msbs;
+    private long[] lsbs;
+    private byte[] values; // value + 1; EMPTY marks an unused slot
+    private int    uuidCount;
+
+    private final Map<String, Byte> otherGuids = new HashMap<>();
+
+    CompactGuidMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int size() {
+        return uuidCount + otherGuids.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(String guid) {
+        return get(guid, -1) != -1;
+    }
+
+    /**
+     * Adds the guid, with value 0 if the guid is not present already.
+     * @return true if the guid was not present
+     */
+    public boolean add(String guid) {
+        if (contains(guid)) {
+            return false;
+        }
+
+        put(guid, 0);
+
+        return true;
+    }
+
+    public void addAll(Collection<String> guids) {
+        for (String guid : guids) {
+            add(guid);
+        }
+    }
+
+    /**
+     * @return value of the guid, or defaultValue if the guid is not present
+     */
+    public int get(String guid, int defaultValue) {
+        if (isUuid(guid)) {
+            int idx = indexOf(getMsb(guid), getLsb(guid));
+
+            return values[idx] == EMPTY ? defaultValue : values[idx] - 1;
+        }
+
+        Byte ret = otherGuids.get(guid);
+
+        return ret == null ? defaultValue : ret;
+    }
+
+    public void put(String guid, int value) {
+        if (value < 0 || value >= Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("value out of range: " + value);
+        }
+
+        if (isUuid(guid)) {
+            long msb = getMsb(guid);
+            long lsb = getLsb(guid);
+            int  idx = indexOf(msb, lsb);
+
+            if (values[idx] == EMPTY) {
+                if (uuidCount + 1 > values.length * MAX_LOAD_FACTOR) {
+                    rehash(values.length * 2);
+
+                    idx = indexOf(msb, lsb);
+                }
+
+                msbs[idx] = msb;
+                lsbs[idx] = lsb;
+                uuidCount++;
+            }
+
+            values[idx] = (byte) (value + 1);
+        } else {
+            otherGuids.put(guid, (byte) value);
+        }
+    }
+
+    /**
+     * @return true if the guid was present
+     */
+    public boolean remove(String guid) {
+        if (!isUuid(guid)) {
+            return otherGuids.remove(guid) != null;
+        }
+
+        int idx = indexOf(getMsb(guid), getLsb(guid));
+
+        if (values[idx] == EMPTY) {
+            return false;
+        }
+
+        values[idx] = EMPTY;
+        uuidCount--;
+
+        // backward-shift the entries that follow in the probe sequence, so that lookups don't stop at the freed slot
+        int mask = values.length - 1;
+
+        for (int next = (idx + 1) & mask; values[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(msbs[next], lsbs[next]);
+
+            if (((next - home) & mask) >= ((next - idx) & mask)) {
+                msbs[idx]    = msbs[next];
+                lsbs[idx]    = lsbs[next];
+                values[idx]  = values[next];
+                values[next] = EMPTY;
+                idx          = next;
+            }
+        }
+
+        return true;
+    }
+
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        otherGuids.clear();
+    }
+
+    // returns the slot holding the given uuid, or the empty slot where it would be added
+    private int indexOf(long msb, long lsb) {
+        int mask = values.length - 1;
+        int idx  = slot(msb, lsb);
+
+        while (values[idx] != EMPTY && (msbs[idx] != msb || lsbs[idx] != lsb)) {
+            idx = (idx + 1) & mask;
+        }
+
+        return idx;
+    }
+
+    private int slot(long msb, long lsb) {
+        long h = (msb ^ (lsb * 0x9E3779B97F4A7C15L)) * 0xC2B2AE3D27D4EB4FL;
+
+        return (int) (h ^ (h >>> 32)) & (values.length - 1);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMsbs   = msbs;
+        long[] oldLsbs   = lsbs;
+        byte[] oldValues = values;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                int idx = indexOf(oldMsbs[i], oldLsbs[i]);
+
+                msbs[idx]   = oldMsbs[i];
+                lsbs[idx]   = oldLsbs[i];
+                values[idx] = oldValues[i];
+                uuidCount++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs      = new long[capacity];
+        lsbs      = new long[capacity];
+        values    = new byte[capacity];
+        uuidCount = 0;
+    }
+
+    // canonical lower-case form only, so that the guid string can be recreated exactly from the two longs
+    static boolean isUuid(String guid) {
+        if (guid == null || guid.length() != UUID_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = guid.charAt(i);
+
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long getMsb(String uuid) {
+        return (parseHex(uuid, 0, 8) << 32) | (parseHex(uuid, 9, 13) << 16) | parseHex(uuid, 14, 18);
+    }
+
+    private static long getLsb(String uuid) {
+        return (parseHex(uuid, 19, 23) << 48) | parseHex(uuid, 24, 36);
+    }
+
+    private static long parseHex(String str, int start, int end) {
+        long ret = 0;
+
+        for (int i = start; i < end; i++) {
+            ret = (ret << 4) | Character.digit(str.charAt(i), 16);
+        }
+
+        return ret;
+    }
+}
@@ -17,6 +17,8 @@
  */
 package org.apache.atlas.repository.impexp;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.AtlasServiceException;
@@ -35,8 +37,14 @@ import org.apache.atlas.model.typedef.AtlasEnumDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
 import org.apache.atlas.repository.store.graph.v1.EntityGraphRetriever;
+import org.apache.atlas.tasks.TaskContext;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
@@ -59,13 +67,21 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.atlas.model.impexp.AtlasExportRequest.*;
 
@@ -73,10 +89,19 @@ import static org.apache.atlas.model.impexp.AtlasExportRequest.*;
 public class ExportService {
     private static final Logger LOG = LoggerFactory.getLogger(ExportService.class);
 
+    public static final String EXPORT_THREADS_PROPERTY = "atlas.export.threads";
+
+    private static final int DEFAULT_EXPORT_THREADS   = 4;
+    private static final int MAX_IN_FLIGHT_PER_THREAD = 4;
+    private static final int PROGRESS_REPORT_INTERVAL = 1000;
+
     private final AtlasTypeRegistry         typeRegistry;
     private final AtlasGraph                atlasGraph;
     private final EntityGraphRetriever      entityGraphRetriever;
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
+    private final int                       exportThreads;
+
+    private ExecutorService retrievalExecutor = null;
 
     @Inject
     public ExportService(final AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) throws AtlasBaseException {
@@ -84,25 +109,42 @@ public class ExportService {
         this.entityGraphRetriever = new EntityGraphRetriever(this.typeRegistry);
         this.atlasGraph           = atlasGraph;
         this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
+        this.exportThreads        = getExportThreads();
     }
 
     public AtlasExportResult run(ZipSink exportSink, AtlasExportRequest request, String userName, String hostName,
                                  String requestingIP) throws AtlasBaseException {
+        return run(exportSink, request, userName, hostName, requestingIP, null);
+    }
+
+    /**
+     * Exports the entities of the request; when taskContext is given, the export stops between entities once the
+     * task is asked to stop, and the items not processed till then have status FAIL.
+     */
+    public AtlasExportResult run(ZipSink exportSink, AtlasExportRequest request, String userName, String hostName,
+                                 String requestingIP, TaskContext taskContext) throws AtlasBaseException {
         long              startTime = System.currentTimeMillis();
         AtlasExportResult result    = new AtlasExportResult(request, userName, requestingIP, hostName, startTime);
-        ExportContext     context   = new ExportContext(result, exportSink);
+        ExportContext     context   = new ExportContext(result, exportSink, taskContext);
 
         try {
             LOG.info("==> export(user={}, from={})", userName, requestingIP);
 
-            AtlasExportResult.OperationStatus[] statuses = processItems(request, context);
+            AtlasExportResult.OperationStatus[] statuses = new AtlasExportResult.OperationStatus[request.getItemsToExport().size()];
+
+            try {
+                processItems(request, context, statuses);
+            } catch(Exception ex) {
+                LOG.error("Operation failed: {} entities exported", context.sink.getEntityCount(), ex);
+            }
 
+            // types, export order and result are written also when the export failed part way, so that the entities
+            // exported till then can be imported; items that were not processed have status FAIL
             processTypesDef(context);
             updateSinkWithOperationMetrics(context, statuses, getOperationDuration(startTime));
         } catch(Exception ex) {
             LOG.error("Operation failed: ", ex);
         } finally {
-            atlasGraph.releaseGremlinScriptEngine(context.scriptEngine);
             LOG.info("<== export(user={}, from={}): status {}", userName, requestingIP, context.result.getOperationStatus());
             context.clear();
             result.clear();
@@ -112,7 +154,7 @@ public class ExportService {
     }
 
     private void updateSinkWithOperationMetrics(ExportContext context, AtlasExportResult.OperationStatus[] statuses, int duration) throws AtlasBaseException {
-        context.result.getData().getEntityCreationOrder().addAll(context.lineageProcessed);
+        context.result.getData().getEntityCreationOrder().addAll(context.lineageProcessedOrder);
         context.sink.setExportOrder(context.result.getData().getEntityCreationOrder());
         context.sink.setTypesDef(context.result.getData().getTypesDef());
         clearContextData(context);
@@ -157,17 +199,27 @@ public class ExportService {
         }
     }
 
-    private AtlasExportResult.OperationStatus[] processItems(AtlasExportRequest request, ExportContext context) throws AtlasServiceException, AtlasException, AtlasBaseException {
-        AtlasExportResult.OperationStatus statuses[] = new AtlasExportResult.OperationStatus[request.getItemsToExport().size()];
+    private void processItems(AtlasExportRequest request, ExportContext context, AtlasExportResult.OperationStatus[] statuses) throws AtlasServiceException, AtlasException, AtlasBaseException {
         List<AtlasObjectId> itemsToExport = request.getItemsToExport();
         for (int i = 0; i < itemsToExport.size(); i++) {
+            if (context.isStopRequested()) {
+                LOG.info("export stopped: {} of {} items processed", i, itemsToExport.size());
+
+                break;
+            }
+
             AtlasObjectId item = itemsToExport.get(i);
             statuses[i] = processObjectId(item, context);
         }
-        return statuses;
     }
 
     private AtlasExportResult.OperationStatus getOverallOperationStatus(AtlasExportResult.OperationStatus... statuses) {
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] == null) {
+                statuses[i] = AtlasExportResult.OperationStatus.FAIL;
+            }
+        }
+
         AtlasExportResult.OperationStatus overall = (statuses.length == 0) ?
                 AtlasExportResult.OperationStatus.FAIL : statuses[0];
 
@@ -186,27 +238,16 @@ public class ExportService {
         }
 
         try {
-            List<AtlasEntityWithExtInfo> entities = getStartingEntity(item, context);
-            if(entities.size() == 0) {
+            List<String> guids = getStartingGuids(item, context);
+            if(guids.size() == 0) {
                 return AtlasExportResult.OperationStatus.FAIL;
             }
 
-            for (AtlasEntityWithExtInfo entityWithExtInfo : entities) {
-                processEntity(entityWithExtInfo.getEntity().getGuid(), context);
+            for (String guid : guids) {
+                context.guidsToProcess.add(guid);
             }
 
-            while (!context.guidsToProcess.isEmpty()) {
-                while (!context.guidsToProcess.isEmpty()) {
-                    String guid = context.guidsToProcess.remove(0);
-                    processEntity(guid, context);
-                }
-
-                if (!context.lineageToProcess.isEmpty()) {
-                    context.guidsToProcess.addAll(context.lineageToProcess);
-                    context.lineageProcessed.addAll(context.lineageToProcess.getList());
-                    context.lineageToProcess.clear();
-                }
-            }
+            processQueuedEntities(context);
         } catch (AtlasBaseException excp) {
             LOG.error("Fetching entity failed for: {}", item, excp);
             return AtlasExportResult.OperationStatus.FAIL;
@@ -219,15 +260,15 @@ public class ExportService {
         return AtlasExportResult.OperationStatus.SUCCESS;
     }
 
-    private List<AtlasEntityWithExtInfo> getStartingEntity(AtlasObjectId item, ExportContext context) throws AtlasBaseException {
-        List<AtlasEntityWithExtInfo> ret = new ArrayList<>();
+    private List<String> getStartingGuids(AtlasObjectId item, ExportContext context) throws AtlasBaseException {
+        List<String> ret = new ArrayList<>();
 
         if (StringUtils.isNotEmpty(item.getGuid())) {
-            AtlasEntityWithExtInfo entity = entityGraphRetriever.toAtlasEntityWithExtInfo(item);
-
-            if (entity != null) {
-                ret = Collections.singletonList(entity);
+            if (AtlasGraphUtilsV1.findByGuid(item.getGuid()) == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, item.getGuid());
             }
+
+            ret = Collections.singletonList(item.getGuid());
         } else if (StringUtils.isNotEmpty(item.getTypeName()) && MapUtils.isNotEmpty(item.getUniqueAttributes())) {
             String          typeName   = item.getTypeName();
             AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
@@ -259,23 +300,16 @@ public class ExportService {
                     continue;
                 }
 
-                context.bindings.clear();
-                context.bindings.put("typeName", typeName);
-                context.bindings.put("attrName", attribute.getQualifiedName());
-                context.bindings.put("attrValue", attrValue);
+                Map<String, Object> bindings = new HashMap<>();
 
-                List<String> guids = executeGremlinQueryForGuids(queryTemplate, context);
+                bindings.put("typeName", typeName);
+                bindings.put("attrName", attribute.getQualifiedName());
+                bindings.put("attrValue", attrValue);
 
-                if (CollectionUtils.isNotEmpty(guids)) {
-                    for (String guid : guids) {
-                        AtlasEntityWithExtInfo entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
-
-                        if (entityWithExtInfo == null) {
-                            continue;
-                        }
+                List<String> guids = executeGremlinQueryForGuids(queryTemplate, bindings);
 
-                        ret.add(entityWithExtInfo);
-                    }
+                if (CollectionUtils.isNotEmpty(guids)) {
+                    ret.addAll(guids);
                 }
 
                 break;
@@ -287,151 +321,285 @@ public class ExportService {
         return ret;
     }
 
-    private void processEntity(String guid, ExportContext context) throws AtlasBaseException {
+    /**
+     * Processes the queued guids, and the guids they lead to, till the queue is empty. Entities are retrieved, and
+     * their connected entities found, by a bounded pool of workers; up to MAX_IN_FLIGHT_PER_THREAD retrievals per
+     * worker are outstanding at any time, which bounds the memory held by retrieved entities. Results are applied
+     * to the context - and entities written to the sink - by this thread, in the order of the queue; hence the
+     * export order is the same as that of a sequential export.
+     */
+    private void processQueuedEntities(ExportContext context) throws AtlasBaseException {
+        ExecutorService                executor    = getRetrievalExecutor();
+        int                            maxInFlight = exportThreads * MAX_IN_FLIGHT_PER_THREAD;
+        Queue<Future<RetrievedEntity>> inFlight    = new ArrayDeque<>();
+
+        try {
+            while (!context.isStopRequested()) {
+                while (inFlight.size() < maxInFlight && !context.guidsToProcess.isEmpty()) {
+                    String guid = context.guidsToProcess.remove(0);
+
+                    if (context.guidsProcessed.contains(guid)) {
+                        continue;
+                    }
+
+                    EntityRetriever retriever = new EntityRetriever(guid, context.getDirection(guid), context.fetchType, executor != null);
+
+                    if (executor == null) {
+                        applyRetrievedEntity(retriever.call(), context);
+                    } else {
+                        inFlight.add(executor.submit(retriever));
+                    }
+                }
+
+                if (!inFlight.isEmpty()) {
+                    applyRetrievedEntity(inFlight.remove().get(), context);
+                } else if (!context.lineageToProcess.isEmpty()) {
+                    context.guidsToProcess.addAll(context.lineageToProcess);
+
+                    for (String guid : context.lineageToProcess.getList()) {
+                        if (context.lineageProcessed.add(guid)) {
+                            context.lineageProcessedOrder.add(guid);
+                        }
+                    }
+
+                    context.lineageToProcess.clear();
+                } else {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AtlasBaseException) {
+                throw (AtlasBaseException) e.getCause();
+            }
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e.getCause());
+        } finally {
+            for (Future<RetrievedEntity> result : inFlight) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    private void applyRetrievedEntity(RetrievedEntity retrieved, ExportContext context) throws AtlasBaseException {
+        String                 guid              = retrieved.guid;
+        AtlasEntityWithExtInfo entityWithExtInfo = retrieved.entityWithExtInfo;
+
         if (LOG.isDebugEnabled()) {
-            LOG.debug("==> processEntity({})", guid);
+            LOG.debug("==> applyRetrievedEntity({})", guid);
         }
 
-        if (!context.guidsProcessed.contains(guid)) {
-            TraversalDirection      direction         = context.guidDirection.get(guid);
-            AtlasEntityWithExtInfo  entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+        // the entity might have been processed, as a referred entity of another, after it was queued for retrieval
+        if (context.guidsProcessed.contains(guid)) {
+            return;
+        }
 
-            if(!context.lineageProcessed.contains(guid)) {
-                context.result.getData().getEntityCreationOrder().add(entityWithExtInfo.getEntity().getGuid());
-            }
+        if(!context.lineageProcessed.contains(guid)) {
+            context.result.getData().getEntityCreationOrder().add(entityWithExtInfo.getEntity().getGuid());
+        }
 
-            addEntity(entityWithExtInfo, context);
-            addTypes(entityWithExtInfo.getEntity(), context);
+        addEntity(entityWithExtInfo, context);
+        addTypes(entityWithExtInfo.getEntity(), context);
 
-            context.guidsProcessed.add(entityWithExtInfo.getEntity().getGuid());
-            getConntedEntitiesBasedOnOption(entityWithExtInfo.getEntity(), context, direction);
+        // when the direction changed after the entity was queued for retrieval (OUTWARD to INWARD), the entity is queued
+        // again; it is then processed in the new direction, as in getConnectedEntityGuids() of a sequential export
+        if (context.getDirection(guid) == retrieved.direction) {
+            context.guidsProcessed.add(guid);
+        }
 
-            if(entityWithExtInfo.getReferredEntities() != null) {
-                for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
-                    addTypes(e, context);
-                    getConntedEntitiesBasedOnOption(e, context, direction);
-                }
+        for (ConnectedEntity connectedEntity : retrieved.connectedEntities) {
+            addConnectedEntity(connectedEntity, context);
+        }
 
-                context.guidsProcessed.addAll(entityWithExtInfo.getReferredEntities().keySet());
+        if(entityWithExtInfo.getReferredEntities() != null) {
+            for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
+                addTypes(e, context);
             }
+
+            context.guidsProcessed.addAll(entityWithExtInfo.getReferredEntities().keySet());
         }
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== processEntity({})", guid);
+            LOG.debug("<== applyRetrievedEntity({}): guidsToProcess {}", guid, context.guidsToProcess.size());
         }
     }
 
-    private void getConntedEntitiesBasedOnOption(AtlasEntity entity, ExportContext context, TraversalDirection direction) throws AtlasBaseException {
+    private void addConnectedEntity(ConnectedEntity connectedEntity, ExportContext context) {
+        String             guid             = connectedEntity.guid;
+        TraversalDirection direction        = connectedEntity.direction;
+        TraversalDirection currentDirection = context.getDirection(guid);
+
         switch (context.fetchType) {
             case CONNECTED:
-                getEntityGuidsForConnectedFetch(entity, context, direction);
+                if (currentDirection == null) {
+                    context.addToBeProcessed(connectedEntity.isProcess, guid, direction);
+
+                } else if (currentDirection == TraversalDirection.OUTWARD && direction == TraversalDirection.INWARD) {
+                    // the entity should be reprocessed to get inward entities
+                    context.guidsProcessed.remove(guid);
+                    context.addToBeProcessed(connectedEntity.isProcess, guid, direction);
+                }
+                break;
+
+            case FULL:
+            default:
+                if (!context.guidsProcessed.contains(guid)) {
+                    context.addToBeProcessed(connectedEntity.isProcess, guid, TraversalDirection.BOTH);
+                }
+        }
+    }
+
+    private void getConnectedEntitiesBasedOnOption(AtlasEntity entity, ExportFetchType fetchType, TraversalDirection direction, List<ConnectedEntity> connectedEntities) {
+        switch (fetchType) {
+            case CONNECTED:
+                getEntityGuidsForConnectedFetch(entity, direction, connectedEntities);
                 break;
 
             case FULL:
             default:
-                getEntityGuidsForFullFetch(entity, context);
+                getConnectedEntityGuids(entity, TraversalDirection.BOTH, connectedEntities);
         }
     }
 
-    private void getEntityGuidsForConnectedFetch(AtlasEntity entity, ExportContext context, TraversalDirection direction) throws AtlasBaseException {
+    private void getEntityGuidsForConnectedFetch(AtlasEntity entity, TraversalDirection direction, List<ConnectedEntity> connectedEntities) {
         if (direction == null || direction == TraversalDirection.UNKNOWN) {
-            getConnectedEntityGuids(entity, context, TraversalDirection.OUTWARD, TraversalDirection.INWARD);
+            getConnectedEntityGuids(entity, TraversalDirection.OUTWARD, connectedEntities);
+            getConnectedEntityGuids(entity, TraversalDirection.INWARD, connectedEntities);
         } else {
-            if (isProcessEntity(entity)) {
+            if (isProcessEntity(entity.getTypeName())) {
                 direction = TraversalDirection.OUTWARD;
             }
 
-            getConnectedEntityGuids(entity, context, direction);
+            getConnectedEntityGuids(entity, direction, connectedEntities);
         }
     }
 
-    private boolean isProcessEntity(AtlasEntity entity) throws AtlasBaseException {
-        String          typeName   = entity.getTypeName();
+    private boolean isProcessEntity(String typeName) {
         AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
 
-        return entityType.isSubTypeOf(AtlasBaseTypeDef.ATLAS_TYPE_PROCESS);
+        return entityType != null && entityType.isSubTypeOf(AtlasBaseTypeDef.ATLAS_TYPE_PROCESS);
     }
 
-    private void getConnectedEntityGuids(AtlasEntity entity, ExportContext context, TraversalDirection... directions) {
-        if(directions == null) {
+    /**
+     * Finds the entities connected to the given entity by an edge in the given direction (BOTH: either direction),
+     * using the vertex-centric edges of the entity vertex.
+     */
+    private void getConnectedEntityGuids(AtlasEntity entity, TraversalDirection direction, List<ConnectedEntity> connectedEntities) {
+        AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(entity.getGuid());
+
+        if (vertex == null) {
             return;
         }
 
-        for (TraversalDirection direction : directions) {
-            String query = getQueryForTraversalDirection(direction);
+        Set<String> guids = new HashSet<>();
 
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("==> getConnectedEntityGuids({}): guidsToProcess {} query {}", AtlasTypeUtil.getAtlasObjectId(entity), context.guidsToProcess.size(), query);
+        if (direction != TraversalDirection.INWARD) {
+            for (AtlasEdge edge : (Iterable<AtlasEdge>) vertex.getEdges(AtlasEdgeDirection.OUT)) {
+                addConnectedEntity(edge.getInVertex(), direction, guids, connectedEntities);
             }
+        }
 
-            context.bindings.clear();
-            context.bindings.put("startGuid", entity.getGuid());
+        if (direction != TraversalDirection.OUTWARD) {
+            for (AtlasEdge edge : (Iterable<AtlasEdge>) vertex.getEdges(AtlasEdgeDirection.IN)) {
+                addConnectedEntity(edge.getOutVertex(), direction, guids, connectedEntities);
+            }
+        }
 
-            List<HashMap<String, Object>> result = executeGremlinQuery(query, context);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("getConnectedEntityGuids({}, {}): found {} guids", AtlasTypeUtil.getAtlasObjectId(entity), direction, guids.size());
+        }
+    }
 
-            if (CollectionUtils.isEmpty(result)) {
-                continue;
-            }
+    private void addConnectedEntity(AtlasVertex vertex, TraversalDirection direction, Set<String> guids, List<ConnectedEntity> connectedEntities) {
+        String guid = GraphHelper.getGuid(vertex);
 
-            for (HashMap<String, Object> hashMap : result) {
-                String             guid             = (String) hashMap.get("__guid");
-                TraversalDirection currentDirection = context.guidDirection.get(guid);
-                boolean            isLineage        = (boolean) hashMap.get("isProcess");
+        if (guid != null && guids.add(guid)) {
+            connectedEntities.add(new ConnectedEntity(guid, isProcessEntity(GraphHelper.getTypeName(vertex)), direction));
+        }
+    }
 
-                if (currentDirection == null) {
-                    context.addToBeProcessed(isLineage, guid, direction);
+    private class EntityRetriever implements Callable<RetrievedEntity> {
+        private final String             guid;
+        private final TraversalDirection direction;
+        private final ExportFetchType    fetchType;
+        private final boolean            isWorker;
 
-                } else if (currentDirection == TraversalDirection.OUTWARD && direction == TraversalDirection.INWARD) {
-                    // the entity should be reprocessed to get inward entities
-                    context.guidsProcessed.remove(guid);
-                    context.addToBeProcessed(isLineage, guid, direction);
+        EntityRetriever(String guid, TraversalDirection direction, ExportFetchType fetchType, boolean isWorker) {
+            this.guid      = guid;
+            this.direction = direction;
+            this.fetchType = fetchType;
+            this.isWorker  = isWorker;
+        }
+
+        @Override
+        public RetrievedEntity call() throws AtlasBaseException {
+            try {
+                AtlasEntityWithExtInfo entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+                RetrievedEntity        ret               = new RetrievedEntity(guid, direction, entityWithExtInfo);
+
+                getConnectedEntitiesBasedOnOption(entityWithExtInfo.getEntity(), fetchType, direction, ret.connectedEntities);
+
+                if (entityWithExtInfo.getReferredEntities() != null) {
+                    for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
+                        getConnectedEntitiesBasedOnOption(e, fetchType, direction, ret.connectedEntities);
+                    }
                 }
-            }
 
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("<== getConnectedEntityGuids({}): found {} guids; guidsToProcess {}", entity.getGuid(), result.size(), context.guidsToProcess.size());
+                return ret;
+            } finally {
+                if (isWorker) {
+                    // release the read transaction opened for this worker thread
+                    atlasGraph.rollback();
+                }
             }
         }
     }
 
-    private String getQueryForTraversalDirection(TraversalDirection direction) {
-        switch (direction) {
-            case INWARD:
-                return this.gremlinQueryProvider.getQuery(AtlasGremlinQuery.EXPORT_BY_GUID_CONNECTED_IN_EDGE);
+    private static class RetrievedEntity {
+        final String                 guid;
+        final TraversalDirection     direction;
+        final AtlasEntityWithExtInfo entityWithExtInfo;
+        final List<ConnectedEntity>  connectedEntities = new ArrayList<>();
 
-            default:
-            case OUTWARD:
-                return this.gremlinQueryProvider.getQuery(AtlasGremlinQuery.EXPORT_BY_GUID_CONNECTED_OUT_EDGE);
+        RetrievedEntity(String guid, TraversalDirection direction, AtlasEntityWithExtInfo entityWithExtInfo) {
+            this.guid              = guid;
+            this.direction         = direction;
+            this.entityWithExtInfo = entityWithExtInfo;
         }
     }
 
-    private void getEntityGuidsForFullFetch(AtlasEntity entity, ExportContext context) {
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("==> getEntityGuidsForFullFetch({}): guidsToProcess {}", AtlasTypeUtil.getAtlasObjectId(entity), context.guidsToProcess.size());
-        }
-
-        String query = this.gremlinQueryProvider.getQuery(AtlasGremlinQuery.EXPORT_BY_GUID_FULL);
-
-        context.bindings.clear();
-        context.bindings.put("startGuid", entity.getGuid());
+    private static class ConnectedEntity {
+        final String             guid;
+        final boolean            isProcess;
+        final TraversalDirection direction;
 
-        List<HashMap<String, Object>> result = executeGremlinQuery(query, context);
+        ConnectedEntity(String guid, boolean isProcess, TraversalDirection direction) {
+            this.guid      = guid;
+            this.isProcess = isProcess;
+            this.direction = direction;
+        }
+    }
 
-        if (CollectionUtils.isEmpty(result)) {
-            return;
+    // null when export is configured to run in the requesting thread
+    private synchronized ExecutorService getRetrievalExecutor() {
+        if (retrievalExecutor == null && exportThreads > 1) {
+            retrievalExecutor = Executors.newFixedThreadPool(exportThreads,
+                    new ThreadFactoryBuilder().setNameFormat("atlas-export-%d").setDaemon(true).build());
         }
 
-        for (HashMap<String, Object> hashMap : result) {
-            String  guid      = (String) hashMap.get("__guid");
-            boolean isLineage = (boolean) hashMap.get("isProcess");
+        return retrievalExecutor;
+    }
 
-            if (!context.guidsProcessed.contains(guid)) {
-                context.addToBeProcessed(isLineage, guid, TraversalDirection.BOTH);
-            }
-        }
+    private static int getExportThreads() {
+        try {
+            return ApplicationProperties.get().getInt(EXPORT_THREADS_PROPERTY, DEFAULT_EXPORT_THREADS);
+        } catch (AtlasException e) {
+            LOG.warn("failed to read {}; using default {}", EXPORT_THREADS_PROPERTY, DEFAULT_EXPORT_THREADS, e);
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getEntityGuidsForFullFetch({}): found {} guids; guidsToProcess {}", entity.getGuid(), result.size(), context.guidsToProcess.size());
+            return DEFAULT_EXPORT_THREADS;
         }
     }
 
@@ -564,21 +732,17 @@ public class ExportService {
         }
     }
 
-    private List<HashMap<String, Object>> executeGremlinQuery(String query, ExportContext context) {
-        try {
-            return (List<HashMap<String, Object>>) atlasGraph.executeGremlinScript(context.scriptEngine, context.bindings, query, false);
-        } catch (ScriptException e) {
-            LOG.error("Script execution failed for query: ", query, e);
-            return null;
-        }
-    }
+    // the pooled script engine is held only for the query, not for the rest of the export
+    private List<String> executeGremlinQueryForGuids(String query, Map<String, Object> bindings) throws AtlasBaseException {
+        ScriptEngine scriptEngine = atlasGraph.getGremlinScriptEngine();
 
-    private List<String> executeGremlinQueryForGuids(String query, ExportContext context) {
         try {
-            return (List<String>) atlasGraph.executeGremlinScript(context.scriptEngine, context.bindings, query, false);
+            return (List<String>) atlasGraph.executeGremlinScript(scriptEngine, bindings, query, false);
         } catch (ScriptException e) {
             LOG.error("Script execution failed for query: ", query, e);
             return null;
+        } finally {
+            atlasGraph.releaseGremlinScriptEngine(scriptEngine);
         }
     }
 
@@ -611,7 +775,8 @@ public class ExportService {
     }
 
     public static class UniqueList<T> {
-        private final List<T>   list = new ArrayList<>();
+        // used as a queue by export, hence a linked list: remove(0) doesn't shift the remaining elements
+        private final List<T>   list = new LinkedList<>();
         private final Set<T>    set = new HashSet<>();
 
         public void add(T e) {
@@ -662,33 +827,33 @@ public class ExportService {
 
 
     private class ExportContext {
-        final Set<String>                     guidsProcessed = new HashSet<>();
+        final CompactGuidMap                  guidsProcessed = new CompactGuidMap();
         final UniqueList<String>              guidsToProcess = new UniqueList<>();
         final UniqueList<String>              lineageToProcess = new UniqueList<>();
-        final Set<String>                     lineageProcessed = new HashSet<>();
-        final Map<String, TraversalDirection> guidDirection  = new HashMap<>();
+        final CompactGuidMap                  lineageProcessed = new CompactGuidMap();
+        final List<String>                    lineageProcessedOrder = new ArrayList<>();
+        final CompactGuidMap                  guidDirection  = new CompactGuidMap(); // guid -> TraversalDirection.ordinal()
         final Set<String>                     entityTypes         = new HashSet<>();
         final Set<String>                     classificationTypes = new HashSet<>();
         final Set<String>                     structTypes         = new HashSet<>();
         final Set<String>                     enumTypes           = new HashSet<>();
         final AtlasExportResult               result;
         final ZipSink                         sink;
+        final TaskContext                     taskContext;
 
-        private final ScriptEngine        scriptEngine;
-        private final Map<String, Object> bindings;
         private final ExportFetchType     fetchType;
         private final String              matchType;
 
         private       int                 progressReportCount = 0;
+        private       long                progressReportTime  = System.currentTimeMillis();
 
-        ExportContext(AtlasExportResult result, ZipSink sink) throws AtlasBaseException {
-            this.result = result;
-            this.sink   = sink;
+        ExportContext(AtlasExportResult result, ZipSink sink, TaskContext taskContext) {
+            this.result      = result;
+            this.sink        = sink;
+            this.taskContext = taskContext;
 
-            scriptEngine = atlasGraph.getGremlinScriptEngine();
-            bindings     = new HashMap<>();
-            fetchType    = getFetchType(result.getRequest());
-            matchType    = getMatchType(result.getRequest());
+            fetchType = getFetchType(result.getRequest());
+            matchType = getMatchType(result.getRequest());
         }
 
         private ExportFetchType getFetchType(AtlasExportRequest request) {
@@ -719,6 +884,18 @@ public class ExportService {
             guidsToProcess.clear();
             guidsProcessed.clear();
             guidDirection.clear();
+            lineageProcessed.clear();
+            lineageProcessedOrder.clear();
+        }
+
+        boolean isStopRequested() {
+            return taskContext != null && taskContext.isStopRequested();
+        }
+
+        public TraversalDirection getDirection(String guid) {
+            int ordinal = guidDirection.get(guid, -1);
+
+            return ordinal == -1 ? null : TraversalDirection.values()[ordinal];
         }
 
         public void addToBeProcessed(boolean isSuperTypeProcess, String guid, TraversalDirection direction) {
@@ -730,15 +907,20 @@ public class ExportService {
                 lineageToProcess.add(guid);
             }
 
-            guidDirection.put(guid, direction);
+            guidDirection.put(guid, direction.ordinal());
         }
 
         public void reportProgress() {
 
-            if ((guidsProcessed.size() - progressReportCount) > 1000) {
+            if ((guidsProcessed.size() - progressReportCount) > PROGRESS_REPORT_INTERVAL) {
+                long now  = System.currentTimeMillis();
+                long rate = (guidsProcessed.size() - progressReportCount) * 1000L / Math.max(1, now - progressReportTime);
+
                 progressReportCount = guidsProcessed.size();
+                progressReportTime  = now;
 
-                LOG.info("export(): in progress.. number of entities exported: {}", this.guidsProcessed.size());
+                LOG.info("export(): in progress.. number of entities exported: {}; to process: {}; entities/sec: {}",
+                         this.guidsProcessed.size(), this.guidsToProcess.size() + this.lineageToProcess.size(), rate);
             }
         }
     }
@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportRequest;
+import org.apache.atlas.model.impexp.AtlasExportResult;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.tasks.TaskContext;
+import org.apache.atlas.tasks.TaskHandler;
+import org.apache.atlas.tasks.TaskManagement;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exports entities, as a task executed in the background, into a zip file on the server; the file can be downloaded
+ * once the task completes. An export is not resumed part way: an interrupted export is started again.
+ *
+ * The file is written to the local task directory: after a failover, it can't be downloaded from the new active
+ * server unless the directory is on shared storage.
+ */
+@Component
+public class ExportTaskHandler implements TaskHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(ExportTaskHandler.class);
+
+    public static final String TASK_TYPE = "EXPORT";
+
+    static final String PARAM_REQUEST       = "request";
+    static final String PARAM_HOST_NAME     = "hostName";
+    static final String PARAM_REQUESTING_IP = "requestingIP";
+
+    private final ExportService    exportService;
+    private final TaskManagement   taskManagement;
+    private final ImportExportLock importExportLock;
+
+    @Inject
+    public ExportTaskHandler(ExportService exportService, TaskManagement taskManagement, ImportExportLock importExportLock) {
+        this.exportService    = exportService;
+        this.taskManagement   = taskManagement;
+        this.importExportLock = importExportLock;
+
+        taskManagement.registerHandler(this, ImportExportLock.TASK_LANE);
+    }
+
+    /**
+     * Submits a task to export the entities of the request.
+     *
+     * @return the submitted task
+     */
+    public AtlasTask submit(AtlasExportRequest request, String hostName, String requestingIP) throws AtlasBaseException {
+        if (request == null || CollectionUtils.isEmpty(request.getItemsToExport())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no items to export");
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put(PARAM_REQUEST, AtlasType.toJson(request));
+        parameters.put(PARAM_HOST_NAME, hostName);
+        parameters.put(PARAM_REQUESTING_IP, requestingIP);
+
+        return taskManagement.submit(TASK_TYPE, parameters, 0);
+    }
+
+    /**
+     * @return the zip file written by the export task
+     */
+    public File getExportFile(String taskGuid) throws AtlasBaseException {
+        AtlasTask task = taskManagement.getTask(taskGuid);
+
+        if (!TASK_TYPE.equals(task.getType())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "task " + taskGuid + " is not an export");
+        }
+
+        if (task.getStatus() != AtlasTask.Status.COMPLETE) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "export task " + taskGuid + " is " + task.getStatus());
+        }
+
+        File ret = getFile(taskGuid);
+
+        if (!ret.isFile()) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_FILE_NOT_FOUND, ret.getName(), taskGuid);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public String getTaskType() {
+        return TASK_TYPE;
+    }
+
+    @Override
+    public void execute(AtlasTask task, TaskContext context) throws AtlasBaseException {
+        try {
+            importExportLock.acquireWhenAvailable();
+        } catch (InterruptedException excp) {
+            // the server is stopping, or became passive: the task is started again later
+            Thread.currentThread().interrupt();
+
+            return;
+        }
+
+        try {
+            export(task, context);
+        } finally {
+            importExportLock.release();
+        }
+    }
+
+    @Override
+    public void onTaskDeleted(AtlasTask task) {
+        File file = getFile(task.getGuid());
+
+        if (file.exists() && !file.delete()) {
+            LOG.warn("failed to delete export file {}", file);
+        }
+    }
+
+    private void export(AtlasTask task, TaskContext context) throws AtlasBaseException {
+        AtlasExportRequest request = AtlasType.fromJson(task.getParameters().get(PARAM_REQUEST), AtlasExportRequest.class);
+        File               file    = getFile(task.getGuid());
+        ZipSink            sink    = null;
+        AtlasExportResult  result;
+
+        try {
+            sink   = new ZipSink(new BufferedOutputStream(new FileOutputStream(file)));
+            result = exportService.run(sink, request, task.getCreatedBy(), task.getParameters().get(PARAM_HOST_NAME),
+                                       task.getParameters().get(PARAM_REQUESTING_IP), context);
+
+            task.setTotalCount(sink.getEntityCount());
+            task.setProcessedCount(sink.getEntityCount());
+        } catch (IOException excp) {
+            LOG.error("task {}: failed to write export file {}", task.getGuid(), file, excp);
+
+            throw new AtlasBaseException(excp);
+        } finally {
+            if (sink != null) {
+                sink.close();
+            }
+        }
+
+        // cancelled, or started again later: the partly written file is deleted, or overwritten, with the task
+        if (context.isStopRequested()) {
+            LOG.info("task {}: export stopped after {} entities", task.getGuid(), task.getProcessedCount());
+
+            return;
+        }
+
+        result.setData(null);
+
+        task.setResult(result);
+
+        if (result.getOperationStatus() == AtlasExportResult.OperationStatus.FAIL) {
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "export failed");
+        }
+    }
+
+    private File getFile(String taskGuid) {
+        return taskManagement.getDataFile("export-" + taskGuid + ".zip");
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ensures that only one import or export runs at a time in the server. Requests from users fail while another import
+ * or export is in progress; import and export tasks wait for it to complete.
+ */
+@Component
+public class ImportExportLock {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportExportLock.class);
+
+    /**
+     * Lane of the import and export tasks, so that waiting tasks don't hold the threads of other tasks.
+     */
+    public static final String TASK_LANE = "import-export";
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @throws AtlasBaseException if another import or export is in progress
+     */
+    public void acquire(String activity) throws AtlasBaseException {
+        if (!lock.tryLock()) {
+            LOG.warn("Another export or import is currently in progress..aborting this {}", activity);
+
+            throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_IMPORT_EXPORT_LOCK);
+        }
+    }
+
+    /**
+     * Waits for the import or export in progress, if any, to complete.
+     */
+    public void acquireWhenAvailable() throws InterruptedException {
+        lock.lockInterruptibly();
+    }
+
+    public void release() {
+        lock.unlock();
+    }
+}
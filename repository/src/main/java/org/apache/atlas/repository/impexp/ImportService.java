@@ -21,19 +21,21 @@ import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportRequest;
 import org.apache.atlas.model.impexp.AtlasImportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v1.EntityImportStream;
 import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.tasks.TaskContext;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 
@@ -57,6 +59,15 @@ public class ImportService {
 
     public AtlasImportResult run(ZipSource source, AtlasImportRequest request, String userName,
                                  String hostName, String requestingIP) throws AtlasBaseException {
+        return run(source, request, userName, hostName, requestingIP, null);
+    }
+
+    /**
+     * Imports the given source; when taskContext is given, the import stops between entities once the task is asked
+     * to stop, keeping the entities imported till then, and fails.
+     */
+    public AtlasImportResult run(ZipSource source, AtlasImportRequest request, String userName,
+                                 String hostName, String requestingIP, TaskContext taskContext) throws AtlasBaseException {
         AtlasImportResult result = new AtlasImportResult(request, userName, requestingIP, hostName, System.currentTimeMillis());
 
         try {
@@ -69,7 +80,7 @@ public class ImportService {
             startTimestamp = System.currentTimeMillis();
             processTypes(source.getTypesDef(), result);
             setStartPosition(request, source);
-            processEntities(source, result);
+            processEntities(source, result, taskContext);
 
 
             result.setOperationStatus(AtlasImportResult.OperationStatus.SUCCESS);
@@ -99,6 +110,11 @@ public class ImportService {
 
     public AtlasImportResult run(AtlasImportRequest request, String userName, String hostName, String requestingIP)
             throws AtlasBaseException {
+        return run(request, userName, hostName, requestingIP, null);
+    }
+
+    public AtlasImportResult run(AtlasImportRequest request, String userName, String hostName, String requestingIP,
+                                 TaskContext taskContext) throws AtlasBaseException {
         String fileName = (String) request.getFileName();
 
         if (StringUtils.isBlank(fileName)) {
@@ -112,9 +128,9 @@ public class ImportService {
 
             String transforms = MapUtils.isNotEmpty(request.getOptions()) ? request.getOptions().get(AtlasImportRequest.TRANSFORMS_KEY) : null;
             File file = new File(fileName);
-            ZipSource source = new ZipSource(new ByteArrayInputStream(FileUtils.readFileToByteArray(file)), ImportTransforms.fromJson(transforms));
+            ZipSource source = new ZipSource(file, ImportTransforms.fromJson(transforms));
 
-            result = run(source, request, userName, hostName, requestingIP);
+            result = run(source, request, userName, hostName, requestingIP, taskContext);
         } catch (AtlasBaseException excp) {
             LOG.error("import(user={}, from={}, fileName={}): failed", userName, requestingIP, excp);
 
@@ -144,10 +160,81 @@ public class ImportService {
         importTypeDefProcessor.processTypes(typeDefinitionMap, result);
     }
 
-    private void processEntities(ZipSource importSource, AtlasImportResult result) throws AtlasBaseException {
-        this.entityStore.bulkImport(importSource, result);
+    private void processEntities(ZipSource importSource, AtlasImportResult result, TaskContext taskContext) throws AtlasBaseException {
+        if (taskContext == null) {
+            this.entityStore.bulkImport(importSource, result);
+        } else {
+            this.entityStore.bulkImport(new StoppableImportStream(importSource, taskContext), result);
+
+            if (taskContext.isStopRequested()) {
+                throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "import stopped after " + result.getProcessedEntities().size() + " entities");
+            }
+        }
 
         endTimestamp = System.currentTimeMillis();
         result.incrementMeticsCounter("duration", (int) (this.endTimestamp - this.startTimestamp));
     }
+
+    /**
+     * Ends the stream, including the entities retried at its end, once the task is asked to stop.
+     */
+    private static class StoppableImportStream implements EntityImportStream {
+        private final EntityImportStream stream;
+        private final TaskContext        taskContext;
+
+        StoppableImportStream(EntityImportStream stream, TaskContext taskContext) {
+            this.stream      = stream;
+            this.taskContext = taskContext;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !taskContext.isStopRequested() && stream.hasNext();
+        }
+
+        @Override
+        public AtlasEntity next() {
+            return stream.next();
+        }
+
+        @Override
+        public void reset() {
+            stream.reset();
+        }
+
+        @Override
+        public AtlasEntity getByGuid(String guid) {
+            return stream.getByGuid(guid);
+        }
+
+        @Override
+        public int size() {
+            return stream.size();
+        }
+
+        @Override
+        public void setPosition(int position) {
+            stream.setPosition(position);
+        }
+
+        @Override
+        public int getPosition() {
+            return stream.getPosition();
+        }
+
+        @Override
+        public void setPositionUsingEntityGuid(String guid) {
+            stream.setPositionUsingEntityGuid(guid);
+        }
+
+        @Override
+        public AtlasEntityWithExtInfo getNextEntityWithExtInfo() {
+            return taskContext.isStopRequested() ? null : stream.getNextEntityWithExtInfo();
+        }
+
+        @Override
+        public void onImportComplete(String guid) {
+            stream.onImportComplete(guid);
+        }
+    }
 }
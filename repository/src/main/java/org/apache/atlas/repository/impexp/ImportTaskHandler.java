@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasImportRequest;
+import org.apache.atlas.model.impexp.AtlasImportResult;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.tasks.TaskContext;
+import org.apache.atlas.tasks.TaskHandler;
+import org.apache.atlas.tasks.TaskManagement;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports a zip file on the server, as a task executed in the background. An uploaded zip is first saved in the task
+ * directory, and deleted with the task. An import is not resumed part way: an interrupted import is started again,
+ * and updates the entities it had already imported.
+ *
+ * The uploaded zip is saved in the local task directory: after a failover, the import fails on the new active server
+ * unless the directory is on shared storage.
+ */
+@Component
+public class ImportTaskHandler implements TaskHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportTaskHandler.class);
+
+    public static final String TASK_TYPE = "IMPORT";
+
+    static final String PARAM_REQUEST       = "request";
+    static final String PARAM_HOST_NAME     = "hostName";
+    static final String PARAM_REQUESTING_IP = "requestingIP";
+    static final String PARAM_UPLOADED_FILE = "uploadedFile";
+
+    private final ImportService    importService;
+    private final TaskManagement   taskManagement;
+    private final ImportExportLock importExportLock;
+
+    @Inject
+    public ImportTaskHandler(ImportService importService, TaskManagement taskManagement, ImportExportLock importExportLock) {
+        this.importService    = importService;
+        this.taskManagement   = taskManagement;
+        this.importExportLock = importExportLock;
+
+        taskManagement.registerHandler(this, ImportExportLock.TASK_LANE);
+    }
+
+    /**
+     * Submits a task to import the file given in the request.
+     *
+     * @return the submitted task
+     */
+    public AtlasTask submit(AtlasImportRequest request, String hostName, String requestingIP) throws AtlasBaseException {
+        if (request == null || StringUtils.isBlank(request.getFileName())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "FILENAME parameter not found");
+        }
+
+        return submit(request, hostName, requestingIP, null);
+    }
+
+    /**
+     * Saves the uploaded zip, and submits a task to import it.
+     *
+     * @return the submitted task
+     */
+    public AtlasTask submit(InputStream inputStream, AtlasImportRequest request, String hostName, String requestingIP) throws AtlasBaseException {
+        File file = taskManagement.getDataFile("import-" + UUID.randomUUID().toString() + ".zip");
+
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException excp) {
+            LOG.error("failed to save import file {}", file, excp);
+
+            deleteFile(file);
+
+            throw new AtlasBaseException(excp);
+        }
+
+        request.setFileName(file.getAbsolutePath());
+
+        try {
+            return submit(request, hostName, requestingIP, file);
+        } catch (AtlasBaseException excp) {
+            deleteFile(file);
+
+            throw excp;
+        }
+    }
+
+    @Override
+    public String getTaskType() {
+        return TASK_TYPE;
+    }
+
+    @Override
+    public void execute(AtlasTask task, TaskContext context) throws AtlasBaseException {
+        String uploadedFile = task.getParameters().get(PARAM_UPLOADED_FILE);
+
+        // saved by the server that received the upload, which may not be this one
+        if (uploadedFile != null && !new File(uploadedFile).isFile()) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_FILE_NOT_FOUND, uploadedFile, task.getGuid());
+        }
+
+        try {
+            importExportLock.acquireWhenAvailable();
+        } catch (InterruptedException excp) {
+            // the server is stopping, or became passive: the task is started again later
+            Thread.currentThread().interrupt();
+
+            return;
+        }
+
+        try {
+            importFile(task, context);
+        } finally {
+            importExportLock.release();
+        }
+    }
+
+    @Override
+    public void onTaskDeleted(AtlasTask task) {
+        String uploadedFile = task.getParameters() != null ? task.getParameters().get(PARAM_UPLOADED_FILE) : null;
+
+        if (uploadedFile != null) {
+            deleteFile(new File(uploadedFile));
+        }
+    }
+
+    private void importFile(AtlasTask task, TaskContext context) throws AtlasBaseException {
+        AtlasImportRequest request = AtlasType.fromJson(task.getParameters().get(PARAM_REQUEST), AtlasImportRequest.class);
+        AtlasImportResult  result  = importService.run(request, task.getCreatedBy(), task.getParameters().get(PARAM_HOST_NAME),
+                                                       task.getParameters().get(PARAM_REQUESTING_IP), context);
+
+        if (result.getProcessedEntities() != null) {
+            task.setTotalCount(result.getProcessedEntities().size());
+            task.setProcessedCount(result.getProcessedEntities().size());
+        }
+
+        // guids of the imported entities aren't kept with the task
+        result.setProcessedEntities(null);
+
+        task.setResult(result);
+    }
+
+    private AtlasTask submit(AtlasImportRequest request, String hostName, String requestingIP, File uploadedFile) throws AtlasBaseException {
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put(PARAM_REQUEST, AtlasType.toJson(request));
+        parameters.put(PARAM_HOST_NAME, hostName);
+        parameters.put(PARAM_REQUESTING_IP, requestingIP);
+
+        if (uploadedFile != null) {
+            parameters.put(PARAM_UPLOADED_FILE, uploadedFile.getAbsolutePath());
+        }
+
+        return taskManagement.submit(TASK_TYPE, parameters, 0);
+    }
+
+    private void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("failed to delete import file {}", file);
+        }
+    }
+}
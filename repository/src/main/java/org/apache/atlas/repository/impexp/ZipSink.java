@@ -25,50 +25,48 @@ import org.apache.atlas.type.AtlasType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 public class ZipSink {
     private static final Logger LOG = LoggerFactory.getLogger(ZipSink.class);
 
-    private ZipOutputStream zipOutputStream;
-    final Set<String>       guids = new HashSet<>();
+    private static final int ENTRY_BUFFER_SIZE = 64 * 1024;
+
+    private ZipOutputStream      zipOutputStream;
+    private BufferedOutputStream entryBuffer;
+    final CompactGuidMap         guids = new CompactGuidMap();
 
 
     public ZipSink(OutputStream outputStream) {
         zipOutputStream = new ZipOutputStream(outputStream);
+        entryBuffer     = new BufferedOutputStream(zipOutputStream, ENTRY_BUFFER_SIZE);
     }
 
     public void add(AtlasEntity entity) throws AtlasBaseException {
-        String jsonData = convertToJSON(entity);
-        saveToZip(entity.getGuid(), jsonData);
+        saveToZip(entity.getGuid(), entity);
         recordAddedEntityGuids(entity);
     }
 
     public void add(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) throws AtlasBaseException {
-        String jsonData = convertToJSON(entityWithExtInfo);
-        saveToZip(entityWithExtInfo.getEntity().getGuid(), jsonData);
+        saveToZip(entityWithExtInfo.getEntity().getGuid(), entityWithExtInfo);
         recordAddedEntityGuids(entityWithExtInfo);
     }
 
     public void setResult(AtlasExportResult result) throws AtlasBaseException {
-        String jsonData = convertToJSON(result);
-        saveToZip(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME, jsonData);
+        saveToZip(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME, result);
     }
 
     public void setTypesDef(AtlasTypesDef typesDef) throws AtlasBaseException {
-        String jsonData = convertToJSON(typesDef);
-        saveToZip(ZipExportFileNames.ATLAS_TYPESDEF_NAME, jsonData);
+        saveToZip(ZipExportFileNames.ATLAS_TYPESDEF_NAME, typesDef);
     }
 
     public void setExportOrder(List<String> result) throws AtlasBaseException {
-        String jsonData = convertToJSON(result);
-        saveToZip(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME, jsonData);
+        saveToZip(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME, result);
     }
 
     public void close() {
@@ -76,34 +74,34 @@ public class ZipSink {
             if(zipOutputStream != null) {
                 zipOutputStream.close();
                 zipOutputStream = null;
+                entryBuffer     = null;
             }
         } catch (IOException e) {
             LOG.error("Error closing Zip file", e);
         }
     }
 
-    private String convertToJSON(Object entity) {
-        return AtlasType.toJson(entity);
-    }
-
-    private void saveToZip(ZipExportFileNames fileName, String jsonData) throws AtlasBaseException {
-        saveToZip(fileName.toString(), jsonData);
+    private void saveToZip(ZipExportFileNames fileName, Object obj) throws AtlasBaseException {
+        saveToZip(fileName.toString(), obj);
     }
 
-    private void saveToZip(String fileName, String jsonData) throws AtlasBaseException {
+    private void saveToZip(String fileName, Object obj) throws AtlasBaseException {
         try {
-            addToZipStream(fileName.toString() + ".json", jsonData);
+            addToZipStream(fileName.toString() + ".json", obj);
         } catch (IOException e) {
             throw new AtlasBaseException(String.format("Error writing file %s.", fileName), e);
         }
     }
 
-    private void addToZipStream(String entryName, String payload) throws IOException {
+    // JSON is written straight into the zip entry, through a buffer, without building the JSON string first
+    private void addToZipStream(String entryName, Object obj) throws IOException {
 
         ZipEntry e = new ZipEntry(entryName);
         zipOutputStream.putNextEntry(e);
 
-        zipOutputStream.write(payload.getBytes());
+        AtlasType.toJson(obj, entryBuffer);
+        entryBuffer.flush();
+
         zipOutputStream.closeEntry();
     }
 
@@ -111,6 +109,10 @@ public class ZipSink {
         return guids.contains(guid);
     }
 
+    public int getEntityCount() {
+        return guids.size();
+    }
+
     private void recordAddedEntityGuids(AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo) {
         guids.add(entityWithExtInfo.getEntity().getGuid());
         if(entityWithExtInfo.getReferredEntities() != null) {
@@ -17,6 +17,8 @@
  */
 package org.apache.atlas.repository.impexp;
 
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasExportResult;
 import org.apache.atlas.model.instance.AtlasEntity;
@@ -24,29 +26,48 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.store.graph.v1.EntityImportStream;
 import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.utils.ConcurrentLruCache;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
+/**
+ * Import source that reads entities from an export zip, one entry at a time, in the creation order.
+ *
+ * Entries are read through the index of the zip file, rather than being loaded into memory up front; a source created
+ * from an input stream first copies the stream to a temporary file, which is removed on close(). Entities looked up by
+ * guid, to resolve references, are held in a bounded LRU cache - hence memory use doesn't depend on the export size.
+ */
 public class ZipSource implements EntityImportStream {
     private static final Logger LOG = LoggerFactory.getLogger(ZipSource.class);
 
-    private final InputStream    inputStream;
-    private List<String>         creationOrder;
-    private Iterator<String>     iterator;
-    private Map<String, String>  guidEntityJsonMap;
-    private ImportTransforms     importTransform;
+    public static final String ENTITY_CACHE_SIZE_PROPERTY = "atlas.import.zip.entity.cache.size";
+    public static final int    DEFAULT_ENTITY_CACHE_SIZE  = 1000;
+
+    private static final String ENTRY_NAME_SUFFIX = ".json";
+
+    private final File                                    zipFileName;
+    private final boolean                                 isTempFile;
+    private final ZipFile                                 zipFile;
+    private final Set<String>                             importedGuids = new HashSet<>();
+    private final ConcurrentLruCache<String, AtlasEntity> entityCache;
+    private List<String>                                  creationOrder;
+    private Iterator<String>                              iterator;
+    private ImportTransforms                              importTransform;
     private int currentPosition;
 
     public ZipSource(InputStream inputStream) throws IOException {
@@ -54,31 +75,58 @@ public class ZipSource implements EntityImportStream {
     }
 
     public ZipSource(InputStream inputStream, ImportTransforms importTransform) throws IOException {
-        this.inputStream       = inputStream;
-        this.guidEntityJsonMap = new HashMap<>();
-        this.importTransform   = importTransform;
+        this(copyToTempFile(inputStream), true, importTransform);
+    }
+
+    public ZipSource(File file, ImportTransforms importTransform) throws IOException {
+        this(file, false, importTransform);
+    }
+
+    private ZipSource(File file, boolean isTempFile, ImportTransforms importTransform) throws IOException {
+        this.zipFileName     = file;
+        this.isTempFile      = isTempFile;
+        this.entityCache     = new ConcurrentLruCache<>(Math.max(1, getEntityCacheSize()));
+        this.importTransform = importTransform;
+
+        ZipFile openedZipFile = null;
+
+        try {
+            openedZipFile = openZipFile(file);
+
+            this.zipFile = openedZipFile;
 
-        updateGuidZipEntryMap();
-        setCreationOrder();
+            setCreationOrder();
+        } catch (IOException | RuntimeException e) {
+            // close() won't be called on a source that failed to open
+            IOUtils.closeQuietly(openedZipFile);
+
+            if (isTempFile) {
+                FileUtils.deleteQuietly(file);
+            }
+
+            throw e;
+        }
     }
 
     public ImportTransforms getImportTransform() { return this.importTransform; }
 
     public void setImportTransform(ImportTransforms importTransform) {
         this.importTransform = importTransform;
+
+        entityCache.clear();
     }
 
     public AtlasTypesDef getTypesDef() throws AtlasBaseException {
         final String fileName = ZipExportFileNames.ATLAS_TYPESDEF_NAME.toString();
 
-        String s = (String) getFromCache(fileName);
+        String s = getFromZip(fileName);
         return convertFromJson(AtlasTypesDef.class, s);
     }
 
     public AtlasExportResult getExportResult() throws AtlasBaseException {
         final String fileName = ZipExportFileNames.ATLAS_EXPORT_INFO_NAME.toString();
 
-        String s = getFromCache(fileName);
+        String s = getFromZip(fileName);
         return convertFromJson(AtlasExportResult.class, s);
     }
 
@@ -86,7 +134,7 @@ public class ZipSource implements EntityImportStream {
         String fileName = ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString();
 
         try {
-            String s = getFromCache(fileName);
+            String s = getFromZip(fileName);
             this.creationOrder = convertFromJson(List.class, s);
             this.iterator = this.creationOrder.iterator();
         } catch (AtlasBaseException e) {
@@ -94,37 +142,12 @@ public class ZipSource implements EntityImportStream {
         }
     }
 
-    private void updateGuidZipEntryMap() throws IOException {
-
-        ZipInputStream zipInputStream = new ZipInputStream(inputStream);
-        ZipEntry zipEntry = zipInputStream.getNextEntry();
-        while (zipEntry != null) {
-            String entryName = zipEntry.getName().replace(".json", "");
-
-            if (guidEntityJsonMap.containsKey(entryName)) continue;
-
-            byte[] buf = new byte[1024];
-
-            int n = 0;
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            while ((n = zipInputStream.read(buf, 0, 1024)) > -1) {
-                bos.write(buf, 0, n);
-            }
-
-            guidEntityJsonMap.put(entryName, bos.toString());
-            zipEntry = zipInputStream.getNextEntry();
-
-        }
-
-        zipInputStream.close();
-    }
-
     public List<String> getCreationOrder() throws AtlasBaseException {
         return this.creationOrder;
     }
 
     public AtlasEntity.AtlasEntityWithExtInfo getEntityWithExtInfo(String guid) throws AtlasBaseException {
-        String s = getFromCache(guid);
+        String s = getFromZip(guid);
         AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo = convertFromJson(AtlasEntity.AtlasEntityWithExtInfo.class, s);
 
         if (importTransform != null) {
@@ -143,17 +166,44 @@ public class ZipSource implements EntityImportStream {
         }
     }
 
-    private String getFromCache(String entryName) {
-        return guidEntityJsonMap.get(entryName);
+    private boolean hasEntry(String entryName) {
+        return zipFile != null && zipFile.getEntry(entryName + ENTRY_NAME_SUFFIX) != null;
+    }
+
+    private String getFromZip(String entryName) throws AtlasBaseException {
+        ZipEntry zipEntry = zipFile != null ? zipFile.getEntry(entryName + ENTRY_NAME_SUFFIX) : null;
+
+        if (zipEntry == null) {
+            return null;
+        }
+
+        InputStream entryStream = null;
+
+        try {
+            entryStream = zipFile.getInputStream(zipEntry);
+
+            return IOUtils.toString(entryStream);
+        } catch (IOException e) {
+            throw new AtlasBaseException(String.format("Error reading '%s' from zip.", entryName), e);
+        } finally {
+            IOUtils.closeQuietly(entryStream);
+        }
     }
 
     public void close() {
         try {
-            inputStream.close();
-            guidEntityJsonMap.clear();
+            entityCache.clear();
+
+            if (zipFile != null) {
+                zipFile.close();
+            }
         }
         catch(IOException ex) {
-            LOG.warn("{}: Error closing streams.");
+            LOG.warn("{}: Error closing streams.", zipFileName, ex);
+        } finally {
+            if (isTempFile && !FileUtils.deleteQuietly(zipFileName)) {
+                LOG.warn("{}: failed to delete temporary file", zipFileName);
+            }
         }
     }
 
@@ -202,12 +252,23 @@ public class ZipSource implements EntityImportStream {
     }
 
     private AtlasEntity getEntity(String guid) throws AtlasBaseException {
-        if(guidEntityJsonMap.containsKey(guid)) {
+        if (importedGuids.contains(guid)) {
+            return null;
+        }
+
+        AtlasEntity ret = entityCache.get(guid);
+
+        if (ret == null && hasEntry(guid)) {
             AtlasEntityWithExtInfo extInfo = getEntityWithExtInfo(guid);
-            return (extInfo != null) ? extInfo.getEntity() : null;
+
+            ret = (extInfo != null) ? extInfo.getEntity() : null;
+
+            if (ret != null) {
+                entityCache.put(guid, ret);
+            }
         }
 
-        return null;
+        return ret;
     }
 
     public int size() {
@@ -216,7 +277,8 @@ public class ZipSource implements EntityImportStream {
 
     @Override
     public void onImportComplete(String guid) {
-        guidEntityJsonMap.remove(guid);
+        importedGuids.add(guid);
+        entityCache.remove(guid);
     }
 
 
@@ -248,5 +310,43 @@ public class ZipSource implements EntityImportStream {
         return currentPosition;
     }
 
+    private static File copyToTempFile(InputStream inputStream) throws IOException {
+        File ret = File.createTempFile("atlas-import-", ".zip");
+
+        try {
+            FileUtils.copyInputStreamToFile(inputStream, ret);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(ret);
+
+            throw e;
+        }
+
+        return ret;
+    }
+
+    private static ZipFile openZipFile(File file) throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+
+        try {
+            return new ZipFile(file);
+        } catch (ZipException e) {
+            LOG.error("{}: not a valid zip file", file, e);
 
+            return null;
+        }
+    }
+
+    private static int getEntityCacheSize() {
+        int ret = DEFAULT_ENTITY_CACHE_SIZE;
+
+        try {
+            ret = ApplicationProperties.get().getInt(ENTITY_CACHE_SIZE_PROPERTY, DEFAULT_ENTITY_CACHE_SIZE);
+        } catch (AtlasException excp) {
+            LOG.warn("failed to read {}; using default {}", ENTITY_CACHE_SIZE_PROPERTY, DEFAULT_ENTITY_CACHE_SIZE, excp);
+        }
+
+        return ret;
+    }
 }
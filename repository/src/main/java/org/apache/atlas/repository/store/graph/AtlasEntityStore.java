@@ -131,6 +131,13 @@ public interface AtlasEntityStore {
 
     void addClassification(List<String> guids, AtlasClassification classification) throws AtlasBaseException;
 
+    /**
+     * Add a classification to a batch of entities, in one transaction. Unlike addClassification(), entities that are
+     * not found or are already associated with the classification are skipped, rather than failing the batch.
+     * @return the skipped entity guids, with the reason each was skipped
+     */
+    Map<String, String> addClassificationToBatch(List<String> guids, AtlasClassification classification) throws AtlasBaseException;
+
     /**
      * Delete classification(s)
      */
@@ -18,32 +18,37 @@
 package org.apache.atlas.repository.store.graph.v1;
 
 
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.listener.EntityTraitsBatchListener;
 import org.apache.atlas.model.instance.AtlasClassification;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.instance.EntityMutations.EntityOperation;
-import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.graph.FullTextMapperV2;
-import org.apache.atlas.repository.graph.GraphHelper;
-import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.EntityChangeDispatcher.EntityChangeEvent;
+import org.apache.atlas.repository.store.graph.v1.EntityChangeDispatcher.EventType;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
 import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -51,8 +56,10 @@ import java.util.Set;
 public class AtlasEntityChangeNotifier {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasEntityChangeNotifier.class);
 
-    private final Set<EntityChangeListener> entityChangeListeners;
-    private final AtlasInstanceConverter    instanceConverter;
+    private final Set<EntityChangeListener>    entityChangeListeners;
+    private final AtlasInstanceConverter       instanceConverter;
+    private final EntityChangeDispatcher       dispatcher;
+    private final ThreadLocal<PendingChanges>  pendingChanges = new ThreadLocal<>();
 
     @Inject
     private FullTextMapperV2 fullTextMapperV2;
@@ -62,6 +69,31 @@ public class AtlasEntityChangeNotifier {
                                      AtlasInstanceConverter    instanceConverter) {
         this.entityChangeListeners = entityChangeListeners;
         this.instanceConverter     = instanceConverter;
+        this.dispatcher            = createDispatcher(entityChangeListeners, instanceConverter);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    /**
+     * Returns metrics of asynchronous notification delivery; empty when notifications are delivered synchronously.
+     */
+    public Map<String, Number> getDispatchMetrics() {
+        return dispatcher != null ? dispatcher.getMetrics() : Collections.<String, Number>emptyMap();
+    }
+
+    /**
+     * Waits until the changes already handed to the asynchronous dispatcher have been delivered to the listeners;
+     * returns immediately when notifications are synchronous.
+     *
+     * @return true if the changes were delivered within the timeout
+     */
+    public boolean awaitDispatch(long timeoutMs) throws InterruptedException {
+        return dispatcher == null || dispatcher.awaitDelivery(timeoutMs);
     }
 
     public void onEntitiesMutated(EntityMutationResponse entityMutationResponse, boolean isImport) throws AtlasBaseException {
@@ -87,17 +119,23 @@ public class AtlasEntityChangeNotifier {
     }
 
     public void onClassificationAddedToEntity(String entityId, List<AtlasClassification> classifications) throws AtlasBaseException {
-        // Only new classifications need to be used for a partial full text string which can be
-        // appended to the existing fullText
+        // only the text of the new classifications needs to be computed
         updateFullTextMapping(entityId, classifications);
 
-        ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
-        List<ITypedStruct>          traits = toITypedStructs(classifications);
+        List<ITypedStruct> traits = toITypedStructs(classifications);
 
-        if (entity == null || CollectionUtils.isEmpty(traits)) {
+        if (StringUtils.isEmpty(entityId) || CollectionUtils.isEmpty(traits)) {
             return;
         }
 
+        if (dispatcher != null) {
+            addPendingChange(EntityChangeEvent.forTraits(EventType.TRAITS_ADDED, Collections.singletonList(entityId), traits));
+
+            return;
+        }
+
+        ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
+
         for (EntityChangeListener listener : entityChangeListeners) {
             try {
                 listener.onTraitsAdded(entity, traits);
@@ -107,16 +145,76 @@ public class AtlasEntityChangeNotifier {
         }
     }
 
+    /**
+     * Notifies the addition of the same classifications to a number of entities. With asynchronous delivery, a single
+     * change event is queued for all the entities. The entities are read once for all the listeners; listeners that
+     * implement EntityTraitsBatchListener are notified in a single call.
+     */
+    public void onClassificationAddedToEntities(List<String> entityIds, List<AtlasClassification> classifications) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(entityIds)) {
+            return;
+        }
+
+        for (String entityId : entityIds) {
+            updateFullTextMapping(entityId, classifications);
+        }
+
+        List<ITypedStruct> traits = toITypedStructs(classifications);
+
+        if (CollectionUtils.isEmpty(traits)) {
+            return;
+        }
+
+        if (dispatcher != null) {
+            addPendingChange(EntityChangeEvent.forTraits(EventType.TRAITS_ADDED, entityIds, traits));
+
+            return;
+        }
+
+        List<ITypedReferenceableInstance> entities = new ArrayList<>(entityIds.size());
+
+        for (String entityId : entityIds) {
+            ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
+
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        for (EntityChangeListener listener : entityChangeListeners) {
+            try {
+                if (listener instanceof EntityTraitsBatchListener) {
+                    ((EntityTraitsBatchListener) listener).onTraitsAdded(entities, traits);
+                } else {
+                    for (ITypedReferenceableInstance entity : entities) {
+                        listener.onTraitsAdded(entity, traits);
+                    }
+                }
+            } catch (AtlasException e) {
+                throw new AtlasBaseException(AtlasErrorCode.NOTIFICATION_FAILED, e, getListenerName(listener), "TraitAdd");
+            }
+        }
+    }
+
     public void onClassificationDeletedFromEntity(String entityId, List<String> traitNames) throws AtlasBaseException {
-        // Since the entity has already been modified in the graph, we need to recursively remap the entity
-        doFullTextMapping(entityId);
+        removeFullTextMapping(entityId, traitNames);
 
-        ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
+        if (StringUtils.isEmpty(entityId) || CollectionUtils.isEmpty(traitNames)) {
+            return;
+        }
+
+        if (dispatcher != null) {
+            addPendingChange(EntityChangeEvent.forTraitNames(entityId, traitNames));
 
-        if (entity == null || CollectionUtils.isEmpty(traitNames)) {
             return;
         }
 
+        ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
+
         for (EntityChangeListener listener : entityChangeListeners) {
             try {
                 listener.onTraitsDeleted(entity, traitNames);
@@ -127,16 +225,23 @@ public class AtlasEntityChangeNotifier {
     }
 
     public void onClassificationUpdatedToEntity(String entityId, List<AtlasClassification> classifications) throws AtlasBaseException {
-        // Since the classification attributes are updated in the graph, we need to recursively remap the entityText
-        doFullTextMapping(entityId);
+        // only the text of the updated classifications needs to be recomputed
+        updateFullTextMapping(entityId, classifications);
 
-        ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
-        List<ITypedStruct>          traits = toITypedStructs(classifications);
+        List<ITypedStruct> traits = toITypedStructs(classifications);
 
-        if (entity == null || CollectionUtils.isEmpty(traits)) {
+        if (StringUtils.isEmpty(entityId) || CollectionUtils.isEmpty(traits)) {
             return;
         }
 
+        if (dispatcher != null) {
+            addPendingChange(EntityChangeEvent.forTraits(EventType.TRAITS_UPDATED, Collections.singletonList(entityId), traits));
+
+            return;
+        }
+
+        ITypedReferenceableInstance entity = toITypedReferenceable(entityId);
+
         for (EntityChangeListener listener : entityChangeListeners) {
             try {
                 listener.onTraitsUpdated(entity, traits);
@@ -155,6 +260,18 @@ public class AtlasEntityChangeNotifier {
             return;
         }
 
+        if (dispatcher != null) {
+            // with asynchronous delivery, entities are read after the commit, off the request; deleted entities
+            // can't be read then, so these are converted in the current graph-transaction
+            if (operation == EntityOperation.DELETE) {
+                addPendingChange(EntityChangeEvent.forEntities(EventType.ENTITIES_DELETED, toITypedReferenceable(entityHeaders), isImport));
+            } else {
+                addPendingChange(EntityChangeEvent.forEntityGuids(toEventType(operation), toGuids(entityHeaders), isImport));
+            }
+
+            return;
+        }
+
         List<ITypedReferenceableInstance> typedRefInsts = toITypedReferenceable(entityHeaders);
 
         for (EntityChangeListener listener : entityChangeListeners) {
@@ -177,6 +294,56 @@ public class AtlasEntityChangeNotifier {
         }
     }
 
+    private EventType toEventType(EntityOperation operation) {
+        switch (operation) {
+            case CREATE:
+                return EventType.ENTITIES_ADDED;
+            case DELETE:
+                return EventType.ENTITIES_DELETED;
+            default:
+                return EventType.ENTITIES_UPDATED;
+        }
+    }
+
+    private void addPendingChange(EntityChangeEvent event) {
+        // not made in a graph-transaction: there is no commit to wait for, nor a hook that would hand the change over
+        if (!GraphTransactionInterceptor.isTransactionActive()) {
+            dispatcher.dispatch(Collections.singletonList(event));
+
+            return;
+        }
+
+        PendingChanges changes = pendingChanges.get();
+
+        if (changes == null) {
+            changes = new PendingChanges();
+
+            pendingChanges.set(changes);
+        }
+
+        changes.events.add(event);
+    }
+
+    private static EntityChangeDispatcher createDispatcher(Set<EntityChangeListener> listeners, AtlasInstanceConverter instanceConverter) {
+        EntityChangeDispatcher ret = null;
+
+        if (CollectionUtils.isNotEmpty(listeners)) {
+            try {
+                Configuration configuration = ApplicationProperties.get();
+
+                if (EntityChangeDispatcher.isAsyncEnabled(configuration)) {
+                    ret = new EntityChangeDispatcher(listeners, instanceConverter, configuration);
+
+                    LOG.info("Entity change notifications will be delivered asynchronously after commit");
+                }
+            } catch (AtlasException e) {
+                LOG.warn("failed to read {}; entity change notifications will be delivered synchronously", EntityChangeDispatcher.ASYNC_ENABLED_PROPERTY, e);
+            }
+        }
+
+        return ret;
+    }
+
     private List<ITypedReferenceableInstance> toITypedReferenceable(List<AtlasEntityHeader> entityHeaders) throws AtlasBaseException {
         List<ITypedReferenceableInstance> ret = new ArrayList<>(entityHeaders.size());
 
@@ -187,6 +354,16 @@ public class AtlasEntityChangeNotifier {
         return ret;
     }
 
+    private List<String> toGuids(List<AtlasEntityHeader> entityHeaders) {
+        List<String> ret = new ArrayList<>(entityHeaders.size());
+
+        for (AtlasEntityHeader entityHeader : entityHeaders) {
+            ret.add(entityHeader.getGuid());
+        }
+
+        return ret;
+    }
+
     private ITypedReferenceableInstance toITypedReferenceable(String entityId) throws AtlasBaseException {
         ITypedReferenceableInstance ret = null;
 
@@ -214,30 +391,15 @@ public class AtlasEntityChangeNotifier {
     }
 
     private void doFullTextMapping(List<AtlasEntityHeader> atlasEntityHeaders) {
-        if (CollectionUtils.isEmpty(atlasEntityHeaders)) {
+        if (CollectionUtils.isEmpty(atlasEntityHeaders) || !isFullTextSearchEnabled()) {
             return;
         }
 
-        try {
-            if(!AtlasRepositoryConfiguration.isFullTextSearchEnabled()) {
-                return;
-            }
-        } catch (AtlasException e) {
-            LOG.warn("Unable to determine if FullText is disabled. Proceeding with FullText mapping");
-        }
-
         for (AtlasEntityHeader atlasEntityHeader : atlasEntityHeaders) {
-            String      guid        = atlasEntityHeader.getGuid();
-            AtlasVertex atlasVertex = AtlasGraphUtilsV1.findByGuid(guid);
-
-            if(atlasVertex == null) {
-                continue;
-            }
+            String guid = atlasEntityHeader.getGuid();
 
             try {
-                String fullText = fullTextMapperV2.getIndexTextForEntity(guid);
-
-                GraphHelper.setProperty(atlasVertex, Constants.ENTITY_TEXT_PROPERTY_KEY, fullText);
+                fullTextMapperV2.mapEntity(guid);
             } catch (AtlasBaseException e) {
                 LOG.error("FullText mapping failed for Vertex[ guid = {} ]", guid, e);
             }
@@ -245,43 +407,55 @@ public class AtlasEntityChangeNotifier {
     }
 
     private void updateFullTextMapping(String entityId, List<AtlasClassification> classifications) {
-        try {
-            if(!AtlasRepositoryConfiguration.isFullTextSearchEnabled()) {
-                return;
-            }
-        } catch (AtlasException e) {
-            LOG.warn("Unable to determine if FullText is disabled. Proceeding with FullText mapping");
-        }
-
-        if (StringUtils.isEmpty(entityId) || CollectionUtils.isEmpty(classifications)) {
+        if (StringUtils.isEmpty(entityId) || CollectionUtils.isEmpty(classifications) || !isFullTextSearchEnabled()) {
             return;
         }
 
-        AtlasVertex atlasVertex = AtlasGraphUtilsV1.findByGuid(entityId);
-        if(atlasVertex == null) {
-            return;
+        try {
+            fullTextMapperV2.mapClassifications(entityId, classifications);
+        } catch (AtlasBaseException e) {
+            LOG.error("FullText mapping failed for Vertex[ guid = {} ]", entityId, e);
         }
+    }
 
-        if (atlasVertex == null) {
-            LOG.warn("updateFullTextMapping(): no entity exists with guid {}", entityId);
+    private void removeFullTextMapping(String entityId, List<String> classificationNames) {
+        if (StringUtils.isEmpty(entityId) || CollectionUtils.isEmpty(classificationNames) || !isFullTextSearchEnabled()) {
             return;
         }
 
         try {
-            String classificationFullText = fullTextMapperV2.getIndexTextForClassifications(entityId, classifications);
-            String existingFullText = (String) GraphHelper.getProperty(atlasVertex, Constants.ENTITY_TEXT_PROPERTY_KEY);
-
-            String newFullText = existingFullText + " " + classificationFullText;
-            GraphHelper.setProperty(atlasVertex, Constants.ENTITY_TEXT_PROPERTY_KEY, newFullText);
+            fullTextMapperV2.removeClassifications(entityId, classificationNames);
         } catch (AtlasBaseException e) {
             LOG.error("FullText mapping failed for Vertex[ guid = {} ]", entityId, e);
         }
     }
 
-    private void doFullTextMapping(String guid) {
-        AtlasEntityHeader entityHeader = new AtlasEntityHeader();
-        entityHeader.setGuid(guid);
+    private boolean isFullTextSearchEnabled() {
+        try {
+            return AtlasRepositoryConfiguration.isFullTextSearchEnabled();
+        } catch (AtlasException e) {
+            LOG.warn("Unable to determine if FullText is disabled. Proceeding with FullText mapping");
 
-        doFullTextMapping(Collections.singletonList(entityHeader));
+            return true;
+        }
+    }
+
+    /**
+     * Changes made in the current graph-transaction; handed to the dispatcher once the transaction commits, and
+     * discarded if it rolls back.
+     */
+    private class PendingChanges extends GraphTransactionInterceptor.PostTransactionHook {
+        private final List<EntityChangeEvent> events = new ArrayList<>();
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            pendingChanges.remove();
+
+            if (isSuccess) {
+                dispatcher.dispatch(events);
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug("transaction rolled back; discarding {} entity change notifications", events.size());
+            }
+        }
     }
 }
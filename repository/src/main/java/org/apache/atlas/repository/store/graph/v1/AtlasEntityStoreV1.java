@@ -22,6 +22,7 @@ import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.GraphTransactionInterceptor;
 import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.aspect.Monitored;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportResult;
 import org.apache.atlas.model.instance.AtlasClassification;
@@ -31,6 +32,7 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscovery;
@@ -284,6 +286,7 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
 
     @Override
     @GraphTransaction
+    @Monitored
     public EntityMutationResponse createOrUpdate(EntityStream entityStream, boolean isPartialUpdate) throws AtlasBaseException {
         return createOrUpdate(entityStream, isPartialUpdate, false);
     }
@@ -399,11 +402,12 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
             throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Guid(s) not specified");
         }
 
-        Collection<AtlasVertex> deletionCandidates = new ArrayList<>();
+        Collection<AtlasVertex>  deletionCandidates = new ArrayList<>();
+        Map<String, AtlasVertex> vertices           = AtlasGraphUtilsV1.findByGuids(guids);
 
         for (String guid : guids) {
             // Retrieve vertices for requested guids.
-            AtlasVertex vertex = AtlasGraphUtilsV1.findByGuid(guid);
+            AtlasVertex vertex = vertices.remove(guid);
 
             if (vertex != null) {
                 deletionCandidates.add(vertex);
@@ -549,18 +553,33 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
 
         validateAndNormalize(classification);
 
-        List<AtlasClassification> classifications = Collections.singletonList(classification);
-
-        for (String guid : guids) {
-            // validate if entity, not already associated with classifications
-            validateEntityAssociations(guid, classifications);
+        addClassificationToEntities(guids, classification, null);
+    }
 
-            entityGraphMapper.addClassifications(new EntityMutationContext(), guid, classifications);
+    @Override
+    @GraphTransaction
+    public Map<String, String> addClassificationToBatch(final List<String> guids, final AtlasClassification classification) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(guids)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Guid(s) not specified");
+        }
+        if (classification == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "classification not specified");
+        }
 
-            // notify listeners on classification addition
-            entityChangeNotifier.onClassificationAddedToEntity(guid, classifications);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Adding classification={} to batch of {} entities", classification.getTypeName(), guids.size());
         }
 
+        // lockObjectAndReleasePostCommit() sorts the list it is given
+        GraphTransactionInterceptor.lockObjectAndReleasePostCommit(new ArrayList<>(guids));
+
+        validateAndNormalize(classification);
+
+        Map<String, String> ret = new HashMap<>();
+
+        addClassificationToEntities(guids, classification, ret);
+
+        return ret;
     }
 
     @Override
@@ -717,6 +736,52 @@ public class AtlasEntityStoreV1 implements AtlasEntityStore {
         type.getNormalizedValueForUpdate(classification);
     }
 
+    /**
+     * Adds the classification to the entities: the vertices are looked up in batches, and the existing associations
+     * are checked on the vertices, without reading the entities. Listeners are notified once, for all the entities.
+     *
+     * @param skipped if not null, entities which can't be classified are added to it with the reason, and skipped;
+     *                otherwise the first such entity fails the call
+     */
+    private void addClassificationToEntities(List<String> guids, AtlasClassification classification, Map<String, String> skipped)
+            throws AtlasBaseException {
+        List<AtlasClassification> classifications = Collections.singletonList(classification);
+        Map<String, AtlasVertex>  vertices        = AtlasGraphUtilsV1.findByGuids(guids);
+        List<String>              classified      = new ArrayList<>(guids.size());
+        Set<String>               classifiedGuids = new HashSet<>();
+        EntityMutationContext     context         = new EntityMutationContext();
+
+        for (String guid : guids) {
+            AtlasVertex        vertex = vertices.get(guid);
+            AtlasBaseException error  = null;
+
+            if (vertex == null) {
+                error = new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+            } else if (classifiedGuids.contains(guid) || GraphHelper.getTraitNames(vertex).contains(classification.getTypeName())) {
+                error = new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "entity: " + guid +
+                        ", already associated with classification: " + classification.getTypeName());
+            }
+
+            if (error != null) {
+                if (skipped == null) {
+                    throw error;
+                }
+
+                skipped.put(guid, error.getMessage());
+
+                continue;
+            }
+
+            entityGraphMapper.addClassifications(context, vertex, classifications);
+
+            classified.add(guid);
+            classifiedGuids.add(guid);
+        }
+
+        // notify listeners on classification addition
+        entityChangeNotifier.onClassificationAddedToEntities(classified, classifications);
+    }
+
     /**
      * Validate if classification is not already associated with the entities
      *
@@ -22,10 +22,12 @@ import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.typedef.AtlasBaseTypeDef;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graph.GuidVertexCache;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasElement;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
@@ -34,14 +36,19 @@ import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasStructType;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -50,6 +57,8 @@ import java.util.Map;
 public class AtlasGraphUtilsV1 {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasGraphUtilsV1.class);
 
+    private static final int IN_QUERY_BATCH_SIZE = 100;
+
     public static final String PROPERTY_PREFIX      = Constants.INTERNAL_PROPERTY_KEY_PREFIX + "type.";
     public static final String SUPERTYPE_EDGE_LABEL = PROPERTY_PREFIX + ".supertype";
     public static final String VERTEX_TYPE          = "typeSystem";
@@ -232,15 +241,115 @@ public class AtlasGraphUtilsV1 {
         return vertex;
     }
 
+    /**
+     * Finds the vertices for the given references by unique attributes. References are grouped by type and unique
+     * attribute, and each group is resolved with a single 'in' query on the attribute - first by type, then, for
+     * those not found, by super-type. References not found by the group queries fall back to
+     * findByUniqueAttributes(entityType, attrValues) only when that lookup could find something the group query
+     * did not, i.e. when more than one unique attribute is given or the value is not a string.
+     *
+     * @return map of reference to vertex; references that could not be resolved are not included
+     */
+    public static Map<AtlasObjectId, AtlasVertex> findByUniqueAttributes(AtlasTypeRegistry typeRegistry, Collection<AtlasObjectId> objIds) {
+        Map<AtlasObjectId, AtlasVertex>   ret    = new HashMap<>();
+        Map<String, UniqueAttributeGroup> groups = new LinkedHashMap<>();
+
+        for (AtlasObjectId objId : objIds) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objId.getTypeName());
+
+            if (entityType == null || MapUtils.isEmpty(objId.getUniqueAttributes())) {
+                continue;
+            }
+
+            for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                Object attrValue = objId.getUniqueAttributes().get(attribute.getName());
+
+                if (attrValue == null) {
+                    continue;
+                }
+
+                String               groupKey = entityType.getTypeName() + ":" + attribute.getVertexPropertyName();
+                UniqueAttributeGroup group    = groups.get(groupKey);
+
+                if (group == null) {
+                    group = new UniqueAttributeGroup(entityType.getTypeName(), attribute.getVertexPropertyName());
+
+                    groups.put(groupKey, group);
+                }
+
+                group.add(attrValue, objId);
+
+                break;
+            }
+        }
+
+        for (UniqueAttributeGroup group : groups.values()) {
+            group.resolve(Constants.ENTITY_TYPE_PROPERTY_KEY, ret);
+            group.resolve(Constants.SUPER_TYPES_PROPERTY_KEY, ret);
+        }
+
+        for (AtlasObjectId objId : objIds) {
+            if (ret.containsKey(objId) || !needsUniqueAttributesFallback(objId)) {
+                continue;
+            }
+
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objId.getTypeName());
+            AtlasVertex     vertex     = entityType != null ? findByUniqueAttributes(entityType, objId.getUniqueAttributes()) : null;
+
+            if (vertex != null) {
+                ret.put(objId, vertex);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("findByUniqueAttributes(): resolved {} of {} references, using {} groups", ret.size(), objIds.size(), groups.size());
+        }
+
+        return ret;
+    }
+
+    private static boolean needsUniqueAttributesFallback(AtlasObjectId objId) {
+        int nonNullValues = 0;
+
+        if (objId.getUniqueAttributes() != null) {
+            for (Object value : objId.getUniqueAttributes().values()) {
+                if (value != null) {
+                    if (!(value instanceof String)) {
+                        return true;
+                    }
+
+                    nonNullValues++;
+                }
+            }
+        }
+
+        return nonNullValues > 1;
+    }
+
     public static AtlasVertex findByGuid(String guid) {
-        AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query()
-                                                  .has(Constants.GUID_PROPERTY_KEY, guid);
+        return GuidVertexCache.getInstance().getVertex(AtlasGraphProvider.getGraphInstance(), guid);
+    }
 
-        Iterator<AtlasVertex> results = query.vertices().iterator();
+    /**
+     * Finds the vertices for the given guids, with one 'in' query per batch of guids.
+     *
+     * @return map of guid to vertex; guids that could not be found are not included
+     */
+    public static Map<String, AtlasVertex> findByGuids(List<String> guids) {
+        Map<String, AtlasVertex> ret = new HashMap<>();
 
-        AtlasVertex vertex = results.hasNext() ? results.next() : null;
+        for (int i = 0; i < guids.size(); i += IN_QUERY_BATCH_SIZE) {
+            List<String>    batch = guids.subList(i, Math.min(guids.size(), i + IN_QUERY_BATCH_SIZE));
+            AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query().in(Constants.GUID_PROPERTY_KEY, batch);
 
-        return vertex;
+            for (Object result : query.vertices()) {
+                AtlasVertex vertex = (AtlasVertex) result;
+
+                ret.put(vertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class), vertex);
+            }
+        }
+
+        return ret;
     }
 
     public static String getTypeNameFromGuid(String guid) {
@@ -366,4 +475,58 @@ public class AtlasGraphUtilsV1 {
     public static String getStateAsString(AtlasElement element) {
         return element.getProperty(Constants.STATE_PROPERTY_KEY, String.class);
     }
+
+    private static class UniqueAttributeGroup {
+        private final String                           typeName;
+        private final String                           propertyName;
+        private final Map<Object, List<AtlasObjectId>> valueIds = new LinkedHashMap<>();
+
+        UniqueAttributeGroup(String typeName, String propertyName) {
+            this.typeName     = typeName;
+            this.propertyName = propertyName;
+        }
+
+        void add(Object value, AtlasObjectId objId) {
+            List<AtlasObjectId> ids = valueIds.get(value);
+
+            if (ids == null) {
+                ids = new ArrayList<>();
+
+                valueIds.put(value, ids);
+            }
+
+            ids.add(objId);
+        }
+
+        void resolve(String typePropertyKey, Map<AtlasObjectId, AtlasVertex> resolved) {
+            List<Object> values = new ArrayList<>();
+
+            for (Map.Entry<Object, List<AtlasObjectId>> entry : valueIds.entrySet()) {
+                if (!resolved.containsKey(entry.getValue().get(0))) {
+                    values.add(entry.getKey());
+                }
+            }
+
+            for (int i = 0; i < values.size(); i += IN_QUERY_BATCH_SIZE) {
+                List<Object>    batch = values.subList(i, Math.min(values.size(), i + IN_QUERY_BATCH_SIZE));
+                AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query()
+                                                          .has(typePropertyKey, typeName)
+                                                          .has(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name())
+                                                          .in(propertyName, batch);
+
+                for (Object result : query.vertices()) {
+                    AtlasVertex         vertex = (AtlasVertex) result;
+                    List<AtlasObjectId> ids    = valueIds.get(vertex.getProperty(propertyName, Object.class));
+
+                    if (ids != null) {
+                        for (AtlasObjectId objId : ids) {
+                            if (!resolved.containsKey(objId)) {
+                                resolved.put(objId, vertex);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
 }
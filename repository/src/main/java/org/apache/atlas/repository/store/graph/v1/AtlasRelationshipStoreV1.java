@@ -287,22 +287,14 @@ public class AtlasRelationshipStoreV1 implements AtlasRelationshipStore {
         type.getNormalizedValue(relationship);
     }
 
+    /**
+     * Returns the active relationship edge from fromVertex to toVertex, or the latest deleted one if there is no
+     * active edge; null if there is none.
+     */
     public AtlasEdge getRelationshipEdge(AtlasVertex fromVertex, AtlasVertex toVertex, AtlasRelationship relationship) {
-        String    relationshipLabel = getRelationshipEdgeLabel(fromVertex, toVertex, relationship);
-        AtlasEdge ret               = graphHelper.getEdgeForLabel(fromVertex, relationshipLabel);
-
-        if (ret != null) {
-            AtlasVertex inVertex = ret.getInVertex();
-
-            if (inVertex != null) {
-                if (!StringUtils.equals(AtlasGraphUtilsV1.getIdFromVertex(inVertex),
-                                        AtlasGraphUtilsV1.getIdFromVertex(toVertex))) {
-                    ret = null;
-                }
-            }
-        }
+        String relationshipLabel = getRelationshipEdgeLabel(fromVertex, toVertex, relationship);
 
-        return ret;
+        return graphHelper.getEdge(fromVertex, toVertex, relationshipLabel);
     }
 
     private int getRelationshipVersion(AtlasRelationship relationship) {
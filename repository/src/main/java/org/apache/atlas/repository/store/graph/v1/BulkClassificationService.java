@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.ClassificationAssociateRequest;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.tasks.TaskContext;
+import org.apache.atlas.tasks.TaskHandler;
+import org.apache.atlas.tasks.TaskManagement;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Associates a classification with a large number of entities, as a task executed in the background.
+ *
+ * The entities are classified in chunks, each in its own graph transaction (see
+ * AtlasEntityStore.addClassificationToBatch()): the vertices of a chunk are looked up in batches, and listeners are
+ * notified once per chunk. A chunk that fails doesn't stop the task; its entities are reported as failed.
+ */
+@Component
+public class BulkClassificationService implements TaskHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkClassificationService.class);
+
+    public static final String TASK_TYPE = "BULK_CLASSIFICATION";
+
+    public static final String CHUNK_SIZE_PROPERTY = "atlas.bulk.classification.chunk.size";
+    public static final int    DEFAULT_CHUNK_SIZE  = 1000;
+
+    static final String PARAM_CLASSIFICATION = "classification";
+    static final String PARAM_GUIDS          = "guids";
+
+    private final AtlasEntityStore  entityStore;
+    private final AtlasTypeRegistry typeRegistry;
+    private final TaskManagement    taskManagement;
+    private final int               chunkSize;
+
+    @Inject
+    public BulkClassificationService(AtlasEntityStore entityStore, AtlasTypeRegistry typeRegistry, TaskManagement taskManagement,
+                                     Configuration configuration) {
+        this.entityStore    = entityStore;
+        this.typeRegistry   = typeRegistry;
+        this.taskManagement = taskManagement;
+        this.chunkSize      = Math.max(1, configuration != null ? configuration.getInt(CHUNK_SIZE_PROPERTY, DEFAULT_CHUNK_SIZE) : DEFAULT_CHUNK_SIZE);
+
+        taskManagement.registerHandler(this);
+    }
+
+    /**
+     * Submits a task to associate the classification with the entities of the request.
+     *
+     * @return the submitted task
+     */
+    public AtlasTask submit(ClassificationAssociateRequest request) throws AtlasBaseException {
+        AtlasClassification classification = request == null ? null : request.getClassification();
+        List<String>        entityGuids    = request == null ? null : request.getEntityGuids();
+
+        if (classification == null || StringUtils.isEmpty(classification.getTypeName())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no classification");
+        }
+
+        if (CollectionUtils.isEmpty(entityGuids)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "empty guid list");
+        }
+
+        if (typeRegistry.getClassificationTypeByName(classification.getTypeName()) == null) {
+            throw new AtlasBaseException(AtlasErrorCode.CLASSIFICATION_NOT_FOUND, classification.getTypeName());
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put(PARAM_CLASSIFICATION, AtlasType.toJson(classification));
+        parameters.put(PARAM_GUIDS, AtlasType.toJson(entityGuids));
+
+        return taskManagement.submit(TASK_TYPE, parameters, entityGuids.size());
+    }
+
+    /**
+     * @return current status of the bulk classification task
+     */
+    public AtlasTask getTask(String guid) throws AtlasBaseException {
+        AtlasTask ret = taskManagement.getTask(guid);
+
+        if (!TASK_TYPE.equals(ret.getType())) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_FOUND, guid);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public String getTaskType() {
+        return TASK_TYPE;
+    }
+
+    @Override
+    public void execute(AtlasTask task, TaskContext context) {
+        AtlasClassification classification = AtlasType.fromJson(task.getParameters().get(PARAM_CLASSIFICATION), AtlasClassification.class);
+        List<String>        guids          = AtlasType.fromJson(task.getParameters().get(PARAM_GUIDS), List.class);
+
+        for (int i = task.getProcessedCount(); i < guids.size(); i += chunkSize) {
+            List<String> chunk = guids.subList(i, Math.min(guids.size(), i + chunkSize));
+
+            try {
+                Map<String, String> skipped = entityStore.addClassificationToBatch(chunk, classification);
+
+                task.setFailedCount(task.getFailedCount() + skipped.size());
+
+                for (String error : skipped.values()) {
+                    context.addError(error);
+                }
+            } catch (AtlasBaseException excp) {
+                LOG.warn("task {}: failed to classify {} entities", task.getGuid(), chunk.size(), excp);
+
+                task.setFailedCount(task.getFailedCount() + chunk.size());
+
+                context.addError(excp.getMessage());
+            }
+
+            task.setProcessedCount(i + chunk.size());
+
+            if (!context.checkpoint()) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void onTaskDeleted(AtlasTask task) {
+        // nothing to release
+    }
+}
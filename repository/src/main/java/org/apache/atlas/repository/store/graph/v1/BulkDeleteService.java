@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.tasks.TaskContext;
+import org.apache.atlas.tasks.TaskHandler;
+import org.apache.atlas.tasks.TaskManagement;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes a large number of entities, as a task executed in the background.
+ *
+ * The entities are deleted in chunks, each in its own graph transaction (see AtlasEntityStore.deleteByIds()). A chunk
+ * that fails doesn't stop the task; its entities are reported as failed. Entities that don't exist are ignored, as
+ * by AtlasEntityStore.deleteByIds().
+ */
+@Component
+public class BulkDeleteService implements TaskHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    public static final String TASK_TYPE = "BULK_DELETE";
+
+    public static final String CHUNK_SIZE_PROPERTY = "atlas.bulk.delete.chunk.size";
+    public static final int    DEFAULT_CHUNK_SIZE  = 100;
+
+    static final String PARAM_GUIDS = "guids";
+
+    private final AtlasEntityStore entityStore;
+    private final TaskManagement   taskManagement;
+    private final int              chunkSize;
+
+    @Inject
+    public BulkDeleteService(AtlasEntityStore entityStore, TaskManagement taskManagement, Configuration configuration) {
+        this.entityStore    = entityStore;
+        this.taskManagement = taskManagement;
+        this.chunkSize      = Math.max(1, configuration != null ? configuration.getInt(CHUNK_SIZE_PROPERTY, DEFAULT_CHUNK_SIZE) : DEFAULT_CHUNK_SIZE);
+
+        taskManagement.registerHandler(this);
+    }
+
+    /**
+     * Submits a task to delete the given entities.
+     *
+     * @return the submitted task
+     */
+    public AtlasTask submit(List<String> guids) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(guids)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Guid(s) not specified");
+        }
+
+        Map<String, String> parameters = Collections.singletonMap(PARAM_GUIDS, AtlasType.toJson(guids));
+
+        return taskManagement.submit(TASK_TYPE, parameters, guids.size());
+    }
+
+    @Override
+    public String getTaskType() {
+        return TASK_TYPE;
+    }
+
+    @Override
+    public void execute(AtlasTask task, TaskContext context) {
+        List<String> guids = AtlasType.fromJson(task.getParameters().get(PARAM_GUIDS), List.class);
+
+        for (int i = task.getProcessedCount(); i < guids.size(); i += chunkSize) {
+            List<String> chunk = guids.subList(i, Math.min(guids.size(), i + chunkSize));
+
+            try {
+                entityStore.deleteByIds(chunk);
+            } catch (AtlasBaseException excp) {
+                LOG.warn("task {}: failed to delete {} entities", task.getGuid(), chunk.size(), excp);
+
+                task.setFailedCount(task.getFailedCount() + chunk.size());
+
+                context.addError(excp.getMessage());
+            }
+
+            task.setProcessedCount(i + chunk.size());
+
+            if (!context.checkpoint()) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void onTaskDeleted(AtlasTask task) {
+        // nothing to release
+    }
+}
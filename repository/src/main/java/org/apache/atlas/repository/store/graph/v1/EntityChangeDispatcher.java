@@ -0,0 +1,559 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.listener.EntityTraitsBatchListener;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers entity change events to listeners asynchronously, after the graph transaction that produced them commits.
+ *
+ * Events of entity additions, updates and classification changes carry only entity guids; the entities are read
+ * and converted to V1 instances once, by a conversion thread, after the commit. Listeners then see the entities as
+ * of the conversion, which can include later changes. Deleted entities can't be read after the commit, hence events
+ * of entity deletes carry the instances converted in the transaction.
+ *
+ * Each listener has its own bounded queue and delivery thread, so that events reach a listener in commit order and a
+ * slow listener doesn't hold up the others. Consecutive queued entity events of the same kind, from the same request,
+ * are delivered to the listener in a single call.
+ *
+ * When the conversion queue is full, the committing thread waits for space, once its guid locks have been released;
+ * a warning is logged if it waits for longer than the offer timeout. Queued events are held in memory only; events
+ * not yet delivered when the server stops are lost.
+ */
+public class EntityChangeDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityChangeDispatcher.class);
+
+    public static final String ASYNC_ENABLED_PROPERTY = "atlas.entity.change.notification.async.enabled";
+    public static final String QUEUE_SIZE_PROPERTY    = "atlas.entity.change.notification.queue.size";
+    public static final String BATCH_SIZE_PROPERTY    = "atlas.entity.change.notification.batch.size";
+    public static final String OFFER_TIMEOUT_PROPERTY = "atlas.entity.change.notification.offer.timeout.ms";
+
+    public static final int  DEFAULT_QUEUE_SIZE       = 10000;
+    public static final int  DEFAULT_BATCH_SIZE       = 100;
+    public static final long DEFAULT_OFFER_TIMEOUT_MS = 1000;
+
+    public static final String METRIC_QUEUE_SIZE            = "queueSize";
+    public static final String METRIC_EVENTS_DISPATCHED     = "eventsDispatched";
+    public static final String METRIC_EVENTS_FAILED         = "eventsFailed";
+    public static final String METRIC_BACKPRESSURE_WAITS    = "backpressureWaits";
+    public static final String METRIC_CONVERSION_QUEUE_SIZE = "conversionQueueSize";
+    public static final String METRIC_CONVERSION_FAILURES   = "conversionFailures";
+    public static final String METRIC_BLOCKED_DISPATCHES    = "blockedDispatches";
+
+    private static final long STOP_TIMEOUT_MS = 10000;
+    private static final long AWAIT_POLL_MS   = 10;
+
+    private final AtlasInstanceConverter instanceConverter;
+    private final long                   offerTimeoutMs;
+    private final List<ListenerQueue>    listenerQueues        = new ArrayList<>();
+    private final Converter              converter;
+    private final AtomicLong             conversionFailures    = new AtomicLong();
+    private final AtomicLong             blockedDispatches     = new AtomicLong();
+    private final AtomicLong             eventsQueued          = new AtomicLong();
+    private volatile boolean             isStopped             = false;
+
+    public EntityChangeDispatcher(Collection<EntityChangeListener> listeners, AtlasInstanceConverter instanceConverter, Configuration configuration) {
+        int queueSize = configuration != null ? configuration.getInt(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE) : DEFAULT_QUEUE_SIZE;
+        int batchSize = configuration != null ? configuration.getInt(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE) : DEFAULT_BATCH_SIZE;
+
+        this.instanceConverter = instanceConverter;
+        this.offerTimeoutMs    = configuration != null ? configuration.getLong(OFFER_TIMEOUT_PROPERTY, DEFAULT_OFFER_TIMEOUT_MS) : DEFAULT_OFFER_TIMEOUT_MS;
+
+        for (EntityChangeListener listener : listeners) {
+            ListenerQueue listenerQueue = new ListenerQueue(listener, queueSize, batchSize);
+
+            listenerQueue.start();
+
+            listenerQueues.add(listenerQueue);
+        }
+
+        this.converter = new Converter(queueSize);
+
+        converter.start();
+    }
+
+    public static boolean isAsyncEnabled(Configuration configuration) {
+        return configuration != null && configuration.getBoolean(ASYNC_ENABLED_PROPERTY, false);
+    }
+
+    /**
+     * Queues the given events, in order, for conversion and delivery. The caller must not hold locks on the entities:
+     * when the conversion queue is full, it waits for space, so that the events are delivered after those queued
+     * earlier. Events are dropped only once the dispatcher is stopped.
+     */
+    public void dispatch(List<EntityChangeEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            if (!queue(events.get(i))) {
+                LOG.warn("entity change notifications are stopped; {} event(s) not delivered", events.size() - i);
+
+                break;
+            }
+        }
+    }
+
+    /**
+     * Waits until the events queued before this call have been delivered to all the listeners, or the timeout
+     * elapses; events queued during the wait are not waited for.
+     *
+     * @return true if the events were delivered within the timeout
+     */
+    public boolean awaitDelivery(long timeoutMs) throws InterruptedException {
+        long deadline        = System.currentTimeMillis() + timeoutMs;
+        long convertedTarget = eventsQueued.get();
+
+        while (converter.eventsHandled.get() < convertedTarget) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+
+            Thread.sleep(AWAIT_POLL_MS);
+        }
+
+        // the listener queues now hold every converted event queued before the call
+        for (ListenerQueue listenerQueue : listenerQueues) {
+            long deliveredTarget = listenerQueue.eventsAdded.get();
+
+            while (listenerQueue.eventsHandled.get() < deliveredTarget) {
+                if (System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+
+                Thread.sleep(AWAIT_POLL_MS);
+            }
+        }
+
+        return true;
+    }
+
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_CONVERSION_QUEUE_SIZE, converter.queue.size());
+        ret.put(METRIC_CONVERSION_FAILURES, conversionFailures.get());
+        ret.put(METRIC_BLOCKED_DISPATCHES, blockedDispatches.get());
+
+        for (ListenerQueue listenerQueue : listenerQueues) {
+            String prefix = listenerQueue.listenerName + ".";
+
+            ret.put(prefix + METRIC_QUEUE_SIZE, listenerQueue.queue.size());
+            ret.put(prefix + METRIC_EVENTS_DISPATCHED, listenerQueue.eventsDispatched.get());
+            ret.put(prefix + METRIC_EVENTS_FAILED, listenerQueue.eventsFailed.get());
+            ret.put(prefix + METRIC_BACKPRESSURE_WAITS, listenerQueue.backpressureWaits.get());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Stops the conversion and delivery threads, after giving them some time to deliver the queued events.
+     */
+    public void stop() {
+        isStopped = true;
+
+        converter.shutdown();
+
+        try {
+            converter.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!converter.queue.isEmpty()) {
+            LOG.warn("{} entity change events were not converted", converter.queue.size());
+        }
+
+        for (ListenerQueue listenerQueue : listenerQueues) {
+            listenerQueue.shutdown();
+        }
+
+        for (ListenerQueue listenerQueue : listenerQueues) {
+            try {
+                listenerQueue.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                break;
+            }
+
+            if (!listenerQueue.queue.isEmpty()) {
+                LOG.warn("{}: {} entity change events were not delivered", listenerQueue.listenerName, listenerQueue.queue.size());
+            }
+        }
+    }
+
+    /**
+     * Waits for space in the conversion queue, till the dispatcher is stopped; an interrupt doesn't end the wait, as
+     * the change is already committed, and is restored once the event is queued.
+     *
+     * @return false if the dispatcher was stopped before the event could be queued
+     */
+    private boolean queue(EntityChangeEvent event) {
+        boolean isWaitLogged  = false;
+        boolean isInterrupted = false;
+
+        try {
+            while (!isStopped) {
+                try {
+                    if (converter.queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        eventsQueued.incrementAndGet();
+
+                        return true;
+                    }
+
+                    if (!isWaitLogged) {
+                        isWaitLogged = true;
+
+                        blockedDispatches.incrementAndGet();
+
+                        LOG.warn("entity change notification queue is full; waiting for space");
+                    }
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Converts the entities of the event, if it carries guids; returns false if none of the entities could be read.
+     */
+    private boolean resolve(EntityChangeEvent event) {
+        if (event.entities != null) {
+            return true;
+        }
+
+        List<ITypedReferenceableInstance> entities = new ArrayList<>(event.guids.size());
+
+        for (String guid : event.guids) {
+            try {
+                entities.add(instanceConverter.getITypedReferenceable(guid));
+            } catch (AtlasBaseException e) {
+                conversionFailures.incrementAndGet();
+
+                LOG.warn("failed to read entity {} for {} notification; entity skipped", guid, event.getType(), e);
+            } catch (RuntimeException e) {
+                conversionFailures.incrementAndGet();
+
+                LOG.error("failed to read entity {} for {} notification; entity skipped", guid, event.getType(), e);
+            }
+        }
+
+        event.entities = entities;
+
+        return !entities.isEmpty();
+    }
+
+    public enum EventType { ENTITIES_ADDED, ENTITIES_UPDATED, ENTITIES_DELETED, TRAITS_ADDED, TRAITS_UPDATED, TRAITS_DELETED }
+
+    /**
+     * An entity change, along with the user and time of the request that made it.
+     */
+    public static class EntityChangeEvent {
+        private final EventType                         type;
+        private final List<String>                      guids;
+        private final Collection<? extends IStruct>     traits;
+        private final Collection<String>                traitNames;
+        private final boolean                           isImport;
+        private final String                            user;
+        private final long                              requestTime;
+        private List<ITypedReferenceableInstance>       entities;
+
+        private EntityChangeEvent(EventType type, List<String> guids, List<ITypedReferenceableInstance> entities,
+                                  Collection<? extends IStruct> traits, Collection<String> traitNames, boolean isImport) {
+            this.type        = type;
+            this.guids       = guids;
+            this.entities    = entities;
+            this.traits      = traits;
+            this.traitNames  = traitNames;
+            this.isImport    = isImport;
+            this.user        = RequestContextV1.get().getUser();
+            this.requestTime = RequestContextV1.get().getRequestTime();
+        }
+
+        /**
+         * Entities already converted, in the transaction that changed them; used for deleted entities.
+         */
+        public static EntityChangeEvent forEntities(EventType type, List<ITypedReferenceableInstance> entities, boolean isImport) {
+            return new EntityChangeEvent(type, null, entities, null, null, isImport);
+        }
+
+        /**
+         * Entities to be read after the transaction commits.
+         */
+        public static EntityChangeEvent forEntityGuids(EventType type, List<String> guids, boolean isImport) {
+            return new EntityChangeEvent(type, guids, null, null, null, isImport);
+        }
+
+        /**
+         * The same traits change on a number of entities; delivered to a listener as one call per entity, or as a
+         * single call to an EntityTraitsBatchListener for added traits.
+         */
+        public static EntityChangeEvent forTraits(EventType type, List<String> guids, Collection<? extends IStruct> traits) {
+            return new EntityChangeEvent(type, guids, null, traits, null, false);
+        }
+
+        public static EntityChangeEvent forTraitNames(String guid, Collection<String> traitNames) {
+            return new EntityChangeEvent(EventType.TRAITS_DELETED, Collections.singletonList(guid), null, null, traitNames, false);
+        }
+
+        public EventType getType() { return type; }
+
+        /**
+         * Entity events of the same type, import flag and request can be delivered to a listener together.
+         */
+        boolean canCombineWith(EntityChangeEvent other) {
+            return isEntityEvent() && other.type == type && other.isImport == isImport &&
+                   other.requestTime == requestTime && StringUtils.equals(other.user, user);
+        }
+
+        boolean isEntityEvent() {
+            return type == EventType.ENTITIES_ADDED || type == EventType.ENTITIES_UPDATED || type == EventType.ENTITIES_DELETED;
+        }
+
+        void deliver(EntityChangeListener listener, List<ITypedReferenceableInstance> combinedEntities) throws AtlasException {
+            switch (type) {
+                case ENTITIES_ADDED:
+                    listener.onEntitiesAdded(combinedEntities, isImport);
+                    break;
+                case ENTITIES_UPDATED:
+                    listener.onEntitiesUpdated(combinedEntities, isImport);
+                    break;
+                case ENTITIES_DELETED:
+                    listener.onEntitiesDeleted(combinedEntities, isImport);
+                    break;
+                case TRAITS_ADDED:
+                    if (listener instanceof EntityTraitsBatchListener) {
+                        ((EntityTraitsBatchListener) listener).onTraitsAdded(entities, traits);
+                    } else {
+                        for (ITypedReferenceableInstance entity : entities) {
+                            listener.onTraitsAdded(entity, traits);
+                        }
+                    }
+                    break;
+                case TRAITS_UPDATED:
+                    for (ITypedReferenceableInstance entity : entities) {
+                        listener.onTraitsUpdated(entity, traits);
+                    }
+                    break;
+                case TRAITS_DELETED:
+                    for (ITypedReferenceableInstance entity : entities) {
+                        listener.onTraitsDeleted(entity, traitNames);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Converts the entities of queued events, once for all the listeners, and hands the events to the listener queues.
+     */
+    private class Converter extends Thread {
+        private final LinkedBlockingQueue<EntityChangeEvent> queue;
+        private final AtomicLong                             eventsHandled = new AtomicLong();
+        private volatile boolean                             shouldRun     = true;
+
+        Converter(int queueSize) {
+            super("atlas-entity-change-converter");
+
+            this.queue = new LinkedBlockingQueue<>(queueSize);
+
+            setDaemon(true);
+        }
+
+        void shutdown() {
+            shouldRun = false;
+
+            interrupt();
+        }
+
+        @Override
+        public void run() {
+            while (shouldRun || !queue.isEmpty()) {
+                try {
+                    EntityChangeEvent event = shouldRun ? queue.take() : queue.poll();
+
+                    if (event == null) {
+                        break;
+                    }
+
+                    try {
+                        RequestContextV1 context = RequestContextV1.get();
+
+                        context.setUser(event.user);
+                        context.setRequestTime(event.requestTime);
+
+                        if (resolve(event)) {
+                            for (ListenerQueue listenerQueue : listenerQueues) {
+                                listenerQueue.add(event);
+                            }
+                        }
+                    } finally {
+                        // entities read for one event must not be served from the request cache for the next
+                        RequestContext.clear();
+                        RequestContextV1.clear();
+
+                        eventsHandled.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    if (shouldRun) {
+                        LOG.warn("entity change conversion thread interrupted");
+                    }
+                } catch (Throwable t) {
+                    LOG.error("entity change conversion failed", t);
+                }
+            }
+        }
+    }
+
+    private static class ListenerQueue extends Thread {
+        private final EntityChangeListener                     listener;
+        private final String                                   listenerName;
+        private final LinkedBlockingQueue<EntityChangeEvent>   queue;
+        private final int                                      batchSize;
+        private final AtomicLong                               eventsDispatched  = new AtomicLong();
+        private final AtomicLong                               eventsFailed      = new AtomicLong();
+        private final AtomicLong                               backpressureWaits = new AtomicLong();
+        private final AtomicLong                               eventsAdded       = new AtomicLong();
+        private final AtomicLong                               eventsHandled     = new AtomicLong();
+        private volatile boolean                               shouldRun         = true;
+
+        ListenerQueue(EntityChangeListener listener, int queueSize, int batchSize) {
+            super("atlas-entity-change-" + listener.getClass().getSimpleName());
+
+            this.listener     = listener;
+            this.listenerName = listener.getClass().getSimpleName();
+            this.queue        = new LinkedBlockingQueue<>(queueSize);
+            this.batchSize    = Math.max(1, batchSize);
+
+            setDaemon(true);
+        }
+
+        /**
+         * Called from the conversion thread only, which waits for queue space; committing threads never wait here.
+         */
+        void add(EntityChangeEvent event) throws InterruptedException {
+            if (!queue.offer(event)) {
+                backpressureWaits.incrementAndGet();
+
+                queue.put(event);
+            }
+
+            eventsAdded.incrementAndGet();
+        }
+
+        void shutdown() {
+            shouldRun = false;
+
+            interrupt();
+        }
+
+        @Override
+        public void run() {
+            List<EntityChangeEvent> batch = new ArrayList<>(batchSize);
+
+            while (shouldRun || !queue.isEmpty()) {
+                try {
+                    EntityChangeEvent first = shouldRun ? queue.take() : queue.poll();
+
+                    if (first == null) {
+                        break;
+                    }
+
+                    batch.add(first);
+
+                    queue.drainTo(batch, batchSize - 1);
+
+                    deliver(batch);
+                } catch (InterruptedException e) {
+                    if (shouldRun) {
+                        LOG.warn("{}: delivery thread interrupted", listenerName);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void deliver(List<EntityChangeEvent> batch) {
+            int i = 0;
+
+            while (i < batch.size()) {
+                EntityChangeEvent                 first    = batch.get(i);
+                List<ITypedReferenceableInstance> entities = new ArrayList<>(first.entities);
+                int                               count    = 1;
+
+                if (first.isEntityEvent()) {
+                    while (i + count < batch.size() && first.canCombineWith(batch.get(i + count))) {
+                        entities.addAll(batch.get(i + count).entities);
+
+                        count++;
+                    }
+                }
+
+                try {
+                    RequestContextV1 context = RequestContextV1.get();
+
+                    context.setUser(first.user);
+                    context.setRequestTime(first.requestTime);
+
+                    first.deliver(listener, entities);
+
+                    eventsDispatched.addAndGet(count);
+                } catch (Throwable t) {
+                    eventsFailed.addAndGet(count);
+
+                    LOG.error("{}: failed to deliver {} {} event(s)", listenerName, count, first.getType(), t);
+                } finally {
+                    RequestContextV1.clear();
+
+                    eventsHandled.addAndGet(count);
+                }
+
+                i += count;
+            }
+        }
+    }
+}
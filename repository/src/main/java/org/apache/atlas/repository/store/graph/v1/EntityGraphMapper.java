@@ -307,19 +307,8 @@ public class EntityGraphMapper {
 
     private void mapAttribute(AtlasAttribute attribute, Object attrValue, AtlasVertex vertex, EntityOperation op, EntityMutationContext context) throws AtlasBaseException {
         if (attrValue == null) {
-            AtlasAttributeDef attributeDef = attribute.getAttributeDef();
-            AtlasType attrType = attribute.getAttributeType();
-            if (attrType.getTypeCategory() == TypeCategory.PRIMITIVE) {
-                if (attributeDef.getDefaultValue() != null) {
-                    attrValue = attrType.createDefaultValue(attributeDef.getDefaultValue());
-                } else {
-                    if (attribute.getAttributeDef().getIsOptional()) {
-                        attrValue = attrType.createOptionalDefaultValue();
-                    } else {
-                        attrValue = attrType.createDefaultValue();
-                    }
-                }
-            }
+            // computed when the type is loaded; null for non-primitive attributes
+            attrValue = attribute.getDefaultValue();
         }
 
         AttributeMutationContext ctx = new AttributeMutationContext(op, vertex, attribute, attrValue);
@@ -1188,6 +1177,17 @@ public class EntityGraphMapper {
                 throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
             }
 
+            addClassifications(context, instanceVertex, classifications);
+        }
+    }
+
+    /**
+     * Adds the classifications to the entity of the given vertex, already looked up by the caller.
+     */
+    public void addClassifications(final EntityMutationContext context, AtlasVertex instanceVertex, List<AtlasClassification> classifications)
+        throws AtlasBaseException {
+
+        if (CollectionUtils.isNotEmpty(classifications)) {
             String entityTypeName = AtlasGraphUtilsV1.getTypeName(instanceVertex);
 
             final AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entityTypeName);
@@ -17,9 +17,13 @@
  */
 package org.apache.atlas.repository.store.graph.v1;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.istack.Nullable;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.instance.AtlasClassification;
 import org.apache.atlas.model.instance.AtlasEntity;
@@ -33,10 +37,12 @@ import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasElement;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.type.*;
 import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
@@ -55,6 +61,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.atlas.model.typedef.AtlasBaseTypeDef.ATLAS_TYPE_BIGDECIMAL;
 import static org.apache.atlas.model.typedef.AtlasBaseTypeDef.ATLAS_TYPE_BIGINTEGER;
@@ -77,6 +88,14 @@ public final class EntityGraphRetriever {
 
     private static final GraphHelper graphHelper = GraphHelper.getInstance();
 
+    public static final String BULK_RETRIEVAL_THREADS_PROPERTY    = "atlas.entity.retriever.bulk.threads";
+    public static final String BULK_RETRIEVAL_BATCH_SIZE_PROPERTY = "atlas.entity.retriever.bulk.batch.size";
+
+    private static final int BULK_RETRIEVAL_THREADS    = getConfiguredInt(BULK_RETRIEVAL_THREADS_PROPERTY, 4);
+    private static final int BULK_RETRIEVAL_BATCH_SIZE = getConfiguredInt(BULK_RETRIEVAL_BATCH_SIZE_PROPERTY, 100);
+
+    private static ExecutorService bulkRetrievalExecutor = null;
+
     private final AtlasTypeRegistry typeRegistry;
 
     public EntityGraphRetriever(AtlasTypeRegistry typeRegistry) {
@@ -114,6 +133,10 @@ public final class EntityGraphRetriever {
     }
 
     public AtlasEntitiesWithExtInfo toAtlasEntitiesWithExtInfo(List<String> guids) throws AtlasBaseException {
+        if (BULK_RETRIEVAL_THREADS > 1 && guids.size() > BULK_RETRIEVAL_BATCH_SIZE) {
+            return toAtlasEntitiesWithExtInfo(guids, BULK_RETRIEVAL_BATCH_SIZE);
+        }
+
         AtlasEntitiesWithExtInfo ret = new AtlasEntitiesWithExtInfo();
 
         for (String guid : guids) {
@@ -129,6 +152,68 @@ public final class EntityGraphRetriever {
         return ret;
     }
 
+    /**
+     * Bulk retrieval: guids are split into batches, and each batch is resolved (with one index query) and mapped on a
+     * worker of a bounded pool. Workers read in their own graph transaction, hence see only committed data; this is
+     * meant for read-only callers like getByIds(). The result is the same as that of the serial retrieval - entities
+     * in the order of the given guids, with referred entities of all batches merged.
+     */
+    @VisibleForTesting
+    AtlasEntitiesWithExtInfo toAtlasEntitiesWithExtInfo(List<String> guids, int batchSize) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> toAtlasEntitiesWithExtInfo(count={}, batchSize={})", guids.size(), batchSize);
+        }
+
+        AtlasEntitiesWithExtInfo               ret     = new AtlasEntitiesWithExtInfo();
+        List<Future<AtlasEntitiesWithExtInfo>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < guids.size(); i += batchSize) {
+                results.add(getBulkRetrievalExecutor().submit(new EntityBatchRetriever(guids.subList(i, Math.min(guids.size(), i + batchSize)))));
+            }
+
+            for (Future<AtlasEntitiesWithExtInfo> result : results) {
+                AtlasEntitiesWithExtInfo batch = result.get();
+
+                if (batch.getEntities() != null) {
+                    for (AtlasEntity entity : batch.getEntities()) {
+                        ret.addEntity(entity);
+                    }
+                }
+
+                if (batch.getReferredEntities() != null) {
+                    for (Map.Entry<String, AtlasEntity> entry : batch.getReferredEntities().entrySet()) {
+                        if (ret.getReferredEntity(entry.getKey()) == null) {
+                            ret.addReferredEntity(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AtlasBaseException) {
+                throw (AtlasBaseException) e.getCause();
+            }
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e.getCause());
+        } finally {
+            for (Future<AtlasEntitiesWithExtInfo> result : results) {
+                result.cancel(true);
+            }
+        }
+
+        ret.compact();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== toAtlasEntitiesWithExtInfo(count={}, batchSize={})", guids.size(), batchSize);
+        }
+
+        return ret;
+    }
+
     public AtlasEntityHeader toAtlasEntityHeader(String guid) throws AtlasBaseException {
         return toAtlasEntityHeader(getEntityVertex(guid));
     }
@@ -174,6 +259,58 @@ public final class EntityGraphRetriever {
         return ret;
     }
 
+    private class EntityBatchRetriever implements Callable<AtlasEntitiesWithExtInfo> {
+        private final List<String> guids;
+
+        EntityBatchRetriever(List<String> guids) {
+            this.guids = guids;
+        }
+
+        @Override
+        public AtlasEntitiesWithExtInfo call() throws AtlasBaseException {
+            AtlasGraph graph = AtlasGraphProvider.getGraphInstance();
+
+            try {
+                AtlasEntitiesWithExtInfo ret      = new AtlasEntitiesWithExtInfo();
+                Map<String, AtlasVertex> vertices = AtlasGraphUtilsV1.findByGuids(guids);
+
+                for (String guid : guids) {
+                    AtlasVertex vertex = vertices.get(guid);
+
+                    if (vertex == null) {
+                        throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+                    }
+
+                    ret.addEntity(mapVertexToAtlasEntity(vertex, ret));
+                }
+
+                return ret;
+            } finally {
+                // release the read transaction opened for this worker thread
+                graph.rollback();
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getBulkRetrievalExecutor() {
+        if (bulkRetrievalExecutor == null) {
+            bulkRetrievalExecutor = Executors.newFixedThreadPool(BULK_RETRIEVAL_THREADS,
+                    new ThreadFactoryBuilder().setNameFormat("atlas-entity-retriever-%d").setDaemon(true).build());
+        }
+
+        return bulkRetrievalExecutor;
+    }
+
+    private static int getConfiguredInt(String propertyName, int defaultValue) {
+        try {
+            return ApplicationProperties.get().getInt(propertyName, defaultValue);
+        } catch (AtlasException e) {
+            LOG.warn("failed to read {}; using default {}", propertyName, defaultValue, e);
+
+            return defaultValue;
+        }
+    }
+
     private AtlasEntity mapVertexToAtlasEntity(AtlasVertex entityVertex, AtlasEntityExtInfo entityExtInfo) throws AtlasBaseException {
         String      guid   = GraphHelper.getGuid(entityVertex);
         AtlasEntity entity = entityExtInfo != null ? entityExtInfo.getEntity(guid) : null;
@@ -387,7 +524,7 @@ public final class EntityGraphRetriever {
         Object    ret                = null;
         AtlasType attrType           = attribute.getAttributeType();
         String    vertexPropertyName = attribute.getQualifiedName();
-        String    edgeLabel          = EDGE_LABEL_PREFIX + vertexPropertyName;
+        String    edgeLabel          = attribute.getQualifiedEdgeLabel();
         boolean   isOwnedAttribute   = attribute.isOwnedRef();
         AtlasRelationshipEdgeDirection edgeDirection = attribute.getRelationshipEdgeDirection();
 
@@ -632,7 +769,29 @@ public final class EntityGraphRetriever {
     }
 
     private Object mapVertexToRelationshipAttribute(AtlasVertex entityVertex, AtlasEntityType entityType, AtlasAttribute attribute) throws AtlasBaseException {
-        Object               ret             = null;
+        Object                  ret             = null;
+        AtlasRelationshipEndDef attributeEndDef = entityType.getRelationshipAttributeEnd(attribute.getName());
+
+        // relationship end is resolved when types are loaded, unless the attribute is defined by multiple relationships
+        if (attributeEndDef == null) {
+            attributeEndDef = getRelationshipAttributeEnd(entityVertex, entityType, attribute);
+        }
+
+        switch (attributeEndDef.getCardinality()) {
+            case SINGLE:
+                ret = mapRelatedVertexToObjectId(entityVertex, attribute);
+                break;
+
+            case LIST:
+            case SET:
+                ret = mapRelationshipArrayAttribute(entityVertex, attribute);
+                break;
+        }
+
+        return ret;
+    }
+
+    private AtlasRelationshipEndDef getRelationshipAttributeEnd(AtlasVertex entityVertex, AtlasEntityType entityType, AtlasAttribute attribute) throws AtlasBaseException {
         AtlasRelationshipDef relationshipDef = graphHelper.getRelationshipDef(entityVertex, entityType, attribute.getName());
 
         if (relationshipDef == null) {
@@ -655,18 +814,7 @@ public final class EntityGraphRetriever {
             throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIPDEF_INVALID, relationshipDef.toString());
         }
 
-        switch (attributeEndDef.getCardinality()) {
-            case SINGLE:
-                ret = mapRelatedVertexToObjectId(entityVertex, attribute);
-                break;
-
-            case LIST:
-            case SET:
-                ret = mapRelationshipArrayAttribute(entityVertex, attribute);
-                break;
-        }
-
-        return ret;
+        return attributeEndDef;
     }
 
     private AtlasObjectId mapRelatedVertexToObjectId(AtlasVertex entityVertex, AtlasAttribute attribute) throws AtlasBaseException {
@@ -21,15 +21,19 @@ import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TypeCategory;
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.EntityGraphDiscoveryContext;
 import org.apache.atlas.repository.store.graph.EntityResolver;
 import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.type.AtlasTypeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
 
 public class IDBasedEntityResolver implements EntityResolver {
     private static final Logger LOG = LoggerFactory.getLogger(IDBasedEntityResolver.class);
@@ -45,7 +49,9 @@ public class IDBasedEntityResolver implements EntityResolver {
             throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "IDBasedEntityResolver.resolveEntityReferences(): context is null");
         }
 
-        EntityStream entityStream = context.getEntityStream();
+        EntityStream                    entityStream   = context.getEntityStream();
+        Map<String, AtlasObjectId>      uniqAttrRefs   = getUniqueAttributeReferences(context);
+        Map<AtlasObjectId, AtlasVertex> uniqAttrVertex = AtlasGraphUtilsV1.findByUniqueAttributes(typeRegistry, uniqAttrRefs.values());
 
         for (String guid : context.getReferencedGuids()) {
             boolean isAssignedGuid = AtlasTypeUtil.isAssignedGuid(guid);
@@ -61,7 +67,13 @@ public class IDBasedEntityResolver implements EntityResolver {
                         throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), entity.getTypeName());
                     }
 
-                    vertex = AtlasGraphUtilsV1.findByUniqueAttributes(entityType, entity.getAttributes());
+                    AtlasObjectId uniqAttrRef = uniqAttrRefs.get(guid);
+
+                    if (uniqAttrRef != null) {
+                        vertex = uniqAttrVertex.get(uniqAttrRef);
+                    } else {
+                        vertex = AtlasGraphUtilsV1.findByUniqueAttributes(entityType, entity.getAttributes());
+                    }
                 } else if (!isAssignedGuid) { // for local-guids, entity must be in the stream
                     throw new AtlasBaseException(AtlasErrorCode.REFERENCED_ENTITY_NOT_FOUND, guid);
                 }
@@ -80,4 +92,46 @@ public class IDBasedEntityResolver implements EntityResolver {
 
         return context;
     }
-}
\ No newline at end of file
+
+    /**
+     * Collects unique attributes of the entities, present in the stream, that are referenced with local (unassigned)
+     * guids; these are looked up in bulk before resolving the references.
+     */
+    private Map<String, AtlasObjectId> getUniqueAttributeReferences(EntityGraphDiscoveryContext context) {
+        Map<String, AtlasObjectId> ret          = new HashMap<>();
+        EntityStream               entityStream = context.getEntityStream();
+
+        if (entityStream instanceof EntityImportStream) {
+            return ret;
+        }
+
+        for (String guid : context.getReferencedGuids()) {
+            if (AtlasTypeUtil.isAssignedGuid(guid)) {
+                continue;
+            }
+
+            AtlasEntity     entity     = entityStream.getByGuid(guid);
+            AtlasEntityType entityType = entity != null ? typeRegistry.getEntityTypeByName(entity.getTypeName()) : null;
+
+            if (entityType == null) {
+                continue;
+            }
+
+            Map<String, Object> uniqAttributes = new HashMap<>();
+
+            for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                Object attrValue = entity.getAttribute(attribute.getName());
+
+                if (attrValue != null) {
+                    uniqAttributes.put(attribute.getName(), attrValue);
+                }
+            }
+
+            if (!uniqAttributes.isEmpty()) {
+                ret.put(guid, new AtlasObjectId(entity.getTypeName(), uniqAttributes));
+            }
+        }
+
+        return ret;
+    }
+}
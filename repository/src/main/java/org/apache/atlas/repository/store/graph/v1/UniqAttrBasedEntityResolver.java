@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 
 public class UniqAttrBasedEntityResolver implements EntityResolver {
@@ -52,14 +53,18 @@ public class UniqAttrBasedEntityResolver implements EntityResolver {
         List<AtlasObjectId> resolvedReferences = new ArrayList<>();
 
         for (AtlasObjectId objId : context.getReferencedByUniqAttribs()) {
-            //query in graph repo that given unique attribute - check for deleted also?
             AtlasEntityType entityType = typeRegistry.getEntityTypeByName(objId.getTypeName());
 
             if (entityType == null) {
                 throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), objId.getTypeName());
             }
+        }
+
+        //query in graph repo, with one query per type and unique attribute - check for deleted also?
+        Map<AtlasObjectId, AtlasVertex> vertices = AtlasGraphUtilsV1.findByUniqueAttributes(typeRegistry, context.getReferencedByUniqAttribs());
 
-            AtlasVertex vertex = AtlasGraphUtilsV1.findByUniqueAttributes(entityType, objId.getUniqueAttributes());
+        for (AtlasObjectId objId : context.getReferencedByUniqAttribs()) {
+            AtlasVertex vertex = vertices.get(objId);
 
             if (vertex != null) {
                 context.addResolvedIdByUniqAttribs(objId, vertex);
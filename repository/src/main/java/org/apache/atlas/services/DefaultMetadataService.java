@@ -36,6 +36,7 @@ import org.apache.atlas.listener.TypesChangeListener;
 import org.apache.atlas.model.legacy.EntityResult;
 import org.apache.atlas.repository.MetadataRepository;
 import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.repository.audit.EntityAuditFilter;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.typestore.ITypeStore;
@@ -741,6 +742,36 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
         return auditRepository.listEvents(guid, startKey, count);
     }
 
+    @Override
+    public List<EntityAuditEvent> searchAuditEvents(List<String> guids, long fromTime, long toTime, String user,
+                                                    List<EntityAuditEvent.EntityAuditAction> actions, short count) throws AtlasException {
+        ParamChecker.lessThan(count, maxAuditResults, "count");
+
+        EntityAuditFilter filter = new EntityAuditFilter(fromTime, toTime).setUser(user).setActions(actions);
+
+        if (guids == null || guids.isEmpty()) {
+            // without entity ids, events of the whole repository are searched; hence the time range must be bounded
+            ParamChecker.greaterThan(fromTime, 0, "fromTime");
+
+            return auditRepository.listEvents(filter, count);
+        }
+
+        ParamChecker.notNullElements(guids, "entity id");
+
+        Map<String, List<EntityAuditEvent>> entityEvents = auditRepository.listEvents(guids, filter, count);
+        List<EntityAuditEvent>              ret          = new ArrayList<>();
+
+        for (String guid : new LinkedHashSet<>(guids)) {
+            List<EntityAuditEvent> events = entityEvents.get(guid);
+
+            if (events != null) {
+                ret.addAll(events);
+            }
+        }
+
+        return ret;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.atlas.services.MetadataService#deleteEntities(java.lang.String)
      */
@@ -0,0 +1,520 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.HardDeleteHandlerV1;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.apache.atlas.services.MetricsService.ENTITY;
+import static org.apache.atlas.services.MetricsService.GENERAL;
+import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_COUNT;
+import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_DELETED;
+import static org.apache.atlas.services.MetricsService.METRIC_TAGGED_ENTITIES;
+import static org.apache.atlas.services.MetricsService.TAG;
+
+/**
+ * Entity metrics - entity count, deleted entities, entities per type, tagged entities and entities per tag - maintained
+ * incrementally from entity change notifications, so that MetricsService doesn't have to scan the graph to report them.
+ *
+ * The counts start from the snapshot last persisted in the graph, or from a full recount by MetricsService when there
+ * is none; they are persisted periodically in the background. Deltas are applied when the notification is received:
+ * with synchronous notifications, a change that is later rolled back stays counted until the next full recount, which
+ * MetricsService runs periodically to correct such drift. Deltas received while a recount is in progress are applied
+ * to its result as well; MetricsService waits for the queued asynchronous notifications to be delivered before it
+ * starts a recount, so that changes already included in the recount are not applied again.
+ *
+ * Deltas are subject to the same filters as the recount queries: the entity count includes only Referenceable
+ * entities, while the per-type, tagged and per-tag counts include entities of all types. Soft-deleted entities keep
+ * their classifications, hence remain in the tag counts on both paths; only hard deletes reduce them.
+ *
+ * With HA, only the active server persists the counts. A server that becomes active drops the counts it held earlier,
+ * and loads them again from the snapshot persisted by the server that was active meanwhile.
+ */
+@Component
+public class EntityMetricsCounter implements EntityChangeListener, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityMetricsCounter.class);
+
+    public static final String METRIC_PERSIST_INTERVAL         = "atlas.metric.persist.intervalInSecs";
+    public static final int    DEFAULT_PERSIST_INTERVAL_IN_SECS = 300;
+
+    static final String METRICS_VERTEX_TYPE      = "__AtlasMetrics";
+    static final String METRICS_COUNTS_PROPERTY  = Constants.INTERNAL_PROPERTY_KEY_PREFIX + "metrics.counts";
+    static final String METRICS_RECOUNT_PROPERTY = Constants.INTERNAL_PROPERTY_KEY_PREFIX + "metrics.recountTime";
+
+    private final AtlasGraph        atlasGraph;
+    private final AtlasTypeRegistry typeRegistry;
+    private final boolean           isHardDelete;
+    private final int               persistIntervalInSecs;
+    private final ReadWriteLock     recountLock = new ReentrantReadWriteLock();
+    private final AtomicLong        changeCount = new AtomicLong();
+
+    private volatile Counts          counts               = null;
+    private volatile Counts          recountDeltas        = null;
+    private volatile long            lastRecountTime      = 0;
+    private volatile boolean         isLoaded             = false;
+    private long                     persistedChangeCount = 0;
+    private ScheduledExecutorService persistExecutor      = null;
+
+    @Inject
+    public EntityMetricsCounter(AtlasGraph atlasGraph, AtlasTypeRegistry typeRegistry, Configuration configuration) {
+        this(atlasGraph, typeRegistry, configuration, HardDeleteHandlerV1.class.equals(AtlasRepositoryConfiguration.getDeleteHandlerV1Impl()));
+    }
+
+    @VisibleForTesting
+    EntityMetricsCounter(AtlasGraph atlasGraph, AtlasTypeRegistry typeRegistry, Configuration configuration, boolean isHardDelete) {
+        this.atlasGraph            = atlasGraph;
+        this.typeRegistry          = typeRegistry;
+        this.isHardDelete          = isHardDelete;
+        this.persistIntervalInSecs = configuration != null ? configuration.getInt(METRIC_PERSIST_INTERVAL, DEFAULT_PERSIST_INTERVAL_IN_SECS)
+                                                           : DEFAULT_PERSIST_INTERVAL_IN_SECS;
+    }
+
+    @PreDestroy
+    public void stop() {
+        ScheduledExecutorService executor;
+
+        synchronized (this) {
+            executor = persistExecutor;
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+
+            persist();
+        }
+    }
+
+    @Override
+    public void instanceIsActive() {
+        LOG.info("Reacting to active state: entity metrics will be loaded from the persisted snapshot");
+
+        reset();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("Reacting to passive state: stopping persistence of entity metrics");
+
+        reset();
+    }
+
+    @Override
+    public void onEntitiesAdded(Collection<ITypedReferenceableInstance> entities, boolean isImport) throws AtlasException {
+        for (ITypedReferenceableInstance entity : entities) {
+            updateEntityCounts(entity, 1);
+        }
+    }
+
+    @Override
+    public void onEntitiesUpdated(Collection<ITypedReferenceableInstance> entities, boolean isImport) throws AtlasException {
+        // updates don't change any of the counts
+    }
+
+    @Override
+    public void onTraitsAdded(ITypedReferenceableInstance entity, Collection<? extends IStruct> traits) throws AtlasException {
+        for (IStruct trait : traits) {
+            applyDelta(TAG, trait.getTypeName(), 1);
+        }
+
+        // the entity is as of after the change: it wasn't tagged before if all its traits were just added
+        List<String> entityTraits = entity.getTraits();
+
+        if (entityTraits != null && entityTraits.size() == traits.size()) {
+            applyDelta(ENTITY, METRIC_TAGGED_ENTITIES, 1);
+        }
+    }
+
+    @Override
+    public void onTraitsDeleted(ITypedReferenceableInstance entity, Collection<String> traitNames) throws AtlasException {
+        for (String traitName : traitNames) {
+            applyDelta(TAG, traitName, -1);
+        }
+
+        if (CollectionUtils.isEmpty(entity.getTraits())) {
+            applyDelta(ENTITY, METRIC_TAGGED_ENTITIES, -1);
+        }
+    }
+
+    @Override
+    public void onTraitsUpdated(ITypedReferenceableInstance entity, Collection<? extends IStruct> traits) throws AtlasException {
+        // updates don't change any of the counts
+    }
+
+    @Override
+    public void onEntitiesDeleted(Collection<ITypedReferenceableInstance> entities, boolean isImport) throws AtlasException {
+        for (ITypedReferenceableInstance entity : entities) {
+            if (isHardDelete) {
+                updateEntityCounts(entity, -1);
+            } else {
+                // soft-deleted entities remain in the graph, and are still included in the other counts
+                applyDelta(GENERAL, METRIC_ENTITY_DELETED, 1);
+            }
+        }
+    }
+
+    /**
+     * @return true if the counts have been initialized, either from the persisted snapshot or by a recount
+     */
+    public boolean isInitialized() {
+        return getCounts() != null;
+    }
+
+    /**
+     * Adds the current counts to the given metrics.
+     */
+    public void addTo(AtlasMetrics metrics) {
+        Counts current = getCounts();
+
+        if (current != null) {
+            current.addTo(metrics);
+        }
+    }
+
+    public long getLastRecountTime() {
+        getCounts();
+
+        return lastRecountTime;
+    }
+
+    /**
+     * Starts tracking the deltas received during a recount; must be followed by endRecount().
+     */
+    public void beginRecount() {
+        recountLock.writeLock().lock();
+
+        try {
+            recountDeltas = new Counts();
+        } finally {
+            recountLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the counts with the given result of a recount, plus the deltas received since beginRecount(); the
+     * counts are left unchanged if the recount failed, i.e. the result is null.
+     */
+    public void endRecount(AtlasMetrics recounted) {
+        recountLock.writeLock().lock();
+
+        try {
+            if (recounted != null) {
+                Counts newCounts = Counts.from(recounted);
+
+                newCounts.add(recountDeltas);
+
+                synchronized (this) {
+                    counts          = newCounts;
+                    lastRecountTime = System.currentTimeMillis();
+                    isLoaded        = true;
+                }
+
+                changeCount.incrementAndGet();
+            }
+
+            recountDeltas = null;
+        } finally {
+            recountLock.writeLock().unlock();
+        }
+
+        if (recounted != null) {
+            startPersistence();
+            persist();
+        }
+    }
+
+    private void updateEntityCounts(ITypedReferenceableInstance entity, int delta) {
+        if (isReferenceable(entity.getTypeName())) {
+            applyDelta(GENERAL, METRIC_ENTITY_COUNT, delta);
+        }
+
+        applyDelta(ENTITY, entity.getTypeName(), delta);
+
+        List<String> traits = entity.getTraits();
+
+        if (CollectionUtils.isNotEmpty(traits)) {
+            applyDelta(ENTITY, METRIC_TAGGED_ENTITIES, delta);
+
+            for (String trait : traits) {
+                applyDelta(TAG, trait, delta);
+            }
+        }
+    }
+
+    // like the entity count query, which counts the vertices having Referenceable in their super-types
+    private boolean isReferenceable(String typeName) {
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+        return entityType != null && entityType.getAllSuperTypes().contains(AtlasClient.REFERENCEABLE_SUPER_TYPE);
+    }
+
+    private void applyDelta(String group, String name, long delta) {
+        getCounts();
+
+        recountLock.readLock().lock();
+
+        try {
+            // read under the lock, as a recount could replace the counts
+            Counts current = counts;
+
+            if (current != null) {
+                current.add(group, name, delta);
+            }
+
+            Counts deltas = recountDeltas;
+
+            if (deltas != null) {
+                deltas.add(group, name, delta);
+            }
+        } finally {
+            recountLock.readLock().unlock();
+        }
+
+        changeCount.incrementAndGet();
+    }
+
+    // loads the persisted snapshot on first use, so that a passive server doesn't touch the graph
+    private Counts getCounts() {
+        if (!isLoaded) {
+            synchronized (this) {
+                if (!isLoaded) {
+                    Counts loaded = persistIntervalInSecs > 0 ? load() : null;
+
+                    if (loaded != null) {
+                        counts = loaded;
+
+                        startPersistence();
+                    }
+
+                    isLoaded = true;
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    // the counts are loaded again on next use; persistence restarts once they are loaded
+    private void reset() {
+        ScheduledExecutorService executor;
+
+        synchronized (this) {
+            executor             = persistExecutor;
+            persistExecutor      = null;
+            counts               = null;
+            lastRecountTime      = 0;
+            isLoaded             = false;
+            persistedChangeCount = changeCount.get();
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private Counts load() {
+        Counts ret = null;
+
+        try {
+            AtlasVertex vertex = findMetricsVertex();
+
+            if (vertex != null) {
+                String json = vertex.getProperty(METRICS_COUNTS_PROPERTY, String.class);
+                Long   time = vertex.getProperty(METRICS_RECOUNT_PROPERTY, Long.class);
+
+                if (json != null) {
+                    ret = Counts.from(AtlasType.fromJson(json, AtlasMetrics.class));
+
+                    lastRecountTime = time != null ? time : 0;
+
+                    LOG.info("Loaded entity metrics persisted in the graph; last recount at {}", lastRecountTime);
+                }
+            }
+        } catch (Exception excp) {
+            LOG.warn("failed to load persisted entity metrics; they will be recounted", excp);
+        }
+
+        return ret;
+    }
+
+    private synchronized void startPersistence() {
+        if (persistExecutor == null && persistIntervalInSecs > 0) {
+            persistExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-metrics-persist-%d").setDaemon(true).build());
+
+            persistExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    persist();
+                }
+            }, persistIntervalInSecs, persistIntervalInSecs, TimeUnit.SECONDS);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void persist() {
+        Counts current       = counts;
+        long   currentChange = changeCount.get();
+
+        if (current == null || currentChange == persistedChangeCount || persistIntervalInSecs <= 0) {
+            return;
+        }
+
+        try {
+            AtlasMetrics metrics = new AtlasMetrics();
+
+            current.addTo(metrics);
+
+            AtlasVertex vertex = findMetricsVertex();
+
+            if (vertex == null) {
+                vertex = atlasGraph.addVertex();
+
+                vertex.setProperty(Constants.VERTEX_TYPE_PROPERTY_KEY, METRICS_VERTEX_TYPE);
+            }
+
+            vertex.setProperty(METRICS_COUNTS_PROPERTY, AtlasType.toJson(metrics));
+            vertex.setProperty(METRICS_RECOUNT_PROPERTY, lastRecountTime);
+
+            atlasGraph.commit();
+
+            persistedChangeCount = currentChange;
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Persisted entity metrics: {}", metrics);
+            }
+        } catch (Exception excp) {
+            LOG.warn("failed to persist entity metrics", excp);
+
+            atlasGraph.rollback();
+        }
+    }
+
+    private AtlasVertex findMetricsVertex() {
+        Iterator<AtlasVertex> vertices = atlasGraph.query().has(Constants.VERTEX_TYPE_PROPERTY_KEY, METRICS_VERTEX_TYPE).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static final class Counts {
+        private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> groups = new ConcurrentHashMap<>();
+
+        static Counts from(AtlasMetrics metrics) {
+            Counts                           ret  = new Counts();
+            Map<String, Map<String, Number>> data = metrics != null ? metrics.getData() : null;
+
+            if (data != null) {
+                for (Map.Entry<String, Map<String, Number>> group : data.entrySet()) {
+                    if (group.getValue() == null) {
+                        continue;
+                    }
+
+                    for (Map.Entry<String, Number> entry : group.getValue().entrySet()) {
+                        if (entry.getValue() != null) {
+                            ret.add(group.getKey(), entry.getKey(), entry.getValue().longValue());
+                        }
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        void add(String group, String name, long delta) {
+            ConcurrentMap<String, AtomicLong> groupCounts = groups.get(group);
+
+            if (groupCounts == null) {
+                ConcurrentMap<String, AtomicLong> existing = groups.putIfAbsent(group, groupCounts = new ConcurrentHashMap<>());
+
+                if (existing != null) {
+                    groupCounts = existing;
+                }
+            }
+
+            AtomicLong count = groupCounts.get(name);
+
+            if (count == null) {
+                AtomicLong existing = groupCounts.putIfAbsent(name, count = new AtomicLong());
+
+                if (existing != null) {
+                    count = existing;
+                }
+            }
+
+            count.addAndGet(delta);
+        }
+
+        void add(Counts other) {
+            if (other != null) {
+                for (Map.Entry<String, ConcurrentMap<String, AtomicLong>> group : other.groups.entrySet()) {
+                    for (Map.Entry<String, AtomicLong> entry : group.getValue().entrySet()) {
+                        add(group.getKey(), entry.getKey(), entry.getValue().get());
+                    }
+                }
+            }
+        }
+
+        void addTo(AtlasMetrics metrics) {
+            for (Map.Entry<String, ConcurrentMap<String, AtomicLong>> group : groups.entrySet()) {
+                boolean isGeneral = GENERAL.equals(group.getKey());
+
+                for (Map.Entry<String, AtomicLong> entry : group.getValue().entrySet()) {
+                    long value = Math.max(0, entry.getValue().get());
+
+                    // like the recount, types and tags without entities are not reported
+                    if (value > 0 || isGeneral || METRIC_TAGGED_ENTITIES.equals(entry.getKey())) {
+                        metrics.addData(group.getKey(), entry.getKey(), value);
+                    }
+                }
+            }
+        }
+    }
+}
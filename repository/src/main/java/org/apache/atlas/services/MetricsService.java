@@ -18,31 +18,45 @@
 package org.apache.atlas.services;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.annotation.AtlasService;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.repository.audit.EntityAuditRepository;
+import org.apache.atlas.repository.audit.HBaseBasedAuditRepository;
+import org.apache.atlas.repository.graph.GuidVertexCache;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.v1.AtlasEntityChangeNotifier;
 import org.apache.atlas.util.AtlasGremlinQueryProvider;
 import org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery;
 import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @AtlasService
 public class MetricsService {
     private static final Logger LOG = LoggerFactory.getLogger(MetricsService.class);
 
     // Query Category constants
-    public static final String TYPE    = "type";
-    public static final String ENTITY  = "entity";
-    public static final String TAG     = "tag";
-    public static final String GENERAL = "general";
+    public static final String TYPE       = "type";
+    public static final String ENTITY     = "entity";
+    public static final String TAG        = "tag";
+    public static final String GENERAL    = "general";
+    public static final String GREMLIN    = "gremlin";
+    public static final String GUID_CACHE = "guidCache";
+    public static final String NOTIFIER   = "entityNotification";
+    public static final String AUDIT      = "entityAudit";
 
     // Query names
     protected static final String METRIC_TYPE_COUNT        = TYPE + "Count";
@@ -61,62 +75,279 @@ public class MetricsService {
     public static final String METRIC_QUERY_CACHE_TTL    = "atlas.metric.query.cache.ttlInSecs";
     public static final int    DEFAULT_CACHE_TTL_IN_SECS = 900;
 
+    public static final String METRIC_RECOUNT_INTERVAL          = "atlas.metric.recount.intervalInSecs";
+    public static final int    DEFAULT_RECOUNT_INTERVAL_IN_SECS = 86400;
+
     public static final String METRIC_COLLECTION_TIME = "collectionTime";
 
+    private static final long DISPATCH_AWAIT_TIMEOUT_MS = 60000;
+
     private static Configuration            configuration = null;
     private static AtlasGremlinQueryProvider gremlinQueryProvider = null;
 
     private final AtlasGraph                atlasGraph;
+    private final AtlasEntityChangeNotifier entityChangeNotifier;
+    private final EntityMetricsCounter      entityMetricsCounter;
+    private final EntityAuditRepository     auditRepository;
     private final int                       cacheTTLInSecs;
+    private final int                       recountIntervalInSecs;
+    private final Object                    cacheLock       = new Object();
+    private final Object                    recountLock     = new Object();
+    private final AtomicLong                recountCount    = new AtomicLong();
+    private final AtomicBoolean             isRecountQueued = new AtomicBoolean(false);
 
-    private AtlasMetrics cachedMetrics       = null;
-    private long         cacheExpirationTime = 0;
+    private volatile AtlasMetrics cachedMetrics       = null;
+    private volatile long         cacheExpirationTime = 0;
+    private ExecutorService       recountExecutor     = null;
 
 
     @Inject
-    public MetricsService(AtlasGraph atlasGraph) throws AtlasException {
-        this(ApplicationProperties.get(), atlasGraph);
+    public MetricsService(AtlasGraph atlasGraph, AtlasEntityChangeNotifier entityChangeNotifier, EntityMetricsCounter entityMetricsCounter,
+                          EntityAuditRepository auditRepository) throws AtlasException {
+        this(ApplicationProperties.get(), atlasGraph, entityChangeNotifier, entityMetricsCounter, auditRepository);
     }
 
     @VisibleForTesting
     MetricsService(Configuration configuration, AtlasGraph graph) {
+        this(configuration, graph, null, null, null);
+    }
+
+    @VisibleForTesting
+    MetricsService(Configuration configuration, AtlasGraph graph, EntityMetricsCounter entityMetricsCounter) {
+        this(configuration, graph, null, entityMetricsCounter, null);
+    }
+
+    private MetricsService(Configuration configuration, AtlasGraph graph, AtlasEntityChangeNotifier entityChangeNotifier,
+                           EntityMetricsCounter entityMetricsCounter, EntityAuditRepository auditRepository) {
         MetricsService.configuration = configuration;
 
-        atlasGraph        = graph;
+        atlasGraph                = graph;
+        this.entityChangeNotifier = entityChangeNotifier;
+        this.entityMetricsCounter = entityMetricsCounter;
+        this.auditRepository      = auditRepository;
         cacheTTLInSecs    = configuration != null ? configuration.getInt(METRIC_QUERY_CACHE_TTL, DEFAULT_CACHE_TTL_IN_SECS)
                 : DEFAULT_CACHE_TTL_IN_SECS;
+        recountIntervalInSecs = configuration != null ? configuration.getInt(METRIC_RECOUNT_INTERVAL, DEFAULT_RECOUNT_INTERVAL_IN_SECS)
+                : DEFAULT_RECOUNT_INTERVAL_IN_SECS;
         gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
     }
 
-    @SuppressWarnings("unchecked")
+    @PreDestroy
+    public synchronized void stop() {
+        if (recountExecutor != null) {
+            recountExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Entity metrics are taken from EntityMetricsCounter, which maintains them incrementally, hence are current; a
+     * full recount runs in the background once every recountIntervalInSecs to correct any drift, or in the caller's
+     * thread when ignoreCache is true or the counts are not yet initialized. The type and tag counts are read from
+     * the graph, and cached for cacheTTLInSecs. Concurrent callers share the refresh of the cache, and the recount,
+     * instead of each running the queries.
+     *
+     * Without EntityMetricsCounter, all metrics are read from the graph and cached.
+     */
     public AtlasMetrics getMetrics(boolean ignoreCache) {
+        AtlasMetrics ret;
+
+        if (entityMetricsCounter == null) {
+            ret = copyOf(getCachedMetrics(ignoreCache, false));
+        } else {
+            ret = copyOf(getCachedMetrics(ignoreCache, true));
+
+            if (ignoreCache || !entityMetricsCounter.isInitialized()) {
+                recountEntityMetrics();
+            } else if (isRecountDue()) {
+                queueRecount();
+            }
+
+            entityMetricsCounter.addTo(ret);
+        }
+
+        // script engine, guid cache, notification and audit writer statistics are cheap to collect, hence are not cached
+        Map<String, Number> gremlinMetrics = atlasGraph.getGremlinScriptEngineMetrics();
+
+        if (gremlinMetrics != null) {
+            for (Map.Entry<String, Number> entry : gremlinMetrics.entrySet()) {
+                ret.addData(GREMLIN, entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<String, Number> entry : GuidVertexCache.getInstance().getMetrics().entrySet()) {
+            ret.addData(GUID_CACHE, entry.getKey(), entry.getValue());
+        }
+
+        if (entityChangeNotifier != null) {
+            for (Map.Entry<String, Number> entry : entityChangeNotifier.getDispatchMetrics().entrySet()) {
+                ret.addData(NOTIFIER, entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (auditRepository instanceof HBaseBasedAuditRepository) {
+            for (Map.Entry<String, Number> entry : ((HBaseBasedAuditRepository) auditRepository).getWriterMetrics().entrySet()) {
+                ret.addData(AUDIT, entry.getKey(), entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    private AtlasMetrics getCachedMetrics(boolean ignoreCache, boolean skipEntityMetrics) {
+        AtlasMetrics ret = cachedMetrics;
+
         if (ignoreCache || !isCacheValid()) {
-            AtlasMetrics metrics = new AtlasMetrics();
+            synchronized (cacheLock) {
+                // the cache could have been refreshed by another caller while this one waited for the lock
+                if (ret != cachedMetrics && isCacheValid()) {
+                    return cachedMetrics;
+                }
 
-            for (MetricQuery metricQuery : MetricQuery.values()) {
-                try {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Executing query: {}", metricQuery);
+                AtlasMetrics metrics = new AtlasMetrics();
+
+                for (MetricQuery metricQuery : MetricQuery.values()) {
+                    if (skipEntityMetrics && metricQuery.isEntityMetric) {
+                        continue;
                     }
-                    executeGremlinQuery(metrics, metricQuery.group, metricQuery.name, metricQuery.query);
-                } catch (AtlasBaseException e) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Gremlin execution failed for metric {}", metricQuery, e);
-                    } else {
-                        LOG.warn("Gremlin execution failed for metric {}", metricQuery);
+
+                    executeMetricQuery(metrics, metricQuery);
+                }
+
+                long collectionTime = System.currentTimeMillis();
+
+                metrics.addData(GENERAL, METRIC_COLLECTION_TIME, collectionTime);
+
+                this.cachedMetrics       = metrics;
+                this.cacheExpirationTime = (collectionTime + cacheTTLInSecs * 1000);
+
+                ret = metrics;
+            }
+        }
+
+        return ret;
+    }
+
+    private void recountEntityMetrics() {
+        long recountsBeforeWait = recountCount.get();
+
+        synchronized (recountLock) {
+            // a recount completed while this caller waited for the lock; it includes the changes made until then
+            if (recountCount.get() != recountsBeforeWait && entityMetricsCounter.isInitialized()) {
+                return;
+            }
+
+            LOG.info("Recounting entity metrics");
+
+            long         startTime = System.currentTimeMillis();
+            AtlasMetrics metrics   = new AtlasMetrics();
+            boolean      isSuccess = true;
+
+            // changes committed before the recount must reach the counter first: their deltas would otherwise be
+            // applied on top of a recount that already includes them. Changes committed while the recount runs may
+            // still be counted twice, or not at all, until the next recount.
+            awaitEntityChangeDispatch();
+
+            entityMetricsCounter.beginRecount();
+
+            try {
+                for (MetricQuery metricQuery : MetricQuery.values()) {
+                    if (metricQuery.isEntityMetric) {
+                        isSuccess = executeMetricQuery(metrics, metricQuery) && isSuccess;
+                    }
+                }
+            } finally {
+                entityMetricsCounter.endRecount(isSuccess ? metrics : null);
+
+                // release the read transaction, so that the next recount in this thread doesn't see a stale graph
+                atlasGraph.rollback();
+
+                recountCount.incrementAndGet();
+            }
+
+            LOG.info("Recounted entity metrics in {}ms; success={}", System.currentTimeMillis() - startTime, isSuccess);
+        }
+    }
+
+    private void awaitEntityChangeDispatch() {
+        if (entityChangeNotifier == null) {
+            return;
+        }
+
+        try {
+            if (!entityChangeNotifier.awaitDispatch(DISPATCH_AWAIT_TIMEOUT_MS)) {
+                LOG.warn("entity change notifications still pending after {}ms; recounted metrics may include some changes twice", DISPATCH_AWAIT_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isRecountDue() {
+        return recountIntervalInSecs > 0 &&
+               System.currentTimeMillis() - entityMetricsCounter.getLastRecountTime() >= recountIntervalInSecs * 1000L;
+    }
+
+    private void queueRecount() {
+        if (!isRecountQueued.compareAndSet(false, true)) {
+            return;
+        }
+
+        getRecountExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (isRecountDue()) {
+                        recountEntityMetrics();
                     }
+                } catch (Throwable t) {
+                    LOG.warn("entity metrics recount failed", t);
+                } finally {
+                    isRecountQueued.set(false);
                 }
             }
+        });
+    }
 
-            long collectionTime = System.currentTimeMillis();
+    private synchronized ExecutorService getRecountExecutor() {
+        if (recountExecutor == null) {
+            recountExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-metrics-recount-%d").setDaemon(true).build());
+        }
 
-            metrics.addData(GENERAL, METRIC_COLLECTION_TIME, collectionTime);
+        return recountExecutor;
+    }
 
-            this.cachedMetrics       = metrics;
-            this.cacheExpirationTime = (collectionTime + cacheTTLInSecs * 1000);
+    private boolean executeMetricQuery(AtlasMetrics metrics, MetricQuery metricQuery) {
+        try {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Executing query: {}", metricQuery);
+            }
+
+            executeGremlinQuery(metrics, metricQuery.group, metricQuery.name, metricQuery.query);
+
+            return true;
+        } catch (AtlasBaseException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Gremlin execution failed for metric {}", metricQuery, e);
+            } else {
+                LOG.warn("Gremlin execution failed for metric {}", metricQuery);
+            }
         }
 
-        return cachedMetrics;
+        return false;
+    }
+
+    private static AtlasMetrics copyOf(AtlasMetrics metrics) {
+        AtlasMetrics ret = new AtlasMetrics();
+
+        if (metrics != null && metrics.getData() != null) {
+            for (Map.Entry<String, Map<String, Number>> group : metrics.getData().entrySet()) {
+                for (Map.Entry<String, Number> entry : group.getValue().entrySet()) {
+                    ret.addData(group.getKey(), entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return ret;
     }
 
     private void executeGremlinQuery(AtlasMetrics metrics, String type, String name, String query) throws AtlasBaseException {
@@ -167,26 +398,28 @@ public class MetricsService {
      * query is not blank/empty.
      */
     private enum MetricQuery {
-        TYPE_COUNT(GENERAL, METRIC_TYPE_COUNT, AtlasGremlinQuery.TYPE_COUNT_METRIC),
-        UNUSED_TYPE_COUNT(GENERAL, METRIC_TYPE_UNUSED_COUNT, AtlasGremlinQuery.TYPE_UNUSED_COUNT_METRIC),
-        ENTITY_COUNT(GENERAL, METRIC_ENTITY_COUNT, AtlasGremlinQuery.ENTITY_COUNT_METRIC),
-        TAGS_COUNT(GENERAL, METRIC_TAG_COUNT, AtlasGremlinQuery.TAG_COUNT_METRIC),
-        DELETED_ENTITY_COUNT(GENERAL, METRIC_ENTITY_DELETED, AtlasGremlinQuery.ENTITY_DELETED_METRIC),
+        TYPE_COUNT(GENERAL, METRIC_TYPE_COUNT, AtlasGremlinQuery.TYPE_COUNT_METRIC, false),
+        UNUSED_TYPE_COUNT(GENERAL, METRIC_TYPE_UNUSED_COUNT, AtlasGremlinQuery.TYPE_UNUSED_COUNT_METRIC, false),
+        ENTITY_COUNT(GENERAL, METRIC_ENTITY_COUNT, AtlasGremlinQuery.ENTITY_COUNT_METRIC, true),
+        TAGS_COUNT(GENERAL, METRIC_TAG_COUNT, AtlasGremlinQuery.TAG_COUNT_METRIC, false),
+        DELETED_ENTITY_COUNT(GENERAL, METRIC_ENTITY_DELETED, AtlasGremlinQuery.ENTITY_DELETED_METRIC, true),
 
-        ENTITIES_PER_TYPE(ENTITY, METRIC_TYPE_ENTITIES, AtlasGremlinQuery.ENTITIES_PER_TYPE_METRIC),
-        TAGGED_ENTITIES(ENTITY, METRIC_TAGGED_ENTITIES, AtlasGremlinQuery.TAGGED_ENTITIES_METRIC),
+        ENTITIES_PER_TYPE(ENTITY, METRIC_TYPE_ENTITIES, AtlasGremlinQuery.ENTITIES_PER_TYPE_METRIC, true),
+        TAGGED_ENTITIES(ENTITY, METRIC_TAGGED_ENTITIES, AtlasGremlinQuery.TAGGED_ENTITIES_METRIC, true),
 
-        ENTITIES_WITH_SPECIFIC_TAG(TAG, METRIC_ENTITIES_PER_TAG, AtlasGremlinQuery.ENTITIES_FOR_TAG_METRIC),
+        ENTITIES_WITH_SPECIFIC_TAG(TAG, METRIC_ENTITIES_PER_TAG, AtlasGremlinQuery.ENTITIES_FOR_TAG_METRIC, true),
         ;
 
-        private final String group;
-        private final String name;
-        private final String query;
+        private final String  group;
+        private final String  name;
+        private final String  query;
+        private final boolean isEntityMetric; // maintained by EntityMetricsCounter
 
-        MetricQuery(String group, String name, AtlasGremlinQuery gremlinQuery) {
+        MetricQuery(String group, String name, AtlasGremlinQuery gremlinQuery, boolean isEntityMetric) {
             this.group          = group;
             this.name           = name;
             this.query          = MetricsService.getQuery(group, name, gremlinQueryProvider.getQuery(gremlinQuery));
+            this.isEntityMetric = isEntityMetric;
         }
 
         @Override
@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists tasks in the graph, one vertex per task.
+ *
+ * The parameters of a task, which can be large (like the guids of the entities to delete), are written only when the
+ * task is created; updates of the task rewrite only its status and progress. A cancel request is kept in a property
+ * of its own, so that it isn't overwritten by the updates from the thread executing the task. The guid of a task is
+ * kept in a key of its own, so that lookups of entities by guid don't find tasks.
+ */
+@Component
+public class AtlasTaskStore {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasTaskStore.class);
+
+    private final AtlasGraph atlasGraph;
+
+    @Inject
+    public AtlasTaskStore(AtlasGraph atlasGraph) {
+        this.atlasGraph = atlasGraph;
+    }
+
+    @GraphTransaction
+    public void createTask(AtlasTask task) {
+        AtlasVertex vertex = atlasGraph.addVertex();
+
+        vertex.setProperty(Constants.VERTEX_TYPE_PROPERTY_KEY, Constants.TASK_VERTEX_TYPE);
+        vertex.setProperty(Constants.TASK_GUID_PROPERTY_KEY, task.getGuid());
+        vertex.setProperty(Constants.TASK_TYPE_PROPERTY_KEY, task.getType());
+        vertex.setProperty(Constants.TASK_CANCEL_REQUESTED_PROPERTY_KEY, Boolean.FALSE);
+
+        if (task.getParameters() != null) {
+            vertex.setProperty(Constants.TASK_PARAMETERS_PROPERTY_KEY, AtlasType.toJson(task.getParameters()));
+        }
+
+        setDetails(vertex, task);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("created task {}", task);
+        }
+    }
+
+    /**
+     * Updates the status and the progress of the task.
+     *
+     * @return false if the task was not found
+     */
+    @GraphTransaction
+    public boolean updateTask(AtlasTask task) {
+        AtlasVertex vertex = findTaskVertex(task.getGuid());
+
+        if (vertex == null) {
+            return false;
+        }
+
+        setDetails(vertex, task);
+
+        return true;
+    }
+
+    /**
+     * @return the task, with its parameters; null if the task was not found
+     */
+    @GraphTransaction
+    public AtlasTask getTask(String guid) {
+        return getTask(guid, true);
+    }
+
+    /**
+     * @param includeParameters false to skip reading the parameters, which can be large
+     * @return the task; null if the task was not found
+     */
+    @GraphTransaction
+    public AtlasTask getTask(String guid, boolean includeParameters) {
+        AtlasVertex vertex = findTaskVertex(guid);
+
+        return vertex != null ? toTask(vertex, includeParameters) : null;
+    }
+
+    /**
+     * @param statuses statuses of the tasks to return; all tasks if empty
+     * @return the tasks, without their parameters
+     */
+    @GraphTransaction
+    public List<AtlasTask> getTasks(Collection<Status> statuses) {
+        List<AtlasTask> ret = new ArrayList<>();
+
+        for (Iterator<AtlasVertex> iter = findTaskVertices(); iter.hasNext(); ) {
+            AtlasVertex vertex = iter.next();
+
+            if (CollectionUtils.isEmpty(statuses) || statuses.contains(getStatus(vertex))) {
+                ret.add(toTask(vertex, false));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return false if the task was not found
+     */
+    @GraphTransaction
+    public boolean setCancelRequested(String guid) {
+        AtlasVertex vertex = findTaskVertex(guid);
+
+        if (vertex == null) {
+            return false;
+        }
+
+        vertex.setProperty(Constants.TASK_CANCEL_REQUESTED_PROPERTY_KEY, Boolean.TRUE);
+
+        return true;
+    }
+
+    /**
+     * Deletes the tasks that finished before the given time.
+     *
+     * @return the deleted tasks
+     */
+    @GraphTransaction
+    public List<AtlasTask> deleteTasks(long finishedBefore) {
+        List<AtlasTask> ret = new ArrayList<>();
+
+        for (Iterator<AtlasVertex> iter = findTaskVertices(); iter.hasNext(); ) {
+            AtlasVertex vertex = iter.next();
+            AtlasTask   task   = toTask(vertex, false);
+
+            if (task.isFinished() && task.getEndTime() < finishedBefore) {
+                ret.add(toTask(vertex, true));
+
+                atlasGraph.removeVertex(vertex);
+            }
+        }
+
+        if (!ret.isEmpty()) {
+            LOG.info("deleted {} tasks that finished before {}", ret.size(), finishedBefore);
+        }
+
+        return ret;
+    }
+
+    private AtlasVertex findTaskVertex(String guid) {
+        if (StringUtils.isEmpty(guid)) {
+            return null;
+        }
+
+        Iterator<AtlasVertex> vertices = atlasGraph.query().has(Constants.VERTEX_TYPE_PROPERTY_KEY, Constants.TASK_VERTEX_TYPE)
+                                                           .has(Constants.TASK_GUID_PROPERTY_KEY, guid)
+                                                           .vertices().iterator();
+
+        return (vertices != null && vertices.hasNext()) ? vertices.next() : null;
+    }
+
+    private Iterator<AtlasVertex> findTaskVertices() {
+        return atlasGraph.query().has(Constants.VERTEX_TYPE_PROPERTY_KEY, Constants.TASK_VERTEX_TYPE).vertices().iterator();
+    }
+
+    private void setDetails(AtlasVertex vertex, AtlasTask task) {
+        AtlasTask details = new AtlasTask(task);
+
+        // parameters are stored separately; the cancel request is set only by setCancelRequested()
+        details.setParameters(null);
+        details.setCancelRequested(false);
+
+        vertex.setProperty(Constants.TASK_STATUS_PROPERTY_KEY, task.getStatus().name());
+        vertex.setProperty(Constants.TASK_DETAILS_PROPERTY_KEY, AtlasType.toJson(details));
+    }
+
+    private Status getStatus(AtlasVertex vertex) {
+        String status = vertex.getProperty(Constants.TASK_STATUS_PROPERTY_KEY, String.class);
+
+        return status != null ? Status.valueOf(status) : null;
+    }
+
+    private AtlasTask toTask(AtlasVertex vertex, boolean includeParameters) {
+        AtlasTask ret = AtlasType.fromJson(vertex.getProperty(Constants.TASK_DETAILS_PROPERTY_KEY, String.class), AtlasTask.class);
+
+        ret.setCancelRequested(Boolean.TRUE.equals(vertex.getProperty(Constants.TASK_CANCEL_REQUESTED_PROPERTY_KEY, Boolean.class)));
+
+        if (includeParameters) {
+            String parameters = vertex.getProperty(Constants.TASK_PARAMETERS_PROPERTY_KEY, String.class);
+
+            if (parameters != null) {
+                ret.setParameters(AtlasType.fromJson(parameters, Map.class));
+            }
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+/**
+ * Given to a TaskHandler executing a task.
+ */
+public interface TaskContext {
+    /**
+     * Saves the progress of the task, so that it is resumed from here if interrupted.
+     *
+     * @return false if the task should stop: it was cancelled, or the server is stopping or became passive
+     */
+    boolean checkpoint();
+
+    /**
+     * @return true if the task should stop
+     */
+    boolean isStopRequested();
+
+    /**
+     * Adds an error to the task; only the first few errors of a task are kept.
+     */
+    void addError(String error);
+}
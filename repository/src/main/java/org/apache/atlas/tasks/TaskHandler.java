@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.tasks.AtlasTask;
+
+/**
+ * Executes the tasks of a type. Handlers register with TaskManagement.registerHandler().
+ */
+public interface TaskHandler {
+    /**
+     * @return type of the tasks executed by this handler
+     */
+    String getTaskType();
+
+    /**
+     * Executes the task, or resumes it from task.getProcessedCount() if it was interrupted earlier.
+     *
+     * The work should be committed in chunks. After each chunk, the handler updates the counts of the task and calls
+     * context.checkpoint(); when that returns false, the handler should return without processing further items.
+     *
+     * @throws AtlasBaseException to fail the task
+     */
+    void execute(AtlasTask task, TaskContext context) throws AtlasBaseException;
+
+    /**
+     * Called when a finished task is deleted, to release resources held for the task, like files.
+     */
+    void onTaskDeleted(AtlasTask task);
+}
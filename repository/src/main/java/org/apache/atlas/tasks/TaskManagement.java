@@ -0,0 +1,580 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.atlas.service.Service;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes long-running operations (tasks) in the background, on a bounded pool of threads.
+ *
+ * Tasks are persisted in the graph (see AtlasTaskStore) when submitted, and executed by the TaskHandler registered
+ * for their type. Handlers commit their work in chunks and checkpoint the progress of the task after each chunk.
+ * Tasks are executed only by the active server: when HA is enabled, the threads are started when the server becomes
+ * active, and stopped when it becomes passive. Tasks that were pending, or in progress, are then resumed from their
+ * last checkpoint by the server that becomes active; work done after the last checkpoint is redone.
+ *
+ * Handlers registered with a lane execute their tasks one at a time, on a thread of the lane, so that tasks that must
+ * not run concurrently (like imports and exports) don't hold the threads of other tasks while they wait.
+ *
+ * Files of tasks, like the output of export tasks, are written to a local directory (atlas.task.data.dir). Unless the
+ * directory is on storage shared by the servers, these files are not available after a failover to another server.
+ */
+@Component
+public class TaskManagement implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskManagement.class);
+
+    public static final String THREADS_PROPERTY             = "atlas.task.threads";
+    public static final String MAX_PENDING_PROPERTY         = "atlas.task.max.pending";
+    public static final String RETENTION_HOURS_PROPERTY     = "atlas.task.retention.hours";
+    public static final String DATA_DIR_PROPERTY            = "atlas.task.data.dir";
+    public static final String MAX_PARAMETERS_SIZE_PROPERTY = "atlas.task.parameters.max.size";
+
+    public static final int DEFAULT_THREADS             = 2;
+    public static final int DEFAULT_MAX_PENDING         = 100;
+    public static final int DEFAULT_RETENTION_HOURS     = 7 * 24;
+    public static final int DEFAULT_MAX_PARAMETERS_SIZE = 4 * 1024 * 1024;
+
+    private static final int  MAX_REPORTED_ERRORS = 100;
+    private static final long CLEANUP_INTERVAL_MS = 60 * 60 * 1000L;
+    private static final long STOP_WAIT_TIME_MS   = 10 * 1000L;
+
+    private final    AtlasTaskStore                  taskStore;
+    private final    Configuration                   configuration;
+    private final    int                             threads;
+    private final    int                             maxPending;
+    private final    long                            retentionMs;
+    private final    int                             maxParametersSize;
+    private final    File                            dataDir;
+    private final    Map<String, TaskHandler>        handlers      = new ConcurrentHashMap<>();
+    private final    Map<String, String>             handlerLanes  = new ConcurrentHashMap<>();
+    private final    Map<String, TaskRunner>         runners       = new ConcurrentHashMap<>();
+    private final    Map<String, ThreadPoolExecutor> laneExecutors = new HashMap<>();
+    private          ThreadPoolExecutor              executor;
+    private volatile long                            lastCleanupTime;
+
+    @Inject
+    public TaskManagement(AtlasTaskStore taskStore, Configuration configuration) {
+        this.taskStore         = taskStore;
+        this.configuration     = configuration;
+        this.threads           = Math.max(1, configuration != null ? configuration.getInt(THREADS_PROPERTY, DEFAULT_THREADS) : DEFAULT_THREADS);
+        this.maxPending        = Math.max(1, configuration != null ? configuration.getInt(MAX_PENDING_PROPERTY, DEFAULT_MAX_PENDING) : DEFAULT_MAX_PENDING);
+        this.retentionMs       = TimeUnit.HOURS.toMillis(configuration != null ? configuration.getInt(RETENTION_HOURS_PROPERTY, DEFAULT_RETENTION_HOURS) : DEFAULT_RETENTION_HOURS);
+        this.maxParametersSize = configuration != null ? configuration.getInt(MAX_PARAMETERS_SIZE_PROPERTY, DEFAULT_MAX_PARAMETERS_SIZE) : DEFAULT_MAX_PARAMETERS_SIZE;
+        this.dataDir           = new File(configuration != null && configuration.containsKey(DATA_DIR_PROPERTY) ? configuration.getString(DATA_DIR_PROPERTY) : getDefaultDataDir());
+    }
+
+    public void registerHandler(TaskHandler handler) {
+        registerHandler(handler, null);
+    }
+
+    /**
+     * @param lane name of the lane that executes the tasks of the handler one at a time; null to execute the tasks on
+     *             the shared threads
+     */
+    public void registerHandler(TaskHandler handler, String lane) {
+        LOG.info("registered handler {} for tasks of type {}, lane={}", handler.getClass().getName(), handler.getTaskType(), lane);
+
+        if (lane != null) {
+            handlerLanes.put(handler.getTaskType(), lane);
+        }
+
+        handlers.put(handler.getTaskType(), handler);
+
+        // the threads may have started before the handler was registered
+        enqueuePendingTasks(handler.getTaskType());
+    }
+
+    @Override
+    public void start() {
+        if (!HAConfiguration.isHAEnabled(configuration)) {
+            LOG.info("HA is disabled, starting task threads");
+
+            startWorkers();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopWorkers();
+    }
+
+    @Override
+    public void instanceIsActive() {
+        LOG.info("Reacting to active state: starting task threads");
+
+        startWorkers();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("Reacting to passive state: stopping task threads");
+
+        stopWorkers();
+    }
+
+    /**
+     * Persists a task and queues it for execution.
+     *
+     * @param parameters parameters for the handler of the task type
+     * @param totalCount number of items to be processed by the task, if known
+     * @return the task, without its parameters
+     */
+    public AtlasTask submit(String type, Map<String, String> parameters, int totalCount) throws AtlasBaseException {
+        if (!handlers.containsKey(type)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "unknown task type: " + type);
+        }
+
+        if (runners.size() >= maxPending) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_QUEUE_FULL, String.valueOf(runners.size()));
+        }
+
+        // parameters are stored in a single property of the task vertex
+        int parametersSize = getSize(parameters);
+
+        if (parametersSize > maxParametersSize) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_PARAMETERS_TOO_LARGE, String.valueOf(parametersSize), String.valueOf(maxParametersSize));
+        }
+
+        AtlasTask task = new AtlasTask(UUID.randomUUID().toString(), type, RequestContextV1.get().getUser(), parameters, totalCount);
+
+        taskStore.createTask(task);
+
+        enqueue(task.getGuid(), type);
+
+        LOG.info("submitted task {}: type={}, totalCount={}", task.getGuid(), type, totalCount);
+
+        AtlasTask ret = new AtlasTask(task);
+
+        ret.setParameters(null);
+
+        return ret;
+    }
+
+    /**
+     * @return the task, without its parameters
+     */
+    public AtlasTask getTask(String guid) throws AtlasBaseException {
+        AtlasTask ret = taskStore.getTask(guid, false);
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_FOUND, guid);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param statuses statuses of the tasks to return; all tasks if empty
+     * @return the tasks, without their parameters, most recently created first
+     */
+    public List<AtlasTask> getTasks(Collection<Status> statuses) {
+        List<AtlasTask> ret = taskStore.getTasks(statuses);
+
+        Collections.sort(ret, new Comparator<AtlasTask>() {
+            @Override
+            public int compare(AtlasTask t1, AtlasTask t2) {
+                return Long.compare(t2.getCreatedTime(), t1.getCreatedTime());
+            }
+        });
+
+        return ret;
+    }
+
+    /**
+     * Cancels a task. A task in progress stops at its next checkpoint; the work it committed till then is retained.
+     *
+     * @return the task
+     */
+    public AtlasTask cancelTask(String guid) throws AtlasBaseException {
+        AtlasTask task = getTask(guid);
+
+        if (task.isFinished()) {
+            return task;
+        }
+
+        LOG.info("cancelling task {}", guid);
+
+        taskStore.setCancelRequested(guid);
+
+        TaskRunner runner = runners.get(guid);
+
+        if (runner != null) {
+            runner.cancel();
+        }
+
+        return getTask(guid);
+    }
+
+    /**
+     * @return a file in the directory for files of tasks, like the output of export tasks
+     */
+    public File getDataFile(String fileName) {
+        if (!dataDir.isDirectory() && !dataDir.mkdirs()) {
+            LOG.warn("failed to create task directory {}", dataDir);
+        }
+
+        return new File(dataDir, fileName);
+    }
+
+    private synchronized void startWorkers() {
+        if (executor != null) {
+            return;
+        }
+
+        executor = newExecutor(threads, "atlas-task-%d");
+
+        try {
+            deleteFinishedTasks();
+        } catch (Exception excp) {
+            LOG.warn("failed to delete finished tasks", excp);
+        }
+
+        enqueuePendingTasks(null);
+
+        LOG.info("task threads started: {} pending tasks", runners.size());
+    }
+
+    private void stopWorkers() {
+        List<ThreadPoolExecutor> executors = new ArrayList<>();
+
+        synchronized (this) {
+            if (executor != null) {
+                executors.add(executor);
+            }
+
+            executors.addAll(laneExecutors.values());
+
+            executor = null;
+
+            laneExecutors.clear();
+
+            for (TaskRunner runner : runners.values()) {
+                runner.stop();
+            }
+
+            runners.clear();
+        }
+
+        for (ThreadPoolExecutor executor : executors) {
+            executor.shutdownNow();
+        }
+
+        for (ThreadPoolExecutor executor : executors) {
+            try {
+                if (!executor.awaitTermination(STOP_WAIT_TIME_MS, TimeUnit.MILLISECONDS)) {
+                    LOG.warn("task threads did not stop in {}ms", STOP_WAIT_TIME_MS);
+                }
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!executors.isEmpty()) {
+            LOG.info("task threads stopped");
+        }
+    }
+
+    private synchronized void enqueue(String guid, String type) {
+        // tasks submitted while the threads are stopped are picked up when the threads start
+        if (executor != null && !runners.containsKey(guid)) {
+            TaskRunner runner = new TaskRunner(guid, getExecutor(type));
+
+            runners.put(guid, runner);
+
+            runner.executor.execute(runner);
+        }
+    }
+
+    private ThreadPoolExecutor getExecutor(String type) {
+        String lane = handlerLanes.get(type);
+
+        if (lane == null) {
+            return executor;
+        }
+
+        ThreadPoolExecutor ret = laneExecutors.get(lane);
+
+        if (ret == null) {
+            ret = newExecutor(1, "atlas-task-" + lane + "-%d");
+
+            laneExecutors.put(lane, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Queues the tasks that are pending or in progress, and have a registered handler.
+     *
+     * @param type type of the tasks to queue; all types if null
+     */
+    private synchronized void enqueuePendingTasks(String type) {
+        if (executor == null) {
+            return;
+        }
+
+        try {
+            List<AtlasTask> tasks = taskStore.getTasks(Arrays.asList(Status.PENDING, Status.IN_PROGRESS));
+
+            Collections.sort(tasks, new Comparator<AtlasTask>() {
+                @Override
+                public int compare(AtlasTask t1, AtlasTask t2) {
+                    return Long.compare(t1.getCreatedTime(), t2.getCreatedTime());
+                }
+            });
+
+            for (AtlasTask task : tasks) {
+                if ((type == null || type.equals(task.getType())) && handlers.containsKey(task.getType())) {
+                    enqueue(task.getGuid(), task.getType());
+                }
+            }
+        } catch (Exception excp) {
+            LOG.error("failed to load pending tasks", excp);
+        }
+    }
+
+    private synchronized boolean dequeue(TaskRunner runner) {
+        return executor != null && runner.executor.remove(runner);
+    }
+
+    private void deleteFinishedTasks() {
+        lastCleanupTime = System.currentTimeMillis();
+
+        for (AtlasTask task : taskStore.deleteTasks(lastCleanupTime - retentionMs)) {
+            TaskHandler handler = handlers.get(task.getType());
+
+            if (handler != null) {
+                try {
+                    handler.onTaskDeleted(task);
+                } catch (Exception excp) {
+                    LOG.warn("failed to release resources of task {}", task.getGuid(), excp);
+                }
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, String nameFormat) {
+        ThreadPoolExecutor ret = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                                                        new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+
+        ret.allowCoreThreadTimeOut(true);
+
+        return ret;
+    }
+
+    private static int getSize(Map<String, String> parameters) {
+        int ret = 0;
+
+        if (parameters != null) {
+            for (Map.Entry<String, String> entry : parameters.entrySet()) {
+                ret += StringUtils.length(entry.getKey()) + StringUtils.length(entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    private static String getDefaultDataDir() {
+        return System.getProperty("atlas.data", System.getProperty("java.io.tmpdir")) + File.separator + "tasks";
+    }
+
+    private class TaskRunner implements Runnable, TaskContext {
+        private final    String             guid;
+        private final    ThreadPoolExecutor executor;
+        private volatile boolean            isCancelled      = false;
+        private volatile boolean            isStopped        = false;
+        private          boolean            isHandlerMissing = false;
+        private          AtlasTask          task;
+
+        TaskRunner(String guid, ThreadPoolExecutor executor) {
+            this.guid     = guid;
+            this.executor = executor;
+        }
+
+        void cancel() {
+            isCancelled = true;
+
+            // a task still in the queue is finished here, as it won't be run
+            if (dequeue(this)) {
+                runners.remove(guid);
+
+                task = taskStore.getTask(guid);
+
+                if (task != null) {
+                    finish(Status.CANCELLED);
+                }
+            }
+        }
+
+        void stop() {
+            isStopped = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task = taskStore.getTask(guid);
+
+                if (task == null || task.isFinished() || isStopped) {
+                    return;
+                }
+
+                RequestContext.createContext().setUser(task.getCreatedBy());
+
+                TaskHandler handler = handlers.get(task.getType());
+
+                if (isCancelled || task.isCancelRequested()) {
+                    finish(Status.CANCELLED);
+                } else if (handler == null) {
+                    // queued again when a handler for the type is registered
+                    LOG.warn("task {}: no handler for tasks of type {}", guid, task.getType());
+
+                    isHandlerMissing = true;
+                } else {
+                    LOG.info("==> task {}: type={}, processedCount={}", guid, task.getType(), task.getProcessedCount());
+
+                    task.setStatus(Status.IN_PROGRESS);
+
+                    if (task.getStartTime() == 0) {
+                        task.setStartTime(System.currentTimeMillis());
+                    }
+
+                    taskStore.updateTask(task);
+
+                    handler.execute(task, this);
+
+                    onExecuteComplete(null);
+                }
+            } catch (Throwable t) {
+                onExecuteComplete(t);
+            } finally {
+                RequestContext.clear();
+                RequestContextV1.clear();
+
+                runners.remove(guid);
+
+                // the handler may have been registered after the task was looked at above
+                if (isHandlerMissing && handlers.containsKey(task.getType())) {
+                    enqueue(guid, task.getType());
+                }
+
+                if (!isStopped && System.currentTimeMillis() - lastCleanupTime > CLEANUP_INTERVAL_MS) {
+                    try {
+                        deleteFinishedTasks();
+                    } catch (Exception excp) {
+                        LOG.warn("failed to delete finished tasks", excp);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean checkpoint() {
+            taskStore.updateTask(task);
+
+            // a request context per checkpoint, so that the entities cached by the request don't grow with the task
+            RequestContext.clear();
+            RequestContextV1.clear();
+            RequestContext.createContext().setUser(task.getCreatedBy());
+
+            return !isStopRequested();
+        }
+
+        @Override
+        public boolean isStopRequested() {
+            return isCancelled || isStopped || Thread.currentThread().isInterrupted();
+        }
+
+        @Override
+        public void addError(String error) {
+            if (task.getErrors() == null) {
+                task.setErrors(new ArrayList<String>());
+            }
+
+            if (task.getErrors().size() < MAX_REPORTED_ERRORS) {
+                task.getErrors().add(StringUtils.defaultString(error, "unknown error"));
+            }
+        }
+
+        private void onExecuteComplete(Throwable error) {
+            if (task == null) {
+                LOG.error("task {}: failed", guid, error);
+
+                return;
+            }
+
+            try {
+                if (isCancelled) {
+                    finish(Status.CANCELLED);
+                } else if (isStopped || Thread.currentThread().isInterrupted()) {
+                    // resumed from the last checkpoint when the threads are started again, here or in another server
+                    LOG.info("<== task {}: stopped after processing {} items", guid, task.getProcessedCount());
+                } else if (error != null) {
+                    LOG.error("task {}: failed", guid, error);
+
+                    addError(error.getMessage());
+
+                    finish(Status.FAILED);
+                } else {
+                    finish(Status.COMPLETE);
+                }
+            } catch (Exception excp) {
+                LOG.error("task {}: failed to update status", guid, excp);
+            }
+        }
+
+        private void finish(Status status) {
+            task.setStatus(status);
+            task.setEndTime(System.currentTimeMillis());
+
+            taskStore.updateTask(task);
+
+            LOG.info("<== task {}: status={}, processedCount={}, failedCount={}", guid, status, task.getProcessedCount(), task.getFailedCount());
+        }
+    }
+}
@@ -22,16 +22,32 @@ import org.apache.atlas.repository.graphdb.AtlasGraph
 import org.apache.atlas.query.Expressions._
 import org.slf4j.{Logger, LoggerFactory}
 import org.apache.atlas.util.AtlasRepositoryConfiguration
-import org.apache.atlas.utils.LruCache
+import org.apache.atlas.utils.ConcurrentLruCache
 import org.apache.atlas.util.CompiledQueryCacheKey
-import java.util.Collections
 
 object QueryProcessor {
     val LOG : Logger = LoggerFactory.getLogger("org.apache.atlas.query.QueryProcessor")
 
-    val compiledQueryCache = Collections.synchronizedMap(new LruCache[CompiledQueryCacheKey, GremlinQuery](
-                        AtlasRepositoryConfiguration.getCompiledQueryCacheCapacity(),
-                        AtlasRepositoryConfiguration.getCompiledQueryCacheEvictionWarningThrottle()));
+    // a capacity of 0 disables the cache
+    val compiledQueryCache : ConcurrentLruCache[CompiledQueryCacheKey, GremlinQuery] =
+        if (AtlasRepositoryConfiguration.getCompiledQueryCacheCapacity() > 0) {
+            ConcurrentLruCache.newBuilder[CompiledQueryCacheKey, GremlinQuery]()
+                        .maximumWeight(AtlasRepositoryConfiguration.getCompiledQueryCacheCapacity())
+                        .evictionWarningThrottle(AtlasRepositoryConfiguration.getCompiledQueryCacheEvictionWarningThrottle())
+                        .build()
+        } else {
+            null
+        }
+
+    def getCompiledQuery(key: CompiledQueryCacheKey): GremlinQuery = {
+        if (compiledQueryCache != null) compiledQueryCache.get(key) else null
+    }
+
+    def cacheCompiledQuery(key: CompiledQueryCacheKey, query: GremlinQuery): Unit = {
+        if (compiledQueryCache != null) {
+            compiledQueryCache.put(key, query)
+        }
+    }
 
     def evaluate(e: Expression, g: AtlasGraph[_,_], gP : GraphPersistenceStrategies = null):
     GremlinQueryResult = {
@@ -45,7 +61,7 @@ object QueryProcessor {
         //query cache and avoid validating/translating it again if it is.
         val dsl = e.toString();
         val cacheKey = new CompiledQueryCacheKey(dsl);
-        var q = compiledQueryCache.get(cacheKey);
+        var q = getCompiledQuery(cacheKey);
         if(q == null) {
 
             //query was not found in the compiled query cache.  Validate
@@ -53,7 +69,7 @@ object QueryProcessor {
 
             val e1 = validate(e)
             q = new GremlinTranslator(e1, strategy).translate()
-            compiledQueryCache.put(cacheKey, q);
+            cacheCompiledQuery(cacheKey, q);
             if(LOG.isDebugEnabled()) {
                 LOG.debug("Validated Query: " + e1)
                 LOG.debug("Expression Tree:\n" + e1.treeString);
@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
+import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class ClassificationSearchProcessorTest {
+    private static final int    PAGE_SIZE      = 3;
+    private static final String CLASSIFICATION = "PII";
+    private static final String SUB_TYPE       = "PII_SENSITIVE";
+
+    private final List<AtlasIndexQuery.Result> indexResults   = new ArrayList<>();
+    private final Map<String, AtlasVertex>     entityVertices = new LinkedHashMap<>();
+    private final Set<String>                  queriedGuids   = new HashSet<>();
+
+    private AtlasTypeRegistry typeRegistry;
+    private AtlasGraph        graph;
+
+    @BeforeMethod
+    public void setup() {
+        indexResults.clear();
+        entityVertices.clear();
+
+        for (int i = 0; i < 12; i++) {
+            String guid = "guid-" + i;
+
+            // guid-1 and guid-6 carry both classifications; the second one is found in a later chunk
+            if (i == 1 || i == 6) {
+                entityVertices.put(guid, entityVertex(guid, CLASSIFICATION, SUB_TYPE));
+            } else {
+                entityVertices.put(guid, entityVertex(guid, CLASSIFICATION));
+            }
+
+            indexResults.add(result(classificationVertex(entityVertices.get(guid))));
+
+            if (i == 8) {
+                indexResults.add(result(classificationVertex(entityVertices.get("guid-1"))));
+            }
+        }
+
+        indexResults.add(result(classificationVertex(entityVertices.get("guid-6"))));
+
+        AtlasIndexQuery indexQuery = mock(AtlasIndexQuery.class);
+
+        when(indexQuery.vertices(anyInt(), anyInt())).thenAnswer(new Answer<Iterator<AtlasIndexQuery.Result>>() {
+            @Override
+            public Iterator<AtlasIndexQuery.Result> answer(InvocationOnMock invocation) {
+                int offset = (Integer) invocation.getArguments()[0];
+                int limit  = (Integer) invocation.getArguments()[1];
+
+                if (offset >= indexResults.size()) {
+                    return Collections.<AtlasIndexQuery.Result>emptyList().iterator();
+                }
+
+                return indexResults.subList(offset, Math.min(indexResults.size(), offset + limit)).iterator();
+            }
+        });
+
+        // the filter query of the processor: entities of the given guids that have the classification
+        final AtlasGraphQuery graphQuery = mock(AtlasGraphQuery.class);
+
+        when(graphQuery.in(anyString(), anyCollection())).thenAnswer(new Answer<AtlasGraphQuery>() {
+            @Override
+            public AtlasGraphQuery answer(InvocationOnMock invocation) {
+                if (Constants.GUID_PROPERTY_KEY.equals(invocation.getArguments()[0])) {
+                    queriedGuids.clear();
+                    queriedGuids.addAll((Collection<String>) invocation.getArguments()[1]);
+                }
+
+                return graphQuery;
+            }
+        });
+        when(graphQuery.addConditionsFrom(any(AtlasGraphQuery.class))).thenReturn(graphQuery);
+        when(graphQuery.vertices()).thenAnswer(new Answer<Iterable<AtlasVertex>>() {
+            @Override
+            public Iterable<AtlasVertex> answer(InvocationOnMock invocation) {
+                List<AtlasVertex> ret = new ArrayList<>();
+
+                for (String guid : queriedGuids) {
+                    ret.add(entityVertices.get(guid));
+                }
+
+                return ret;
+            }
+        });
+
+        AtlasClassificationType classificationType = mock(AtlasClassificationType.class);
+
+        when(classificationType.getTypeAndAllSubTypes()).thenReturn(new HashSet<>(Arrays.asList(CLASSIFICATION, SUB_TYPE)));
+        when(classificationType.getTypeAndAllSubTypesQryStr()).thenReturn("(" + CLASSIFICATION + " " + SUB_TYPE + ")");
+
+        typeRegistry = mock(AtlasTypeRegistry.class);
+        graph        = mock(AtlasGraph.class);
+
+        when(typeRegistry.getClassificationTypeByName(CLASSIFICATION)).thenReturn(classificationType);
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(indexQuery);
+        when(graph.query()).thenReturn(graphQuery);
+    }
+
+    @Test
+    public void testEntityWithTwoClassificationsIsReturnedOnce() throws Exception {
+        List<String> guids = new ArrayList<>();
+        String       token = null;
+        int          pages = 0;
+
+        do {
+            SearchParameters searchParameters = searchParameters();
+
+            searchParameters.setContinuationToken(token);
+
+            SearchContext     context  = new SearchContext(searchParameters, typeRegistry, graph, Collections.<String>emptySet());
+            List<AtlasVertex> vertices = context.getSearchProcessor().execute();
+
+            for (AtlasVertex vertex : vertices) {
+                guids.add(AtlasGraphUtilsV1.getIdFromVertex(vertex));
+            }
+
+            token = context.getNextContinuationToken() != null ? context.getNextContinuationToken().toString() : null;
+
+            pages++;
+        } while (token != null && pages <= entityVertices.size());
+
+        // no duplicates and no gaps, although guid-1 and guid-6 are found again after their pages were returned
+        assertEquals(guids, new ArrayList<>(entityVertices.keySet()));
+    }
+
+    @Test
+    public void testContinuationMatchesOffsetPaging() throws Exception {
+        String token = null;
+
+        for (int page = 0; page < 3; page++) {
+            SearchParameters continued = searchParameters();
+            SearchParameters offset    = searchParameters();
+
+            continued.setContinuationToken(token);
+            offset.setOffset(page * PAGE_SIZE);
+
+            SearchContext     continuedContext = new SearchContext(continued, typeRegistry, graph, Collections.<String>emptySet());
+            List<AtlasVertex> continuedResults = continuedContext.getSearchProcessor().execute();
+            List<AtlasVertex> offsetResults    = new SearchContext(offset, typeRegistry, graph, Collections.<String>emptySet()).getSearchProcessor().execute();
+
+            assertEquals(continuedResults, offsetResults);
+            assertNotNull(continuedContext.getNextContinuationToken());
+
+            token = continuedContext.getNextContinuationToken().toString();
+        }
+    }
+
+    private static SearchParameters searchParameters() {
+        SearchParameters ret = new SearchParameters();
+
+        ret.setClassification(CLASSIFICATION);
+        ret.setExcludeDeletedEntities(true);
+        ret.setLimit(PAGE_SIZE);
+
+        return ret;
+    }
+
+    private static AtlasIndexQuery.Result result(AtlasVertex vertex) {
+        AtlasIndexQuery.Result ret = mock(AtlasIndexQuery.Result.class);
+
+        when(ret.getVertex()).thenReturn(vertex);
+
+        return ret;
+    }
+
+    private static AtlasVertex entityVertex(String guid, String... traitNames) {
+        AtlasVertex ret = mock(AtlasVertex.class);
+
+        when(ret.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(guid);
+        when(ret.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, String.class)).thenReturn("hive_table");
+        when(ret.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn(AtlasEntity.Status.ACTIVE.name());
+        when(ret.getPropertyValues(Constants.TRAIT_NAMES_PROPERTY_KEY, String.class)).thenReturn(Arrays.asList(traitNames));
+
+        return ret;
+    }
+
+    private static AtlasVertex classificationVertex(AtlasVertex entityVertex) {
+        AtlasVertex ret  = mock(AtlasVertex.class);
+        AtlasEdge   edge = mock(AtlasEdge.class);
+
+        when(edge.getOutVertex()).thenReturn(entityVertex);
+        when(ret.getEdges(AtlasEdgeDirection.IN)).thenReturn(Collections.singletonList(edge));
+
+        return ret;
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class FullTextSearchProcessorTest {
+    private static final int PAGE_SIZE = 3;
+
+    private final List<AtlasIndexQuery.Result> indexResults  = new ArrayList<>();
+    private final List<String>                 expectedGuids = new ArrayList<>();
+
+    private AtlasTypeRegistry typeRegistry;
+    private AtlasGraph        graph;
+
+    @BeforeMethod
+    public void setup() {
+        indexResults.clear();
+        expectedGuids.clear();
+
+        // active entities, interleaved with results the processor drops, so that pages end at varying positions in the chunks
+        for (int i = 0; i < 20; i++) {
+            if (i % 4 == 1) {
+                indexResults.add(result(vertex("deleted-" + i, AtlasEntity.Status.DELETED)));
+            } else if (i % 7 == 3) {
+                indexResults.add(result(vertex(null, null)));
+            } else {
+                indexResults.add(result(vertex("guid-" + i, AtlasEntity.Status.ACTIVE)));
+
+                expectedGuids.add("guid-" + i);
+            }
+        }
+
+        AtlasIndexQuery indexQuery = mock(AtlasIndexQuery.class);
+
+        when(indexQuery.vertices(anyInt(), anyInt())).thenAnswer(new Answer<Iterator<AtlasIndexQuery.Result>>() {
+            @Override
+            public Iterator<AtlasIndexQuery.Result> answer(InvocationOnMock invocation) {
+                int offset = (Integer) invocation.getArguments()[0];
+                int limit  = (Integer) invocation.getArguments()[1];
+
+                if (offset >= indexResults.size()) {
+                    return Collections.<AtlasIndexQuery.Result>emptyList().iterator();
+                }
+
+                return indexResults.subList(offset, Math.min(indexResults.size(), offset + limit)).iterator();
+            }
+        });
+
+        typeRegistry = mock(AtlasTypeRegistry.class);
+        graph        = mock(AtlasGraph.class);
+
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(indexQuery);
+    }
+
+    @Test
+    public void testPagesContinueAfterLastResultOfPreviousPage() throws Exception {
+        List<String> guids = new ArrayList<>();
+        String       token = null;
+        int          pages = 0;
+
+        do {
+            SearchParameters searchParameters = searchParameters();
+
+            searchParameters.setContinuationToken(token);
+
+            SearchContext     context  = new SearchContext(searchParameters, typeRegistry, graph, Collections.<String>emptySet());
+            List<AtlasVertex> vertices = context.getSearchProcessor().execute();
+
+            for (AtlasVertex vertex : vertices) {
+                guids.add(AtlasGraphUtilsV1.getIdFromVertex(vertex));
+            }
+
+            token = context.getNextContinuationToken() != null ? context.getNextContinuationToken().toString() : null;
+
+            pages++;
+        } while (token != null && pages <= expectedGuids.size());
+
+        // no duplicates and no gaps: the pages together return every result once, in order
+        assertEquals(guids, expectedGuids);
+    }
+
+    @Test
+    public void testContinuationMatchesOffsetPaging() throws Exception {
+        SearchContext firstPage = new SearchContext(searchParameters(), typeRegistry, graph, Collections.<String>emptySet());
+
+        firstPage.getSearchProcessor().execute();
+
+        assertNotNull(firstPage.getNextContinuationToken());
+
+        SearchParameters continued = searchParameters();
+        SearchParameters offset    = searchParameters();
+
+        continued.setContinuationToken(firstPage.getNextContinuationToken().toString());
+        offset.setOffset(PAGE_SIZE);
+
+        List<AtlasVertex> continuedResults = new SearchContext(continued, typeRegistry, graph, Collections.<String>emptySet()).getSearchProcessor().execute();
+        List<AtlasVertex> offsetResults    = new SearchContext(offset, typeRegistry, graph, Collections.<String>emptySet()).getSearchProcessor().execute();
+
+        assertEquals(continuedResults, offsetResults);
+    }
+
+    @Test
+    public void testLastPageHasNoContinuationToken() throws Exception {
+        SearchParameters searchParameters = searchParameters();
+
+        searchParameters.setLimit(expectedGuids.size() + 1);
+
+        SearchContext context = new SearchContext(searchParameters, typeRegistry, graph, Collections.<String>emptySet());
+
+        assertEquals(context.getSearchProcessor().execute().size(), expectedGuids.size());
+        assertNull(context.getNextContinuationToken());
+    }
+
+    private static SearchParameters searchParameters() {
+        SearchParameters ret = new SearchParameters();
+
+        ret.setQuery("test");
+        ret.setExcludeDeletedEntities(true);
+        ret.setLimit(PAGE_SIZE);
+
+        return ret;
+    }
+
+    private static AtlasIndexQuery.Result result(AtlasVertex vertex) {
+        AtlasIndexQuery.Result ret = mock(AtlasIndexQuery.Result.class);
+
+        when(ret.getVertex()).thenReturn(vertex);
+
+        return ret;
+    }
+
+    private static AtlasVertex vertex(String guid, AtlasEntity.Status status) {
+        AtlasVertex ret = mock(AtlasVertex.class);
+
+        when(ret.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(guid);
+        when(ret.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, String.class)).thenReturn(guid != null ? "hive_table" : null);
+        when(ret.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn(status != null ? status.name() : null);
+
+        return ret;
+    }
+}
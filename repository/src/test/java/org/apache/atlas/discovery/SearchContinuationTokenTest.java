@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class SearchContinuationTokenTest {
+    @Test
+    public void testTokenRoundTrip() throws AtlasBaseException {
+        SearchParameters params = searchParameters("hive_column");
+
+        SearchContinuationToken token  = new SearchContinuationToken(params, 120000, 25, 7);
+        SearchContinuationToken parsed = SearchContinuationToken.fromString(token.toString(), params);
+
+        assertEquals(parsed.getQueryOffset(), 120000);
+        assertEquals(parsed.getChunkSize(), 25);
+        assertEquals(parsed.getSkip(), 7);
+    }
+
+    @Test
+    public void testTokenRoundTripWithExcludedGuids() throws AtlasBaseException {
+        SearchParameters params = searchParameters("hive_column");
+
+        SearchContinuationToken token  = new SearchContinuationToken(params, 50, 25, 3, Arrays.asList("guid-1", "guid-2"));
+        SearchContinuationToken parsed = SearchContinuationToken.fromString(token.toString(), params);
+
+        assertEquals(parsed.getSkip(), 3);
+        assertEquals(parsed.getExcludedGuids(), new HashSet<>(Arrays.asList("guid-1", "guid-2")));
+        assertTrue(SearchContinuationToken.fromString(new SearchContinuationToken(params, 50, 25, 3).toString(), params).getExcludedGuids().isEmpty());
+    }
+
+    @Test
+    public void testTokenIgnoresPagingParameters() throws AtlasBaseException {
+        SearchParameters params = searchParameters("hive_column");
+        String           token  = new SearchContinuationToken(params, 50, 25, 0).toString();
+
+        params.setLimit(100);
+        params.setOffset(500);
+        params.setContinuationToken(token);
+
+        assertEquals(SearchContinuationToken.fromString(token, params).getQueryOffset(), 50);
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void testTokenOfDifferentSearchIsRejected() throws AtlasBaseException {
+        String token = new SearchContinuationToken(searchParameters("hive_column"), 50, 25, 0).toString();
+
+        SearchContinuationToken.fromString(token, searchParameters("hive_table"));
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void testInvalidTokenIsRejected() throws AtlasBaseException {
+        SearchContinuationToken.fromString("not-a-token", searchParameters("hive_column"));
+    }
+
+    private static SearchParameters searchParameters(String typeName) {
+        SearchParameters ret = new SearchParameters();
+
+        ret.setTypeName(typeName);
+        ret.setExcludeDeletedEntities(true);
+        ret.setLimit(25);
+
+        return ret;
+    }
+}
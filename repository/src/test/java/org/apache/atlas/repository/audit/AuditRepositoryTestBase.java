@@ -22,11 +22,15 @@ import org.apache.atlas.EntityAuditEvent;
 import org.apache.atlas.TestUtils;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang.math.RandomUtils;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -98,6 +102,79 @@ public class AuditRepositoryTestBase {
         assertEquals(events.size(), 0);
     }
 
+    @Test
+    public void testListEventsInTimeRange() throws Exception {
+        TestUtils.skipForGremlin3EnabledGraphDb();
+        //events far in the past, so that the time range doesn't include events of other tests
+        long ts = 1000000000000L + RandomUtils.nextInt(1000000000);
+        String user = "user" + rand();
+        Referenceable entity = new Referenceable(rand());
+        List<EntityAuditEvent> expectedEvents = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            EntityAuditEvent event = new EntityAuditEvent(rand(), ts - i, user,
+                    i % 2 == 0 ? EntityAuditEvent.EntityAuditAction.ENTITY_CREATE : EntityAuditEvent.EntityAuditAction.TAG_ADD,
+                    "details" + i, entity);
+            eventRepository.putEvents(event);
+            expectedEvents.add(event);
+        }
+
+        List<EntityAuditEvent> events = eventRepository.listEvents(new EntityAuditFilter(ts - 3, ts + 1), 10);
+        assertEquals(events.size(), 4);
+        assertEventEquals(events.get(0), expectedEvents.get(0));
+        assertEventEquals(events.get(3), expectedEvents.get(3));
+
+        events = eventRepository.listEvents(new EntityAuditFilter(ts - 10, ts + 1), 2);
+        assertEquals(events.size(), 2);
+        assertEventEquals(events.get(1), expectedEvents.get(1));
+
+        events = eventRepository.listEvents(new EntityAuditFilter(ts - 10, ts + 1).setUser(user)
+                .setActions(Arrays.asList(EntityAuditEvent.EntityAuditAction.TAG_ADD)), 10);
+        assertEquals(events.size(), 2);
+        assertEventEquals(events.get(0), expectedEvents.get(1));
+        assertEventEquals(events.get(1), expectedEvents.get(3));
+
+        events = eventRepository.listEvents(new EntityAuditFilter(ts - 10, ts + 1).setUser(rand()), 10);
+        assertEquals(events.size(), 0);
+    }
+
+    @Test
+    public void testListEventsForEntities() throws Exception {
+        TestUtils.skipForGremlin3EnabledGraphDb();
+        String id1 = "id1" + rand();
+        String id2 = "id2" + rand();
+        long ts = System.currentTimeMillis();
+        Referenceable entity = new Referenceable(rand());
+        for (int i = 0; i < 3; i++) {
+            eventRepository.putEvents(new EntityAuditEvent(id1, ts - i, "user" + i,
+                    EntityAuditEvent.EntityAuditAction.ENTITY_UPDATE, "details" + i, entity));
+            eventRepository.putEvents(new EntityAuditEvent(id2, ts - i, "user" + i,
+                    EntityAuditEvent.EntityAuditAction.TAG_ADD, "details" + i, entity));
+        }
+
+        Map<String, List<EntityAuditEvent>> events =
+                eventRepository.listEvents(Arrays.asList(id1, id2, rand()), new EntityAuditFilter(), (short) 2);
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(id1).size(), 2);
+        assertEquals(events.get(id1).get(0).getTimestamp(), ts);
+        assertEquals(events.get(id1).get(1).getTimestamp(), ts - 1);
+        assertEquals(events.get(id2).size(), 2);
+
+        events = eventRepository.listEvents(Arrays.asList(id1, id2), new EntityAuditFilter(ts - 2, ts).setUser("user2"), (short) 10);
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(id1).size(), 1);
+        assertEquals(events.get(id1).get(0).getTimestamp(), ts - 2);
+
+        //timestamps with fewer digits than the bounds of the range, which don't sort numerically as key strings
+        String id3 = "id3" + rand();
+        eventRepository.putEvents(new EntityAuditEvent(id3, 999, "user", EntityAuditEvent.EntityAuditAction.ENTITY_CREATE, "details", entity));
+        eventRepository.putEvents(new EntityAuditEvent(id3, 1000, "user", EntityAuditEvent.EntityAuditAction.ENTITY_UPDATE, "details", entity));
+
+        events = eventRepository.listEvents(Collections.singletonList(id3), new EntityAuditFilter(500, 2000), (short) 10);
+        assertEquals(events.get(id3).size(), 2);
+        assertEquals(events.get(id3).get(0).getTimestamp(), 1000);
+        assertEquals(events.get(id3).get(1).getTimestamp(), 999);
+    }
+
     protected void assertEventEquals(EntityAuditEvent actual, EntityAuditEvent expected) {
         if (expected != null) {
             assertNotNull(actual);
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.atlas.repository.audit.HBaseBasedAuditRepository.COLUMN_ACTION;
+import static org.apache.atlas.repository.audit.HBaseBasedAuditRepository.COLUMN_DEFINITION;
+import static org.apache.atlas.repository.audit.HBaseBasedAuditRepository.COLUMN_FAMILY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class HBaseAuditWriterTest {
+
+    @Test
+    public void testCompression() throws Exception {
+        byte[] small = Bytes.toBytes("{\"id\":\"1\"}");
+        byte[] large = Bytes.toBytes("{\"values\":\"" + StringUtils.repeat("abcd", 2000) + "\"}");
+
+        assertEquals(HBaseBasedAuditRepository.compress(small, 100), small);
+        assertEquals(HBaseBasedAuditRepository.compress(large, 0), large);
+
+        byte[] compressed = HBaseBasedAuditRepository.compress(large, 100);
+
+        assertTrue(compressed.length < large.length);
+        assertEquals(HBaseBasedAuditRepository.decompress(compressed), large);
+
+        // values written uncompressed are read as they are
+        assertEquals(HBaseBasedAuditRepository.decompress(small), small);
+    }
+
+    @Test
+    public void testSpillRecords() throws Exception {
+        Put put1 = new Put(Bytes.toBytes("guid1:1000"));
+        Put put2 = new Put(Bytes.toBytes("guid2:2000"));
+
+        put1.addColumn(COLUMN_FAMILY, COLUMN_ACTION, Bytes.toBytes("ENTITY_CREATE"));
+        put2.addColumn(COLUMN_FAMILY, COLUMN_ACTION, Bytes.toBytes("ENTITY_UPDATE"));
+        put2.addColumn(COLUMN_FAMILY, COLUMN_DEFINITION, Bytes.toBytes("{}"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        HBaseAuditWriter.writeSpillRecords(new DataOutputStream(bytes), Arrays.asList(put1, put2));
+
+        // a record truncated while spilling is ignored
+        byte[] spilled   = bytes.toByteArray();
+        byte[] truncated = Arrays.copyOf(spilled, spilled.length - 3);
+
+        DataInputStream in   = new DataInputStream(new ByteArrayInputStream(truncated));
+        List<Put>       puts = HBaseAuditWriter.readSpillRecords(in, 1);
+
+        assertEquals(puts.size(), 1);
+        assertEquals(puts.get(0).getRow(), put1.getRow());
+        assertEquals(puts.get(0).get(COLUMN_FAMILY, COLUMN_ACTION).size(), 1);
+
+        assertEquals(HBaseAuditWriter.readSpillRecords(in, 10).size(), 0);
+
+        puts = HBaseAuditWriter.readSpillRecords(new DataInputStream(new ByteArrayInputStream(spilled)), 10);
+
+        assertEquals(puts.size(), 2);
+        assertEquals(puts.get(1).getRow(), put2.getRow());
+        assertEquals(puts.get(1).get(COLUMN_FAMILY, COLUMN_DEFINITION).size(), 1);
+    }
+}
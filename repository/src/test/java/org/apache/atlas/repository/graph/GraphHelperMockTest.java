@@ -17,20 +17,31 @@
  */
 package org.apache.atlas.repository.graph;
 
+import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.RepositoryException;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.graphdb.AtlasVertexQuery;
+import org.apache.atlas.typesystem.persistence.Id;
 import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 public class GraphHelperMockTest {
 
@@ -43,6 +54,89 @@ public class GraphHelperMockTest {
         MockitoAnnotations.initMocks(this);
         graph = mock(AtlasGraph.class);
         graphHelperInstance = GraphHelper.getInstance(graph);
+
+        GraphHelper.setEdgeLookupLegacyScan(true);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        GraphHelper.setEdgeLookupLegacyScan(null);
+    }
+
+    @Test
+    public void testGetEdgeFoundByInVertexId() {
+        final String edgeLabel = "testLabel";
+        AtlasVertex outVertex = mock(AtlasVertex.class);
+        AtlasVertex inVertex = mock(AtlasVertex.class);
+        AtlasEdge edge = edge(edgeLabel, inVertex, "in", Id.EntityState.ACTIVE);
+
+        when(inVertex.getId()).thenReturn("in");
+        mockEdgeQuery(outVertex, Collections.singletonList(edge));
+
+        assertEquals(graphHelperInstance.getEdge(outVertex, inVertex, edgeLabel), edge);
+
+        // found through the index, without going through the edges of the vertex
+        verify(outVertex, never()).getEdges(any(AtlasEdgeDirection.class));
+    }
+
+    @Test
+    public void testGetEdgeFindsEdgeWithoutInVertexId() {
+        final String edgeLabel = "testLabel";
+        AtlasVertex outVertex = mock(AtlasVertex.class);
+        AtlasVertex inVertex = mock(AtlasVertex.class);
+        AtlasVertex otherVertex = mock(AtlasVertex.class);
+        AtlasEdge otherEdge = edge(edgeLabel, otherVertex, null, Id.EntityState.ACTIVE);
+        AtlasEdge legacyEdge = edge(edgeLabel, inVertex, null, Id.EntityState.ACTIVE);
+
+        when(inVertex.getId()).thenReturn("in");
+        mockEdgeQuery(outVertex, Collections.<AtlasEdge>emptyList());
+        when(outVertex.getEdges(AtlasEdgeDirection.OUT)).thenReturn(Arrays.asList(otherEdge, legacyEdge));
+
+        assertEquals(graphHelperInstance.getEdge(outVertex, inVertex, edgeLabel), legacyEdge);
+    }
+
+    @Test
+    public void testGetEdgePrefersActiveEdge() {
+        final String edgeLabel = "testLabel";
+        AtlasVertex outVertex = mock(AtlasVertex.class);
+        AtlasVertex inVertex = mock(AtlasVertex.class);
+        AtlasEdge deletedEdge = edge(edgeLabel, inVertex, "in", Id.EntityState.DELETED);
+        AtlasEdge activeEdge = edge(edgeLabel, inVertex, "in", Id.EntityState.ACTIVE);
+
+        when(inVertex.getId()).thenReturn("in");
+        when(deletedEdge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class)).thenReturn(2000L);
+        mockEdgeQuery(outVertex, Arrays.asList(deletedEdge, activeEdge));
+
+        assertEquals(graphHelperInstance.getEdge(outVertex, inVertex, edgeLabel), activeEdge);
+    }
+
+    @Test
+    public void testGetEdgeReturnsLatestDeletedEdge() {
+        final String edgeLabel = "testLabel";
+        AtlasVertex outVertex = mock(AtlasVertex.class);
+        AtlasVertex inVertex = mock(AtlasVertex.class);
+        AtlasVertex otherVertex = mock(AtlasVertex.class);
+        AtlasEdge deletedEdge = edge(edgeLabel, inVertex, "in", Id.EntityState.DELETED);
+        AtlasEdge deletedLegacyEdge = edge(edgeLabel, inVertex, null, Id.EntityState.DELETED);
+        AtlasEdge otherEdge = edge(edgeLabel, otherVertex, null, Id.EntityState.DELETED);
+
+        when(inVertex.getId()).thenReturn("in");
+        when(deletedEdge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class)).thenReturn(1000L);
+        when(deletedLegacyEdge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class)).thenReturn(2000L);
+        when(otherEdge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class)).thenReturn(3000L);
+        mockEdgeQuery(outVertex, Collections.singletonList(deletedEdge));
+        when(outVertex.getEdges(AtlasEdgeDirection.OUT)).thenReturn(Arrays.asList(deletedEdge, deletedLegacyEdge, otherEdge));
+
+        // a soft-deleted relationship is still found, so that it isn't created again
+        assertEquals(graphHelperInstance.getEdge(outVertex, inVertex, edgeLabel), deletedLegacyEdge);
+
+        when(outVertex.getEdges(AtlasEdgeDirection.OUT)).thenReturn(Collections.<AtlasEdge>emptyList());
+
+        assertEquals(graphHelperInstance.getEdge(outVertex, inVertex, edgeLabel), deletedEdge);
+
+        mockEdgeQuery(outVertex, Collections.<AtlasEdge>emptyList());
+
+        assertNull(graphHelperInstance.getEdge(outVertex, inVertex, edgeLabel));
     }
 
     @Test(expectedExceptions = RepositoryException.class)
@@ -73,6 +167,7 @@ public class GraphHelperMockTest {
         };
         when(v2.getEdges(AtlasEdgeDirection.IN)).thenReturn(noEdgesIterable);
         when(v1.getEdges(AtlasEdgeDirection.OUT)).thenReturn(noEdgesIterable);
+        mockEdgeQuery(v1, noEdgesIterable);
 
         when(v1.getId()).thenReturn("1234");
         when(v2.getId()).thenReturn("5678");
@@ -109,6 +204,7 @@ public class GraphHelperMockTest {
         };
         when(v2.getEdges(AtlasEdgeDirection.IN)).thenReturn(noEdgesIterable);
         when(v1.getEdges(AtlasEdgeDirection.OUT)).thenReturn(noEdgesIterable);
+        mockEdgeQuery(v1, noEdgesIterable);
 
         when(v1.getId()).thenReturn("v1");
         when(v2.getId()).thenReturn("v2");
@@ -118,4 +214,25 @@ public class GraphHelperMockTest {
         AtlasEdge redge = graphHelperInstance.getOrCreateEdge(v1, v2, edgeLabel);
         assertEquals(edge, redge);
     }
+
+    private AtlasEdge edge(String label, AtlasVertex inVertex, String inVertexId, Id.EntityState state) {
+        AtlasEdge edge = mock(AtlasEdge.class);
+
+        when(edge.getLabel()).thenReturn(label);
+        when(edge.getInVertex()).thenReturn(inVertex);
+        when(edge.getProperty(Constants.EDGE_IN_VERTEX_ID_PROPERTY_KEY, String.class)).thenReturn(inVertexId);
+        when(edge.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn(state.name());
+
+        return edge;
+    }
+
+    private void mockEdgeQuery(AtlasVertex vertex, Iterable edges) {
+        AtlasVertexQuery query = mock(AtlasVertexQuery.class);
+
+        when(vertex.query()).thenReturn(query);
+        when(query.direction(any(AtlasEdgeDirection.class))).thenReturn(query);
+        when(query.label(anyString())).thenReturn(query);
+        when(query.has(anyString(), any())).thenReturn(query);
+        when(query.edges()).thenReturn(edges);
+    }
 }
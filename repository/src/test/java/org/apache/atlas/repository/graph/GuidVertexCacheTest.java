@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graph;
+
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class GuidVertexCacheTest {
+    private static final String GUID      = "guid-1";
+    private static final String VERTEX_ID = "4096";
+
+    private AtlasGraph      graph;
+    private AtlasGraphQuery query;
+    private AtlasVertex     vertex;
+    private GuidVertexCache cache;
+
+    @BeforeMethod
+    public void setup() {
+        graph  = mock(AtlasGraph.class);
+        query  = mock(AtlasGraphQuery.class);
+        vertex = mock(AtlasVertex.class);
+        cache  = new GuidVertexCache(10);
+
+        when(graph.query()).thenReturn(query);
+        when(query.has(Constants.GUID_PROPERTY_KEY, GUID)).thenReturn(query);
+        when(query.vertices()).thenReturn(Collections.singletonList(vertex));
+        when(vertex.getIdForDisplay()).thenReturn(VERTEX_ID);
+        when(vertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(GUID);
+        when(graph.getVertex(VERTEX_ID)).thenReturn(vertex);
+    }
+
+    @Test
+    public void testSharedLevelAvoidsIndexLookup() {
+        assertSame(cache.getVertex(graph, GUID), vertex);
+        assertSame(cache.getVertex(graph, GUID), vertex);
+
+        verify(graph, times(1)).query();
+        verify(graph, times(1)).getVertex(VERTEX_ID);
+
+        assertEquals(cache.getMetrics().get(GuidVertexCache.METRIC_SHARED_HITS), 1L);
+        assertEquals(cache.getMetrics().get(GuidVertexCache.METRIC_MISSES), 1L);
+        assertEquals(cache.getMetrics().get(GuidVertexCache.METRIC_SIZE), 1);
+    }
+
+    @Test
+    public void testTransactionLevelAvoidsVertexRead() {
+        cache.onTransactionBegin();
+
+        try {
+            assertSame(cache.getVertex(graph, GUID), vertex);
+            assertSame(cache.getVertex(graph, GUID), vertex);
+        } finally {
+            cache.onTransactionComplete(true);
+        }
+
+        verify(graph, times(1)).query();
+        verify(graph, never()).getVertex(anyString());
+
+        assertEquals(cache.getMetrics().get(GuidVertexCache.METRIC_TRANSACTION_HITS), 1L);
+    }
+
+    @Test
+    public void testStaleEntryFallsBackToIndexLookup() {
+        cache.getVertex(graph, GUID);
+
+        // vertex-id now refers to a vertex of another entity
+        AtlasVertex otherVertex = mock(AtlasVertex.class);
+
+        when(otherVertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn("guid-2");
+        when(graph.getVertex(VERTEX_ID)).thenReturn(otherVertex);
+
+        assertSame(cache.getVertex(graph, GUID), vertex);
+
+        verify(graph, times(2)).query();
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.getVertex(graph, GUID);
+        cache.invalidate(GUID);
+
+        when(query.vertices()).thenReturn(Collections.emptyList());
+
+        assertNull(cache.getVertex(graph, GUID));
+        assertEquals(cache.getMetrics().get(GuidVertexCache.METRIC_SIZE), 0);
+        verify(graph, never()).getVertex(anyString());
+    }
+
+    @Test
+    public void testRollbackEvictsSharedEntries() {
+        cache.onTransactionBegin();
+
+        try {
+            cache.getVertex(graph, GUID);
+        } finally {
+            cache.onTransactionComplete(false);
+        }
+
+        assertEquals(cache.getMetrics().get(GuidVertexCache.METRIC_SIZE), 0);
+    }
+}
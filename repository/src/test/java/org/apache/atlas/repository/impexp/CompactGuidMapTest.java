@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class CompactGuidMapTest {
+
+    @Test
+    public void testUuidFormat() {
+        assertTrue(CompactGuidMap.isUuid(UUID.randomUUID().toString()));
+        assertFalse(CompactGuidMap.isUuid(UUID.randomUUID().toString().toUpperCase()));
+        assertFalse(CompactGuidMap.isUuid("111-222-333-444"));
+        assertFalse(CompactGuidMap.isUuid("-12345"));
+        assertFalse(CompactGuidMap.isUuid(null));
+    }
+
+    @Test
+    public void testAddRemove() {
+        CompactGuidMap map   = new CompactGuidMap();
+        List<String>   guids = new ArrayList<>();
+
+        for (int i = 0; i < 10000; i++) {
+            guids.add(UUID.randomUUID().toString());
+        }
+
+        guids.add("111-222-333-444");
+        guids.add(UUID.randomUUID().toString().toUpperCase());
+
+        for (String guid : guids) {
+            assertTrue(map.add(guid));
+        }
+
+        assertFalse(map.add(guids.get(0)));
+        assertEquals(map.size(), guids.size());
+
+        for (int i = 0; i < guids.size(); i += 2) {
+            assertTrue(map.remove(guids.get(i)));
+        }
+
+        assertFalse(map.remove(guids.get(0)));
+        assertEquals(map.size(), guids.size() / 2);
+
+        for (int i = 0; i < guids.size(); i++) {
+            assertEquals(map.contains(guids.get(i)), i % 2 == 1, guids.get(i));
+        }
+
+        assertFalse(map.contains(UUID.randomUUID().toString()));
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.contains(guids.get(1)));
+    }
+
+    @Test
+    public void testValues() {
+        CompactGuidMap map   = new CompactGuidMap();
+        String         uuid  = UUID.randomUUID().toString();
+        String         other = "111-222-333-444";
+
+        assertEquals(map.get(uuid, -1), -1);
+
+        map.put(uuid, 2);
+        map.put(other, 3);
+
+        assertEquals(map.get(uuid, -1), 2);
+        assertEquals(map.get(other, -1), 3);
+
+        map.put(uuid, 0);
+
+        assertEquals(map.get(uuid, -1), 0);
+        assertEquals(map.size(), 2);
+    }
+}
@@ -26,9 +26,12 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.getZipSource;
 import static org.testng.Assert.assertEquals;
@@ -111,6 +114,51 @@ public class ZipSourceTest {
         }
     }
 
+    @Test
+    public void fileSource_ReadsEntriesFromFile() throws IOException, AtlasBaseException {
+        File      file      = new File(System.getProperty("user.dir") + "/src/test/resources/stocks.zip");
+        ZipSource zipSource = new ZipSource(file, null);
+
+        try {
+            List<String> creationOrder = zipSource.getCreationOrder();
+
+            assertNotNull(creationOrder);
+            assertEquals(creationOrder.size(), 4);
+
+            useCreationOrderToFetchEntities(zipSource, creationOrder);
+
+            // lookups by guid are served from the cache
+            assertTrue(zipSource.getByGuid(creationOrder.get(0)) == zipSource.getByGuid(creationOrder.get(0)));
+
+            verifyGuidRemovalOnImportComplete(zipSource, creationOrder.get(1));
+        } finally {
+            zipSource.close();
+        }
+
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void streamSource_DeletesTemporaryFileOnClose() throws IOException, AtlasBaseException {
+        Set<String> tempFilesBefore = getImportTempFiles();
+        ZipSource   zipSource       = new ZipSource(ZipFileResourceTestUtils.getFileInputStream("stocks.zip"));
+
+        Set<String> tempFiles = getImportTempFiles();
+
+        tempFiles.removeAll(tempFilesBefore);
+
+        assertEquals(tempFiles.size(), 1);
+
+        zipSource.close();
+
+        assertFalse(new File(System.getProperty("java.io.tmpdir"), tempFiles.iterator().next()).exists());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void fileSource_MissingFile_Throws() throws IOException {
+        new ZipSource(new File("non-existent-file.zip"), null);
+    }
+
     @Test(dataProvider = "zipFileStocks")
     public void iteratorBehavor_WorksAsExpected(ZipSource zipSource) throws IOException, AtlasBaseException {
         Assert.assertTrue(zipSource.hasNext());
@@ -186,4 +234,19 @@ public class ZipSourceTest {
 
         return tr;
     }
+
+    private static Set<String> getImportTempFiles() {
+        Set<String> ret   = new HashSet<>();
+        String[]    names = new File(System.getProperty("java.io.tmpdir")).list();
+
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith("atlas-import-")) {
+                    ret.add(name);
+                }
+            }
+        }
+
+        return ret;
+    }
 }
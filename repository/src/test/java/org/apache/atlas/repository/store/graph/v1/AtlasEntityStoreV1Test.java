@@ -20,6 +20,7 @@ package org.apache.atlas.repository.store.graph.v1;
 import com.google.common.collect.ImmutableSet;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.TestModules;
 import org.apache.atlas.RequestContextV1;
 import org.apache.atlas.TestUtils;
@@ -41,8 +42,11 @@ import org.apache.atlas.model.typedef.AtlasEntityDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.FullTextMapperV2;
 import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
+import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.store.bootstrap.AtlasTypeDefStoreInitializer;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.services.MetadataService;
@@ -70,6 +74,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -111,6 +116,9 @@ public class AtlasEntityStoreV1Test {
     @Inject
     private EntityGraphMapper graphMapper;
 
+    @Inject
+    private FullTextMapperV2 fullTextMapper;
+
 
     @BeforeClass
     public void setUp() throws Exception {
@@ -229,6 +237,35 @@ public class AtlasEntityStoreV1Test {
         validateEntity(tblEntity, getEntityFromStore(tableEntity));
     }
 
+    @Test
+    public void testBulkRetrievalMatchesSerialRetrieval() throws Exception {
+        init();
+        EntityMutationResponse response = entityStore.createOrUpdate(new AtlasEntityStream(TestUtilsV2.createDeptEg2()), false);
+        List<String>           guids    = new ArrayList<>();
+
+        for (AtlasEntityHeader header : response.getEntitiesByOperation(EntityOperation.CREATE)) {
+            guids.add(header.getGuid());
+        }
+
+        // bulk retrieval reads in separate transactions, which see only committed data
+        AtlasGraphProvider.getGraphInstance().commit();
+
+        EntityGraphRetriever     retriever = new EntityGraphRetriever(typeRegistry);
+        AtlasEntitiesWithExtInfo serial    = retriever.toAtlasEntitiesWithExtInfo(guids);
+        AtlasEntitiesWithExtInfo bulk      = retriever.toAtlasEntitiesWithExtInfo(guids, 2);
+
+        assertEquals(bulk.getEntities().size(), guids.size());
+        assertEquals(bulk, serial);
+
+        try {
+            retriever.toAtlasEntitiesWithExtInfo(Arrays.asList(guids.get(0), "unknown-guid"), 1);
+
+            fail("expected exception for unknown guid");
+        } catch (AtlasBaseException e) {
+            assertEquals(e.getAtlasErrorCode(), AtlasErrorCode.INSTANCE_GUID_NOT_FOUND);
+        }
+    }
+
     @Test(dependsOnMethods = "testCreate")
     public void testArrayOfEntityUpdate() throws Exception {
         AtlasEntity              tableEntity  = new AtlasEntity(tblEntity.getEntity());
@@ -942,6 +979,75 @@ public class AtlasEntityStoreV1Test {
 
     }
 
+    @Test
+    public void testIncrementalFullTextMapping() throws Exception {
+        init();
+
+        AtlasClassificationDef tagDef = new AtlasClassificationDef("fullTextTag");
+        tagDef.addAttribute(new AtlasAttributeDef("note", "string", true, AtlasAttributeDef.Cardinality.SINGLE, 0, 1,
+                false, true, Collections.<AtlasStructDef.AtlasConstraintDef>emptyList()));
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+        typesDef.setClassificationDefs(Arrays.asList(tagDef));
+        typeDefStore.createTypesDef(typesDef);
+
+        EntityMutationResponse response = entityStore.createOrUpdate(new AtlasEntityStream(TestUtilsV2.createDBEntity()), false);
+        String                 guid     = response.getCreatedEntities().get(0).getGuid();
+
+        fullTextMapper.mapEntity(guid);
+
+        String entityText = getEntityText(guid);
+
+        List<AtlasClassification> classifications = Arrays.asList(new AtlasClassification(tagDef.getName(), "note", "incremental-note"));
+
+        entityStore.addClassifications(guid, classifications);
+        fullTextMapper.mapClassifications(guid, classifications);
+
+        String taggedEntityText = getEntityText(guid);
+
+        assertTrue(taggedEntityText.startsWith(entityText));
+        assertTrue(taggedEntityText.contains("fullTextTag"));
+        assertTrue(taggedEntityText.contains("incremental-note"));
+
+        // mapping the full entity again should give the same text
+        RequestContext.clear();
+        fullTextMapper.mapEntity(guid);
+
+        assertEquals(getEntityText(guid), taggedEntityText);
+
+        entityStore.deleteClassifications(guid, Arrays.asList(tagDef.getName()));
+        fullTextMapper.removeClassifications(guid, Arrays.asList(tagDef.getName()));
+
+        assertEquals(getEntityText(guid), entityText);
+    }
+
+    @Test
+    public void testAddClassificationToBatch() throws Exception {
+        init();
+
+        AtlasClassificationDef tagDef   = new AtlasClassificationDef("batchTag");
+        AtlasTypesDef          typesDef = new AtlasTypesDef();
+
+        typesDef.setClassificationDefs(Arrays.asList(tagDef));
+        typeDefStore.createTypesDef(typesDef);
+
+        String guid1 = entityStore.createOrUpdate(new AtlasEntityStream(TestUtilsV2.createDBEntity()), false).getCreatedEntities().get(0).getGuid();
+        String guid2 = entityStore.createOrUpdate(new AtlasEntityStream(TestUtilsV2.createDBEntity()), false).getCreatedEntities().get(0).getGuid();
+
+        entityStore.addClassifications(guid2, Arrays.asList(new AtlasClassification(tagDef.getName())));
+
+        Map<String, String> skipped = entityStore.addClassificationToBatch(Arrays.asList(guid1, guid2, "unknown-guid"),
+                                                                           new AtlasClassification(tagDef.getName()));
+
+        // entities that can't be classified are skipped, without failing the batch
+        assertEquals(skipped.keySet(), new HashSet<>(Arrays.asList(guid2, "unknown-guid")));
+        assertEquals(GraphHelper.getTraitNames(AtlasGraphUtilsV1.findByGuid(guid1)), Arrays.asList(tagDef.getName()));
+    }
+
+    private String getEntityText(String guid) {
+        return GraphHelper.getSingleValuedProperty(AtlasGraphUtilsV1.findByGuid(guid), Constants.ENTITY_TEXT_PROPERTY_KEY, String.class);
+    }
+
     private String randomStrWithReservedChars() {
         return randomString() + "\"${}%";
     }
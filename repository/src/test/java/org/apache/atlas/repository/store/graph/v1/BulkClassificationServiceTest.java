@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.ClassificationAssociateRequest;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.tasks.TaskContext;
+import org.apache.atlas.tasks.TaskManagement;
+import org.apache.atlas.type.AtlasClassificationType;
+import org.apache.atlas.type.AtlasType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class BulkClassificationServiceTest {
+    private static final String TAG = "PII";
+
+    private AtlasEntityStore          entityStore;
+    private TaskManagement            taskManagement;
+    private BulkClassificationService service;
+
+    @BeforeMethod
+    public void setup() {
+        AtlasTypeRegistry       typeRegistry  = mock(AtlasTypeRegistry.class);
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+
+        when(typeRegistry.getClassificationTypeByName(TAG)).thenReturn(mock(AtlasClassificationType.class));
+
+        configuration.setProperty(BulkClassificationService.CHUNK_SIZE_PROPERTY, 2);
+
+        entityStore    = mock(AtlasEntityStore.class);
+        taskManagement = mock(TaskManagement.class);
+        service        = new BulkClassificationService(entityStore, typeRegistry, taskManagement, configuration);
+    }
+
+    @Test
+    public void testEntitiesAreClassifiedInChunks() throws Exception {
+        when(entityStore.addClassificationToBatch(eq(Arrays.asList("g1", "g2")), any(AtlasClassification.class)))
+                .thenReturn(Collections.<String, String>emptyMap());
+        when(entityStore.addClassificationToBatch(eq(Arrays.asList("g3", "g4")), any(AtlasClassification.class)))
+                .thenReturn(Collections.singletonMap("g4", "already associated"));
+        when(entityStore.addClassificationToBatch(eq(Collections.singletonList("g5")), any(AtlasClassification.class)))
+                .thenThrow(new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "chunk failure"));
+
+        AtlasTask       task    = task("g1", "g2", "g3", "g4", "g5");
+        TestTaskContext context = new TestTaskContext(task);
+
+        service.execute(task, context);
+
+        // a failed chunk doesn't stop the task
+        assertEquals(task.getProcessedCount(), 5);
+        assertEquals(task.getFailedCount(), 2);
+        assertEquals(context.errors.size(), 2);
+        assertEquals(context.checkpoints, Arrays.asList(2, 4, 5));
+
+        verify(entityStore, times(3)).addClassificationToBatch(any(List.class), any(AtlasClassification.class));
+    }
+
+    @Test
+    public void testTaskResumesFromCheckpoint() throws Exception {
+        when(entityStore.addClassificationToBatch(any(List.class), any(AtlasClassification.class)))
+                .thenReturn(Collections.<String, String>emptyMap());
+
+        AtlasTask task = task("g1", "g2", "g3", "g4", "g5");
+
+        task.setProcessedCount(4);
+
+        service.execute(task, new TestTaskContext(task));
+
+        assertEquals(task.getProcessedCount(), 5);
+
+        verify(entityStore, times(1)).addClassificationToBatch(eq(Collections.singletonList("g5")), any(AtlasClassification.class));
+        verify(entityStore, never()).addClassificationToBatch(eq(Arrays.asList("g1", "g2")), any(AtlasClassification.class));
+    }
+
+    @Test
+    public void testTaskStopsWhenCheckpointFails() throws Exception {
+        when(entityStore.addClassificationToBatch(any(List.class), any(AtlasClassification.class)))
+                .thenReturn(Collections.<String, String>emptyMap());
+
+        AtlasTask       task    = task("g1", "g2", "g3", "g4", "g5");
+        TestTaskContext context = new TestTaskContext(task);
+
+        context.stopAfterCheckpoint = true;
+
+        service.execute(task, context);
+
+        assertEquals(task.getProcessedCount(), 2);
+
+        verify(entityStore, times(1)).addClassificationToBatch(any(List.class), any(AtlasClassification.class));
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        try {
+            service.submit(request());
+            fail("request without entities should fail");
+        } catch (AtlasBaseException e) {
+            assertEquals(e.getAtlasErrorCode(), AtlasErrorCode.INVALID_PARAMETERS);
+        }
+
+        try {
+            service.submit(new ClassificationAssociateRequest(Arrays.asList("g1"), new AtlasClassification("unknown")));
+            fail("request for an unknown classification should fail");
+        } catch (AtlasBaseException e) {
+            assertEquals(e.getAtlasErrorCode(), AtlasErrorCode.CLASSIFICATION_NOT_FOUND);
+        }
+
+        verify(taskManagement, never()).submit(any(String.class), anyMap(), anyInt());
+    }
+
+    private ClassificationAssociateRequest request(String... guids) {
+        return new ClassificationAssociateRequest(Arrays.asList(guids), new AtlasClassification(TAG));
+    }
+
+    private AtlasTask task(String... guids) {
+        Map<String, String> parameters = new HashMap<>();
+
+        parameters.put(BulkClassificationService.PARAM_CLASSIFICATION, AtlasType.toJson(new AtlasClassification(TAG)));
+        parameters.put(BulkClassificationService.PARAM_GUIDS, AtlasType.toJson(Arrays.asList(guids)));
+
+        return new AtlasTask("task-1", BulkClassificationService.TASK_TYPE, "test", parameters, guids.length);
+    }
+
+    private static class TestTaskContext implements TaskContext {
+        private final AtlasTask     task;
+        private final List<String>  errors      = new ArrayList<>();
+        private final List<Integer> checkpoints = new ArrayList<>();
+        private boolean             stopAfterCheckpoint;
+
+        TestTaskContext(AtlasTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean checkpoint() {
+            checkpoints.add(task.getProcessedCount());
+
+            return !stopAfterCheckpoint;
+        }
+
+        @Override
+        public boolean isStopRequested() {
+            return stopAfterCheckpoint;
+        }
+
+        @Override
+        public void addError(String error) {
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v1;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.listener.EntityTraitsBatchListener;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.store.graph.v1.EntityChangeDispatcher.EntityChangeEvent;
+import org.apache.atlas.repository.store.graph.v1.EntityChangeDispatcher.EventType;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class EntityChangeDispatcherTest {
+    private AtlasInstanceConverter instanceConverter;
+    private EntityChangeDispatcher dispatcher;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        instanceConverter = mock(AtlasInstanceConverter.class);
+
+        when(instanceConverter.getITypedReferenceable(anyString())).thenReturn(entity());
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+
+        RequestContextV1.clear();
+    }
+
+    @Test
+    public void testQueuedEntityEventsAreCombinedInOrder() throws Exception {
+        CountDownLatch    release  = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+
+        dispatcher = new EntityChangeDispatcher(Collections.<EntityChangeListener>singletonList(listener), instanceConverter, null);
+
+        // the listener blocks on the first event, so that the following events are queued together
+        dispatcher.dispatch(Collections.singletonList(EntityChangeEvent.forTraits(EventType.TRAITS_ADDED, Collections.singletonList("g0"), Collections.<IStruct>emptyList())));
+        assertTrue(listener.started.await(10, TimeUnit.SECONDS));
+
+        dispatcher.dispatch(Arrays.asList(entitiesEvent(EventType.ENTITIES_ADDED, 2), entitiesEvent(EventType.ENTITIES_ADDED, 1)));
+        dispatcher.dispatch(Arrays.asList(entitiesEvent(EventType.ENTITIES_DELETED, 1), entitiesEvent(EventType.ENTITIES_ADDED, 1)));
+
+        release.countDown();
+        dispatcher.stop();
+
+        assertEquals(listener.calls, Arrays.asList("traitsAdded:1", "entitiesAdded:3", "entitiesDeleted:1", "entitiesAdded:1"));
+        assertEquals(dispatcher.getMetrics().get("RecordingListener." + EntityChangeDispatcher.METRIC_EVENTS_DISPATCHED), 5L);
+    }
+
+    @Test
+    public void testFailingListenerDoesNotAffectOtherListeners() throws Exception {
+        RecordingListener listener        = new RecordingListener(null);
+        FailingListener   failingListener = new FailingListener();
+
+        dispatcher = new EntityChangeDispatcher(Arrays.<EntityChangeListener>asList(failingListener, listener), instanceConverter, null);
+
+        dispatcher.dispatch(Collections.singletonList(entitiesEvent(EventType.ENTITIES_UPDATED, 1)));
+        dispatcher.stop();
+
+        assertEquals(listener.calls, Collections.singletonList("entitiesUpdated:1"));
+        assertEquals(dispatcher.getMetrics().get("FailingListener." + EntityChangeDispatcher.METRIC_EVENTS_FAILED), 1L);
+        assertEquals(dispatcher.getMetrics().get("FailingListener." + EntityChangeDispatcher.METRIC_EVENTS_DISPATCHED), 0L);
+    }
+
+    @Test
+    public void testListenerSeesRequestContextOfChange() throws Exception {
+        RecordingListener listener = new RecordingListener(null);
+
+        dispatcher = new EntityChangeDispatcher(Collections.<EntityChangeListener>singletonList(listener), instanceConverter, null);
+
+        RequestContextV1.get().setUser("admin");
+        long requestTime = RequestContextV1.get().getRequestTime();
+
+        dispatcher.dispatch(Collections.singletonList(entitiesEvent(EventType.ENTITIES_ADDED, 1)));
+        dispatcher.stop();
+
+        assertEquals(listener.user, "admin");
+        assertEquals(listener.requestTime, requestTime);
+    }
+
+    @Test
+    public void testTraitsEventForMultipleEntities() throws Exception {
+        RecordingListener listener1 = new RecordingListener(null);
+        RecordingListener listener2 = new RecordingListener(null);
+
+        dispatcher = new EntityChangeDispatcher(Arrays.<EntityChangeListener>asList(listener1, listener2), instanceConverter, null);
+
+        dispatcher.dispatch(Collections.singletonList(EntityChangeEvent.forTraits(EventType.TRAITS_ADDED, Arrays.asList("g1", "g2", "g3"), Collections.<IStruct>emptyList())));
+        dispatcher.stop();
+
+        // one event, delivered to each listener for each entity
+        assertEquals(listener1.calls, Arrays.asList("traitsAdded:1", "traitsAdded:1", "traitsAdded:1"));
+        assertEquals(listener2.calls, Arrays.asList("traitsAdded:1", "traitsAdded:1", "traitsAdded:1"));
+        assertEquals(dispatcher.getMetrics().get("RecordingListener." + EntityChangeDispatcher.METRIC_EVENTS_DISPATCHED), 2L);
+
+        // entities are read once, after the commit, for all the listeners
+        verify(instanceConverter, times(3)).getITypedReferenceable(anyString());
+    }
+
+    @Test
+    public void testTraitsEventDeliveredToBatchListenerInOneCall() throws Exception {
+        BatchRecordingListener batchListener = new BatchRecordingListener();
+        RecordingListener      listener      = new RecordingListener(null);
+
+        dispatcher = new EntityChangeDispatcher(Arrays.<EntityChangeListener>asList(batchListener, listener), instanceConverter, null);
+
+        dispatcher.dispatch(Collections.singletonList(EntityChangeEvent.forTraits(EventType.TRAITS_ADDED, Arrays.asList("g1", "g2", "g3"), Collections.<IStruct>emptyList())));
+        dispatcher.stop();
+
+        assertEquals(batchListener.calls, Collections.singletonList("traitsAddedToEntities:3"));
+        assertEquals(listener.calls, Arrays.asList("traitsAdded:1", "traitsAdded:1", "traitsAdded:1"));
+    }
+
+    @Test
+    public void testEntitiesThatCantBeReadAreSkipped() throws Exception {
+        RecordingListener listener = new RecordingListener(null);
+
+        when(instanceConverter.getITypedReferenceable("deleted")).thenThrow(new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, "deleted"));
+
+        dispatcher = new EntityChangeDispatcher(Collections.<EntityChangeListener>singletonList(listener), instanceConverter, null);
+
+        dispatcher.dispatch(Arrays.asList(EntityChangeEvent.forEntityGuids(EventType.ENTITIES_UPDATED, Arrays.asList("g1", "deleted"), false),
+                                          EntityChangeEvent.forEntityGuids(EventType.ENTITIES_ADDED, Collections.singletonList("deleted"), false)));
+        dispatcher.stop();
+
+        assertEquals(listener.calls, Collections.singletonList("entitiesUpdated:1"));
+        assertEquals(dispatcher.getMetrics().get(EntityChangeDispatcher.METRIC_CONVERSION_FAILURES), 2L);
+    }
+
+    @Test
+    public void testDispatchWaitsForSpaceWhenQueueIsFull() throws Exception {
+        final CountDownLatch conversionStarted = new CountDownLatch(1);
+        final CountDownLatch releaseConversion = new CountDownLatch(1);
+        final CountDownLatch dispatched        = new CountDownLatch(1);
+        RecordingListener    listener          = new RecordingListener(null);
+
+        when(instanceConverter.getITypedReferenceable("slow")).thenAnswer(new Answer<ITypedReferenceableInstance>() {
+            @Override
+            public ITypedReferenceableInstance answer(InvocationOnMock invocation) throws Throwable {
+                conversionStarted.countDown();
+                releaseConversion.await(10, TimeUnit.SECONDS);
+
+                return entity();
+            }
+        });
+
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+
+        configuration.setProperty(EntityChangeDispatcher.QUEUE_SIZE_PROPERTY, 1);
+        configuration.setProperty(EntityChangeDispatcher.OFFER_TIMEOUT_PROPERTY, 10);
+
+        dispatcher = new EntityChangeDispatcher(Collections.<EntityChangeListener>singletonList(listener), instanceConverter, configuration);
+
+        // the conversion thread is held on the first event, and the second fills the conversion queue
+        dispatcher.dispatch(Collections.singletonList(EntityChangeEvent.forEntityGuids(EventType.ENTITIES_ADDED, Collections.singletonList("slow"), false)));
+        assertTrue(conversionStarted.await(10, TimeUnit.SECONDS));
+
+        dispatcher.dispatch(Collections.singletonList(EntityChangeEvent.forEntityGuids(EventType.ENTITIES_UPDATED, Collections.singletonList("g1"), false)));
+
+        Thread committer = new Thread() {
+            @Override
+            public void run() {
+                dispatcher.dispatch(Collections.singletonList(EntityChangeEvent.forEntityGuids(EventType.ENTITIES_DELETED, Collections.singletonList("g2"), false)));
+
+                dispatched.countDown();
+            }
+        };
+
+        committer.start();
+
+        // the committing thread waits for space, instead of delivering ahead of the queued events
+        assertFalse(dispatched.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(listener.calls.isEmpty());
+        assertEquals(dispatcher.getMetrics().get(EntityChangeDispatcher.METRIC_BLOCKED_DISPATCHES), 1L);
+
+        releaseConversion.countDown();
+
+        assertTrue(dispatched.await(10, TimeUnit.SECONDS));
+        assertTrue(dispatcher.awaitDelivery(10000));
+        assertEquals(listener.calls, Arrays.asList("entitiesAdded:1", "entitiesUpdated:1", "entitiesDeleted:1"));
+    }
+
+    @Test
+    public void testAwaitDeliveryWaitsForQueuedEvents() throws Exception {
+        CountDownLatch    release  = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(release);
+
+        dispatcher = new EntityChangeDispatcher(Collections.<EntityChangeListener>singletonList(listener), instanceConverter, null);
+
+        dispatcher.dispatch(Arrays.asList(entitiesEvent(EventType.ENTITIES_ADDED, 1), entitiesEvent(EventType.ENTITIES_UPDATED, 1)));
+        assertTrue(listener.started.await(10, TimeUnit.SECONDS));
+
+        // the listener is blocked on the first event
+        assertFalse(dispatcher.awaitDelivery(50));
+
+        release.countDown();
+
+        assertTrue(dispatcher.awaitDelivery(10000));
+        assertEquals(listener.calls, Arrays.asList("entitiesAdded:1", "entitiesUpdated:1"));
+    }
+
+    private static EntityChangeEvent entitiesEvent(EventType type, int count) {
+        List<ITypedReferenceableInstance> entities = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            entities.add(entity());
+        }
+
+        return EntityChangeEvent.forEntities(type, entities, false);
+    }
+
+    private static ITypedReferenceableInstance entity() {
+        return mock(ITypedReferenceableInstance.class);
+    }
+
+    private static class RecordingListener implements EntityChangeListener {
+        private final List<String>   calls   = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile String      user;
+        private volatile long        requestTime;
+
+        RecordingListener(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onEntitiesAdded(Collection<ITypedReferenceableInstance> entities, boolean isImport) {
+            record("entitiesAdded:" + entities.size());
+        }
+
+        @Override
+        public void onEntitiesUpdated(Collection<ITypedReferenceableInstance> entities, boolean isImport) {
+            record("entitiesUpdated:" + entities.size());
+        }
+
+        @Override
+        public void onTraitsAdded(ITypedReferenceableInstance entity, Collection<? extends IStruct> traits) {
+            record("traitsAdded:1");
+        }
+
+        @Override
+        public void onTraitsDeleted(ITypedReferenceableInstance entity, Collection<String> traitNames) {
+            record("traitsDeleted:1");
+        }
+
+        @Override
+        public void onTraitsUpdated(ITypedReferenceableInstance entity, Collection<? extends IStruct> traits) {
+            record("traitsUpdated:1");
+        }
+
+        @Override
+        public void onEntitiesDeleted(Collection<ITypedReferenceableInstance> entities, boolean isImport) {
+            record("entitiesDeleted:" + entities.size());
+        }
+
+        private void record(String call) {
+            user        = RequestContextV1.get().getUser();
+            requestTime = RequestContextV1.get().getRequestTime();
+
+            calls.add(call);
+            started.countDown();
+
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static class BatchRecordingListener extends RecordingListener implements EntityTraitsBatchListener {
+        BatchRecordingListener() {
+            super(null);
+        }
+
+        @Override
+        public void onTraitsAdded(Collection<ITypedReferenceableInstance> entities, Collection<? extends IStruct> traits) {
+            calls.add("traitsAddedToEntities:" + entities.size());
+        }
+    }
+
+    private static class FailingListener extends RecordingListener {
+        FailingListener() {
+            super(null);
+        }
+
+        @Override
+        public void onEntitiesUpdated(Collection<ITypedReferenceableInstance> entities, boolean isImport) {
+            throw new RuntimeException("listener failure");
+        }
+    }
+}
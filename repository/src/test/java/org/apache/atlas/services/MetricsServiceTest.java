@@ -17,10 +17,15 @@
  */
 package org.apache.atlas.services;
 
+import com.google.common.collect.ImmutableList;
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.metrics.AtlasMetrics;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.commons.configuration.Configuration;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -29,6 +34,7 @@ import org.testng.annotations.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +43,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 
 public class MetricsServiceTest {
@@ -68,6 +75,10 @@ public class MetricsServiceTest {
 
     private void setupMockGraph() throws AtlasBaseException {
         if (mockGraph == null) mockGraph = mock(AtlasGraph.class);
+        setupMockGraph(mockGraph);
+    }
+
+    private void setupMockGraph(AtlasGraph mockGraph) throws AtlasBaseException {
         when(mockGraph.executeGremlinScript(anyString(), eq(false))).thenAnswer(new Answer<Object>() {
             @Override
             public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
@@ -111,8 +122,9 @@ public class MetricsServiceTest {
 
         verify(mockGraph, atLeastOnce()).executeGremlinScript(anyString(), anyBoolean());
 
-        // Subsequent call within the cache timeout window
+        // Subsequent call within the cache timeout window; only the (uncached) script engine metrics are read
         metricsService.getMetrics(false);
+        verify(mockGraph, times(2)).getGremlinScriptEngineMetrics();
         verifyZeroInteractions(mockGraph);
 
         // Now test the cache refresh
@@ -120,4 +132,107 @@ public class MetricsServiceTest {
         metricsService.getMetrics(true);
         verify(mockGraph, atLeastOnce()).executeGremlinScript(anyString(), anyBoolean());
     }
+
+    @Test
+    public void testIncrementalEntityMetrics() throws AtlasBaseException, AtlasException {
+        AtlasGraph        graph         = mock(AtlasGraph.class);
+        AtlasTypeRegistry typeRegistry  = mock(AtlasTypeRegistry.class);
+        Configuration     counterConfig = mock(Configuration.class);
+        AtlasEntityType   referenceable = mock(AtlasEntityType.class);
+        AtlasEntityType   internal      = mock(AtlasEntityType.class);
+
+        setupMockGraph(graph);
+
+        when(referenceable.getAllSuperTypes()).thenReturn(Collections.singleton(AtlasClient.REFERENCEABLE_SUPER_TYPE));
+        when(internal.getAllSuperTypes()).thenReturn(Collections.<String>emptySet());
+        when(typeRegistry.getEntityTypeByName("a")).thenReturn(referenceable);
+        when(typeRegistry.getEntityTypeByName("b")).thenReturn(internal);
+
+        // persistence disabled
+        when(counterConfig.getInt(anyString(), anyInt())).thenReturn(0);
+
+        EntityMetricsCounter counter = new EntityMetricsCounter(graph, typeRegistry, counterConfig, false);
+        MetricsService       service = new MetricsService(mockConfig, graph, counter);
+
+        // counts are not initialized yet, hence are recounted from the graph
+        AtlasMetrics metrics = service.getMetrics(false);
+
+        assertEquals(metrics.getMetric("general", "entityCount"), 10L);
+        assertEquals(metrics.getMetric("entity", "a"), 1L);
+        assertEquals(metrics.getMetric("tag", "c"), 3L);
+        verify(graph, times(8)).executeGremlinScript(anyString(), anyBoolean());
+
+        ITypedReferenceableInstance entity = mock(ITypedReferenceableInstance.class);
+
+        when(entity.getTypeName()).thenReturn("a");
+        when(entity.getTraits()).thenReturn(ImmutableList.of("c"));
+
+        counter.onEntitiesAdded(Collections.singletonList(entity), false);
+
+        metrics = service.getMetrics(false);
+
+        assertEquals(metrics.getMetric("general", "entityCount"), 11L);
+        assertEquals(metrics.getMetric("entity", "a"), 2L);
+        assertEquals(metrics.getMetric("entity", "entityTagged"), 11L);
+        assertEquals(metrics.getMetric("tag", "c"), 4L);
+
+        // like the recount, the entity count includes only Referenceable entities
+        ITypedReferenceableInstance internalEntity = mock(ITypedReferenceableInstance.class);
+
+        when(internalEntity.getTypeName()).thenReturn("b");
+
+        counter.onEntitiesAdded(Collections.singletonList(internalEntity), false);
+
+        metrics = service.getMetrics(false);
+
+        assertEquals(metrics.getMetric("general", "entityCount"), 11L);
+        assertEquals(metrics.getMetric("entity", "b"), 3L);
+
+        counter.onTraitsDeleted(entity, Collections.singletonList("c"));
+        counter.onEntitiesDeleted(Collections.singletonList(entity), false);
+
+        metrics = service.getMetrics(false);
+
+        assertEquals(metrics.getMetric("general", "entityCount"), 11L);
+        assertEquals(metrics.getMetric("general", "entityDeleted"), 11L);
+        assertEquals(metrics.getMetric("tag", "c"), 3L);
+
+        // the entity metrics were served from the counter, without querying the graph again
+        verify(graph, times(8)).executeGremlinScript(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testCountsAreDroppedWhenInstanceIsActiveAgain() throws AtlasBaseException, AtlasException {
+        AtlasGraph        graph         = mock(AtlasGraph.class);
+        AtlasTypeRegistry typeRegistry  = mock(AtlasTypeRegistry.class);
+        Configuration     counterConfig = mock(Configuration.class);
+
+        setupMockGraph(graph);
+
+        when(typeRegistry.getEntityTypeByName("a")).thenReturn(mock(AtlasEntityType.class));
+
+        // persistence disabled
+        when(counterConfig.getInt(anyString(), anyInt())).thenReturn(0);
+
+        EntityMetricsCounter counter = new EntityMetricsCounter(graph, typeRegistry, counterConfig, false);
+        MetricsService       service = new MetricsService(mockConfig, graph, counter);
+
+        service.getMetrics(false);
+
+        ITypedReferenceableInstance entity = mock(ITypedReferenceableInstance.class);
+
+        when(entity.getTypeName()).thenReturn("a");
+
+        counter.onEntitiesAdded(Collections.singletonList(entity), false);
+
+        assertEquals(service.getMetrics(false).getMetric("entity", "a"), 2L);
+
+        // another server was active meanwhile: counts held from earlier must not be applied on top of its changes
+        counter.instanceIsPassive();
+        counter.instanceIsActive();
+
+        assertFalse(counter.isInitialized());
+        assertEquals(service.getMetrics(false).getMetric("entity", "a"), 1L);
+        verify(graph, times(13)).executeGremlinScript(anyString(), anyBoolean());
+    }
 }
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class AtlasTaskStoreTest {
+    private static final String TASK_GUID = "task-1";
+
+    private AtlasGraph      graph;
+    private AtlasGraphQuery query;
+    private AtlasVertex     vertex;
+    private AtlasTaskStore  taskStore;
+
+    @BeforeMethod
+    public void setup() {
+        graph     = mock(AtlasGraph.class);
+        query     = mock(AtlasGraphQuery.class);
+        vertex    = mock(AtlasVertex.class);
+        taskStore = new AtlasTaskStore(graph);
+
+        AtlasTask task = new AtlasTask(TASK_GUID, "TEST", "test", null, 10);
+
+        when(graph.addVertex()).thenReturn(vertex);
+        when(graph.query()).thenReturn(query);
+        when(query.has(Constants.VERTEX_TYPE_PROPERTY_KEY, Constants.TASK_VERTEX_TYPE)).thenReturn(query);
+        when(query.has(Constants.TASK_GUID_PROPERTY_KEY, TASK_GUID)).thenReturn(query);
+        when(query.vertices()).thenReturn(Collections.singletonList(vertex));
+        when(vertex.getProperty(Constants.TASK_DETAILS_PROPERTY_KEY, String.class)).thenReturn(AtlasType.toJson(task));
+        when(vertex.getProperty(Constants.TASK_PARAMETERS_PROPERTY_KEY, String.class)).thenReturn(AtlasType.toJson(Collections.singletonMap("param", "value")));
+    }
+
+    @Test
+    public void testTaskGuidIsNotEntityGuid() {
+        taskStore.createTask(new AtlasTask(TASK_GUID, "TEST", "test", Collections.singletonMap("param", "value"), 10));
+
+        // lookups of entities by guid must not find tasks
+        verify(vertex).setProperty(Constants.TASK_GUID_PROPERTY_KEY, TASK_GUID);
+        verify(vertex, never()).setProperty(eq(Constants.GUID_PROPERTY_KEY), any());
+    }
+
+    @Test
+    public void testGetTaskWithoutParameters() {
+        assertNull(taskStore.getTask(TASK_GUID, false).getParameters());
+
+        verify(vertex, never()).getProperty(Constants.TASK_PARAMETERS_PROPERTY_KEY, String.class);
+
+        assertEquals(taskStore.getTask(TASK_GUID).getParameters(), Collections.singletonMap("param", "value"));
+    }
+}
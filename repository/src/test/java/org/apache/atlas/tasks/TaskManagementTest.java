@@ -0,0 +1,402 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.model.tasks.AtlasTask.Status;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TaskManagementTest {
+    private static final String TASK_TYPE      = "TEST";
+    private static final String LANE_TASK_TYPE = "LANE_TEST";
+    private static final int    ITEM_COUNT     = 5;
+    private static final long   WAIT_TIME_MS   = 10 * 1000L;
+
+    private InMemoryTaskStore       taskStore;
+    private PropertiesConfiguration configuration;
+    private TestTaskHandler         handler;
+    private TaskManagement          taskManagement;
+
+    @BeforeMethod
+    public void setup() {
+        taskStore     = new InMemoryTaskStore();
+        configuration = new PropertiesConfiguration();
+        handler       = new TestTaskHandler(TASK_TYPE);
+
+        configuration.setProperty(TaskManagement.THREADS_PROPERTY, 1);
+    }
+
+    @AfterMethod
+    public void teardown() {
+        handler.release.countDown();
+
+        if (taskManagement != null) {
+            taskManagement.stop();
+        }
+    }
+
+    @Test
+    public void testSubmittedTaskIsExecuted() throws Exception {
+        startTaskManagement();
+
+        AtlasTask submitted = taskManagement.submit(TASK_TYPE, parameters("value"), ITEM_COUNT);
+
+        assertNull(submitted.getParameters());
+
+        AtlasTask task = waitForStatus(submitted.getGuid(), Status.COMPLETE);
+
+        assertEquals(task.getProcessedCount(), ITEM_COUNT);
+        assertEquals(handler.startCounts, Collections.singletonList(0));
+        assertTrue(task.getEndTime() >= task.getStartTime());
+
+        // the task returned to users doesn't include its parameters
+        assertNull(taskManagement.getTask(submitted.getGuid()).getParameters());
+        assertNotNull(taskStore.getTask(submitted.getGuid()).getParameters());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        handler.blockAt = 1;
+
+        startTaskManagement();
+
+        AtlasTask inProgress = taskManagement.submit(TASK_TYPE, parameters("value"), ITEM_COUNT);
+
+        assertTrue(handler.blocked.await(WAIT_TIME_MS, TimeUnit.MILLISECONDS));
+
+        // the only thread is busy: this task waits in the queue, and is finished as soon as it is cancelled
+        AtlasTask queued = taskManagement.submit(TASK_TYPE, parameters("value"), ITEM_COUNT);
+
+        assertEquals(taskManagement.cancelTask(queued.getGuid()).getStatus(), Status.CANCELLED);
+
+        taskManagement.cancelTask(inProgress.getGuid());
+        handler.release.countDown();
+
+        // the work committed before the cancel is retained
+        AtlasTask task = waitForStatus(inProgress.getGuid(), Status.CANCELLED);
+
+        assertEquals(task.getProcessedCount(), 2);
+        assertEquals(handler.startCounts.size(), 1);
+    }
+
+    @Test
+    public void testTaskResumesFromCheckpoint() throws Exception {
+        // task left in progress by a server that stopped
+        AtlasTask interrupted = new AtlasTask("task-1", TASK_TYPE, "test", parameters("value"), ITEM_COUNT);
+
+        interrupted.setStatus(Status.IN_PROGRESS);
+        interrupted.setProcessedCount(3);
+
+        taskStore.createTask(interrupted);
+
+        startTaskManagement();
+
+        AtlasTask task = waitForStatus(interrupted.getGuid(), Status.COMPLETE);
+
+        assertEquals(task.getProcessedCount(), ITEM_COUNT);
+        assertEquals(handler.startCounts, Collections.singletonList(3));
+    }
+
+    @Test
+    public void testPassiveServerResumesTasksWhenActive() throws Exception {
+        configuration.setProperty(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY, true);
+
+        handler.blockAt = 2;
+
+        startTaskManagement();
+
+        // a passive server doesn't execute tasks
+        AtlasTask submitted = taskManagement.submit(TASK_TYPE, parameters("value"), ITEM_COUNT);
+
+        assertEquals(taskStore.getTask(submitted.getGuid()).getStatus(), Status.PENDING);
+        assertTrue(handler.startCounts.isEmpty());
+
+        taskManagement.instanceIsActive();
+
+        assertTrue(handler.blocked.await(WAIT_TIME_MS, TimeUnit.MILLISECONDS));
+
+        taskManagement.instanceIsPassive();
+
+        AtlasTask stopped = taskStore.getTask(submitted.getGuid());
+
+        assertEquals(stopped.getStatus(), Status.IN_PROGRESS);
+        assertEquals(stopped.getProcessedCount(), 2);
+
+        handler.blockAt = -1;
+
+        taskManagement.instanceIsActive();
+
+        AtlasTask task = waitForStatus(submitted.getGuid(), Status.COMPLETE);
+
+        assertEquals(task.getProcessedCount(), ITEM_COUNT);
+        assertEquals(handler.startCounts, Arrays.asList(0, 2));
+    }
+
+    @Test
+    public void testLaneExecutesTasksOneAtATime() throws Exception {
+        TestTaskHandler laneHandler = new TestTaskHandler(LANE_TASK_TYPE);
+
+        laneHandler.blockAt = 0;
+
+        startTaskManagement();
+
+        taskManagement.registerHandler(laneHandler, "test-lane");
+
+        try {
+            AtlasTask first  = taskManagement.submit(LANE_TASK_TYPE, parameters("value"), ITEM_COUNT);
+            AtlasTask second = taskManagement.submit(LANE_TASK_TYPE, parameters("value"), ITEM_COUNT);
+
+            assertTrue(laneHandler.blocked.await(WAIT_TIME_MS, TimeUnit.MILLISECONDS));
+
+            // tasks of other types don't wait for the lane
+            AtlasTask other = taskManagement.submit(TASK_TYPE, parameters("value"), ITEM_COUNT);
+
+            waitForStatus(other.getGuid(), Status.COMPLETE);
+
+            assertEquals(taskStore.getTask(second.getGuid()).getStatus(), Status.PENDING);
+
+            laneHandler.release.countDown();
+
+            waitForStatus(first.getGuid(), Status.COMPLETE);
+            waitForStatus(second.getGuid(), Status.COMPLETE);
+
+            assertEquals(laneHandler.maxRunning.get(), 1);
+        } finally {
+            laneHandler.release.countDown();
+        }
+    }
+
+    @Test
+    public void testTooLargeParametersAreRejected() throws Exception {
+        configuration.setProperty(TaskManagement.MAX_PARAMETERS_SIZE_PROPERTY, 16);
+
+        startTaskManagement();
+
+        try {
+            taskManagement.submit(TASK_TYPE, parameters("a value longer than the limit"), ITEM_COUNT);
+            fail("task with too large parameters should be rejected");
+        } catch (AtlasBaseException e) {
+            assertEquals(e.getAtlasErrorCode(), AtlasErrorCode.TASK_PARAMETERS_TOO_LARGE);
+        }
+
+        assertTrue(taskStore.getTasks(null).isEmpty());
+    }
+
+    private void startTaskManagement() {
+        taskManagement = new TaskManagement(taskStore, configuration);
+
+        taskManagement.start();
+        taskManagement.registerHandler(handler);
+    }
+
+    private AtlasTask waitForStatus(String guid, Status status) throws InterruptedException {
+        long waitUntil = System.currentTimeMillis() + WAIT_TIME_MS;
+
+        while (true) {
+            AtlasTask ret = taskStore.getTask(guid, false);
+
+            if (ret != null && ret.getStatus() == status) {
+                return ret;
+            }
+
+            if (System.currentTimeMillis() > waitUntil) {
+                fail("task " + guid + " is " + (ret != null ? ret.getStatus() : null) + "; expected " + status);
+            }
+
+            Thread.sleep(10);
+        }
+    }
+
+    private static Map<String, String> parameters(String value) {
+        Map<String, String> ret = new HashMap<>();
+
+        ret.put("param", value);
+
+        return ret;
+    }
+
+    /**
+     * Processes one item per checkpoint; blocks when the processed count reaches blockAt, till released.
+     */
+    private static class TestTaskHandler implements TaskHandler {
+        private final    String         type;
+        private final    List<Integer>  startCounts = Collections.synchronizedList(new ArrayList<Integer>());
+        private final    AtomicInteger  running     = new AtomicInteger();
+        private final    AtomicInteger  maxRunning  = new AtomicInteger();
+        private final    CountDownLatch blocked     = new CountDownLatch(1);
+        private final    CountDownLatch release     = new CountDownLatch(1);
+        private volatile int            blockAt     = -1;
+
+        TestTaskHandler(String type) {
+            this.type = type;
+        }
+
+        @Override
+        public String getTaskType() {
+            return type;
+        }
+
+        @Override
+        public void execute(AtlasTask task, TaskContext context) {
+            startCounts.add(task.getProcessedCount());
+
+            int count = running.incrementAndGet();
+
+            if (count > maxRunning.get()) {
+                maxRunning.set(count);
+            }
+
+            try {
+                while (task.getProcessedCount() < task.getTotalCount()) {
+                    if (task.getProcessedCount() == blockAt) {
+                        blocked.countDown();
+
+                        try {
+                            release.await();
+                        } catch (InterruptedException excp) {
+                            Thread.currentThread().interrupt();
+
+                            return;
+                        }
+                    }
+
+                    task.setProcessedCount(task.getProcessedCount() + 1);
+
+                    if (!context.checkpoint()) {
+                        return;
+                    }
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void onTaskDeleted(AtlasTask task) {
+        }
+    }
+
+    /**
+     * Keeps tasks the way AtlasTaskStore does: parameters are written only on create, and a cancel request isn't
+     * overwritten by updates.
+     */
+    private static class InMemoryTaskStore extends AtlasTaskStore {
+        private final Map<String, AtlasTask> tasks = new HashMap<>();
+
+        InMemoryTaskStore() {
+            super(null);
+        }
+
+        @Override
+        public synchronized void createTask(AtlasTask task) {
+            tasks.put(task.getGuid(), new AtlasTask(task));
+        }
+
+        @Override
+        public synchronized boolean updateTask(AtlasTask task) {
+            AtlasTask existing = tasks.get(task.getGuid());
+
+            if (existing == null) {
+                return false;
+            }
+
+            AtlasTask updated = new AtlasTask(task);
+
+            updated.setParameters(existing.getParameters());
+            updated.setCancelRequested(existing.isCancelRequested());
+
+            tasks.put(task.getGuid(), updated);
+
+            return true;
+        }
+
+        @Override
+        public synchronized AtlasTask getTask(String guid) {
+            return getTask(guid, true);
+        }
+
+        @Override
+        public synchronized AtlasTask getTask(String guid, boolean includeParameters) {
+            AtlasTask task = tasks.get(guid);
+            AtlasTask ret  = task != null ? new AtlasTask(task) : null;
+
+            if (ret != null && !includeParameters) {
+                ret.setParameters(null);
+            }
+
+            return ret;
+        }
+
+        @Override
+        public synchronized List<AtlasTask> getTasks(Collection<Status> statuses) {
+            List<AtlasTask> ret = new ArrayList<>();
+
+            for (AtlasTask task : tasks.values()) {
+                if (CollectionUtils.isEmpty(statuses) || statuses.contains(task.getStatus())) {
+                    AtlasTask copy = new AtlasTask(task);
+
+                    copy.setParameters(null);
+
+                    ret.add(copy);
+                }
+            }
+
+            return ret;
+        }
+
+        @Override
+        public synchronized boolean setCancelRequested(String guid) {
+            AtlasTask task = tasks.get(guid);
+
+            if (task != null) {
+                task.setCancelRequested(true);
+            }
+
+            return task != null;
+        }
+
+        @Override
+        public synchronized List<AtlasTask> deleteTasks(long finishedBefore) {
+            return new ArrayList<>();
+        }
+    }
+}
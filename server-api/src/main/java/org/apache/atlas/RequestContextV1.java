@@ -38,7 +38,7 @@ public class RequestContextV1 {
     private Set<AtlasObjectId> deletedEntityIds = new LinkedHashSet<>();
 
     private String user;
-    private final long requestTime;
+    private long requestTime;
 
     TypeSystem typeSystem = TypeSystem.getInstance();
     private Metrics metrics = new Metrics();
@@ -107,6 +107,10 @@ public class RequestContextV1 {
         return requestTime;
     }
 
+    public void setRequestTime(long requestTime) {
+        this.requestTime = requestTime;
+    }
+
     public boolean isDeletedEntity(AtlasObjectId entityId) {
         return deletedEntityIds.contains(entityId);
     }
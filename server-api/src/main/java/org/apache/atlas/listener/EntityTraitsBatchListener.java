@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.listener;
+
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+
+import java.util.Collection;
+
+/**
+ * Optional interface of an EntityChangeListener, for listeners that handle the addition of the same traits to a number
+ * of entities in a single call, rather than in one EntityChangeListener.onTraitsAdded() call per entity.
+ */
+public interface EntityTraitsBatchListener {
+    /**
+     * This is upon adding the same traits to a number of entities, in a single request.
+     *
+     * @param entities  the entities, after the traits were added
+     * @param traits    traits added to each of the entities
+     *
+     * @throws AtlasException if the listener notification fails
+     */
+    void onTraitsAdded(Collection<ITypedReferenceableInstance> entities, Collection<? extends IStruct> traits) throws AtlasException;
+}
@@ -18,12 +18,19 @@
 
 package org.apache.atlas.metrics;
 
+import org.apache.atlas.utils.AtlasPerfMetrics;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Per-request counters, logged at the end of the request. Recorded times are also added to the process-wide timers
+ * of AtlasPerfMetrics.
+ */
 public class Metrics {
     public static class Counters {
-        private short invocations = 0;
+        private long invocations = 0;
         private long totalTimeMSecs = 0;
 
         @Override
@@ -31,7 +38,7 @@ public class Metrics {
             return "[count=" + invocations + ", totalTimeMSec=" + totalTimeMSecs + "]";
         }
 
-        public short getInvocations() {
+        public long getInvocations() {
             return invocations;
         }
 
@@ -51,6 +58,8 @@ public class Metrics {
 
         counter.invocations++;
         counter.totalTimeMSecs += timeMsecs;
+
+        AtlasPerfMetrics.getTimer(name).record(timeMsecs, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -304,6 +304,19 @@ public interface MetadataService {
      */
     List<EntityAuditEvent> getAuditEvents(String guid, String startKey, short count) throws AtlasException;
 
+    /**
+     * Returns entity audit events that match the given criteria, in the decreasing order of timestamp
+     * @param guids entity ids; if empty, events of all entities are returned, and fromTime is required
+     * @param fromTime start of the time range, inclusive; 0 for no start
+     * @param toTime end of the time range, exclusive; 0 for no end
+     * @param user user of the events; null for all users
+     * @param actions actions of the events; empty for all actions
+     * @param count number of events to be returned; per entity, if guids are given
+     * @return
+     */
+    List<EntityAuditEvent> searchAuditEvents(List<String> guids, long fromTime, long toTime, String user,
+                                             List<EntityAuditEvent.EntityAuditAction> actions, short count) throws AtlasException;
+
     /**
      * Deserializes entity instances into ITypedReferenceableInstance array.
      * @param entityInstanceDefinition
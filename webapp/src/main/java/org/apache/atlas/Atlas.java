@@ -19,6 +19,7 @@
 package org.apache.atlas;
 
 import org.apache.atlas.security.SecurityProperties;
+import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.web.service.EmbeddedServer;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.GnuParser;
@@ -114,6 +115,7 @@ public final class Atlas {
 
         server = EmbeddedServer.newServer(appPort, appPath, enableTLS);
         installLogBridge();
+        AtlasPerfMetrics.registerMBean();
 
         server.start();
     }
@@ -21,6 +21,7 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.listener.EntityTraitsBatchListener;
 import org.apache.atlas.notification.entity.EntityNotification;
 import org.apache.atlas.notification.entity.EntityNotificationImpl;
 import org.apache.atlas.typesystem.IReferenceableInstance;
@@ -50,7 +51,7 @@ import java.util.Set;
  * Listen to the repository for entity changes and produce entity change notifications.
  */
 @Component
-public class NotificationEntityChangeListener implements EntityChangeListener {
+public class NotificationEntityChangeListener implements EntityChangeListener, EntityTraitsBatchListener {
 
     private final NotificationInterface notificationInterface;
     private final TypeSystem typeSystem;
@@ -93,6 +94,11 @@ public class NotificationEntityChangeListener implements EntityChangeListener {
         notifyOfEntityEvent(Collections.singleton(entity), EntityNotification.OperationType.TRAIT_ADD);
     }
 
+    @Override
+    public void onTraitsAdded(Collection<ITypedReferenceableInstance> entities, Collection<? extends IStruct> traits) throws AtlasException {
+        notifyOfEntityEvent(entities, EntityNotification.OperationType.TRAIT_ADD);
+    }
+
     @Override
     public void onTraitsDeleted(ITypedReferenceableInstance entity, Collection<String> traitNames) throws AtlasException {
         notifyOfEntityEvent(Collections.singleton(entity), EntityNotification.OperationType.TRAIT_DELETE);
@@ -25,27 +25,36 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.AtlasServiceException;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.RequestContextV1;
+import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.notification.hook.HookNotification.EntityCreateRequest;
 import org.apache.atlas.notification.hook.HookNotification.EntityDeleteRequest;
 import org.apache.atlas.notification.hook.HookNotification.EntityPartialUpdateRequest;
 import org.apache.atlas.notification.hook.HookNotification.EntityUpdateRequest;
 import org.apache.atlas.notification.hook.HookNotification.HookNotificationMessage;
+import org.apache.atlas.notification.hook.HookNotification.HookNotificationType;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v1.AtlasEntityStream;
 import org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1;
 import org.apache.atlas.service.Service;
 import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.web.filters.AuditFilter;
 import org.apache.atlas.web.service.ServiceState;
 import org.apache.atlas.web.util.DateTimeHelper;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,9 +65,16 @@ import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -71,6 +87,10 @@ import static org.apache.atlas.AtlasClientV2.*;
 @Order(4)
 public class NotificationHookConsumer implements Service, ActiveStateChangeHandler {
     private static final Logger LOG = LoggerFactory.getLogger(NotificationHookConsumer.class);
+
+    // time from a hook message being produced to its processing being committed
+    private static final AtlasPerfMetrics.Timer CONSUMPTION_LAG_TIMER = AtlasPerfMetrics.getTimer("NotificationHookConsumer.consumptionLag");
+
     private static final String LOCALHOST = "localhost";
     private static Logger FAILED_LOG = LoggerFactory.getLogger("FAILED");
 
@@ -80,6 +100,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_RETRIES_PROPERTY = "atlas.notification.hook.maxretries";
     public static final String CONSUMER_FAILEDCACHESIZE_PROPERTY = "atlas.notification.hook.failedcachesize";
     public static final String CONSUMER_RETRY_INTERVAL = "atlas.notification.consumer.retry.interval";
+    public static final String CONSUMER_BATCH_ENABLED_PROPERTY = "atlas.notification.hook.consumer.batch.enabled";
+    public static final String CONSUMER_BATCH_SIZE_PROPERTY = "atlas.notification.hook.consumer.batch.size";
+    public static final String CONSUMER_BATCH_TIMEOUT_MS_PROPERTY = "atlas.notification.hook.consumer.batch.timeout.ms";
+    public static final String CONSUMER_CONVERTER_THREADS_PROPERTY = "atlas.notification.hook.consumer.converter.threads";
 
     public static final int SERVER_READY_WAIT_TIME_MS = 1000;
     private final AtlasEntityStore atlasEntityStore;
@@ -89,9 +113,14 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final int maxRetries;
     private final int failedMsgCacheSize;
     private final int consumerRetryInterval;
+    private final boolean batchEnabled;
+    private final int batchSize;
+    private final long batchTimeoutMs;
+    private final int converterThreads;
 
     private NotificationInterface notificationInterface;
     private ExecutorService executors;
+    private ExecutorService converterExecutor;
     private Configuration applicationProperties;
     private List<HookConsumer> consumers;
 
@@ -110,7 +139,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         maxRetries = applicationProperties.getInt(CONSUMER_RETRIES_PROPERTY, 3);
         failedMsgCacheSize = applicationProperties.getInt(CONSUMER_FAILEDCACHESIZE_PROPERTY, 20);
         consumerRetryInterval = applicationProperties.getInt(CONSUMER_RETRY_INTERVAL, 500);
-
+        batchEnabled = applicationProperties.getBoolean(CONSUMER_BATCH_ENABLED_PROPERTY, false);
+        batchSize = applicationProperties.getInt(CONSUMER_BATCH_SIZE_PROPERTY, 50);
+        batchTimeoutMs = applicationProperties.getLong(CONSUMER_BATCH_TIMEOUT_MS_PROPERTY, 5000L);
+        converterThreads = applicationProperties.getInt(CONSUMER_CONVERTER_THREADS_PROPERTY, 4);
     }
 
     @Override
@@ -140,6 +172,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     new ThreadFactoryBuilder().setNameFormat(THREADNAME_PREFIX + " thread-%d").build());
         }
         executors = executorService;
+        if (batchEnabled) {
+            LOG.info("Batched hook consumption enabled: batchSize={}, batchTimeoutMs={}, converterThreads={}",
+                    batchSize, batchTimeoutMs, converterThreads);
+        }
         for (final NotificationConsumer<HookNotificationMessage> consumer : notificationConsumers) {
             HookConsumer hookConsumer = new HookConsumer(consumer);
             consumers.add(hookConsumer);
@@ -147,6 +183,15 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
     }
 
+    private synchronized ExecutorService getConverterExecutor() {
+        if (converterExecutor == null) {
+            converterExecutor = Executors.newFixedThreadPool(converterThreads,
+                    new ThreadFactoryBuilder().setNameFormat(THREADNAME_PREFIX + " converter-%d").setDaemon(true).build());
+        }
+
+        return converterExecutor;
+    }
+
     @Override
     public void stop() {
         //Allow for completion of outstanding work
@@ -159,6 +204,12 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 }
                 executors = null;
             }
+            synchronized (this) {
+                if (converterExecutor != null) {
+                    converterExecutor.shutdownNow();
+                    converterExecutor = null;
+                }
+            }
             notificationInterface.close();
         } catch (InterruptedException e) {
             LOG.error("Failure in shutting down consumers");
@@ -208,6 +259,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         private final NotificationConsumer<HookNotificationMessage> consumer;
         private final AtomicBoolean shouldRun = new AtomicBoolean(false);
         private List<HookNotificationMessage> failedMessages = new ArrayList<>();
+        private Map<AtlasObjectId, String> prefetchedGuids = new HashMap<>();
 
         public HookConsumer(NotificationConsumer<HookNotificationMessage> consumer) {
             super("atlas-hook-consumer-thread", false);
@@ -225,15 +277,165 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             while (shouldRun.get()) {
                 try {
                     List<AtlasKafkaMessage<HookNotificationMessage>> messages = consumer.receive();
-                    for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
-                        handleMessage(msg);
+
+                    prefetchPartialUpdateGuids(messages);
+
+                    if (batchEnabled) {
+                        handleMessages(messages);
+                    } else {
+                        for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
+                            handleMessage(msg);
+                        }
                     }
                 } catch (Throwable t) {
                     LOG.warn("Failure in NotificationHookConsumer", t);
+                } finally {
+                    prefetchedGuids.clear();
                 }
             }
         }
 
+        /**
+         * Handles the messages returned by a single poll in batches. Messages are grouped by partition; within a
+         * partition, consecutive create/full-update messages are converted in parallel and merged into a single
+         * entity stream, which is then persisted in one graph transaction and acknowledged with one offset commit.
+         * Other message types are batch boundaries and are handled one at a time, to preserve per-partition ordering.
+         */
+        @VisibleForTesting
+        void handleMessages(List<AtlasKafkaMessage<HookNotificationMessage>> messages) throws AtlasServiceException, AtlasException {
+            Map<Integer, List<AtlasKafkaMessage<HookNotificationMessage>>> partitionMessages = new LinkedHashMap<>();
+
+            for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
+                List<AtlasKafkaMessage<HookNotificationMessage>> list = partitionMessages.get(msg.getPartition());
+
+                if (list == null) {
+                    list = new ArrayList<>();
+
+                    partitionMessages.put(msg.getPartition(), list);
+                }
+
+                list.add(msg);
+            }
+
+            for (List<AtlasKafkaMessage<HookNotificationMessage>> list : partitionMessages.values()) {
+                handlePartitionMessages(list);
+            }
+        }
+
+        private void handlePartitionMessages(List<AtlasKafkaMessage<HookNotificationMessage>> messages) throws AtlasServiceException, AtlasException {
+            ExecutorService                                     converter   = getConverterExecutor();
+            List<Future<AtlasEntity.AtlasEntitiesWithExtInfo>> conversions = new ArrayList<>(messages.size());
+
+            for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
+                conversions.add(isBatchable(msg.getMessage()) ? converter.submit(new MessageConverter(msg.getMessage())) : null);
+            }
+
+            MessageBatch batch = new MessageBatch();
+
+            for (int i = 0; i < messages.size(); i++) {
+                AtlasKafkaMessage<HookNotificationMessage>   msg        = messages.get(i);
+                Future<AtlasEntity.AtlasEntitiesWithExtInfo> conversion = conversions.get(i);
+
+                if (conversion == null) {
+                    flushBatch(batch);
+
+                    handleMessage(msg);
+
+                    continue;
+                }
+
+                AtlasEntity.AtlasEntitiesWithExtInfo entities = getConversionResult(conversion);
+
+                if (entities == null) { // conversion failed; handleMessage() will retry and record the failure
+                    flushBatch(batch);
+
+                    handleMessage(msg);
+
+                    continue;
+                }
+
+                if (!batch.canAdd(msg, entities)) {
+                    flushBatch(batch);
+                }
+
+                batch.add(msg, entities);
+
+                if (batch.size() >= batchSize || batch.elapsedMs() >= batchTimeoutMs) {
+                    flushBatch(batch);
+                }
+            }
+
+            flushBatch(batch);
+        }
+
+        private AtlasEntity.AtlasEntitiesWithExtInfo getConversionResult(Future<AtlasEntity.AtlasEntitiesWithExtInfo> conversion) {
+            try {
+                return conversion.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                LOG.warn("Interrupted while waiting for message conversion");
+            } catch (ExecutionException e) {
+                LOG.warn("Failed to convert message", e.getCause());
+            }
+
+            return null;
+        }
+
+        private void flushBatch(MessageBatch batch) throws AtlasServiceException, AtlasException {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<AtlasKafkaMessage<HookNotificationMessage>> messages = batch.getMessages();
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("flushBatch(): {} messages, {} entities", messages.size(), batch.getEntities().getEntities().size());
+            }
+
+            boolean isSuccess = false;
+
+            try {
+                RequestContext requestContext = RequestContext.createContext();
+                requestContext.setUser(batch.getUser());
+
+                invalidatePrefetchedGuids(atlasEntityStore.createOrUpdate(new AtlasEntityStream(batch.getEntities()), false));
+
+                isSuccess = true;
+            } catch (Throwable e) {
+                LOG.warn("Failed to process batch of {} messages; retrying messages individually", messages.size(), e);
+            } finally {
+                RequestContext.clear();
+                RequestContextV1.clear();
+            }
+
+            if (isSuccess) {
+                for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
+                    auditMessage(msg.getMessage());
+                }
+
+                commit(messages.get(messages.size() - 1));
+            } else {
+                for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
+                    handleMessage(msg);
+                }
+            }
+
+            batch.clear();
+        }
+
+        private boolean isBatchable(HookNotificationMessage message) {
+            return message.getType() == HookNotificationType.ENTITY_CREATE || message.getType() == HookNotificationType.ENTITY_FULL_UPDATE;
+        }
+
+        private void auditMessage(HookNotificationMessage message) {
+            if (message.getType() == HookNotificationType.ENTITY_CREATE) {
+                audit(message.getUser(), CREATE_ENTITY.getMethod(), CREATE_ENTITY.getPath());
+            } else {
+                audit(message.getUser(), UPDATE_ENTITY.getMethod(), UPDATE_ENTITY.getPath());
+            }
+        }
+
         @VisibleForTesting
         void handleMessage(AtlasKafkaMessage<HookNotificationMessage> kafkaMsg) throws AtlasServiceException, AtlasException {
             HookNotificationMessage message = kafkaMsg.getMessage();
@@ -258,7 +460,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                             entities = instanceConverter.toAtlasEntities(createRequest.getEntities());
 
-                            atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), false);
+                            invalidatePrefetchedGuids(atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), false));
                             break;
 
                         case ENTITY_PARTIAL_UPDATE:
@@ -272,17 +474,12 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                             Referenceable referenceable = partialUpdateRequest.getEntity();
                             entities = instanceConverter.toAtlasEntity(referenceable);
 
-                            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(partialUpdateRequest.getTypeName());
-                            String guid = AtlasGraphUtilsV1.getGuidByUniqueAttributes(entityType, new HashMap<String, Object>() {
-                                {
-                                    put(partialUpdateRequest.getAttribute(), partialUpdateRequest.getAttributeValue());
-                                }
-                            });
+                            String guid = getGuidByUniqueAttribute(partialUpdateRequest);
 
                             // There should only be one root entity
                             entities.getEntities().get(0).setGuid(guid);
 
-                            atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), true);
+                            invalidatePrefetchedGuids(atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), true));
                             break;
 
                         case ENTITY_DELETE:
@@ -295,10 +492,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                             try {
                                 AtlasEntityType type = (AtlasEntityType) typeRegistry.getType(deleteRequest.getTypeName());
-                                atlasEntityStore.deleteByUniqueAttributes(type,
+                                invalidatePrefetchedGuids(atlasEntityStore.deleteByUniqueAttributes(type,
                                         new HashMap<String, Object>() {{
                                             put(deleteRequest.getAttribute(), deleteRequest.getAttributeValue());
-                                        }});
+                                        }}));
                             } catch (ClassCastException cle) {
                                 LOG.error("Failed to do a partial update on Entity");
                             }
@@ -312,7 +509,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                             }
 
                             entities = instanceConverter.toAtlasEntities(updateRequest.getEntities());
-                            atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), false);
+                            invalidatePrefetchedGuids(atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), false));
                             break;
 
                         default:
@@ -345,6 +542,84 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             commit(kafkaMsg);
         }
 
+        /**
+         * Looks up, with one query per type and attribute, the guids of entities to be updated by partial-update
+         * messages. The lookup is done before any message of the poll is handled; as messages are handled, the guids of
+         * the entities they modify are dropped (see invalidatePrefetchedGuids()), so that a message never uses a guid
+         * prefetched before an earlier message renamed, or deleted, that entity.
+         */
+        @VisibleForTesting
+        void prefetchPartialUpdateGuids(List<AtlasKafkaMessage<HookNotificationMessage>> messages) {
+            List<AtlasObjectId> objIds = new ArrayList<>();
+
+            for (AtlasKafkaMessage<HookNotificationMessage> msg : messages) {
+                HookNotificationMessage message = msg.getMessage();
+
+                if (message.getType() == HookNotificationType.ENTITY_PARTIAL_UPDATE) {
+                    objIds.add(getObjectId((EntityPartialUpdateRequest) message));
+                }
+            }
+
+            if (objIds.size() < 2) { // nothing to gain over the lookup in handleMessage()
+                return;
+            }
+
+            try {
+                Map<AtlasObjectId, AtlasVertex> vertices = AtlasGraphUtilsV1.findByUniqueAttributes(typeRegistry, objIds);
+
+                for (Map.Entry<AtlasObjectId, AtlasVertex> entry : vertices.entrySet()) {
+                    prefetchedGuids.put(entry.getKey(), AtlasGraphUtilsV1.getIdFromVertex(entry.getValue()));
+                }
+            } catch (Throwable t) {
+                LOG.warn("Failed to prefetch guids for partial-update messages; will look up individually", t);
+            }
+        }
+
+        /**
+         * Drops the prefetched guids of the entities created, updated or deleted by a message; the unique attributes
+         * of these entities may have changed since they were prefetched.
+         */
+        @VisibleForTesting
+        void invalidatePrefetchedGuids(EntityMutationResponse response) {
+            if (prefetchedGuids.isEmpty() || response == null || response.getMutatedEntities() == null) {
+                return;
+            }
+
+            Set<String> mutatedGuids = new HashSet<>();
+
+            for (List<AtlasEntityHeader> headers : response.getMutatedEntities().values()) {
+                if (headers != null) {
+                    for (AtlasEntityHeader header : headers) {
+                        mutatedGuids.add(header.getGuid());
+                    }
+                }
+            }
+
+            prefetchedGuids.values().removeAll(mutatedGuids);
+        }
+
+        @VisibleForTesting
+        Map<AtlasObjectId, String> getPrefetchedGuids() {
+            return prefetchedGuids;
+        }
+
+        private String getGuidByUniqueAttribute(EntityPartialUpdateRequest request) throws AtlasBaseException {
+            AtlasObjectId objId = getObjectId(request);
+            String        ret   = prefetchedGuids.get(objId);
+
+            if (ret == null) {
+                AtlasEntityType entityType = typeRegistry.getEntityTypeByName(request.getTypeName());
+
+                ret = AtlasGraphUtilsV1.getGuidByUniqueAttributes(entityType, objId.getUniqueAttributes());
+            }
+
+            return ret;
+        }
+
+        private AtlasObjectId getObjectId(EntityPartialUpdateRequest request) {
+            return new AtlasObjectId(request.getTypeName(), request.getAttribute(), request.getAttributeValue());
+        }
+
         private void recordFailedMessages() {
             //logging failed messages
             for (HookNotificationMessage message : failedMessages) {
@@ -357,6 +632,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             recordFailedMessages();
             TopicPartition partition = new TopicPartition("ATLAS_HOOK", kafkaMessage.getPartition());
             consumer.commit(partition, kafkaMessage.getOffset());
+
+            if (kafkaMessage.getTimestamp() > 0) {
+                CONSUMPTION_LAG_TIMER.record(System.currentTimeMillis() - kafkaMessage.getTimestamp(), TimeUnit.MILLISECONDS);
+            }
         }
 
         boolean serverAvailable(Timer timer) {
@@ -391,6 +670,124 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
     }
 
+    private class MessageConverter implements Callable<AtlasEntity.AtlasEntitiesWithExtInfo> {
+        private final HookNotificationMessage message;
+
+        MessageConverter(HookNotificationMessage message) {
+            this.message = message;
+        }
+
+        @Override
+        public AtlasEntity.AtlasEntitiesWithExtInfo call() throws AtlasBaseException {
+            // EntityUpdateRequest extends EntityCreateRequest
+            return instanceConverter.toAtlasEntities(((EntityCreateRequest) message).getEntities());
+        }
+    }
+
+    /**
+     * Consecutive messages from a partition, merged into one set of entities. A message is not added to a batch when
+     * it was sent by a different user or when one of its entities (by guid or unique attributes) is already present
+     * in the batch: such entities must be resolved against the results of the earlier message, not created twice.
+     */
+    private class MessageBatch {
+        private final List<AtlasKafkaMessage<HookNotificationMessage>> messages = new ArrayList<>();
+        private final Set<String>                                      keys     = new HashSet<>();
+        private AtlasEntity.AtlasEntitiesWithExtInfo                   entities = new AtlasEntity.AtlasEntitiesWithExtInfo();
+        private long                                                   startTime;
+
+        boolean canAdd(AtlasKafkaMessage<HookNotificationMessage> msg, AtlasEntity.AtlasEntitiesWithExtInfo toAdd) {
+            if (messages.isEmpty()) {
+                return true;
+            }
+
+            if (!StringUtils.equals(getUser(), msg.getMessage().getUser())) {
+                return false;
+            }
+
+            for (String key : getEntityKeys(toAdd)) {
+                if (keys.contains(key)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void add(AtlasKafkaMessage<HookNotificationMessage> msg, AtlasEntity.AtlasEntitiesWithExtInfo toAdd) {
+            if (messages.isEmpty()) {
+                startTime = System.currentTimeMillis();
+            }
+
+            messages.add(msg);
+            keys.addAll(getEntityKeys(toAdd));
+
+            if (toAdd.getEntities() != null) {
+                for (AtlasEntity entity : toAdd.getEntities()) {
+                    entities.addEntity(entity);
+                }
+            }
+
+            if (toAdd.getReferredEntities() != null) {
+                for (AtlasEntity entity : toAdd.getReferredEntities().values()) {
+                    entities.addReferredEntity(entity);
+                }
+            }
+        }
+
+        List<AtlasKafkaMessage<HookNotificationMessage>> getMessages() { return messages; }
+
+        AtlasEntity.AtlasEntitiesWithExtInfo getEntities() { return entities; }
+
+        String getUser() { return messages.isEmpty() ? null : messages.get(0).getMessage().getUser(); }
+
+        int size() { return messages.size(); }
+
+        boolean isEmpty() { return messages.isEmpty(); }
+
+        long elapsedMs() { return System.currentTimeMillis() - startTime; }
+
+        void clear() {
+            messages.clear();
+            keys.clear();
+
+            entities = new AtlasEntity.AtlasEntitiesWithExtInfo();
+        }
+
+        private Set<String> getEntityKeys(AtlasEntity.AtlasEntitiesWithExtInfo toAdd) {
+            Set<String> ret = new HashSet<>();
+
+            if (toAdd.getEntities() != null) {
+                for (AtlasEntity entity : toAdd.getEntities()) {
+                    addEntityKeys(entity, ret);
+                }
+            }
+
+            if (toAdd.getReferredEntities() != null) {
+                for (AtlasEntity entity : toAdd.getReferredEntities().values()) {
+                    addEntityKeys(entity, ret);
+                }
+            }
+
+            return ret;
+        }
+
+        private void addEntityKeys(AtlasEntity entity, Set<String> keys) {
+            keys.add(entity.getGuid());
+
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
+
+            if (entityType != null) {
+                for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                    Object value = entity.getAttribute(attribute.getName());
+
+                    if (value != null) {
+                        keys.add(entity.getTypeName() + "." + attribute.getName() + "=" + value);
+                    }
+                }
+            }
+        }
+    }
+
     private void audit(String messageUser, String method, String path) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("==> audit({},{}, {})", messageUser, method, path);
@@ -32,13 +32,19 @@ import org.apache.atlas.model.impexp.AtlasExportResult;
 import org.apache.atlas.model.impexp.AtlasImportRequest;
 import org.apache.atlas.model.impexp.AtlasImportResult;
 import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.model.tasks.AtlasTask;
 import org.apache.atlas.repository.impexp.ExportService;
+import org.apache.atlas.repository.impexp.ExportTaskHandler;
+import org.apache.atlas.repository.impexp.ImportExportLock;
 import org.apache.atlas.repository.impexp.ImportService;
+import org.apache.atlas.repository.impexp.ImportTaskHandler;
 import org.apache.atlas.repository.impexp.ZipSink;
 import org.apache.atlas.repository.impexp.ZipSource;
 import org.apache.atlas.services.MetricsService;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.util.SearchTracker;
+import org.apache.atlas.utils.AtlasPerfMetrics;
 import org.apache.atlas.web.filters.AtlasCSRFPreventionFilter;
 import org.apache.atlas.web.service.ServiceState;
 import org.apache.atlas.web.util.Servlets;
@@ -71,12 +77,14 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
@@ -94,7 +102,7 @@ public class AdminResource {
     @Context
     private HttpServletResponse httpServletResponse;
 
-    private final ReentrantLock importExportOperationLock;
+    private final ImportExportLock importExportOperationLock;
 
     private static final String isCSRF_ENABLED = "atlas.rest-csrf.enabled";
     private static final String BROWSER_USER_AGENT_PARAM = "atlas.rest-csrf.browser-useragents-regex";
@@ -113,6 +121,9 @@ public class AdminResource {
     private final ExportService exportService;
     private final ImportService importService;
     private final SearchTracker activeSearches;
+    private final TaskManagement    taskManagement;
+    private final ExportTaskHandler exportTaskHandler;
+    private final ImportTaskHandler importTaskHandler;
 
     static {
         try {
@@ -124,13 +135,18 @@ public class AdminResource {
 
     @Inject
     public AdminResource(ServiceState serviceState, MetricsService metricsService,
-                         ExportService exportService, ImportService importService, SearchTracker activeSearches) {
+                         ExportService exportService, ImportService importService, SearchTracker activeSearches,
+                         TaskManagement taskManagement, ExportTaskHandler exportTaskHandler, ImportTaskHandler importTaskHandler,
+                         ImportExportLock importExportOperationLock) {
         this.serviceState               = serviceState;
         this.metricsService             = metricsService;
         this.exportService = exportService;
         this.importService = importService;
         this.activeSearches = activeSearches;
-        importExportOperationLock = new ReentrantLock();
+        this.taskManagement    = taskManagement;
+        this.exportTaskHandler = exportTaskHandler;
+        this.importTaskHandler = importTaskHandler;
+        this.importExportOperationLock = importExportOperationLock;
     }
 
     /**
@@ -307,8 +323,40 @@ public class AdminResource {
         return metrics;
     }
 
+    /**
+     * Latency statistics of the operations timed in this server, in milliseconds.
+     *
+     * @return statistics of each timer, by timer name
+     */
+    @GET
+    @Path("perfmetrics")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, AtlasPerfMetrics.TimerStats> getPerfMetrics() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.getPerfMetrics()");
+        }
+
+        Map<String, AtlasPerfMetrics.TimerStats> ret = AtlasPerfMetrics.getTimerStats();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.getPerfMetrics()");
+        }
+
+        return ret;
+    }
+
+    /**
+     * Clears the latency statistics of all timers.
+     */
+    @DELETE
+    @Path("perfmetrics")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public void resetPerfMetrics() {
+        AtlasPerfMetrics.reset();
+    }
+
     private void releaseExportImportLock() {
-        importExportOperationLock.unlock();
+        importExportOperationLock.release();
     }
 
     @POST
@@ -427,6 +475,130 @@ public class AdminResource {
         return result;
     }
 
+    /**
+     * Exports entities in the background, into a zip file that can be downloaded from export/async/{guid} once the
+     * task completes.
+     *
+     * @return the submitted task
+     */
+    @POST
+    @Path("/export/async")
+    @Consumes(Servlets.JSON_MEDIA_TYPE)
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask exportAsync(AtlasExportRequest request) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.exportAsync()");
+        }
+
+        AtlasTask ret = exportTaskHandler.submit(request, Servlets.getHostName(httpServletRequest),
+                                                 AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.exportAsync(): {}", ret);
+        }
+
+        return ret;
+    }
+
+    @GET
+    @Path("/export/async/{guid}")
+    @Produces("application/zip")
+    public Response getExportFile(@PathParam("guid") String guid) throws AtlasBaseException {
+        File file = exportTaskHandler.getExportFile(guid);
+
+        return Response.ok(file).header("Content-Disposition", "attachment; filename=" + file.getName()).build();
+    }
+
+    /**
+     * Imports the uploaded zip in the background.
+     *
+     * @return the submitted task
+     */
+    @POST
+    @Path("/import/async")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    public AtlasTask importDataAsync(@FormDataParam("request") String jsonData,
+                                     @FormDataParam("data") InputStream inputStream) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.importDataAsync(jsonData={}, inputStream={})", jsonData, (inputStream != null));
+        }
+
+        if (inputStream == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "data parameter not found");
+        }
+
+        if (StringUtils.isEmpty(jsonData)) {
+            jsonData = "{}";
+        }
+
+        AtlasImportRequest request = AtlasType.fromJson(jsonData, AtlasImportRequest.class);
+        AtlasTask          ret     = importTaskHandler.submit(inputStream, request, Servlets.getHostName(httpServletRequest),
+                                                              AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.importDataAsync(): {}", ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Imports a zip file on the server in the background.
+     *
+     * @return the submitted task
+     */
+    @POST
+    @Path("/importfile/async")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask importFileAsync(String jsonData) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> AdminResource.importFileAsync()");
+        }
+
+        AtlasImportRequest request = AtlasType.fromJson(jsonData, AtlasImportRequest.class);
+        AtlasTask          ret     = importTaskHandler.submit(request, Servlets.getHostName(httpServletRequest),
+                                                              AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== AdminResource.importFileAsync(): {}", ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Tasks executed in the background: exports, imports, bulk deletes and bulk classifications.
+     *
+     * @param statuses statuses of the tasks to return; all tasks if not given
+     * @return the tasks, most recently created first
+     */
+    @GET
+    @Path("tasks")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public List<AtlasTask> getTasks(@QueryParam("status") List<AtlasTask.Status> statuses) {
+        return taskManagement.getTasks(statuses);
+    }
+
+    @GET
+    @Path("tasks/{guid}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask getTask(@PathParam("guid") String guid) throws AtlasBaseException {
+        return taskManagement.getTask(guid);
+    }
+
+    /**
+     * Cancels a task. A task in progress stops at its next checkpoint.
+     *
+     * @return the task
+     */
+    @DELETE
+    @Path("tasks/{guid}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask cancelTask(@PathParam("guid") String guid) throws AtlasBaseException {
+        return taskManagement.cancelTask(guid);
+    }
+
     @GET
     @Path("activeSearches")
     @Produces(Servlets.JSON_MEDIA_TYPE)
@@ -469,13 +641,6 @@ public class AdminResource {
     }
 
     private void acquireExportImportLock(String activity) throws AtlasBaseException {
-        boolean alreadyLocked = importExportOperationLock.isLocked();
-        if (alreadyLocked) {
-            LOG.warn("Another export or import is currently in progress..aborting this " + activity, Thread.currentThread().getName());
-
-            throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_IMPORT_EXPORT_LOCK);
-        }
-
-        importExportOperationLock.lock();
+        importExportOperationLock.acquire(activity);
     }
 }
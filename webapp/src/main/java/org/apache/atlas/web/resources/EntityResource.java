@@ -1184,6 +1184,65 @@ public class EntityResource {
         }
     }
 
+    /**
+     * Returns the audit events that match the given criteria, in the decreasing order of timestamp.
+     * @param guids entity ids; if not given, events of all entities are returned, and fromTime is required
+     * @param fromTime start of the time range in milliseconds, inclusive
+     * @param toTime end of the time range in milliseconds, exclusive; 0 for no end
+     * @param user user of the events
+     * @param actions actions of the events
+     * @param count number of events required; per entity, if entity ids are given
+     * @return
+     */
+    @GET
+    @Path("audit")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response searchAuditEvents(@QueryParam("guid") List<String> guids, @QueryParam("fromTime") @DefaultValue("0") long fromTime,
+                                      @QueryParam("toTime") @DefaultValue("0") long toTime, @QueryParam("user") String user,
+                                      @QueryParam("action") List<String> actions, @QueryParam("count") @DefaultValue("100") short count) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> EntityResource.searchAuditEvents({}, {}, {}, {}, {}, {})", guids, fromTime, toTime, user, actions, count);
+        }
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityResource.searchAuditEvents(" + fromTime + ", " + toTime + ", " + count + ")");
+            }
+
+            List<EntityAuditEvent.EntityAuditAction> auditActions = new ArrayList<>();
+
+            if (actions != null) {
+                for (String action : actions) {
+                    auditActions.add(EntityAuditEvent.EntityAuditAction.valueOf(action));
+                }
+            }
+
+            List<EntityAuditEvent> events = metadataService.searchAuditEvents(guids, fromTime, toTime, user, auditActions, count);
+
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put(AtlasClient.EVENTS, getJSONArray(events));
+            return Response.ok(response).build();
+        } catch (IllegalArgumentException e) {
+            LOG.error("Unable to search audit events guids={} fromTime={} toTime={}", guids, fromTime, toTime, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        } catch (WebApplicationException e) {
+            LOG.error("Unable to search audit events guids={} fromTime={} toTime={}", guids, fromTime, toTime, e);
+            throw e;
+        } catch (Throwable e) {
+            LOG.error("Unable to search audit events guids={} fromTime={} toTime={}", guids, fromTime, toTime, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("<== EntityResource.searchAuditEvents({}, {}, {})", guids, fromTime, toTime);
+            }
+        }
+    }
+
     private <T> JSONArray getJSONArray(Collection<T> elements) throws JSONException {
         JSONArray jsonArray = new JSONArray();
         for(T element : elements) {
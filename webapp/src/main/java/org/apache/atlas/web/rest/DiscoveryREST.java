@@ -217,7 +217,8 @@ public class DiscoveryREST {
     }
 
     /**
-     * Attribute based search for entities satisfying the search parameters
+     * Attribute based search for entities satisfying the search parameters. To fetch the next page of results, repeat
+     * the search with continuationToken set to the continuationToken of the result; the result of the last page has none
      * @param parameters Search parameters
      * @return Atlas search result
      * @throws AtlasBaseException
@@ -25,9 +25,12 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.ClassificationAssociateRequest;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.tasks.AtlasTask;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v1.AtlasEntityStream;
+import org.apache.atlas.repository.store.graph.v1.BulkClassificationService;
+import org.apache.atlas.repository.store.graph.v1.BulkDeleteService;
 import org.apache.atlas.repository.store.graph.v1.EntityStream;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
@@ -73,11 +76,16 @@ public class EntityREST {
 
     private final AtlasTypeRegistry         typeRegistry;
     private final AtlasEntityStore          entitiesStore;
+    private final BulkClassificationService bulkClassificationService;
+    private final BulkDeleteService         bulkDeleteService;
 
     @Inject
-    public EntityREST(AtlasTypeRegistry typeRegistry, AtlasEntityStore entitiesStore) {
-        this.typeRegistry    = typeRegistry;
-        this.entitiesStore   = entitiesStore;
+    public EntityREST(AtlasTypeRegistry typeRegistry, AtlasEntityStore entitiesStore, BulkClassificationService bulkClassificationService,
+                      BulkDeleteService bulkDeleteService) {
+        this.typeRegistry              = typeRegistry;
+        this.entitiesStore             = entitiesStore;
+        this.bulkClassificationService = bulkClassificationService;
+        this.bulkDeleteService         = bulkDeleteService;
     }
 
     /**
@@ -478,6 +486,29 @@ public class EntityREST {
         }
     }
 
+    /**
+     * Bulk API to delete a large number of entities, in the background
+     * @param guids List of guids of the entities to delete
+     * @return the submitted task
+     */
+    @DELETE
+    @Path("/bulk/async")
+    @Consumes(Servlets.JSON_MEDIA_TYPE)
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask deleteByGuidsAsync(@QueryParam("guid") final List<String> guids) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.deleteByGuidsAsync(" + guids  + ")");
+            }
+
+            return bulkDeleteService.submit(guids);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     /**
      * Bulk API to associate a tag to multiple entities
      */
@@ -510,6 +541,50 @@ public class EntityREST {
         }
     }
 
+    /**
+     * Bulk API to associate a tag to a large number of entities, in the background
+     * @return the submitted task
+     */
+    @POST
+    @Path("/bulk/classification/async")
+    @Consumes({Servlets.JSON_MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask addClassificationAsync(ClassificationAssociateRequest request) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.addClassificationAsync(" + request  + ")");
+            }
+
+            return bulkClassificationService.submit(request);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Fetch the status of a bulk classification task
+     * @param guid guid of the task, as returned by addClassificationAsync()
+     * @return status of the task
+     */
+    @GET
+    @Path("/bulk/classification/async/{guid}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask getClassificationTask(@PathParam("guid") String guid) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getClassificationTask(" + guid + ")");
+            }
+
+            return bulkClassificationService.getTask(guid);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     private AtlasEntityType ensureEntityType(String typeName) throws AtlasBaseException {
         AtlasEntityType ret = typeRegistry.getEntityTypeByName(typeName);
 
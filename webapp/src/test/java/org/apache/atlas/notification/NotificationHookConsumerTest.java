@@ -23,7 +23,10 @@ import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.instance.EntityMutations.EntityOperation;
 import org.apache.atlas.notification.hook.HookNotification;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
@@ -40,10 +43,14 @@ import org.testng.annotations.Test;
 import org.apache.kafka.common.TopicPartition;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import static org.mockito.Mockito.*;
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -146,6 +153,75 @@ public class NotificationHookConsumerTest {
         verifyZeroInteractions(consumer);
     }
 
+    @Test
+    public void testBatchIsCommittedOnceForConsecutiveMessages() throws AtlasServiceException, AtlasException, AtlasBaseException {
+        NotificationHookConsumer notificationHookConsumer =
+                new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
+        NotificationConsumer consumer = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer =
+                notificationHookConsumer.new HookConsumer(consumer);
+        List<AtlasKafkaMessage<HookNotification.HookNotificationMessage>> messages = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            HookNotification.EntityCreateRequest message = new HookNotification.EntityCreateRequest("user",
+                    new ArrayList<Referenceable>() {
+                { add(mock(Referenceable.class)); }
+            });
+
+            messages.add(new AtlasKafkaMessage(message, i, 0));
+        }
+
+        hookConsumer.handleMessages(messages);
+
+        verify(atlasEntityStore, times(1)).createOrUpdate(any(EntityStream.class), anyBoolean());
+        verify(consumer, times(1)).commit(new TopicPartition("ATLAS_HOOK", 0), 2);
+    }
+
+    @Test
+    public void testBatchIsNotCommittedWhenBatchAndRetriesFail() throws AtlasServiceException, AtlasException, AtlasBaseException {
+        NotificationHookConsumer notificationHookConsumer =
+                new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
+        NotificationConsumer consumer = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer =
+                notificationHookConsumer.new HookConsumer(consumer);
+        HookNotification.EntityCreateRequest message = new HookNotification.EntityCreateRequest("user",
+                new ArrayList<Referenceable>() {
+            { add(mock(Referenceable.class)); }
+        });
+        when(atlasEntityStore.createOrUpdate(any(EntityStream.class), anyBoolean())).thenThrow(new RuntimeException("Simulating exception in processing message"));
+
+        List<AtlasKafkaMessage<HookNotification.HookNotificationMessage>> messages = new ArrayList<>();
+        messages.add(new AtlasKafkaMessage(message, 0, 0));
+        messages.add(new AtlasKafkaMessage(message, 1, 0));
+
+        hookConsumer.handleMessages(messages);
+
+        verifyZeroInteractions(consumer);
+    }
+
+    @Test
+    public void testPrefetchedGuidsOfMutatedEntitiesAreDropped() {
+        NotificationHookConsumer notificationHookConsumer =
+                new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
+        NotificationHookConsumer.HookConsumer hookConsumer = notificationHookConsumer.new HookConsumer(mock(NotificationConsumer.class));
+        AtlasObjectId renamedTable   = new AtlasObjectId("hive_table", "qualifiedName", "db.t1@cl1");
+        AtlasObjectId unchangedTable = new AtlasObjectId("hive_table", "qualifiedName", "db.t2@cl1");
+
+        hookConsumer.getPrefetchedGuids().put(renamedTable, "guid-1");
+        hookConsumer.getPrefetchedGuids().put(unchangedTable, "guid-2");
+
+        // an earlier message of the poll updated (for example renamed) the entity with guid-1
+        Map<EntityOperation, List<AtlasEntityHeader>> mutatedEntities = new HashMap<>();
+        AtlasEntityHeader                             header          = new AtlasEntityHeader("hive_table");
+
+        header.setGuid("guid-1");
+        mutatedEntities.put(EntityOperation.UPDATE, Collections.singletonList(header));
+
+        hookConsumer.invalidatePrefetchedGuids(new EntityMutationResponse(mutatedEntities));
+
+        assertEquals(Collections.singletonMap(unchangedTable, "guid-2"), hookConsumer.getPrefetchedGuids());
+    }
+
     @Test
     public void testConsumerProceedsWithFalseIfInterrupted() throws Exception {
         NotificationHookConsumer notificationHookConsumer = new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);